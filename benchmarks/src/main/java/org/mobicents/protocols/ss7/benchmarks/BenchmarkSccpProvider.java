@@ -0,0 +1,100 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.io.IOException;
+
+import org.mobicents.protocols.ss7.sccp.SccpListener;
+import org.mobicents.protocols.ss7.sccp.SccpManagementEventListener;
+import org.mobicents.protocols.ss7.sccp.SccpProvider;
+import org.mobicents.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.mobicents.protocols.ss7.sccp.message.MessageFactory;
+import org.mobicents.protocols.ss7.sccp.message.SccpDataMessage;
+import org.mobicents.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * SccpProvider a TCAP stack is benchmarked on: incoming messages are fed directly into the registered SccpListener and
+ * outgoing messages are only counted, so that no SCCP / M3UA work is measured.
+ */
+public class BenchmarkSccpProvider implements SccpProvider {
+
+    private final MessageFactory messageFactory;
+    private final ParameterFactory parameterFactory;
+
+    private SccpListener sccpListener;
+    private long sentCount;
+
+    public BenchmarkSccpProvider(String name) {
+        SccpStackImpl stack = new SccpStackImpl(name);
+        this.messageFactory = stack.getSccpProvider().getMessageFactory();
+        this.parameterFactory = stack.getSccpProvider().getParameterFactory();
+    }
+
+    public SccpListener getSccpListener() {
+        return sccpListener;
+    }
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    @Override
+    public MessageFactory getMessageFactory() {
+        return messageFactory;
+    }
+
+    @Override
+    public ParameterFactory getParameterFactory() {
+        return parameterFactory;
+    }
+
+    @Override
+    public void registerSccpListener(int ssn, SccpListener listener) {
+        this.sccpListener = listener;
+    }
+
+    @Override
+    public void deregisterSccpListener(int ssn) {
+        this.sccpListener = null;
+    }
+
+    @Override
+    public void registerManagementEventListener(SccpManagementEventListener listener) {
+    }
+
+    @Override
+    public void deregisterManagementEventListener(SccpManagementEventListener listener) {
+    }
+
+    @Override
+    public void send(SccpDataMessage message) throws IOException {
+        this.sentCount++;
+    }
+
+    @Override
+    public int getMaxUserDataLength(SccpAddress calledPartyAddress, SccpAddress callingPartyAddress, int msgNetworkId) {
+        return 248;
+    }
+
+}
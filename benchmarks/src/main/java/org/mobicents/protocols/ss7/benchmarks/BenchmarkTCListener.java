@@ -0,0 +1,81 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import org.mobicents.protocols.ss7.tcap.api.TCListener;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCBeginIndication;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCContinueIndication;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCEndIndication;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCNoticeIndication;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCPAbortIndication;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCUniIndication;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCUserAbortIndication;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Invoke;
+
+/**
+ * TCListener that ignores all events. Benchmarks override the handlers they need.
+ */
+public class BenchmarkTCListener implements TCListener {
+
+    @Override
+    public void onTCUni(TCUniIndication ind) {
+    }
+
+    @Override
+    public void onTCBegin(TCBeginIndication ind) {
+    }
+
+    @Override
+    public void onTCContinue(TCContinueIndication ind) {
+    }
+
+    @Override
+    public void onTCEnd(TCEndIndication ind) {
+    }
+
+    @Override
+    public void onTCUserAbort(TCUserAbortIndication ind) {
+    }
+
+    @Override
+    public void onTCPAbort(TCPAbortIndication ind) {
+    }
+
+    @Override
+    public void onTCNotice(TCNoticeIndication ind) {
+    }
+
+    @Override
+    public void onDialogReleased(Dialog d) {
+    }
+
+    @Override
+    public void onInvokeTimeout(Invoke tcInvokeRequest) {
+    }
+
+    @Override
+    public void onDialogTimeout(Dialog d) {
+    }
+
+}
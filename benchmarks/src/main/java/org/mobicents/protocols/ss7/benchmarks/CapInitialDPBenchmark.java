@@ -0,0 +1,82 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.mobicents.protocols.ss7.cap.service.circuitSwitchedCall.InitialDPRequestImpl;
+import org.mobicents.protocols.ss7.isup.message.parameter.CalledPartyNumber;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CAP InitialDP request decoding (including the ISUP CalledPartyNumber an SCF service logic reads first) and encoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CapInitialDPBenchmark {
+
+    private byte[] initialDp;
+    private InitialDPRequestImpl initialDpMessage;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.initialDp = Payloads.load(Payloads.CAP_IDP);
+        this.initialDpMessage = this.decodeInitialDp();
+    }
+
+    private InitialDPRequestImpl decodeInitialDp() throws Exception {
+        AsnInputStream ais = new AsnInputStream(this.initialDp);
+        ais.readTag();
+        InitialDPRequestImpl elem = new InitialDPRequestImpl(false);
+        elem.decodeAll(ais);
+        return elem;
+    }
+
+    @Benchmark
+    public CalledPartyNumber decode() throws Exception {
+        return this.decodeInitialDp().getCalledPartyNumber().getCalledPartyNumber();
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        AsnOutputStream aos = new AsnOutputStream();
+        this.initialDpMessage.encodeAll(aos);
+        return aos.toByteArray();
+    }
+
+}
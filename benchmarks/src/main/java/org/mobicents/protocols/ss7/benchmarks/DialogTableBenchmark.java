@@ -0,0 +1,138 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.tcap.DialogIdAllocator;
+import org.mobicents.protocols.ss7.tcap.StripedLongMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TCAP dialog table with dialogCount active dialogs: lookup of a dialog by transaction id (TC-CONTINUE / TC-END) and a
+ * dialog creation + release cycle. The StripedLongMap + DialogIdAllocator pair that TCAPProviderImpl uses is compared with
+ * the former synchronized FastMap&lt;Long, DialogImpl&gt; with a linearly probed dialog id. The table is shared, run with
+ * "-t N" to measure it under contention.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class DialogTableBenchmark {
+
+    private static final long RANGE_START = 1;
+    private static final long RANGE_END = Integer.MAX_VALUE;
+
+    @Param({ "10000", "100000", "1000000" })
+    public int dialogCount;
+
+    private final Object dialog = new Object();
+
+    private StripedLongMap<Object> striped;
+    private DialogIdAllocator allocator;
+
+    private FastMap<Long, Object> fastMap;
+    private long curDialogId;
+
+    @Setup
+    public void setUp() {
+        this.striped = new StripedLongMap<Object>();
+        this.allocator = new DialogIdAllocator(this.dialogCount);
+        this.fastMap = new FastMap<Long, Object>();
+        for (long id = RANGE_START; id < RANGE_START + this.dialogCount; id++) {
+            this.allocator.allocate(id);
+            this.striped.put(id, this.dialog);
+            this.fastMap.put(id, this.dialog);
+        }
+        this.curDialogId = RANGE_START + this.dialogCount - 1;
+    }
+
+    @State(Scope.Thread)
+    public static class Keys {
+        private long seed = System.nanoTime() | 1;
+
+        long next(int dialogCount) {
+            // xorshift, cheaper than Random and free of shared state
+            seed ^= seed << 13;
+            seed ^= seed >>> 7;
+            seed ^= seed << 17;
+            return RANGE_START + ((seed >>> 1) % dialogCount);
+        }
+    }
+
+    @Benchmark
+    public Object stripedLookup(Keys keys) {
+        return this.striped.get(keys.next(this.dialogCount));
+    }
+
+    @Benchmark
+    public long stripedCreateRelease() {
+        long id = this.allocator.allocate(RANGE_START, RANGE_END);
+        this.striped.putIfAbsent(id, this.dialog);
+        this.striped.remove(id);
+        this.allocator.release(id);
+        return id;
+    }
+
+    @Benchmark
+    public Object fastMapLookup(Keys keys) {
+        Long id = keys.next(this.dialogCount);
+        synchronized (this.fastMap) {
+            return this.fastMap.get(id);
+        }
+    }
+
+    @Benchmark
+    public long fastMapCreateRelease() {
+        Long id;
+        synchronized (this.fastMap) {
+            while (true) {
+                if (++this.curDialogId > RANGE_END)
+                    this.curDialogId = RANGE_START;
+                id = this.curDialogId;
+                if (!this.fastMap.containsKey(id))
+                    break;
+            }
+            this.fastMap.put(id, this.dialog);
+        }
+        synchronized (this.fastMap) {
+            this.fastMap.remove(id);
+        }
+        return id;
+    }
+
+}
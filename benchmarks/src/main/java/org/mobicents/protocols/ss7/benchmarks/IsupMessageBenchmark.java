@@ -0,0 +1,101 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.ss7.isup.ISUPMessageFactory;
+import org.mobicents.protocols.ss7.isup.ISUPParameterFactory;
+import org.mobicents.protocols.ss7.isup.impl.message.AbstractISUPMessage;
+import org.mobicents.protocols.ss7.isup.impl.message.ISUPMessageFactoryImpl;
+import org.mobicents.protocols.ss7.isup.impl.message.parameter.ISUPParameterFactoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ISUP IAM / ACM / ANM / REL decoding as ISUPStackImpl.onMtp3TransferMessage() does it and encoding. encode() is the
+ * byte[] result encoding, encodeStream() encodes into a reused ByteArrayOutputStream and encodeBuffer() encodes into a reused
+ * ByteBuffer as Circuit does before sending.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IsupMessageBenchmark {
+
+    private final ISUPParameterFactory parameterFactory = new ISUPParameterFactoryImpl();
+    private final ISUPMessageFactory messageFactory = new ISUPMessageFactoryImpl(parameterFactory);
+
+    @Param({ Payloads.ISUP_IAM, Payloads.ISUP_ACM, Payloads.ISUP_ANM, Payloads.ISUP_REL })
+    public String message;
+
+    private byte[] data;
+    private AbstractISUPMessage decodedMessage;
+
+    private final ByteArrayOutputStream bos = new ByteArrayOutputStream(300);
+    private final ByteBuffer bb = ByteBuffer.allocate(4096);
+
+    @Setup
+    public void setUp() throws Exception {
+        this.data = Payloads.load(this.message);
+        this.decodedMessage = this.decode();
+    }
+
+    @Benchmark
+    public AbstractISUPMessage decode() throws Exception {
+        AbstractISUPMessage msg = (AbstractISUPMessage) this.messageFactory.createCommand(this.data[2]);
+        msg.decode(this.data, this.messageFactory, this.parameterFactory);
+        return msg;
+    }
+
+    @Benchmark
+    public byte[] encode() throws Exception {
+        return this.decodedMessage.encode();
+    }
+
+    @Benchmark
+    public int encodeStream() throws Exception {
+        this.bos.reset();
+        return this.decodedMessage.encode(this.bos);
+    }
+
+    @Benchmark
+    public int encodeBuffer() throws Exception {
+        this.bb.clear();
+        return this.decodedMessage.encode(this.bb);
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.ss7.m3ua.impl.message.M3UAMessageImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.message.MessageFactoryImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
+import org.mobicents.protocols.ss7.m3ua.message.MessageClass;
+import org.mobicents.protocols.ss7.m3ua.message.MessageType;
+import org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData;
+import org.mobicents.protocols.ss7.m3ua.parameter.ProtocolData;
+import org.mobicents.protocols.ss7.m3ua.parameter.RoutingContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * M3UA DATA message encoding (as M3UAManagementImpl.sendMessage() builds it) and decoding by the streaming
+ * MessageFactoryImpl.createMessage(ByteBuffer) versus the pooled createPooledMessage() / releaseMessage() path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class M3UABenchmark {
+
+    private final MessageFactoryImpl messageFactory = new MessageFactoryImpl();
+    private final ParameterFactoryImpl parameterFactory = new ParameterFactoryImpl();
+
+    private byte[] message;
+    private byte[] userData;
+    private RoutingContext routingContext;
+    private ByteBuffer rxBuffer;
+    private ByteBuffer txBuffer;
+
+    @Setup
+    public void setUp() {
+        this.message = Payloads.load(Payloads.M3UA_DATA);
+        this.rxBuffer = ByteBuffer.wrap(this.message);
+        this.txBuffer = ByteBuffer.allocateDirect(8192);
+
+        PayloadData ref = (PayloadData) this.messageFactory.createPooledMessage(ByteBuffer.wrap(this.message));
+        this.userData = ref.getData().getData();
+        this.routingContext = this.parameterFactory.createRoutingContext(new long[] { 25 });
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        ProtocolData data = this.parameterFactory.createProtocolData(6045, 6172, 3, 3, 0, 2, this.userData);
+        PayloadData payload = (PayloadData) this.messageFactory.createMessage(MessageClass.TRANSFER_MESSAGES,
+                MessageType.PAYLOAD);
+        payload.setData(data);
+        payload.setRoutingContext(this.routingContext);
+
+        this.txBuffer.clear();
+        ((M3UAMessageImpl) payload).encode(this.txBuffer);
+        return this.txBuffer;
+    }
+
+    @Benchmark
+    public int decodeStreaming() {
+        this.rxBuffer.clear();
+        M3UAMessageImpl msg = this.messageFactory.createMessage(this.rxBuffer);
+        return ((PayloadData) msg).getData().getSLS();
+    }
+
+    @Benchmark
+    public int decodePooled() {
+        this.rxBuffer.clear();
+        M3UAMessageImpl msg = this.messageFactory.createPooledMessage(this.rxBuffer);
+        int sls = ((PayloadData) msg).getData().getSLS();
+        this.messageFactory.releaseMessage(msg);
+        return sls;
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.mobicents.protocols.ss7.map.primitives.MAPAsnPrimitive;
+import org.mobicents.protocols.ss7.map.service.callhandling.SendRoutingInformationRequestImpl;
+import org.mobicents.protocols.ss7.map.service.mobility.locationManagement.UpdateLocationRequestImpl;
+import org.mobicents.protocols.ss7.map.service.mobility.subscriberManagement.InsertSubscriberDataRequestImpl;
+import org.mobicents.protocols.ss7.map.service.supplementary.ProcessUnstructuredSSRequestImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MAP operation parameter codec for SendRoutingInformation, InsertSubscriberData, UpdateLocation (MAP v3) and
+ * ProcessUnstructuredSS requests.
+ *
+ * The decode benchmarks take the parameter content as MAPServiceMobilityImpl / MAPServiceCallHandlingImpl get it from TCAP
+ * and read the field an HLR / VLR application usually looks at first. With lazy=true SRI, ISD and UL parameters are decoded
+ * as with MAPProvider.setLazyParameterDecoding(true), so the cost of the skipped elements is visible. ProcessUnstructuredSS
+ * is always decoded fully.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapParameterBenchmark {
+
+    private byte[] sri;
+    private byte[] isd;
+    private byte[] ul;
+    private byte[] ussd;
+
+    private SendRoutingInformationRequestImpl sriMessage;
+    private InsertSubscriberDataRequestImpl isdMessage;
+    private UpdateLocationRequestImpl ulMessage;
+    private ProcessUnstructuredSSRequestImpl ussdMessage;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.sri = getContent(Payloads.load(Payloads.MAP_SRI));
+        this.isd = getContent(Payloads.load(Payloads.MAP_ISD));
+        this.ul = getContent(Payloads.load(Payloads.MAP_UL));
+        this.ussd = getContent(Payloads.load(Payloads.MAP_USSD));
+
+        this.sriMessage = new SendRoutingInformationRequestImpl(3);
+        decodeFull(this.sriMessage, this.sri);
+        this.isdMessage = new InsertSubscriberDataRequestImpl(3);
+        decodeFull(this.isdMessage, this.isd);
+        this.ulMessage = new UpdateLocationRequestImpl(3);
+        decodeFull(this.ulMessage, this.ul);
+        this.ussdMessage = new ProcessUnstructuredSSRequestImpl();
+        decodeFull(this.ussdMessage, this.ussd);
+    }
+
+    @State(Scope.Thread)
+    public static class DecodingMode {
+        @Param({ "false", "true" })
+        public boolean lazy;
+    }
+
+    /**
+     * @return the content of the outer SEQUENCE as TCAP delivers the Invoke parameter
+     */
+    private static byte[] getContent(byte[] data) throws Exception {
+        AsnInputStream ais = new AsnInputStream(data);
+        ais.readTag();
+        int length = ais.readLength();
+        return Arrays.copyOfRange(data, ais.position(), ais.position() + length);
+    }
+
+    private static void decodeFull(MAPAsnPrimitive prim, byte[] content) throws Exception {
+        prim.decodeData(new AsnInputStream(content), content.length);
+    }
+
+    private static byte[] encode(MAPAsnPrimitive prim) throws Exception {
+        AsnOutputStream aos = new AsnOutputStream();
+        prim.encodeAll(aos);
+        return aos.toByteArray();
+    }
+
+    @Benchmark
+    public Object decodeSri(DecodingMode mode) throws Exception {
+        SendRoutingInformationRequestImpl ind = new SendRoutingInformationRequestImpl(3);
+        if (mode.lazy)
+            ind.decodeDataLazy(this.sri);
+        else
+            decodeFull(ind, this.sri);
+        return ind.getMsisdn();
+    }
+
+    @Benchmark
+    public Object decodeIsd(DecodingMode mode) throws Exception {
+        InsertSubscriberDataRequestImpl ind = new InsertSubscriberDataRequestImpl(3);
+        if (mode.lazy)
+            ind.decodeDataLazy(this.isd);
+        else
+            decodeFull(ind, this.isd);
+        return ind.getImsi();
+    }
+
+    @Benchmark
+    public Object decodeUl(DecodingMode mode) throws Exception {
+        UpdateLocationRequestImpl ind = new UpdateLocationRequestImpl(3);
+        if (mode.lazy)
+            ind.decodeDataLazy(this.ul);
+        else
+            decodeFull(ind, this.ul);
+        return ind.getImsi();
+    }
+
+    @Benchmark
+    public String decodeUssd() throws Exception {
+        ProcessUnstructuredSSRequestImpl ind = new ProcessUnstructuredSSRequestImpl();
+        decodeFull(ind, this.ussd);
+        return ind.getUSSDString().getString(null);
+    }
+
+    @Benchmark
+    public byte[] encodeSri() throws Exception {
+        return encode(this.sriMessage);
+    }
+
+    @Benchmark
+    public byte[] encodeIsd() throws Exception {
+        return encode(this.isdMessage);
+    }
+
+    @Benchmark
+    public byte[] encodeUl() throws Exception {
+        return encode(this.ulMessage);
+    }
+
+    @Benchmark
+    public byte[] encodeUssd() throws Exception {
+        return encode(this.ussdMessage);
+    }
+
+}
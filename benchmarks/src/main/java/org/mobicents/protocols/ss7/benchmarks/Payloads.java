@@ -0,0 +1,84 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+
+/**
+ * Captured protocol payloads the benchmarks are run with. Every payload is a hex dump in
+ * src/main/resources/payloads/&lt;name&gt;.hex, lines starting with '#' are comments.
+ */
+public final class Payloads {
+
+    public static final String M3UA_DATA = "m3ua-data";
+    public static final String SCCP_UDT = "sccp-udt";
+    public static final String SCCP_XUDT = "sccp-xudt";
+    public static final String TCAP_BEGIN = "tcap-begin";
+    public static final String TCAP_CONTINUE = "tcap-continue";
+    public static final String TCAP_CONTINUE_EMPTY = "tcap-continue-empty";
+    public static final String TCAP_END = "tcap-end";
+    public static final String MAP_SRI = "map-sri";
+    public static final String MAP_ISD = "map-isd";
+    public static final String MAP_UL = "map-ul";
+    public static final String MAP_USSD = "map-ussd";
+    public static final String CAP_IDP = "cap-idp";
+    public static final String ISUP_IAM = "isup-iam";
+    public static final String ISUP_ACM = "isup-acm";
+    public static final String ISUP_ANM = "isup-anm";
+    public static final String ISUP_REL = "isup-rel";
+
+    private Payloads() {
+    }
+
+    public static byte[] load(String name) {
+        InputStream in = Payloads.class.getResourceAsStream("/payloads/" + name + ".hex");
+        if (in == null)
+            throw new IllegalArgumentException("Payload is not found: " + name);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, "US-ASCII"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.length() == 0 || line.startsWith("#"))
+                        continue;
+                    for (String s : line.split("\\s+")) {
+                        out.write(Integer.parseInt(s, 16));
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read payload " + name, e);
+        }
+        return out.toByteArray();
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.sccp.impl.message.SccpDataMessageImpl;
+import org.mobicents.protocols.ss7.sccp.message.MessageFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.TCAPStackImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Replay of a captured TC-BEGIN / TC-CONTINUE / TC-CONTINUE / TC-END dialog through a TCAP stack in preview mode, as a
+ * monitoring probe sees both directions of the traffic. One operation is the whole dialog: the preview dialog is created by
+ * the TC-BEGIN, found by both TC-CONTINUEs and removed by the TC-END.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreviewReplayBenchmark {
+
+    private static final int OPC = 101;
+    private static final int DPC = 102;
+    private static final int SSN = 6;
+
+    private BenchmarkSccpProvider sccpProvider;
+    private TCAPStackImpl tcapStack;
+    private MessageFactory messageFactory;
+
+    private SccpAddress addr1;
+    private SccpAddress addr2;
+
+    private byte[] begin;
+    private byte[] cont;
+    private byte[] contEmpty;
+    private byte[] end;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.begin = Payloads.load(Payloads.TCAP_BEGIN);
+        this.cont = Payloads.load(Payloads.TCAP_CONTINUE);
+        this.contEmpty = Payloads.load(Payloads.TCAP_CONTINUE_EMPTY);
+        this.end = Payloads.load(Payloads.TCAP_END);
+
+        this.sccpProvider = new BenchmarkSccpProvider("PreviewReplayBenchmark");
+        this.messageFactory = this.sccpProvider.getMessageFactory();
+        ParameterFactory parameterFactory = this.sccpProvider.getParameterFactory();
+        this.addr1 = parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, OPC, SSN);
+        this.addr2 = parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, DPC, SSN);
+
+        this.tcapStack = new TCAPStackImpl("PreviewReplayBenchmark", this.sccpProvider, SSN);
+        this.tcapStack.setPersistDir(System.getProperty("java.io.tmpdir"));
+        this.tcapStack.setPreviewMode(true);
+        this.tcapStack.start();
+        this.tcapStack.getProvider().addTCListener(new BenchmarkTCListener());
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.tcapStack.stop();
+    }
+
+    private void receive(byte[] data, boolean forward) {
+        SccpDataMessageImpl msg;
+        if (forward) {
+            msg = (SccpDataMessageImpl) this.messageFactory.createDataMessageClass1(this.addr2, this.addr1, data, 0, 0, false,
+                    null, null);
+            msg.setIncomingOpc(OPC);
+            msg.setIncomingDpc(DPC);
+        } else {
+            msg = (SccpDataMessageImpl) this.messageFactory.createDataMessageClass1(this.addr1, this.addr2, data, 0, 0, false,
+                    null, null);
+            msg.setIncomingOpc(DPC);
+            msg.setIncomingDpc(OPC);
+        }
+        this.sccpProvider.getSccpListener().onMessage(msg);
+    }
+
+    @Benchmark
+    public void replayDialog() {
+        this.receive(this.begin, true);
+        this.receive(this.cont, false);
+        this.receive(this.contEmpty, true);
+        this.receive(this.end, false);
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+import org.mobicents.protocols.ss7.sccp.LongMessageRuleType;
+import org.mobicents.protocols.ss7.sccp.SccpProtocolVersion;
+import org.mobicents.protocols.ss7.sccp.impl.SccpStackImpl;
+import org.mobicents.protocols.ss7.sccp.impl.message.EncodingResultData;
+import org.mobicents.protocols.ss7.sccp.impl.message.MessageFactoryImpl;
+import org.mobicents.protocols.ss7.sccp.impl.message.SccpDataMessageImpl;
+import org.mobicents.protocols.ss7.sccp.impl.parameter.HopCounterImpl;
+import org.mobicents.protocols.ss7.sccp.message.SccpDataMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * SCCP UDT / XUDT message decoding and encoding. The encode benchmarks re-encode the captured messages, encodeXudtSegmented
+ * encodes a 600 byte user data into XUDT segments for a 272 byte MTP3 user data limit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SccpMessageBenchmark {
+
+    private static final Logger logger = Logger.getLogger(SccpMessageBenchmark.class);
+
+    private SccpStackImpl stack;
+    private MessageFactoryImpl messageFactory;
+
+    private byte[] udt;
+    private byte[] xudt;
+    private SccpDataMessageImpl udtMessage;
+    private SccpDataMessageImpl xudtMessage;
+    private SccpDataMessageImpl longMessage;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.stack = new SccpStackImpl("SccpMessageBenchmark");
+        this.messageFactory = new MessageFactoryImpl(this.stack);
+
+        this.udt = Payloads.load(Payloads.SCCP_UDT);
+        this.xudt = Payloads.load(Payloads.SCCP_XUDT);
+
+        SccpDataMessage msg = this.decode(this.udt);
+        this.udtMessage = (SccpDataMessageImpl) this.messageFactory.createDataMessageClass1(msg.getCalledPartyAddress(),
+                msg.getCallingPartyAddress(), msg.getData(), 0, 8, false, null, null);
+        msg = this.decode(this.xudt);
+        this.xudtMessage = (SccpDataMessageImpl) this.messageFactory.createDataMessageClass1(msg.getCalledPartyAddress(),
+                msg.getCallingPartyAddress(), msg.getData(), 0, 8, true, new HopCounterImpl(15), null);
+        this.longMessage = (SccpDataMessageImpl) this.messageFactory.createDataMessageClass1(msg.getCalledPartyAddress(),
+                msg.getCallingPartyAddress(), new byte[600], 0, 8, true, new HopCounterImpl(15), null);
+    }
+
+    private SccpDataMessage decode(byte[] data) throws Exception {
+        ByteArrayInputStream in = new ByteArrayInputStream(data);
+        int type = in.read();
+        return (SccpDataMessage) this.messageFactory.createMessage(type, 1, 2, 0, in, SccpProtocolVersion.ITU, 0);
+    }
+
+    @Benchmark
+    public SccpDataMessage decodeUdt() throws Exception {
+        return this.decode(this.udt);
+    }
+
+    @Benchmark
+    public SccpDataMessage decodeXudt() throws Exception {
+        return this.decode(this.xudt);
+    }
+
+    @Benchmark
+    public EncodingResultData encodeUdt() throws Exception {
+        return this.udtMessage.encode(this.stack, LongMessageRuleType.LONG_MESSAGE_FORBBIDEN, 272, logger, false,
+                SccpProtocolVersion.ITU);
+    }
+
+    @Benchmark
+    public EncodingResultData encodeXudt() throws Exception {
+        return this.xudtMessage.encode(this.stack, LongMessageRuleType.XUDT_ENABLED, 272, logger, false,
+                SccpProtocolVersion.ITU);
+    }
+
+    @Benchmark
+    public EncodingResultData encodeXudtSegmented() throws Exception {
+        return this.longMessage.encode(this.stack, LongMessageRuleType.XUDT_ENABLED, 272, logger, false,
+                SccpProtocolVersion.ITU);
+    }
+
+}
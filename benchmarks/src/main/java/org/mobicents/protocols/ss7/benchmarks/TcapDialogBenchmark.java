@@ -0,0 +1,150 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.sccp.impl.message.SccpDataMessageImpl;
+import org.mobicents.protocols.ss7.sccp.message.MessageFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.TCAPStackImpl;
+import org.mobicents.protocols.ss7.tcap.api.TCAPProvider;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.Dialog;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCBeginIndication;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCEndRequest;
+import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TerminationType;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
+import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResultLast;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * A TCAP stack serving a single-exchange dialog: an incoming TC-BEGIN with an Invoke is answered by the TCListener with a
+ * TC-END carrying a ReturnResultLast. messagePooling switches the TCAPStackImpl option of the same name, run with "-prof gc"
+ * to compare the allocation rate.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TcapDialogBenchmark {
+
+    private static final int LOCAL_PC = 102;
+    private static final int REMOTE_PC = 101;
+    private static final int SSN = 6;
+
+    @Param({ "false", "true" })
+    public boolean messagePooling;
+
+    private BenchmarkSccpProvider sccpProvider;
+    private TCAPStackImpl tcapStack;
+    private MessageFactory messageFactory;
+
+    private SccpAddress localAddress;
+    private SccpAddress remoteAddress;
+
+    private byte[] begin;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.begin = Payloads.load(Payloads.TCAP_BEGIN);
+
+        this.sccpProvider = new BenchmarkSccpProvider("TcapDialogBenchmark");
+        this.messageFactory = this.sccpProvider.getMessageFactory();
+        ParameterFactory parameterFactory = this.sccpProvider.getParameterFactory();
+        this.localAddress = parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, LOCAL_PC,
+                SSN);
+        this.remoteAddress = parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null,
+                REMOTE_PC, SSN);
+
+        this.tcapStack = new TCAPStackImpl("TcapDialogBenchmark", this.sccpProvider, SSN);
+        this.tcapStack.setPersistDir(System.getProperty("java.io.tmpdir"));
+        this.tcapStack.setMessagePooling(this.messagePooling);
+        this.tcapStack.start();
+        this.tcapStack.getProvider().addTCListener(new Responder(this.tcapStack.getProvider()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.tcapStack.stop();
+    }
+
+    @Benchmark
+    public long beginEnd() {
+        SccpDataMessageImpl msg = (SccpDataMessageImpl) this.messageFactory.createDataMessageClass1(this.localAddress,
+                this.remoteAddress, this.begin, 0, 0, false, null, null);
+        msg.setIncomingOpc(REMOTE_PC);
+        msg.setIncomingDpc(LOCAL_PC);
+        this.sccpProvider.getSccpListener().onMessage(msg);
+        return this.sccpProvider.getSentCount();
+    }
+
+    /**
+     * Answers every Invoke of a TC-BEGIN with a ReturnResultLast in a basic TC-END.
+     */
+    private static class Responder extends BenchmarkTCListener {
+
+        private final TCAPProvider tcapProvider;
+
+        Responder(TCAPProvider tcapProvider) {
+            this.tcapProvider = tcapProvider;
+        }
+
+        @Override
+        public void onTCBegin(TCBeginIndication ind) {
+            Dialog dialog = ind.getDialog();
+            try {
+                Component[] comps = ind.getComponents();
+                if (comps != null) {
+                    for (Component comp : comps) {
+                        ReturnResultLast rrl = this.tcapProvider.getComponentPrimitiveFactory().createTCResultLastRequest();
+                        rrl.setInvokeId(comp.getInvokeId());
+                        dialog.sendComponent(rrl);
+                    }
+                }
+
+                TCEndRequest end = this.tcapProvider.getDialogPrimitiveFactory().createEnd(dialog);
+                end.setTermination(TerminationType.Basic);
+                end.setApplicationContextName(ind.getApplicationContextName());
+                dialog.send(end);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to answer a TC-BEGIN", e);
+            }
+        }
+    }
+
+}
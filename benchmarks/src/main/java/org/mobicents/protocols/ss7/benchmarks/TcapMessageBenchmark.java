@@ -0,0 +1,118 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.mobicents.protocols.ss7.tcap.asn.Encodable;
+import org.mobicents.protocols.ss7.tcap.asn.TcapFactory;
+import org.mobicents.protocols.ss7.tcap.asn.comp.TCBeginMessage;
+import org.mobicents.protocols.ss7.tcap.asn.comp.TCContinueMessage;
+import org.mobicents.protocols.ss7.tcap.asn.comp.TCEndMessage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * TC-BEGIN / TC-CONTINUE / TC-END decoding and encoding of a captured USSD dialog (the TC-BEGIN carries an AARQ with user
+ * information, the TC-CONTINUE an AARE). Messages are decoded as TCAPProviderImpl does it and encoded into a new
+ * AsnOutputStream as DialogImpl does it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TcapMessageBenchmark {
+
+    private byte[] begin;
+    private byte[] cont;
+    private byte[] end;
+    private TCBeginMessage beginMessage;
+    private TCContinueMessage continueMessage;
+    private TCEndMessage endMessage;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.begin = Payloads.load(Payloads.TCAP_BEGIN);
+        this.cont = Payloads.load(Payloads.TCAP_CONTINUE);
+        this.end = Payloads.load(Payloads.TCAP_END);
+
+        this.beginMessage = this.decodeBegin();
+        this.continueMessage = this.decodeContinue();
+        this.endMessage = this.decodeEnd();
+    }
+
+    private static byte[] encode(Encodable message) throws Exception {
+        AsnOutputStream aos = new AsnOutputStream();
+        message.encode(aos);
+        return aos.toByteArray();
+    }
+
+    @Benchmark
+    public TCBeginMessage decodeBegin() throws Exception {
+        AsnInputStream ais = new AsnInputStream(this.begin);
+        ais.readTag();
+        return TcapFactory.createTCBeginMessage(ais);
+    }
+
+    @Benchmark
+    public TCContinueMessage decodeContinue() throws Exception {
+        AsnInputStream ais = new AsnInputStream(this.cont);
+        ais.readTag();
+        return TcapFactory.createTCContinueMessage(ais);
+    }
+
+    @Benchmark
+    public TCEndMessage decodeEnd() throws Exception {
+        AsnInputStream ais = new AsnInputStream(this.end);
+        ais.readTag();
+        return TcapFactory.createTCEndMessage(ais);
+    }
+
+    @Benchmark
+    public byte[] encodeBegin() throws Exception {
+        return encode(this.beginMessage);
+    }
+
+    @Benchmark
+    public byte[] encodeContinue() throws Exception {
+        return encode(this.continueMessage);
+    }
+
+    @Benchmark
+    public byte[] encodeEnd() throws Exception {
+        return encode(this.endMessage);
+    }
+
+}
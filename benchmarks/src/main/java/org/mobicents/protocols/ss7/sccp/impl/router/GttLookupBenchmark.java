@@ -0,0 +1,138 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl.router;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.indicator.NatureOfAddress;
+import org.mobicents.protocols.ss7.indicator.NumberingPlan;
+import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.sccp.LoadSharingAlgorithm;
+import org.mobicents.protocols.ss7.sccp.OriginationType;
+import org.mobicents.protocols.ss7.sccp.Rule;
+import org.mobicents.protocols.ss7.sccp.RuleType;
+import org.mobicents.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.mobicents.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * GTT rule lookup for a rule table of 6-digit prefix rules ("xxxxxx/*") followed by a catch-all "*" rule. Half of the looked
+ * up numbers start with a configured prefix, the rest fall to the catch-all rule. The index lookup that RouterImpl uses is
+ * compared with the linear scan of the rules in priority order.
+ *
+ * The benchmark is in the router package because RuleIndex is package-private.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GttLookupBenchmark {
+
+    private static final int ADDRESS_COUNT = 1024;
+
+    @Param({ "10", "1000", "50000" })
+    public int ruleCount;
+
+    private final ParameterFactory factory = new ParameterFactoryImpl();
+
+    private Rule[] rules;
+    private RuleIndex index;
+    private SccpAddress[] addresses;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        FastMap<Integer, Rule> rulesMap = new FastMap<Integer, Rule>();
+        String[] prefixes = new String[this.ruleCount];
+        for (int i = 0; i < this.ruleCount; i++) {
+            prefixes[i] = String.valueOf(100000 + (i * 17) % 900000);
+            rulesMap.put(i, this.createRule(prefixes[i] + "/*"));
+        }
+        rulesMap.put(this.ruleCount, this.createRule("*"));
+
+        this.rules = rulesMap.values().toArray(new Rule[rulesMap.size()]);
+        this.index = new RuleIndex(rulesMap);
+
+        Random rnd = new Random(1234567);
+        this.addresses = new SccpAddress[ADDRESS_COUNT];
+        for (int i = 0; i < ADDRESS_COUNT; i++) {
+            StringBuilder sb = new StringBuilder();
+            if (rnd.nextBoolean())
+                sb.append(prefixes[rnd.nextInt(prefixes.length)]);
+            while (sb.length() < 12)
+                sb.append((char) ('0' + rnd.nextInt(10)));
+            this.addresses[i] = this.factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                    this.createGt(sb.toString()), 0, 8);
+        }
+    }
+
+    private GlobalTitle createGt(String digits) {
+        return this.factory.createGlobalTitle(digits, 0, NumberingPlan.ISDN_TELEPHONY, null, NatureOfAddress.INTERNATIONAL);
+    }
+
+    private RuleImpl createRule(String pattern) {
+        SccpAddress patternAddress = this.factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE,
+                this.createGt(pattern), 0, 0);
+        RuleImpl rule = new RuleImpl(RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, OriginationType.ALL, patternAddress,
+                "K", 0);
+        rule.setPrimaryAddressId(1);
+        return rule;
+    }
+
+    private SccpAddress nextAddress() {
+        return this.addresses[this.cursor++ & (ADDRESS_COUNT - 1)];
+    }
+
+    @Benchmark
+    public Rule indexed() {
+        return this.index.findRule(this.nextAddress(), false, 0);
+    }
+
+    @Benchmark
+    public Rule linearScan() {
+        SccpAddress address = this.nextAddress();
+        for (Rule rule : this.rules) {
+            if (rule.matches(address, false, 0))
+                return rule;
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing
+ * of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU General Public License, v. 2.0.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * v. 2.0 along with this distribution; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package org.mobicents.ss7.congestion;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Probabilistic admission of new work (for example incoming TC-BEGINs) under congestion.
+ *
+ * The controller is registered as a listener at one or more {@link LevelCongestionMonitor}s and keeps the highest congestion
+ * level reported by them. {@link #admit()} rejects new work with the probability configured for the current level, so the
+ * offered load is shed gradually instead of switching from "accept everything" to "reject everything". Work already in
+ * progress (existing dialogs) is never affected.
+ */
+public class AdmissionController implements CongestionLevelListener {
+    private static final Logger logger = Logger.getLogger(AdmissionController.class);
+
+    public static final double[] DEFAULT_REJECT_PROBABILITIES = new double[] { 0, 0.25, 0.6, 1.0 };
+
+    private final ConcurrentHashMap<String, Integer> sourceLevels = new ConcurrentHashMap<String, Integer>();
+    private volatile int congestionLevel;
+    private volatile int[] rejectThresholds;
+
+    private final AtomicLong admittedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private static final ThreadLocal<long[]> random = new ThreadLocal<long[]>() {
+        protected long[] initialValue() {
+            long seed = System.nanoTime() ^ (Thread.currentThread().getId() * 0x9E3779B97F4A7C15L);
+            return new long[] { seed == 0 ? 1 : seed };
+        }
+    };
+
+    public AdmissionController() {
+        this.setRejectProbabilities(DEFAULT_REJECT_PROBABILITIES);
+    }
+
+    /**
+     * @param rejectProbabilities rejection probabilities for congestion levels 0..{@link LevelCongestionMonitor#MAX_CONGESTION_LEVEL}
+     */
+    public void setRejectProbabilities(double[] rejectProbabilities) {
+        if (rejectProbabilities == null || rejectProbabilities.length != LevelCongestionMonitor.MAX_CONGESTION_LEVEL + 1)
+            throw new IllegalArgumentException("Reject probabilities must be set for levels 0.."
+                    + LevelCongestionMonitor.MAX_CONGESTION_LEVEL);
+
+        int[] thr = new int[rejectProbabilities.length];
+        for (int i = 0; i < rejectProbabilities.length; i++) {
+            double p = rejectProbabilities[i];
+            if (p < 0 || p > 1)
+                throw new IllegalArgumentException("Reject probability must be in the range 0..1, found " + p);
+            // probability is compared against 24 random bits
+            thr[i] = (int) Math.round(p * (1 << 24));
+        }
+        this.rejectThresholds = thr;
+    }
+
+    public double getRejectProbability(int level) {
+        return this.rejectThresholds[level] / (double) (1 << 24);
+    }
+
+    /**
+     * @return the highest congestion level among the monitored sources
+     */
+    public int getCongestionLevel() {
+        return this.congestionLevel;
+    }
+
+    /**
+     * Decides whether new work can be accepted
+     *
+     * @return true if the work is admitted, false if it must be rejected
+     */
+    public boolean admit() {
+        int level = this.congestionLevel;
+        if (level == 0)
+            return true;
+
+        int thr = this.rejectThresholds[level];
+        boolean res;
+        if (thr == 0) {
+            res = true;
+        } else if (thr >= 1 << 24) {
+            res = false;
+        } else {
+            // xorshift64
+            long[] state = random.get();
+            long x = state[0];
+            x ^= x << 13;
+            x ^= x >>> 7;
+            x ^= x << 17;
+            state[0] = x;
+            res = (int) (x >>> 40) >= thr;
+        }
+
+        if (res)
+            this.admittedCount.incrementAndGet();
+        else
+            this.rejectedCount.incrementAndGet();
+        return res;
+    }
+
+    /**
+     * @return count of work items admitted while a congestion was present
+     */
+    public long getAdmittedCount() {
+        return this.admittedCount.get();
+    }
+
+    /**
+     * @return count of rejected work items
+     */
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    public void onCongestionStart(String source) {
+    }
+
+    public void onCongestionFinish(String source) {
+        this.updateLevel(source, 0);
+    }
+
+    public void onCongestionLevelChange(String source, int oldLevel, int newLevel) {
+        this.updateLevel(source, newLevel);
+    }
+
+    private synchronized void updateLevel(String source, int level) {
+        if (level == 0)
+            this.sourceLevels.remove(source);
+        else
+            this.sourceLevels.put(source, level);
+
+        int max = 0;
+        for (Integer l : this.sourceLevels.values()) {
+            if (l > max)
+                max = l;
+        }
+        if (max > LevelCongestionMonitor.MAX_CONGESTION_LEVEL)
+            max = LevelCongestionMonitor.MAX_CONGESTION_LEVEL;
+        if (max != this.congestionLevel) {
+            logger.warn("Admission congestion level changed from " + this.congestionLevel + " to " + max);
+            this.congestionLevel = max;
+        }
+    }
+
+}
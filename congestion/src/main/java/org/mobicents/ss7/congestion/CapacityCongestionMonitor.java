@@ -0,0 +1,63 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing
+ * of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU General Public License, v. 2.0.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * v. 2.0 along with this distribution; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package org.mobicents.ss7.congestion;
+
+/**
+ * Congestion monitor that compares the usage of a bounded resource (for example the count of active TCAP dialogs) with the
+ * resource capacity. The measured value and thresholds are the percentage of the used capacity.
+ */
+public class CapacityCongestionMonitor extends LevelCongestionMonitor {
+
+    public static final long[] DEFAULT_ONSET_THRESHOLDS = new long[] { 80, 90, 98 };
+    public static final long[] DEFAULT_ABATEMENT_THRESHOLDS = new long[] { 70, 85, 95 };
+
+    private final ResourceUsage resourceUsage;
+
+    public CapacityCongestionMonitor(String source, ResourceUsage resourceUsage) {
+        this(source, resourceUsage, DEFAULT_ONSET_THRESHOLDS, DEFAULT_ABATEMENT_THRESHOLDS);
+    }
+
+    public CapacityCongestionMonitor(String source, ResourceUsage resourceUsage, long[] onsetThresholds,
+            long[] abatementThresholds) {
+        super(source, onsetThresholds, abatementThresholds);
+        this.resourceUsage = resourceUsage;
+    }
+
+    protected long measure() {
+        long capacity = this.resourceUsage.getCapacity();
+        if (capacity <= 0)
+            return 0;
+        return this.resourceUsage.getUsage() * 100 / capacity;
+    }
+
+    /**
+     * Source of the resource usage data
+     */
+    public interface ResourceUsage {
+
+        long getUsage();
+
+        long getCapacity();
+
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing
+ * of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU General Public License, v. 2.0.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * v. 2.0 along with this distribution; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package org.mobicents.ss7.congestion;
+
+/**
+ * {@link CongestionListener} that is also informed of every change of the congestion level of a multi-level monitor (see
+ * {@link LevelCongestionMonitor}). Level 0 means no congestion, {@link LevelCongestionMonitor#MAX_CONGESTION_LEVEL} is the
+ * most severe level.
+ */
+public interface CongestionLevelListener extends CongestionListener {
+
+    /**
+     * Called when the congestion level of the underlying source has changed. The 0 -&gt; n and n -&gt; 0 transitions are also
+     * reported via {@link CongestionListener#onCongestionStart(String)} and {@link CongestionListener#onCongestionFinish(String)}
+     *
+     * @param source The underlying source
+     * @param oldLevel
+     * @param newLevel
+     */
+    void onCongestionLevelChange(String source, int oldLevel, int newLevel);
+
+}
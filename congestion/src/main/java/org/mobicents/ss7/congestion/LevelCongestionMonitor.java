@@ -0,0 +1,148 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing
+ * of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU General Public License, v. 2.0.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * v. 2.0 along with this distribution; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package org.mobicents.ss7.congestion;
+
+import javolution.util.FastList;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Base class for monitors that map a measured value to congestion levels 0..{@link #MAX_CONGESTION_LEVEL}.
+ *
+ * Every level n has an onset threshold (the level is entered when the measured value reaches it) and a lower abatement
+ * threshold (the level is left when the value falls below it), the gap between them prevents level flapping. Thresholds must
+ * grow with the level and the abatement threshold of a level must not exceed its onset threshold.
+ */
+public abstract class LevelCongestionMonitor implements CongestionMonitor {
+    private static final Logger logger = Logger.getLogger(LevelCongestionMonitor.class);
+
+    public static final int MAX_CONGESTION_LEVEL = 3;
+
+    private final String source;
+    private final FastList<CongestionListener> listeners = new FastList<CongestionListener>();
+
+    private final long[] onsetThresholds = new long[MAX_CONGESTION_LEVEL];
+    private final long[] abatementThresholds = new long[MAX_CONGESTION_LEVEL];
+
+    private volatile int congestionLevel;
+    private volatile long lastMeasuredValue;
+
+    protected LevelCongestionMonitor(String source, long[] onsetThresholds, long[] abatementThresholds) {
+        this.source = source;
+        this.setThresholds(onsetThresholds, abatementThresholds);
+    }
+
+    /**
+     * Measures the current value of the underlying resource. Called from {@link #monitor()}
+     */
+    protected abstract long measure();
+
+    /**
+     * @param onsetThresholds onset thresholds for levels 1..{@link #MAX_CONGESTION_LEVEL}
+     * @param abatementThresholds abatement thresholds for levels 1..{@link #MAX_CONGESTION_LEVEL}
+     */
+    public void setThresholds(long[] onsetThresholds, long[] abatementThresholds) {
+        if (onsetThresholds == null || onsetThresholds.length != MAX_CONGESTION_LEVEL || abatementThresholds == null
+                || abatementThresholds.length != MAX_CONGESTION_LEVEL)
+            throw new IllegalArgumentException("Onset and abatement thresholds must be set for " + MAX_CONGESTION_LEVEL
+                    + " levels");
+        for (int i = 0; i < MAX_CONGESTION_LEVEL; i++) {
+            if (abatementThresholds[i] > onsetThresholds[i])
+                throw new IllegalArgumentException("Abatement threshold of level " + (i + 1)
+                        + " is greater than its onset threshold");
+            if (i > 0 && (onsetThresholds[i] < onsetThresholds[i - 1] || abatementThresholds[i] < abatementThresholds[i - 1]))
+                throw new IllegalArgumentException("Thresholds of level " + (i + 1) + " are less than thresholds of level " + i);
+        }
+
+        synchronized (this) {
+            System.arraycopy(onsetThresholds, 0, this.onsetThresholds, 0, MAX_CONGESTION_LEVEL);
+            System.arraycopy(abatementThresholds, 0, this.abatementThresholds, 0, MAX_CONGESTION_LEVEL);
+        }
+    }
+
+    public long getOnsetThreshold(int level) {
+        return this.onsetThresholds[level - 1];
+    }
+
+    public long getAbatementThreshold(int level) {
+        return this.abatementThresholds[level - 1];
+    }
+
+    /**
+     * @return current congestion level: 0 - no congestion
+     */
+    public int getCongestionLevel() {
+        return this.congestionLevel;
+    }
+
+    /**
+     * @return the value measured by the last {@link #monitor()} invocation
+     */
+    public long getLastMeasuredValue() {
+        return this.lastMeasuredValue;
+    }
+
+    public void monitor() {
+        long value = this.measure();
+
+        int oldLevel;
+        int newLevel;
+        synchronized (this) {
+            this.lastMeasuredValue = value;
+            oldLevel = this.congestionLevel;
+            newLevel = oldLevel;
+            while (newLevel < MAX_CONGESTION_LEVEL && value >= this.onsetThresholds[newLevel])
+                newLevel++;
+            while (newLevel > 0 && value < this.abatementThresholds[newLevel - 1])
+                newLevel--;
+            if (newLevel == oldLevel)
+                return;
+            this.congestionLevel = newLevel;
+        }
+
+        logger.warn("Congestion level of " + this.source + " changed from " + oldLevel + " to " + newLevel + ", measured value="
+                + value);
+
+        for (FastList.Node<CongestionListener> n = listeners.head(), end = listeners.tail(); (n = n.getNext()) != end;) {
+            CongestionListener listener = n.getValue();
+            if (oldLevel == 0)
+                listener.onCongestionStart(this.source);
+            if (listener instanceof CongestionLevelListener)
+                ((CongestionLevelListener) listener).onCongestionLevelChange(this.source, oldLevel, newLevel);
+            if (newLevel == 0)
+                listener.onCongestionFinish(this.source);
+        }
+    }
+
+    public void addCongestionListener(CongestionListener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeCongestionListener(CongestionListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    public String getSource() {
+        return this.source;
+    }
+
+}
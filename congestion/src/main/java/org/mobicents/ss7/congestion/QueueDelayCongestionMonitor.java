@@ -0,0 +1,112 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing
+ * of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU General Public License, v. 2.0.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * v. 2.0 along with this distribution; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package org.mobicents.ss7.congestion;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Congestion monitor driven by the time messages spend in a delivery queue.
+ *
+ * The queue owner reports every enqueued message via {@link #recordEnqueue()} and the sojourn time of every dequeued message
+ * via {@link #recordSojournTime(long)}. As in CoDel the monitor looks at the minimum sojourn time observed during a
+ * monitoring interval (the period of {@link #monitor()} invocations): a burst that is drained within the interval does not
+ * raise the minimum, while a standing queue does. If no message has been dequeued during the interval while messages are
+ * pending, the queue is stalled and the time the head message has waited at least (since the last dequeue or since the
+ * queue became non-empty) is measured instead. The measured value and thresholds are in microseconds.
+ */
+public class QueueDelayCongestionMonitor extends LevelCongestionMonitor {
+
+    public static final long[] DEFAULT_ONSET_THRESHOLDS = new long[] { 5000, 20000, 100000 };
+    public static final long[] DEFAULT_ABATEMENT_THRESHOLDS = new long[] { 2000, 10000, 50000 };
+
+    private final AtomicLong minSojournTime = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicInteger pending = new AtomicInteger();
+    // the time of the last dequeue or of the last transition of the queue from empty to non-empty
+    private volatile long lastProgressTime = System.nanoTime();
+
+    public QueueDelayCongestionMonitor(String source) {
+        this(source, DEFAULT_ONSET_THRESHOLDS, DEFAULT_ABATEMENT_THRESHOLDS);
+    }
+
+    public QueueDelayCongestionMonitor(String source, long[] onsetThresholds, long[] abatementThresholds) {
+        super(source, onsetThresholds, abatementThresholds);
+    }
+
+    /**
+     * @return the count of messages that have been enqueued but not yet dequeued
+     */
+    public int getPendingCount() {
+        return this.pending.get();
+    }
+
+    /**
+     * Reports that a message has been put into the queue
+     */
+    public void recordEnqueue() {
+        if (this.pending.getAndIncrement() == 0)
+            this.lastProgressTime = System.nanoTime();
+    }
+
+    /**
+     * Reports that a message that has been reported by {@link #recordEnqueue()} has not been put into the queue (the queue is
+     * full)
+     */
+    public void recordEnqueueFailure() {
+        this.decrementPending();
+    }
+
+    /**
+     * Reports the time a dequeued message has spent in the queue
+     *
+     * @param nanos sojourn time in nanoseconds
+     */
+    public void recordSojournTime(long nanos) {
+        this.lastProgressTime = System.nanoTime();
+        this.decrementPending();
+        long cur = this.minSojournTime.get();
+        while (nanos < cur) {
+            if (this.minSojournTime.compareAndSet(cur, nanos))
+                return;
+            cur = this.minSojournTime.get();
+        }
+    }
+
+    private void decrementPending() {
+        // a message that was enqueued before the monitor was set is not counted as pending
+        int p = this.pending.get();
+        while (p > 0 && !this.pending.compareAndSet(p, p - 1))
+            p = this.pending.get();
+    }
+
+    protected long measure() {
+        long min = this.minSojournTime.getAndSet(Long.MAX_VALUE);
+        if (min == Long.MAX_VALUE) {
+            // no message has been dequeued during the interval - the queue is either idle or stalled
+            if (this.pending.get() == 0)
+                return 0;
+            return (System.nanoTime() - this.lastProgressTime) / 1000;
+        }
+        return min / 1000;
+    }
+
+}
@@ -0,0 +1,188 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2011, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors as indicated by the @authors tag. All rights reserved.
+ * See the copyright.txt in the distribution for a full listing
+ * of individual contributors.
+ *
+ * This copyrighted material is made available to anyone wishing to use,
+ * modify, copy, or redistribute it subject to the terms and conditions
+ * of the GNU General Public License, v. 2.0.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License,
+ * v. 2.0 along with this distribution; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301, USA.
+ */
+package org.mobicents.ss7.congestion;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class LevelCongestionMonitorTest {
+
+    @Test(groups = { "congestion" })
+    public void testHysteresis() {
+        final long[] usage = new long[1];
+        CapacityCongestionMonitor monitor = new CapacityCongestionMonitor("TEST", new CapacityCongestionMonitor.ResourceUsage() {
+            public long getUsage() {
+                return usage[0];
+            }
+
+            public long getCapacity() {
+                return 100;
+            }
+        });
+        TestListener lsn = new TestListener();
+        monitor.addCongestionListener(lsn);
+
+        usage[0] = 79;
+        monitor.monitor();
+        assertEquals(monitor.getCongestionLevel(), 0);
+
+        usage[0] = 80;
+        monitor.monitor();
+        assertEquals(monitor.getCongestionLevel(), 1);
+
+        // a jump passes several levels at once
+        usage[0] = 99;
+        monitor.monitor();
+        assertEquals(monitor.getCongestionLevel(), 3);
+
+        // between the abatement and the onset thresholds the level is kept
+        usage[0] = 96;
+        monitor.monitor();
+        assertEquals(monitor.getCongestionLevel(), 3);
+        usage[0] = 94;
+        monitor.monitor();
+        assertEquals(monitor.getCongestionLevel(), 2);
+        usage[0] = 71;
+        monitor.monitor();
+        assertEquals(monitor.getCongestionLevel(), 1);
+        usage[0] = 50;
+        monitor.monitor();
+        assertEquals(monitor.getCongestionLevel(), 0);
+
+        assertEquals(lsn.events.size(), 7);
+        assertEquals(lsn.events.get(0), "start");
+        assertEquals(lsn.events.get(1), "0->1");
+        assertEquals(lsn.events.get(2), "1->3");
+        assertEquals(lsn.events.get(3), "3->2");
+        assertEquals(lsn.events.get(4), "2->1");
+        assertEquals(lsn.events.get(5), "1->0");
+        assertEquals(lsn.events.get(6), "finish");
+    }
+
+    @Test(groups = { "congestion" })
+    public void testQueueDelay() {
+        QueueDelayCongestionMonitor monitor = new QueueDelayCongestionMonitor("QUEUE");
+
+        // a short burst: only some messages wait long, the minimum stays low
+        monitor.recordSojournTime(50000000L);
+        monitor.recordSojournTime(100000L);
+        monitor.recordSojournTime(30000000L);
+        monitor.monitor();
+        assertEquals(monitor.getLastMeasuredValue(), 100);
+        assertEquals(monitor.getCongestionLevel(), 0);
+
+        // a standing queue
+        monitor.recordSojournTime(30000000L);
+        monitor.recordSojournTime(25000000L);
+        monitor.monitor();
+        assertEquals(monitor.getLastMeasuredValue(), 25000);
+        assertEquals(monitor.getCongestionLevel(), 2);
+
+        // no traffic - the queue is empty
+        monitor.monitor();
+        assertEquals(monitor.getLastMeasuredValue(), 0);
+        assertEquals(monitor.getCongestionLevel(), 0);
+    }
+
+    @Test(groups = { "congestion" })
+    public void testQueueDelayStalled() throws Exception {
+        QueueDelayCongestionMonitor monitor = new QueueDelayCongestionMonitor("QUEUE", new long[] { 10000, 20000, 30000 },
+                new long[] { 5000, 10000, 15000 });
+
+        monitor.recordEnqueue();
+        monitor.recordEnqueue();
+        monitor.recordSojournTime(1000000L);
+        monitor.monitor();
+        assertEquals(monitor.getLastMeasuredValue(), 1000);
+        assertEquals(monitor.getPendingCount(), 1);
+
+        // the queue holds a message but nothing is dequeued - the worst congestion, not an idle queue
+        Thread.sleep(40);
+        monitor.monitor();
+        assertTrue(monitor.getLastMeasuredValue() >= 30000);
+        assertEquals(monitor.getCongestionLevel(), 3);
+
+        // the queue is drained
+        monitor.recordSojournTime(41000000L);
+        monitor.monitor();
+        assertEquals(monitor.getPendingCount(), 0);
+        monitor.monitor();
+        assertEquals(monitor.getLastMeasuredValue(), 0);
+        assertEquals(monitor.getCongestionLevel(), 0);
+    }
+
+    @Test(groups = { "congestion" })
+    public void testAdmissionController() {
+        AdmissionController ac = new AdmissionController();
+        assertTrue(ac.admit());
+
+        ac.onCongestionLevelChange("A", 0, 1);
+        ac.onCongestionLevelChange("B", 0, 2);
+        assertEquals(ac.getCongestionLevel(), 2);
+
+        int admitted = 0;
+        for (int i = 0; i < 10000; i++) {
+            if (ac.admit())
+                admitted++;
+        }
+        // reject probability 0.6 for level 2
+        assertTrue(admitted > 3500 && admitted < 4500, "admitted=" + admitted);
+        assertEquals(ac.getAdmittedCount() + ac.getRejectedCount(), 10000);
+
+        ac.onCongestionLevelChange("B", 2, 3);
+        assertFalse(ac.admit());
+
+        ac.onCongestionFinish("B");
+        assertEquals(ac.getCongestionLevel(), 1);
+        ac.onCongestionLevelChange("A", 1, 0);
+        assertEquals(ac.getCongestionLevel(), 0);
+        assertTrue(ac.admit());
+    }
+
+    @Test(groups = { "congestion" }, expectedExceptions = IllegalArgumentException.class)
+    public void testBadThresholds() {
+        new QueueDelayCongestionMonitor("QUEUE", new long[] { 10, 20, 30 }, new long[] { 5, 25, 20 });
+    }
+
+    private class TestListener implements CongestionLevelListener {
+        private List<String> events = new ArrayList<String>();
+
+        public void onCongestionStart(String source) {
+            events.add("start");
+        }
+
+        public void onCongestionFinish(String source) {
+            events.add("finish");
+        }
+
+        public void onCongestionLevelChange(String source, int oldLevel, int newLevel) {
+            events.add(oldLevel + "->" + newLevel);
+        }
+    }
+
+}
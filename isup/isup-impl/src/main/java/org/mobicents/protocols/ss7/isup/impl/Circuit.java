@@ -22,8 +22,9 @@
 
 package org.mobicents.protocols.ss7.isup.impl;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 import javolution.util.ReentrantLock;
 
@@ -80,7 +81,15 @@ class Circuit {
     private Sender sender;
     private Receiver receiver;
 
-    private ByteArrayOutputStream bos = new ByteArrayOutputStream(300);
+    // maximum length of the MTP3 signalling information field, an encoded ISUP message never exceeds it
+    private static final int MAX_SIF_LENGTH = 272;
+
+    // encode buffer shared by all circuits, one per scheduler thread, so circuits do not hold a buffer each
+    private static final ThreadLocal<ByteBuffer> ENCODE_BUFFER = new ThreadLocal<ByteBuffer>() {
+        protected ByteBuffer initialValue() {
+            return ByteBuffer.allocate(MAX_SIF_LENGTH);
+        }
+    };
 
     /**
      * @param cic
@@ -203,8 +212,16 @@ class Circuit {
      * @throws IOException
      */
     private Mtp3TransferPrimitive decorate(ISUPMessage message) throws ParameterException, IOException {
-        ((AbstractISUPMessage) message).encode(bos);
-        byte[] encoded = bos.toByteArray();
+        ByteBuffer encodeBuffer = ENCODE_BUFFER.get();
+        encodeBuffer.clear();
+        int len;
+        try {
+            len = ((AbstractISUPMessage) message).encode(encodeBuffer);
+        } catch (BufferOverflowException e) {
+            throw new ParameterException("Encoded message exceeds " + encodeBuffer.capacity() + " octets", e);
+        }
+        byte[] encoded = new byte[len];
+        System.arraycopy(encodeBuffer.array(), 0, encoded, 0, len);
         int opc = this.provider.getLocalSpc();
         int dpc = this.dpc;
         int si = Mtp3._SI_SERVICE_ISUP;
@@ -306,7 +323,6 @@ class Circuit {
                 try {
                     message = outgoing.poll();
                     lock.lock();
-                    bos.reset();
 
                     // FIXME: add SEG creation?
                     Mtp3TransferPrimitive msg = decorate(message);
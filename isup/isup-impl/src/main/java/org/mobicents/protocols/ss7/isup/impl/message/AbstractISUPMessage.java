@@ -23,6 +23,7 @@
 package org.mobicents.protocols.ss7.isup.impl.message;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ISUPMessageFactory;
 import org.mobicents.protocols.ss7.isup.ISUPParameterFactory;
@@ -65,4 +66,13 @@ public abstract class AbstractISUPMessage implements ISUPMessage {
      */
     public abstract int encode(ByteArrayOutputStream bos) throws ParameterException;
 
+    /**
+     * Encodes message into the buffer starting at its position without creating intermediate arrays. See B.4/Q.763 - page 119)
+     *
+     * @return number of bytes encoded
+     * @throws ParameterException
+     * @throws java.nio.BufferOverflowException if the buffer has not enough space for the message
+     */
+    public abstract int encode(ByteBuffer bb) throws ParameterException;
+
 }
@@ -24,9 +24,10 @@ package org.mobicents.protocols.ss7.isup.impl.message;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.mobicents.protocols.ss7.isup.ISUPMessageFactory;
 import org.mobicents.protocols.ss7.isup.ISUPParameterFactory;
@@ -55,23 +56,31 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
 
     // protected static final Logger logger = Logger.getLogger(ISUPMessageImpl.class);
 
-    // TODO: change everything below into [], for such small size of arrays, its faster to even search through them.
+    private static final int PART_F = 1;
+    private static final int PART_V = 2;
+    private static final int PART_O = 3;
+
+    /**
+     * code to part / index lookup tables by message class, see {@link #getCodeIndex()}
+     */
+    private static final Map<Class<?>, CodeIndex> CODE_INDEXES = new ConcurrentHashMap<Class<?>, CodeIndex>();
+
     /**
      * F = mandatory fixed length parameter;<br>
      * for type F parameters: the length, in octets, of the parameter content;
      */
-    protected Map<Integer, ISUPParameter> f_Parameters;
+    protected ParameterSlots f_Parameters;
     /**
      * V = mandatory variable length parameter;<br>
      * for type V parameters: the length, in octets, of the length indicator and of the parameter content. The minimum and the
      * maximum length are indicated;
      */
-    protected Map<Integer, ISUPParameter> v_Parameters;
+    protected ParameterSlots v_Parameters;
     /**
      * O = optional parameter of fixed or variable length; for type O parameters: the length, in octets, of the parameter name,
      * length indicator and parameter content. For variable length parameters the minimum and maximum length is indicated.
      */
-    protected Map<Integer, ISUPParameter> o_Parameters;
+    protected ParameterSlots o_Parameters;
 
     // magic
     protected Set<Integer> mandatoryCodes;
@@ -90,9 +99,10 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
             Map<Integer, Integer> optionalCode2Index) {
         super();
 
-        this.f_Parameters = new TreeMap<Integer, ISUPParameter>();
-        this.v_Parameters = new TreeMap<Integer, ISUPParameter>();
-        this.o_Parameters = new TreeMap<Integer, ISUPParameter>();
+        // +1 for MessageType / EndOfOptionalParameters slots
+        this.f_Parameters = new ParameterSlots(mandatoryCode2Index.size() + 1);
+        this.v_Parameters = new ParameterSlots(mandatoryVariableCode2Index.size());
+        this.o_Parameters = new ParameterSlots(optionalCode2Index.size() + 1);
 
         this.mandatoryCodes = mandatoryCodes;
         this.mandatoryVariableCodes = mandatoryVariableCodes;
@@ -108,7 +118,9 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
      *
      */
     public ISUPMessageImpl() {
-        // TODO Auto-generated constructor stub
+        this.f_Parameters = new ParameterSlots(1);
+        this.v_Parameters = new ParameterSlots(1);
+        this.o_Parameters = new ParameterSlots(1);
     }
 
     @Override
@@ -309,6 +321,102 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
 
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        int start = bb.position();
+
+        final boolean optionalPresent = this.o_Parameters.size() > 1;
+        this.encodeMandatoryParameters(f_Parameters, bb);
+        this.encodeMandatoryVariableParameters(v_Parameters, bb, optionalPresent);
+        if (optionalPresent) {
+            this.encodeOptionalParameters(o_Parameters, bb);
+        }
+
+        return bb.position() - start;
+    }
+
+    protected void encodeMandatoryParameters(ParameterSlots parameters, ByteBuffer bb) throws ParameterException {
+        if (this.cic == null) {
+            // this will be changed to different exception
+            throw new ParameterException("CIC is not set!");
+        }
+        ((AbstractISUPParameter) this.cic).encode(bb);
+        for (int i = 0; i < parameters.capacity(); i++) {
+            if (parameters.isPresent(i)) {
+                ((AbstractISUPParameter) parameters.getSlot(i)).encode(bb);
+            }
+        }
+    }
+
+    /**
+     * Pointers are reserved first and filled after the parameter they point to is encoded, so are length indicators.
+     *
+     * @param isOptionalPartPresent - if <b>true</b> this will encode pointer to point for start of optional part, otherwise it
+     *        will encode this octet as zeros
+     */
+    protected void encodeMandatoryVariableParameters(ParameterSlots parameters, ByteBuffer bb, boolean isOptionalPartPresent)
+            throws ParameterException {
+        boolean optionalPossible = optionalPartIsPossible();
+        if (!mandatoryVariablePartPossible()) {
+            // we ommit pointer to this part, go straight for optional pointer.
+            if (optionalPossible) {
+                bb.put((byte) (isOptionalPartPresent ? 0x01 : 0x00));
+            }
+            return;
+        }
+
+        int count = parameters.size();
+        int pointersStart = bb.position();
+        int pointerCount = optionalPossible ? count + 1 : count;
+        bb.position(pointersStart + pointerCount);
+
+        int index = 0;
+        for (int i = 0; i < parameters.capacity(); i++) {
+            if (!parameters.isPresent(i))
+                continue;
+            AbstractISUPParameter p = (AbstractISUPParameter) parameters.getSlot(i);
+
+            int lengthPosition = bb.position();
+            bb.put(pointersStart + index, (byte) (lengthPosition - (pointersStart + index)));
+            bb.put((byte) 0);
+            int length = p.encode(bb);
+            if (length > 255) {
+                throw new ParameterException("Length of body must not be greater than one octet - 255 ");
+            }
+            bb.put(lengthPosition, (byte) length);
+            index++;
+        }
+
+        if (optionalPossible) {
+            int pointerPosition = pointersStart + pointerCount - 1;
+            bb.put(pointerPosition, (byte) (isOptionalPartPresent ? bb.position() - pointerPosition : 0));
+        }
+    }
+
+    /**
+     * This method must be called ONLY in case there are optional params. This implies ISUPMessage.o_Parameters.size()>1 !!!
+     */
+    protected void encodeOptionalParameters(ParameterSlots parameters, ByteBuffer bb) throws ParameterException {
+        for (int i = 0; i < parameters.capacity(); i++) {
+            ISUPParameter p = parameters.getSlot(i);
+            if (p == null)
+                continue;
+
+            if (p instanceof EndOfOptionalParametersImpl) {
+                bb.put((byte) 0);
+                continue;
+            }
+
+            bb.put((byte) p.getCode());
+            int lengthPosition = bb.position();
+            bb.put((byte) 0);
+            int length = ((AbstractISUPParameter) p).encode(bb);
+            if (length > 255) {
+                throw new ParameterException("Parameter length is over 255: " + p);
+            }
+            bb.put(lengthPosition, (byte) length);
+        }
+    }
+
     public int decode(byte[] b, ISUPMessageFactory messageFactory,ISUPParameterFactory parameterFactory) throws ParameterException {
         int index = 0;
         index += this.decodeMandatoryParameters(parameterFactory, b, index);
@@ -494,20 +602,9 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
             throw new IllegalArgumentException("Argument must not be null");
         }
         int paramCode = param.getCode();
-        if (this.mandatoryCodes.contains(paramCode)) {
-            int index = this.mandatoryCodeToIndex.get(paramCode);
-            this.f_Parameters.put(index, (AbstractISUPParameter) param);
-            return;
-        }
-
-        if (this.mandatoryVariableCodes.contains(paramCode)) {
-            int index = this.mandatoryVariableCodeToIndex.get(paramCode);
-            this.v_Parameters.put(index, (AbstractISUPParameter) param);
-            return;
-        }
-        if (this.optionalCodes.contains(paramCode)) {
-            int index = this.optionalCodeToIndex.get(paramCode);
-            this.o_Parameters.put(index, (AbstractISUPParameter) param);
+        ParameterSlots parameters = this.getParameterSlots(paramCode);
+        if (parameters != null) {
+            parameters.put(this.getCodeIndex().index[paramCode & 0xFF], (AbstractISUPParameter) param);
             return;
         }
 
@@ -516,41 +613,89 @@ public abstract class ISUPMessageImpl extends AbstractISUPMessage {
     }
 
     public ISUPParameter getParameter(int parameterCode) throws ParameterException {
-
-        if (this.mandatoryCodes.contains(parameterCode)) {
-            int index = this.mandatoryCodeToIndex.get(parameterCode);
-            return this.f_Parameters.get(index);
+        ParameterSlots parameters = this.getParameterSlots(parameterCode);
+        if (parameters != null) {
+            return parameters.getSlot(this.getCodeIndex().index[parameterCode & 0xFF]);
         }
 
-        if (this.mandatoryVariableCodes.contains(parameterCode)) {
-            int index = this.mandatoryVariableCodeToIndex.get(parameterCode);
-            return this.v_Parameters.get(index);
-        }
-        if (this.optionalCodes.contains(parameterCode)) {
-            int index = this.optionalCodeToIndex.get(parameterCode);
-            return this.o_Parameters.get(index);
+        throw new ParameterException("Parameter with code: " + parameterCode
+                + " is not defined in any type: mandatory, mandatory variable or optional");
+    }
+
+    public void removeParameter(int parameterCode) throws ParameterException {
+        ParameterSlots parameters = this.getParameterSlots(parameterCode);
+        if (parameters != null) {
+            parameters.removeSlot(this.getCodeIndex().index[parameterCode & 0xFF]);
+            return;
         }
 
         throw new ParameterException("Parameter with code: " + parameterCode
                 + " is not defined in any type: mandatory, mandatory variable or optional");
     }
 
-    public void removeParameter(int parameterCode) throws ParameterException {
-        if (this.mandatoryCodes.contains(parameterCode)) {
-            int index = this.mandatoryCodeToIndex.get(parameterCode);
-            this.f_Parameters.remove(index);
+    /**
+     * @return the part that keeps parameters with this code or null if the message does not define this parameter
+     */
+    private ParameterSlots getParameterSlots(int parameterCode) {
+        if (parameterCode < 0 || parameterCode > 255 || this.mandatoryCodes == null) {
+            return null;
+        }
+        switch (this.getCodeIndex().part[parameterCode]) {
+            case PART_F:
+                return this.f_Parameters;
+            case PART_V:
+                return this.v_Parameters;
+            case PART_O:
+                return this.o_Parameters;
+            default:
+                return null;
         }
+    }
 
-        if (this.mandatoryVariableCodes.contains(parameterCode)) {
-            int index = this.mandatoryVariableCodeToIndex.get(parameterCode);
-            this.v_Parameters.remove(index);
+    /**
+     * Code sets and indexes are static for a message type, so the lookup table is built once per message class.
+     */
+    private CodeIndex getCodeIndex() {
+        CodeIndex codeIndex = CODE_INDEXES.get(this.getClass());
+        if (codeIndex == null || !codeIndex.isBuiltFrom(this)) {
+            codeIndex = new CodeIndex(this);
+            CODE_INDEXES.put(this.getClass(), codeIndex);
         }
-        if (this.optionalCodes.contains(parameterCode)) {
-            int index = this.optionalCodeToIndex.get(parameterCode);
-            this.o_Parameters.remove(index);
+        return codeIndex;
+    }
+
+    private static class CodeIndex {
+        private final Set<Integer> mandatoryCodes;
+        private final Set<Integer> mandatoryVariableCodes;
+        private final Set<Integer> optionalCodes;
+
+        private final byte[] part = new byte[256];
+        private final int[] index = new int[256];
+
+        CodeIndex(ISUPMessageImpl msg) {
+            this.mandatoryCodes = msg.mandatoryCodes;
+            this.mandatoryVariableCodes = msg.mandatoryVariableCodes;
+            this.optionalCodes = msg.optionalCodes;
+
+            // in the order reverse to the old lookup, so F wins if a code is in several parts
+            this.fill(msg.optionalCodes, msg.optionalCodeToIndex, PART_O);
+            this.fill(msg.mandatoryVariableCodes, msg.mandatoryVariableCodeToIndex, PART_V);
+            this.fill(msg.mandatoryCodes, msg.mandatoryCodeToIndex, PART_F);
+        }
+
+        private void fill(Set<Integer> codes, Map<Integer, Integer> codeToIndex, int p) {
+            for (Integer code : codes) {
+                if (code >= 0 && code <= 255) {
+                    this.part[code] = (byte) p;
+                    this.index[code] = codeToIndex.get(code);
+                }
+            }
+        }
+
+        boolean isBuiltFrom(ISUPMessageImpl msg) {
+            return this.mandatoryCodes == msg.mandatoryCodes && this.mandatoryVariableCodes == msg.mandatoryVariableCodes
+                    && this.optionalCodes == msg.optionalCodes;
         }
-        throw new ParameterException("Parameter with code: " + parameterCode
-                + " is not defined in any type: mandatory, mandatory variable or optional");
     }
 
     public String toString() {
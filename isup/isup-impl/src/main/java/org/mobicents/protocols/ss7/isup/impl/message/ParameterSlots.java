@@ -0,0 +1,240 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.isup.impl.message;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.mobicents.protocols.ss7.isup.message.parameter.ISUPParameter;
+
+/**
+ * Parameters of one part (mandatory fixed, mandatory variable or optional) of an ISUP message, stored in an array indexed by the
+ * parameter position in the message (the _INDEX_* constants of messages).
+ *
+ * It keeps the Map contract of the TreeMap that was used before: keys are iterated in ascending order and a key that is put
+ * with null value is present (it counts in size() and is returned by keySet()). Encoding reads slots directly with
+ * {@link #capacity()} and {@link #getSlot(int)}.
+ */
+public class ParameterSlots extends AbstractMap<Integer, ISUPParameter> {
+
+    private ISUPParameter[] values;
+    private boolean[] present;
+    private int size;
+
+    public ParameterSlots(int initialCapacity) {
+        if (initialCapacity < 1)
+            initialCapacity = 1;
+        this.values = new ISUPParameter[initialCapacity];
+        this.present = new boolean[initialCapacity];
+    }
+
+    /**
+     * @return the count of slots, indexes of present parameters are less than this value
+     */
+    public int capacity() {
+        return this.values.length;
+    }
+
+    public ISUPParameter getSlot(int index) {
+        return index < this.values.length ? this.values[index] : null;
+    }
+
+    public ISUPParameter get(int index) {
+        return this.getSlot(index);
+    }
+
+    public boolean isPresent(int index) {
+        return index < this.present.length && this.present[index];
+    }
+
+    public ISUPParameter put(int index, ISUPParameter value) {
+        if (index < 0)
+            throw new IllegalArgumentException("Parameter index must not be negative: " + index);
+        if (index >= this.values.length)
+            this.grow(index + 1);
+
+        ISUPParameter old = this.values[index];
+        this.values[index] = value;
+        if (!this.present[index]) {
+            this.present[index] = true;
+            this.size++;
+        }
+        return old;
+    }
+
+    public ISUPParameter removeSlot(int index) {
+        if (!this.isPresent(index))
+            return null;
+
+        ISUPParameter old = this.values[index];
+        this.values[index] = null;
+        this.present[index] = false;
+        this.size--;
+        return old;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = this.values.length * 2;
+        if (capacity < minCapacity)
+            capacity = minCapacity;
+        ISUPParameter[] newValues = new ISUPParameter[capacity];
+        boolean[] newPresent = new boolean[capacity];
+        System.arraycopy(this.values, 0, newValues, 0, this.values.length);
+        System.arraycopy(this.present, 0, newPresent, 0, this.present.length);
+        this.values = newValues;
+        this.present = newPresent;
+    }
+
+    @Override
+    public ISUPParameter put(Integer key, ISUPParameter value) {
+        return this.put(key.intValue(), value);
+    }
+
+    @Override
+    public ISUPParameter get(Object key) {
+        if (key instanceof Integer) {
+            int index = (Integer) key;
+            return index >= 0 ? this.getSlot(index) : null;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        if (key instanceof Integer) {
+            int index = (Integer) key;
+            return index >= 0 && this.isPresent(index);
+        }
+        return false;
+    }
+
+    @Override
+    public ISUPParameter remove(Object key) {
+        if (key instanceof Integer) {
+            int index = (Integer) key;
+            return index >= 0 ? this.removeSlot(index) : null;
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < this.values.length; i++) {
+            this.values[i] = null;
+            this.present[i] = false;
+        }
+        this.size = 0;
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, ISUPParameter>> entrySet() {
+        return new AbstractSet<Map.Entry<Integer, ISUPParameter>>() {
+            @Override
+            public Iterator<Map.Entry<Integer, ISUPParameter>> iterator() {
+                return new SlotIterator();
+            }
+
+            @Override
+            public int size() {
+                return ParameterSlots.this.size;
+            }
+        };
+    }
+
+    private class SlotEntry implements Map.Entry<Integer, ISUPParameter> {
+        private final int index;
+
+        private SlotEntry(int index) {
+            this.index = index;
+        }
+
+        public Integer getKey() {
+            return this.index;
+        }
+
+        public ISUPParameter getValue() {
+            return values[this.index];
+        }
+
+        public ISUPParameter setValue(ISUPParameter value) {
+            return ParameterSlots.this.put(this.index, value);
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry))
+                return false;
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            Object value = this.getValue();
+            return this.getKey().equals(e.getKey()) && (value == null ? e.getValue() == null : value.equals(e.getValue()));
+        }
+
+        public int hashCode() {
+            Object value = this.getValue();
+            return this.index ^ (value == null ? 0 : value.hashCode());
+        }
+
+        public String toString() {
+            return this.index + "=" + this.getValue();
+        }
+    }
+
+    private class SlotIterator implements Iterator<Map.Entry<Integer, ISUPParameter>> {
+        private int next = this.find(0);
+        private int last = -1;
+
+        private int find(int from) {
+            while (from < present.length && !present[from])
+                from++;
+            return from;
+        }
+
+        public boolean hasNext() {
+            return this.next < present.length;
+        }
+
+        public Map.Entry<Integer, ISUPParameter> next() {
+            if (!this.hasNext())
+                throw new NoSuchElementException();
+            this.last = this.next;
+            this.next = this.find(this.next + 1);
+            return new SlotEntry(this.last);
+        }
+
+        public void remove() {
+            if (this.last < 0)
+                throw new IllegalStateException();
+            removeSlot(this.last);
+            this.last = -1;
+        }
+    }
+
+}
@@ -29,6 +29,7 @@
 package org.mobicents.protocols.ss7.isup.impl.message;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ISUPMessageFactory;
 import org.mobicents.protocols.ss7.isup.ISUPParameterFactory;
@@ -92,6 +93,14 @@ public class PassAlongMessageImpl extends ISUPMessageImpl implements PassAlongMe
         return bos.size();
     }
 
+    @Override
+    public int encode(ByteBuffer bb) throws ParameterException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        int len = this.encode(bos);
+        bb.put(bos.toByteArray());
+        return len;
+    }
+
     @Override
     public int decode(byte[] b, ISUPMessageFactory messageFactory,ISUPParameterFactory parameterFactory) throws ParameterException {
         int index = 0;
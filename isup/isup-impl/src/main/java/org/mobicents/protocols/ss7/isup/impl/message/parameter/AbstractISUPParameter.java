@@ -23,6 +23,7 @@
 package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.ISUPParameter;
@@ -49,6 +50,19 @@ public abstract class AbstractISUPParameter implements ISUPParameter,Encodable {
         }
         return b.length;
     }
+
+    /**
+     * Encodes parameter content into the buffer. Parameters that are frequent in call control messages override this
+     * method to write directly into the buffer, others encode into byte[] first.
+     *
+     * @return number of bytes encoded
+     * @throws ParameterException
+     */
+    public int encode(ByteBuffer bb) throws ParameterException {
+        byte[] b = encode();
+        bb.put(b);
+        return b.length;
+    }
 //
 //    /**
 //     * Decodes this element from passed byte[] array. This array must contain only element data. however in case of constructor
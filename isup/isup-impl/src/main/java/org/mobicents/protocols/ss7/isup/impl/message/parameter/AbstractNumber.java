@@ -25,6 +25,7 @@ package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import javolution.xml.XMLFormat;
 import javolution.xml.stream.XMLStreamException;
@@ -320,6 +321,14 @@ public abstract class AbstractNumber extends AbstractISUPParameter implements Nu
         return count;
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        ByteBufferOutputStream bos = new ByteBufferOutputStream(bb);
+        encodeHeader(bos);
+        encodeBody(bos);
+        encodeDigits(bos);
+        return bos.size();
+    }
+
     /**
      * This method is used in encode method. It encodes header part (1 or 2 bytes usually.)
      *
@@ -363,11 +372,8 @@ public abstract class AbstractNumber extends AbstractISUPParameter implements Nu
         int count = (!isOdd) ? address.length() : address.length() - 1;
         int bytesCount = 0;
         for (int i = 0; i < count - 1; i += 2) {
-            String ds1 = address.substring(i, i + 1);
-            String ds2 = address.substring(i + 1, i + 2);
-
-            int d1 = Integer.parseInt(ds1, 16);
-            int d2 = Integer.parseInt(ds2, 16);
+            int d1 = digit(address.charAt(i), 16);
+            int d2 = digit(address.charAt(i + 1), 16);
 
             b = (byte) (d2 << 4 | d1);
             bos.write(b);
@@ -375,8 +381,7 @@ public abstract class AbstractNumber extends AbstractISUPParameter implements Nu
         }
 
         if (isOdd) {
-            String ds1 = address.substring(count, count + 1);
-            int d = Integer.parseInt(ds1);
+            int d = digit(address.charAt(count), 10);
 
             b = (byte) (d & 0x0f);
             bos.write(b);
@@ -386,6 +391,14 @@ public abstract class AbstractNumber extends AbstractISUPParameter implements Nu
         return bytesCount;
     }
 
+    private static int digit(char c, int radix) {
+        int d = Character.digit(c, radix);
+        if (d < 0) {
+            throw new NumberFormatException("For input string: \"" + c + "\"");
+        }
+        return d;
+    }
+
     public boolean isOddFlag() {
         return oddFlag == _FLAG_ODD;
     }
@@ -32,6 +32,7 @@ package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.BackwardCallIndicators;
@@ -123,16 +124,26 @@ public class BackwardCallIndicatorsImpl extends AbstractISUPParameter implements
     }
 
     public byte[] encode() throws ParameterException {
+        return new byte[] { this.encodeFirstOctet(), this.encodeSecondOctet() };
+    }
+
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put(this.encodeFirstOctet());
+        bb.put(this.encodeSecondOctet());
+        return 2;
+    }
 
-        byte[] b = new byte[2];
+    private byte encodeFirstOctet() {
         int v = 0;
         v |= this.chargeIndicator & 0x03;
         v |= (this.calledPartysStatusIndicator & 0x03) << 2;
         v |= (this.calledPartysCategoryIndicator & 0x03) << 4;
         v |= (this.endToEndMethodIndicator & 0x03) << 6;
-        b[0] = (byte) v;
-        v = 0;
+        return (byte) v;
+    }
 
+    private byte encodeSecondOctet() {
+        int v = 0;
         v |= (this.interworkingIndicator ? _TURN_ON : _TURN_OFF);
         v |= (this.endToEndInformationIndicator ? _TURN_ON : _TURN_OFF) << 1;
         v |= (this.isdnUserPartIndicator ? _TURN_ON : _TURN_OFF) << 2;
@@ -140,9 +151,7 @@ public class BackwardCallIndicatorsImpl extends AbstractISUPParameter implements
         v |= (this.isdnAccessIndicator ? _TURN_ON : _TURN_OFF) << 4;
         v |= (this.echoControlDeviceIndicator ? _TURN_ON : _TURN_OFF) << 5;
         v |= (this.sccpMethodIndicator & 0x03) << 6;
-
-        b[1] = (byte) v;
-        return b;
+        return (byte) v;
     }
 
     public int encode(ByteArrayOutputStream bos) throws ParameterException {
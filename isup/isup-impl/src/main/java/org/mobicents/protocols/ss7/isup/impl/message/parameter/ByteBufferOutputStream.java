@@ -0,0 +1,72 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.isup.impl.message.parameter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * ByteArrayOutputStream that writes into a ByteBuffer, so that parameter encoding methods that take ByteArrayOutputStream
+ * (like AbstractNumber.encodeHeader() / encodeBody() / encodeDigits()) can encode directly into the message buffer.
+ */
+public class ByteBufferOutputStream extends ByteArrayOutputStream {
+
+    private final ByteBuffer bb;
+    private final int start;
+
+    public ByteBufferOutputStream(ByteBuffer bb) {
+        super(0);
+        this.bb = bb;
+        this.start = bb.position();
+    }
+
+    @Override
+    public void write(int b) {
+        this.bb.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        this.bb.put(b, off, len);
+    }
+
+    @Override
+    public int size() {
+        return this.bb.position() - this.start;
+    }
+
+    @Override
+    public void reset() {
+        this.bb.position(this.start);
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] res = new byte[this.size()];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = this.bb.get(this.start + i);
+        }
+        return res;
+    }
+
+}
@@ -23,6 +23,7 @@
 package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import javolution.xml.XMLFormat;
 import javolution.xml.stream.XMLStreamException;
@@ -78,6 +79,11 @@ public class CallingPartyCategoryImpl extends AbstractISUPParameter implements C
         return 1;
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put(this.callingPartyCategory);
+        return 1;
+    }
+
     public byte getCallingPartyCategory() {
         return callingPartyCategory;
     }
@@ -24,6 +24,7 @@ package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import javolution.xml.XMLFormat;
 import javolution.xml.stream.XMLStreamException;
@@ -132,6 +133,18 @@ public class CauseIndicatorsImpl extends AbstractISUPParameter implements CauseI
         return b;
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        int v = this.location & 0x0F;
+        v |= (byte) ((this.codingStandard & 0x03) << 5) | (0x01 << 7);
+        bb.put((byte) v);
+        bb.put((byte) (this.causeValue | (0x01 << 7)));
+        if (this.diagnostics != null) {
+            bb.put(this.diagnostics);
+            return 2 + this.diagnostics.length;
+        }
+        return 2;
+    }
+
     public int encode(ByteArrayOutputStream bos) throws ParameterException {
         byte[] b = this.encode();
         try {
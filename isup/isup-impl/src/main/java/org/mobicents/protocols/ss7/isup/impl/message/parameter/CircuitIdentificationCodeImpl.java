@@ -28,6 +28,8 @@
  */
 package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
+import java.nio.ByteBuffer;
+
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.CircuitIdentificationCode;
 
@@ -88,4 +90,10 @@ public class CircuitIdentificationCodeImpl extends AbstractISUPParameter impleme
         return b;
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put((byte) this.cic);
+        bb.put((byte) ((this.cic >> 8) & 0x0F));
+        return 2;
+    }
+
 }
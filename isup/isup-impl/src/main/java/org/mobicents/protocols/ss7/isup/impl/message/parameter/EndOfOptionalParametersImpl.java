@@ -31,6 +31,7 @@
 package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.EndOfOptionalParameters;
@@ -74,6 +75,11 @@ public class EndOfOptionalParametersImpl extends AbstractISUPParameter implement
         return 1;
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put((byte) 0);
+        return 1;
+    }
+
     public int getCode() {
 
         return _PARAMETER_CODE;
@@ -32,6 +32,7 @@ package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.ForwardCallIndicators;
@@ -105,20 +106,30 @@ public class ForwardCallIndicatorsImpl extends AbstractISUPParameter implements
     }
 
     public byte[] encode() throws ParameterException {
+        return new byte[] { this.encodeFirstOctet(), this.encodeSecondOctet() };
+    }
 
-        byte[] b = new byte[2];
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put(this.encodeFirstOctet());
+        bb.put(this.encodeSecondOctet());
+        return 2;
+    }
 
-        b[0] |= this.nationalCallIdentificator ? _TURN_ON : _TURN_OFF;
-        b[0] |= (this.endToEndMethodIndicator & 0x03) << 1;
-        b[0] |= (this.interworkingIndicator ? _TURN_ON : _TURN_OFF) << 3;
-        b[0] |= (this.endToEndInformationIndicator ? _TURN_ON : _TURN_OFF) << 4;
-        b[0] |= (this.isdnUserPartIndicator ? _TURN_ON : _TURN_OFF) << 5;
-        b[0] |= (this.isdnUserPartReferenceIndicator & 0x03) << 6;
+    private byte encodeFirstOctet() {
+        int v = this.nationalCallIdentificator ? _TURN_ON : _TURN_OFF;
+        v |= (this.endToEndMethodIndicator & 0x03) << 1;
+        v |= (this.interworkingIndicator ? _TURN_ON : _TURN_OFF) << 3;
+        v |= (this.endToEndInformationIndicator ? _TURN_ON : _TURN_OFF) << 4;
+        v |= (this.isdnUserPartIndicator ? _TURN_ON : _TURN_OFF) << 5;
+        v |= (this.isdnUserPartReferenceIndicator & 0x03) << 6;
+        return (byte) v;
+    }
 
-        b[1] = (byte) (this.isdnAccessIndicator ? _TURN_ON : _TURN_OFF);
+    private byte encodeSecondOctet() {
+        int v = this.isdnAccessIndicator ? _TURN_ON : _TURN_OFF;
         // FIXME should we allow here older bytes to pass
-        b[1] |= (this.sccpMethodIndicator & 0x03) << 1;
-        return b;
+        v |= (this.sccpMethodIndicator & 0x03) << 1;
+        return (byte) v;
     }
 
     public int encode(ByteArrayOutputStream bos) throws ParameterException {
@@ -32,6 +32,7 @@ package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.GVNSUserGroup;
@@ -70,6 +71,12 @@ public class GVNSUserGroupImpl extends AbstractNumber implements GVNSUserGroup {
         return super.decode(b);
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        byte[] b = this.encode();
+        bb.put(b);
+        return b.length;
+    }
+
     public byte[] encode() throws ParameterException {
         return super.encode();
     }
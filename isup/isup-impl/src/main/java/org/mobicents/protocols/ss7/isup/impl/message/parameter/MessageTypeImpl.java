@@ -31,6 +31,7 @@
 package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.MessageName;
@@ -79,6 +80,11 @@ public class MessageTypeImpl extends AbstractISUPParameter implements MessageTyp
         return 1;
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put((byte) this.messageName.getCode());
+        return 1;
+    }
+
     public int getCode() {
 
         return messageName.getCode();
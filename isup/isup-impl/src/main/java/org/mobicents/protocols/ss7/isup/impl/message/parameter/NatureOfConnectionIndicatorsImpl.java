@@ -32,6 +32,7 @@ package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.NatureOfConnectionIndicators;
@@ -81,12 +82,20 @@ public class NatureOfConnectionIndicatorsImpl extends AbstractISUPParameter impl
     }
 
     public byte[] encode() throws ParameterException {
+        return new byte[] { this.encodeOctet() };
+    }
+
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put(this.encodeOctet());
+        return 1;
+    }
 
+    private byte encodeOctet() {
         int b0 = 0;
         b0 = this.satelliteIndicator & 0x03;
         b0 |= (this.continuityCheckIndicator & 0x03) << 2;
         b0 |= (this.echoControlDeviceIndicator ? _TURN_ON : _TURN_OFF) << 4;
-        return new byte[] { (byte) b0 };
+        return (byte) b0;
     }
 
     public int encode(ByteArrayOutputStream bos) throws ParameterException {
@@ -30,6 +30,8 @@
  */
 package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
+import java.nio.ByteBuffer;
+
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.OptionalBackwardCallIndicators;
 
@@ -75,7 +77,15 @@ public class OptionalBackwardCallIndicatorsImpl extends AbstractISUPParameter im
     }
 
     public byte[] encode() throws ParameterException {
+        return new byte[] { this.encodeOctet() };
+    }
+
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put(this.encodeOctet());
+        return 1;
+    }
 
+    private byte encodeOctet() {
         int b0 = 0;
 
         b0 = this.inbandInformationIndicator ? _TURN_ON : _TURN_OFF;
@@ -83,7 +93,7 @@ public class OptionalBackwardCallIndicatorsImpl extends AbstractISUPParameter im
         b0 |= (this.simpleSegmentationIndicator ? _TURN_ON : _TURN_OFF) << 2;
         b0 |= (this.mllpUserIndicator ? _TURN_ON : _TURN_OFF) << 3;
 
-        return new byte[] { (byte) b0 };
+        return (byte) b0;
     }
 
     public boolean isInbandInformationIndicator() {
@@ -32,6 +32,7 @@ package org.mobicents.protocols.ss7.isup.impl.message.parameter;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.isup.ParameterException;
 import org.mobicents.protocols.ss7.isup.message.parameter.TransmissionMediumRequirement;
@@ -88,6 +89,11 @@ public class TransmissionMediumRequirementImpl extends AbstractISUPParameter imp
         return b.length;
     }
 
+    public int encode(ByteBuffer bb) throws ParameterException {
+        bb.put((byte) this.transimissionMediumRequirement);
+        return 1;
+    }
+
     public int getTransimissionMediumRequirement() {
         return transimissionMediumRequirement;
     }
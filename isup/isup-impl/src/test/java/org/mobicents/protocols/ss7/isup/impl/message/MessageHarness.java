@@ -35,6 +35,7 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import org.mobicents.protocols.ss7.isup.ISUPMessageFactory;
@@ -194,6 +195,26 @@ public abstract class MessageHarness {
 
     }
 
+    @Test(groups = { "functional.encode", "message" })
+    public void testByteBufferEncode() throws Exception {
+
+        final byte[] defaultBody = getDefaultBody();
+        final AbstractISUPMessage msg = (AbstractISUPMessage) getDefaultMessage();
+        msg.decode(defaultBody, messageFactory, parameterFactory);
+        final byte[] encodedBody = msg.encode();
+
+        // encoding starts from a non zero position, pointers must be relative
+        final ByteBuffer bb = ByteBuffer.allocate(encodedBody.length + 10);
+        bb.position(3);
+        final int len = msg.encode(bb);
+        assertEquals(len, encodedBody.length);
+        assertEquals(bb.position(), 3 + len);
+        final byte[] bufferBody = new byte[len];
+        System.arraycopy(bb.array(), 3, bufferBody, 0, len);
+        assertTrue(Arrays.equals(encodedBody, bufferBody), makeStringCompare(encodedBody, bufferBody));
+
+    }
+
     protected long getDefaultCIC() {
         return 0xB0C;
     }
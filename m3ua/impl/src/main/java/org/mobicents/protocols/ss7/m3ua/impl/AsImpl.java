@@ -116,6 +116,9 @@ public class AsImpl implements XMLSerializable, As {
     private int aspSlsMask = 0x07;
     private int aspSlsShiftPlaces = 0x00;
 
+    // congestion aware bucket assignment, created lazily when adaptive load sharing is enabled, null after ASP list changes
+    private volatile SlsLoadBalancer slsLoadBalancer;
+
     protected State state = AsState.DOWN;
 
     public AsImpl() {
@@ -619,27 +622,38 @@ public class AsImpl implements XMLSerializable, As {
             case ACTIVE:
                 boolean aspFound = false;
 
-                // TODO : Algo to select correct ASP
-
                 int aspIndex = (sls & this.aspSlsMask);
                 aspIndex = (aspIndex >> this.aspSlsShiftPlaces);
 
-                for (int i = 0; i < this.appServerProcs.size(); i++) {
+                SlsLoadBalancer balancer = this.getSlsLoadBalancer();
+                if (balancer != null) {
+                    long now = System.nanoTime();
+                    if (balancer.isRebalanceDue(now)) {
+                        this.rebalance(balancer, isASPLocalFsm, now);
+                    }
 
-                    AspImpl aspTemp = (AspImpl) this.appServerProcs.get(this.slsVsAspTable[aspIndex++]);
+                    // the bucket can not be moved between reading its ASP and the end of the write
+                    int aspPos = balancer.onWriteStart(aspIndex);
+                    try {
+                        if (aspPos < this.appServerProcs.size()) {
+                            AspImpl aspTemp = (AspImpl) this.appServerProcs.get(aspPos);
+                            if (this.isAspActive(aspTemp, isASPLocalFsm)) {
+                                aspTemp.getAspFactory().write(message);
+                                aspFound = true;
+                            }
+                        }
+                    } finally {
+                        balancer.onWriteEnd(aspIndex, System.nanoTime());
+                    }
+                }
 
-                    FSM aspFsm = null;
+                for (int i = 0; i < this.appServerProcs.size() && !aspFound; i++) {
 
-                    if (isASPLocalFsm) {
-                        aspFsm = aspTemp.getLocalFSM();
-                    } else {
-                        aspFsm = aspTemp.getPeerFSM();
-                    }
+                    AspImpl aspTemp = (AspImpl) this.appServerProcs.get(this.slsVsAspTable[aspIndex++]);
 
-                    if (AspState.getState(aspFsm.getState().getName()) == AspState.ACTIVE) {
+                    if (this.isAspActive(aspTemp, isASPLocalFsm)) {
                         aspTemp.getAspFactory().write(message);
                         aspFound = true;
-                        break;
                     }
                 }// for
 
@@ -661,6 +675,88 @@ public class AsImpl implements XMLSerializable, As {
         }
     }
 
+    private boolean isAspActive(AspImpl aspImpl, boolean isASPLocalFsm) {
+        FSM aspFsm = null;
+
+        if (isASPLocalFsm) {
+            aspFsm = aspImpl.getLocalFSM();
+        } else {
+            aspFsm = aspImpl.getPeerFSM();
+        }
+
+        return AspState.getState(aspFsm.getState().getName()) == AspState.ACTIVE;
+    }
+
+    /**
+     * @return the balancer if adaptive load sharing is enabled and this is a loadshare As with more than one ASP or null
+     */
+    private SlsLoadBalancer getSlsLoadBalancer() {
+        if (this.m3UAManagementImpl == null || !this.m3UAManagementImpl.isAdaptiveLoadSharing() || this.trMode == null
+                || this.trMode.getMode() != TrafficModeType.Loadshare) {
+            return null;
+        }
+
+        SlsLoadBalancer balancer = this.slsLoadBalancer;
+        if (balancer == null) {
+            int aspCount = this.appServerProcs.size();
+            if (aspCount < 2) {
+                return null;
+            }
+            balancer = new SlsLoadBalancer(this.slsVsAspTable, (this.aspSlsMask >> this.aspSlsShiftPlaces) + 1, aspCount,
+                    System.nanoTime());
+            this.slsLoadBalancer = balancer;
+        }
+        return balancer;
+    }
+
+    private void rebalance(SlsLoadBalancer balancer, boolean isASPLocalFsm, long now) {
+        int aspCount = this.appServerProcs.size();
+        boolean[] active = new boolean[aspCount];
+        AspTrafficStats[] stats = new AspTrafficStats[aspCount];
+        for (int i = 0; i < aspCount; i++) {
+            AspImpl aspImpl = (AspImpl) this.appServerProcs.get(i);
+            active[i] = this.isAspActive(aspImpl, isASPLocalFsm);
+            stats[i] = aspImpl.getAspFactory().getTrafficStats();
+        }
+
+        int moves = balancer.rebalance(active, stats, now);
+        if (moves > 0 && logger.isDebugEnabled()) {
+            logger.debug(String.format("As=%s moved %d SLS buckets between ASPs", this.name, moves));
+        }
+    }
+
+    /**
+     * @return the count of SLS buckets whose traffic is sent via the ASP or -1 if the ASP does not belong to this As
+     */
+    public int getSlsBucketCount(Asp asp) {
+        int aspPos = this.appServerProcs.indexOf(asp);
+        if (aspPos < 0) {
+            return -1;
+        }
+
+        SlsLoadBalancer balancer = this.slsLoadBalancer;
+        if (balancer != null) {
+            return balancer.getAspBucketCount(aspPos);
+        }
+
+        int count = 0;
+        int bucketCount = (this.aspSlsMask >> this.aspSlsShiftPlaces) + 1;
+        for (int i = 0; i < bucketCount; i++) {
+            if (this.slsVsAspTable[i] == aspPos)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return true if adaptive load sharing has marked the ASP as lagging and moves its SLS buckets to other ASPs
+     */
+    public boolean isAspLagging(Asp asp) {
+        SlsLoadBalancer balancer = this.slsLoadBalancer;
+        int aspPos = this.appServerProcs.indexOf(asp);
+        return balancer != null && aspPos >= 0 && balancer.isLagging(aspPos);
+    }
+
     protected void clearPendingQueue() {
         if (logger.isDebugEnabled()) {
             if (this.penQueue.size() > 0) {
@@ -791,5 +887,6 @@ public class AsImpl implements XMLSerializable, As {
             }
             this.slsVsAspTable[count] = aspNumber++;
         }
+        this.slsLoadBalancer = null;
     }
 }
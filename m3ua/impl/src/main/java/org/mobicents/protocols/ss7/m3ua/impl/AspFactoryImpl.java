@@ -100,6 +100,10 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
     protected FastList<Asp> aspList = new FastList<Asp>();
 
     private ByteBuffer txBuffer = ByteBuffer.allocateDirect(8192);
+    // coalescing of outgoing DATA messages, not null only if tx batching is enabled and the association is up
+    private volatile AspTxBatcher txBatcher = null;
+
+    private final AspTrafficStats trafficStats = new AspTrafficStats();
 
     protected Management transportManagement = null;
 
@@ -447,8 +451,40 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
         }
     }
 
+    /**
+     * @return the DATA message batcher of this AspFactory or null if tx batching is not enabled or the association is down
+     */
+    public AspTxBatcher getTxBatcher() {
+        return this.txBatcher;
+    }
+
+    /**
+     * @return transmit counters of DATA messages of this AspFactory
+     */
+    public AspTrafficStats getTrafficStats() {
+        return this.trafficStats;
+    }
+
     protected void write(M3UAMessage message) {
 
+        AspTxBatcher batcher = this.txBatcher;
+        if (batcher != null) {
+            if (message.getMessageClass() == MessageClass.TRANSFER_MESSAGES) {
+                try {
+                    PayloadData payload = (PayloadData) message;
+                    batcher.write((M3UAMessageImpl) message, this.slsTable[payload.getData().getSLS()]);
+                } catch (Exception e) {
+                    logger.error(String.format("Error while trying to send PayloadData to SCTP layer. M3UAMessage=%s",
+                            message), e);
+                }
+                return;
+            }
+            // a management message must not overtake DATA messages that are already accepted
+            batcher.flushAll();
+        }
+
+        long startTime = System.nanoTime();
+        int dataLength = -1;
         synchronized (txBuffer) {
             try {
                 txBuffer.clear();
@@ -472,6 +508,8 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
                         int seqControl = payload.getData().getSLS();
                         payloadData = new org.mobicents.protocols.api.PayloadData(data.length, data, true, false,
                                 SCTP_PAYLOAD_PROT_ID_M3UA, this.slsTable[seqControl]);
+                        dataLength = data.length;
+                        this.trafficStats.onAccepted(dataLength);
                         break;
                     default:
                         payloadData = new org.mobicents.protocols.api.PayloadData(data.length, data, true, true,
@@ -480,8 +518,15 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
                 }
 
                 this.association.send(payloadData);
+                if (dataLength >= 0) {
+                    this.trafficStats.onSent(1, dataLength, System.nanoTime() - startTime);
+                    dataLength = -1;
+                }
             } catch (Exception e) {
                 logger.error(String.format("Error while trying to send PayloadData to SCTP layer. M3UAMessage=%s", message), e);
+            } finally {
+                if (dataLength >= 0)
+                    this.trafficStats.onDiscarded(dataLength);
             }
         }
     }
@@ -541,6 +586,14 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
             this.heartBeatTimer.cancel();
         }
 
+        AspTxBatcher batcher = this.txBatcher;
+        if (batcher != null) {
+            this.txBatcher = null;
+            if (this.m3UAManagementImpl.txBatchFlusher != null)
+                this.m3UAManagementImpl.txBatchFlusher.unregister(batcher);
+            batcher.clear();
+        }
+
         for (FastList.Node<Asp> n = aspList.head(), end = aspList.tail(); (n = n.getNext()) != end;) {
             AspImpl aspImpl = (AspImpl) n.getValue();
             try {
@@ -592,6 +645,14 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
             this.m3UAManagementImpl.m3uaScheduler.execute(this.heartBeatTimer);
         }
 
+        if (this.m3UAManagementImpl.txBatchFlusher != null) {
+            AspTxBatcher batcher = new AspTxBatcher(this.association, SCTP_PAYLOAD_PROT_ID_M3UA, this.maxOutboundStreams,
+                    this.m3UAManagementImpl.getTxBatchMaxSize(), this.m3UAManagementImpl.getTxBatchMaxDelay(),
+                    this.trafficStats);
+            this.m3UAManagementImpl.txBatchFlusher.register(batcher);
+            this.txBatcher = batcher;
+        }
+
         if (this.functionality == Functionality.AS
                 || (this.functionality == Functionality.SGW && this.exchangeType == ExchangeType.DE)
                 || (this.functionality == Functionality.IPSP && this.exchangeType == ExchangeType.DE)
@@ -722,6 +783,10 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
 
         byte[] m3uadata = payloadData.getData();
         M3UAMessage m3UAMessage;
+        if (this.m3UAManagementImpl != null && this.m3UAManagementImpl.isPooledDecoding()) {
+            this.onPayloadPooled(association, m3uadata);
+            return;
+        }
         if (association.getIpChannelType() == IpChannelType.SCTP) {
             // TODO where is streamNumber stored?
             m3UAMessage = this.messageFactory.createSctpMessage(m3uadata);
@@ -744,6 +809,47 @@ public class AspFactoryImpl implements AssociationListener, XMLSerializable, Asp
         }
     }
 
+    private void onPayloadPooled(Association association, byte[] m3uadata) {
+        MessageFactoryImpl mf = (MessageFactoryImpl) this.messageFactory;
+        ByteBuffer buffer = ByteBuffer.wrap(m3uadata);
+        if (association.getIpChannelType() == IpChannelType.SCTP) {
+            // one message per SCTP payload
+            M3UAMessageImpl m3UAMessage = mf.createPooledMessage(buffer);
+            if (m3UAMessage == null) {
+                logger.error(String.format("Rx : malformed M3UA message of %d bytes from Association=%s", m3uadata.length,
+                        association.getName()));
+                return;
+            }
+            if (this.isHeartBeatEnabled()) {
+                this.heartBeatTimer.reset();
+            }
+            try {
+                this.read(m3UAMessage);
+            } finally {
+                mf.releaseMessage(m3UAMessage);
+            }
+        } else {
+            while (true) {
+                M3UAMessageImpl m3UAMessage = null;
+                if (!mf.hasPartialMessage())
+                    m3UAMessage = mf.createPooledMessage(buffer);
+                if (m3UAMessage == null)
+                    m3UAMessage = mf.createMessage(buffer);
+                if (m3UAMessage == null)
+                    break;
+
+                if (this.isHeartBeatEnabled()) {
+                    this.heartBeatTimer.reset();
+                }
+                try {
+                    this.read(m3UAMessage);
+                } finally {
+                    mf.releaseMessage(m3UAMessage);
+                }
+            }
+        }
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -0,0 +1,94 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transmit counters of DATA messages of one AspFactory (association).
+ *
+ * Outstanding bytes are the bytes of messages that are encoded but not yet handed to the association: messages that are
+ * buffered by AspTxBatcher or whose Association.send() has not returned yet. Send latency is a moving average of the time
+ * from AspFactoryImpl.write() to the return of Association.send() (for a batch: from the oldest message of the batch), so it
+ * grows when the association send path is slow and writers queue up. The SCTP API does not expose the association send queue,
+ * so these two values are used by SlsLoadBalancer to detect a lagging association.
+ */
+public class AspTrafficStats {
+
+    // the weight of a new sample of the send latency moving average is 1 / 2^LATENCY_SHIFT
+    private static final int LATENCY_SHIFT = 3;
+
+    private final AtomicLong txMessages = new AtomicLong();
+    private final AtomicLong txBytes = new AtomicLong();
+    private final AtomicLong outstandingBytes = new AtomicLong();
+    private volatile long sendLatency;
+
+    /**
+     * An encoded message is accepted for sending
+     */
+    public void onAccepted(int bytes) {
+        this.outstandingBytes.addAndGet(bytes);
+    }
+
+    /**
+     * Messages that were accepted by {@link #onAccepted(int)} are handed to the association
+     *
+     * @param latency nanoseconds
+     */
+    public void onSent(int messages, int bytes, long latency) {
+        this.outstandingBytes.addAndGet(-bytes);
+        this.txMessages.addAndGet(messages);
+        this.txBytes.addAndGet(bytes);
+
+        // a lost update of the average by a concurrent writer is acceptable
+        long avg = this.sendLatency;
+        this.sendLatency = avg + ((latency - avg) >> LATENCY_SHIFT);
+    }
+
+    /**
+     * Messages that were accepted by {@link #onAccepted(int)} are dropped (association is down)
+     */
+    public void onDiscarded(int bytes) {
+        this.outstandingBytes.addAndGet(-bytes);
+    }
+
+    public long getTxMessages() {
+        return this.txMessages.get();
+    }
+
+    public long getTxBytes() {
+        return this.txBytes.get();
+    }
+
+    public long getOutstandingBytes() {
+        return this.outstandingBytes.get();
+    }
+
+    /**
+     * @return moving average of the send latency in nanoseconds
+     */
+    public long getSendLatency() {
+        return this.sendLatency;
+    }
+
+}
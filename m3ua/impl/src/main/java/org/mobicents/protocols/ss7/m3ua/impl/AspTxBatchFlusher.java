@@ -0,0 +1,123 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Thread that flushes AspTxBatcher buffers that have reached their delay deadline. While all buffers are empty the thread
+ * parks without a timeout and is unparked by the batcher whose buffer receives the first message.
+ */
+public class AspTxBatchFlusher implements Runnable {
+
+    private static final Logger logger = Logger.getLogger(AspTxBatchFlusher.class);
+
+    private final CopyOnWriteArrayList<AspTxBatcher> batchers = new CopyOnWriteArrayList<AspTxBatcher>();
+
+    private volatile boolean started;
+    private volatile boolean idle;
+    private volatile Thread thread;
+
+    public void start() {
+        if (this.started)
+            return;
+        this.started = true;
+        this.thread = new Thread(this, "M3UA-TxBatchFlusher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    public void stop() {
+        if (!this.started)
+            return;
+        this.started = false;
+        LockSupport.unpark(this.thread);
+        try {
+            this.thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.thread = null;
+        for (AspTxBatcher b : this.batchers) {
+            b.flushAll();
+        }
+    }
+
+    public void register(AspTxBatcher batcher) {
+        batcher.flusher = this;
+        this.batchers.addIfAbsent(batcher);
+    }
+
+    public void unregister(AspTxBatcher batcher) {
+        this.batchers.remove(batcher);
+        batcher.flusher = null;
+    }
+
+    /**
+     * Called by a batcher after an empty buffer has received a message
+     */
+    void wakeUp() {
+        if (this.idle) {
+            Thread t = this.thread;
+            if (t != null)
+                LockSupport.unpark(t);
+        }
+    }
+
+    private boolean isEmpty() {
+        for (AspTxBatcher b : this.batchers) {
+            if (!b.isEmpty())
+                return false;
+        }
+        return true;
+    }
+
+    public void run() {
+        while (this.started) {
+            long next = Long.MAX_VALUE;
+            try {
+                long now = System.nanoTime();
+                for (AspTxBatcher b : this.batchers) {
+                    long n = b.flushExpired(now);
+                    if (n < next)
+                        next = n;
+                }
+            } catch (Throwable e) {
+                logger.error("Exception while flushing M3UA tx batches", e);
+            }
+            if (next != Long.MAX_VALUE) {
+                LockSupport.parkNanos(this, next);
+                continue;
+            }
+
+            // publish idle before re-checking the buffers, a writer checks idle after making its buffer non-empty
+            this.idle = true;
+            if (this.started && this.isEmpty())
+                LockSupport.park(this);
+            this.idle = false;
+        }
+    }
+}
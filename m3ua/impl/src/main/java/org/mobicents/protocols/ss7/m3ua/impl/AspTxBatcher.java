@@ -0,0 +1,280 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.mobicents.protocols.api.Association;
+import org.mobicents.protocols.api.IpChannelType;
+import org.mobicents.protocols.ss7.m3ua.impl.message.M3UAMessageImpl;
+import org.mobicents.protocols.ss7.mtp.DeliveryHistogram;
+
+/**
+ * Coalesces outgoing M3UA DATA messages of one AspFactory per stream.
+ *
+ * Messages are encoded directly into a per stream write buffer. A buffer is flushed when it reaches maxBatchSize bytes or
+ * when the oldest message in it is older than maxDelay (checked by AspTxBatchFlusher), so the added latency is bounded by
+ * maxDelay plus the flusher wake up granularity. For TCP associations (M3UA messages are self delimiting in the byte stream)
+ * a flushed buffer is sent as one PayloadData. SCTP requires one M3UA message per SCTP user message, so for SCTP the messages
+ * of a batch are handed to the association back to back: the association selector thread then writes them in one select
+ * round and the SCTP stack can bundle their DATA chunks into fewer packets.
+ */
+public class AspTxBatcher {
+
+    private static final Logger logger = Logger.getLogger(AspTxBatcher.class);
+
+    // reserve for one encoded message that is added to a nearly full buffer
+    private static final int MAX_MESSAGE_SIZE = 8192;
+    private static final int INITIAL_BOUNDS = 64;
+
+    private final Association association;
+    private final int payloadProtocolId;
+    private final boolean coalesce;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final StreamBuffer[] streams;
+    private final AspTrafficStats trafficStats;
+
+    // set when the batcher is registered, woken up when an empty buffer receives its first message
+    volatile AspTxBatchFlusher flusher;
+
+    private final DeliveryHistogram batchSizeHistogram = new DeliveryHistogram();
+    private final AtomicLong messageCount = new AtomicLong();
+    private final AtomicLong flushedBySize = new AtomicLong();
+    private final AtomicLong flushedByDeadline = new AtomicLong();
+    private final AtomicLong flushedExplicitly = new AtomicLong();
+
+    /**
+     * @param association transport association
+     * @param payloadProtocolId SCTP payload protocol identifier
+     * @param streamCount count of SCTP streams
+     * @param maxBatchSize flush threshold in bytes
+     * @param maxDelay maximum time a message is kept in the buffer, in microseconds
+     */
+    public AspTxBatcher(Association association, int payloadProtocolId, int streamCount, int maxBatchSize, long maxDelay) {
+        this(association, payloadProtocolId, streamCount, maxBatchSize, maxDelay, null);
+    }
+
+    /**
+     * @param trafficStats counters of the AspFactory that are updated when messages are buffered and flushed, may be null
+     */
+    public AspTxBatcher(Association association, int payloadProtocolId, int streamCount, int maxBatchSize, long maxDelay,
+            AspTrafficStats trafficStats) {
+        this.trafficStats = trafficStats;
+        this.association = association;
+        this.payloadProtocolId = payloadProtocolId;
+        this.coalesce = association.getIpChannelType() == IpChannelType.TCP;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay * 1000;
+        if (streamCount < 1)
+            streamCount = 1;
+        this.streams = new StreamBuffer[streamCount];
+        for (int i = 0; i < streamCount; i++) {
+            this.streams[i] = new StreamBuffer(i, maxBatchSize + MAX_MESSAGE_SIZE);
+        }
+    }
+
+    /**
+     * Encodes the DATA message into the buffer of the stream and flushes the buffer if it has reached maxBatchSize
+     */
+    public void write(M3UAMessageImpl message, int streamNumber) throws Exception {
+        StreamBuffer sb = this.streams[streamNumber < this.streams.length ? streamNumber : 0];
+        synchronized (sb) {
+            if (sb.count == 0)
+                sb.firstMessageTime = System.nanoTime();
+            int start = sb.buffer.position();
+            try {
+                message.encode(sb.buffer);
+            } catch (RuntimeException e) {
+                sb.buffer.position(start);
+                throw e;
+            }
+            boolean first = sb.count == 0;
+            sb.addBound(sb.buffer.position());
+            this.messageCount.incrementAndGet();
+            if (this.trafficStats != null)
+                this.trafficStats.onAccepted(sb.buffer.position() - start);
+
+            if (sb.buffer.position() >= this.maxBatchSize) {
+                this.flushedBySize.incrementAndGet();
+                this.flush(sb);
+            } else if (first) {
+                AspTxBatchFlusher f = this.flusher;
+                if (f != null)
+                    f.wakeUp();
+            }
+        }
+    }
+
+    /**
+     * Flushes buffers whose oldest message has reached maxDelay
+     *
+     * @return the time in nanoseconds until the next buffer reaches its deadline, or Long.MAX_VALUE if all buffers are empty
+     */
+    public long flushExpired(long now) {
+        long next = Long.MAX_VALUE;
+        for (StreamBuffer sb : this.streams) {
+            if (sb.count == 0)
+                continue;
+            synchronized (sb) {
+                if (sb.count == 0)
+                    continue;
+                long age = now - sb.firstMessageTime;
+                if (age >= this.maxDelayNanos) {
+                    this.flushedByDeadline.incrementAndGet();
+                    this.flush(sb);
+                } else if (this.maxDelayNanos - age < next) {
+                    next = this.maxDelayNanos - age;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @return true if no buffer holds a message
+     */
+    public boolean isEmpty() {
+        for (StreamBuffer sb : this.streams) {
+            if (sb.count > 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Flushes all buffers (before a non DATA message is sent, so it does not overtake already accepted DATA messages)
+     */
+    public void flushAll() {
+        for (StreamBuffer sb : this.streams) {
+            if (sb.count == 0)
+                continue;
+            synchronized (sb) {
+                if (sb.count > 0) {
+                    this.flushedExplicitly.incrementAndGet();
+                    this.flush(sb);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops all buffered messages (the association is down)
+     */
+    public void clear() {
+        for (StreamBuffer sb : this.streams) {
+            synchronized (sb) {
+                if (this.trafficStats != null)
+                    this.trafficStats.onDiscarded(sb.buffer.position());
+                sb.reset();
+            }
+        }
+    }
+
+    private void flush(StreamBuffer sb) {
+        this.batchSizeHistogram.recordValue(sb.count);
+        boolean sent = false;
+        try {
+            byte[] all = sb.buffer.array();
+            if (this.coalesce) {
+                byte[] data = new byte[sb.buffer.position()];
+                System.arraycopy(all, 0, data, 0, data.length);
+                this.association.send(new org.mobicents.protocols.api.PayloadData(data.length, data, true, false,
+                        this.payloadProtocolId, sb.streamNumber));
+            } else {
+                int start = 0;
+                for (int i = 0; i < sb.count; i++) {
+                    int end = sb.bounds[i];
+                    byte[] data = new byte[end - start];
+                    System.arraycopy(all, start, data, 0, data.length);
+                    this.association.send(new org.mobicents.protocols.api.PayloadData(data.length, data, true, false,
+                            this.payloadProtocolId, sb.streamNumber));
+                    start = end;
+                }
+            }
+            sent = true;
+        } catch (Exception e) {
+            logger.error(String.format("Error while trying to send a batch of %d PayloadData to SCTP layer. Association=%s",
+                    sb.count, this.association.getName()), e);
+        } finally {
+            if (this.trafficStats != null) {
+                if (sent)
+                    this.trafficStats.onSent(sb.count, sb.buffer.position(), System.nanoTime() - sb.firstMessageTime);
+                else
+                    this.trafficStats.onDiscarded(sb.buffer.position());
+            }
+            sb.reset();
+        }
+    }
+
+    public DeliveryHistogram getBatchSizeHistogram() {
+        return this.batchSizeHistogram;
+    }
+
+    public long getMessageCount() {
+        return this.messageCount.get();
+    }
+
+    public long getFlushedBySizeCount() {
+        return this.flushedBySize.get();
+    }
+
+    public long getFlushedByDeadlineCount() {
+        return this.flushedByDeadline.get();
+    }
+
+    public long getFlushedExplicitlyCount() {
+        return this.flushedExplicitly.get();
+    }
+
+    private static final class StreamBuffer {
+        private final int streamNumber;
+        private final ByteBuffer buffer;
+        // end offsets of the encoded messages in the buffer
+        private int[] bounds = new int[INITIAL_BOUNDS];
+        private volatile int count;
+        private long firstMessageTime;
+
+        StreamBuffer(int streamNumber, int capacity) {
+            this.streamNumber = streamNumber;
+            this.buffer = ByteBuffer.allocate(capacity);
+        }
+
+        void addBound(int end) {
+            if (this.count == this.bounds.length) {
+                int[] nb = new int[this.bounds.length * 2];
+                System.arraycopy(this.bounds, 0, nb, 0, this.bounds.length);
+                this.bounds = nb;
+            }
+            this.bounds[this.count] = end;
+            this.count++;
+        }
+
+        void reset() {
+            this.buffer.clear();
+            this.count = 0;
+        }
+    }
+}
@@ -122,6 +122,18 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
 
     protected int timeBetweenHeartbeat = 10000; // 10 sec default
 
+    // batching of outgoing DATA messages per ASP / stream (opt-in)
+    protected boolean txBatching = false;
+    protected int txBatchMaxSize = 4096; // bytes
+    protected int txBatchMaxDelay = 200; // microseconds
+    protected AspTxBatchFlusher txBatchFlusher = null;
+
+    // decoding of incoming DATA messages into recycled message objects (opt-in)
+    protected boolean pooledDecoding = false;
+
+    // congestion aware SLS load balancing between ASPs of loadshare As (opt-in)
+    protected boolean adaptiveLoadSharing = false;
+
     private M3UARouteManagement routeManagement = null;
 
     protected FastList<M3UAManagementEventListener> managementEventListeners = new FastList<M3UAManagementEventListener>();
@@ -218,6 +230,93 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         this.store();
     }
 
+    public boolean isTxBatching() {
+        return this.txBatching;
+    }
+
+    /**
+     * Enables coalescing of outgoing DATA messages per ASP and stream into a write buffer that is flushed when it reaches
+     * txBatchMaxSize bytes or when its oldest message is txBatchMaxDelay microseconds old. A TCP association sends a flushed
+     * buffer in one write, an SCTP association gets the messages of a flushed buffer as a burst of SCTP user messages.
+     *
+     * @param txBatching
+     */
+    public void setTxBatching(boolean txBatching) throws Exception {
+        if (this.isStarted)
+            throw new Exception("TxBatching parameter can be updated only when M3UA stack is NOT running");
+
+        this.txBatching = txBatching;
+    }
+
+    public int getTxBatchMaxSize() {
+        return this.txBatchMaxSize;
+    }
+
+    public void setTxBatchMaxSize(int txBatchMaxSize) throws Exception {
+        if (this.isStarted)
+            throw new Exception("TxBatchMaxSize parameter can be updated only when M3UA stack is NOT running");
+
+        if (txBatchMaxSize < 1) {
+            txBatchMaxSize = 1;
+        } else if (txBatchMaxSize > 65536) {
+            txBatchMaxSize = 65536;
+        }
+        this.txBatchMaxSize = txBatchMaxSize;
+    }
+
+    public int getTxBatchMaxDelay() {
+        return this.txBatchMaxDelay;
+    }
+
+    /**
+     * @param txBatchMaxDelay the bound of the latency added by batching, in microseconds
+     */
+    public void setTxBatchMaxDelay(int txBatchMaxDelay) throws Exception {
+        if (this.isStarted)
+            throw new Exception("TxBatchMaxDelay parameter can be updated only when M3UA stack is NOT running");
+
+        if (txBatchMaxDelay < 10) {
+            txBatchMaxDelay = 10;
+        } else if (txBatchMaxDelay > 100000) {
+            txBatchMaxDelay = 100000;
+        }
+        this.txBatchMaxDelay = txBatchMaxDelay;
+    }
+
+    public boolean isAdaptiveLoadSharing() {
+        return this.adaptiveLoadSharing;
+    }
+
+    /**
+     * Enables moving of SLS buckets of a loadshare As away from ASPs whose associations lag behind the other ASPs of the As
+     * (see {@link SlsLoadBalancer}). If disabled SLS values are statically distributed between ASPs.
+     *
+     * @param adaptiveLoadSharing
+     */
+    public void setAdaptiveLoadSharing(boolean adaptiveLoadSharing) throws Exception {
+        if (this.isStarted)
+            throw new Exception("AdaptiveLoadSharing parameter can be updated only when M3UA stack is NOT running");
+
+        this.adaptiveLoadSharing = adaptiveLoadSharing;
+    }
+
+    public boolean isPooledDecoding() {
+        return this.pooledDecoding;
+    }
+
+    /**
+     * Enables decoding of incoming DATA messages directly from the received buffer into recycled message objects that are
+     * released after the MTP3 payload has been handed up.
+     *
+     * @param pooledDecoding
+     */
+    public void setPooledDecoding(boolean pooledDecoding) throws Exception {
+        if (this.isStarted)
+            throw new Exception("PooledDecoding parameter can be updated only when M3UA stack is NOT running");
+
+        this.pooledDecoding = pooledDecoding;
+    }
+
     public Management getTransportManagement() {
         return transportManagement;
     }
@@ -252,6 +351,11 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         fsmTicker = Executors.newSingleThreadScheduledExecutor();
         fsmTicker.scheduleAtFixedRate(m3uaScheduler, 500, 500, TimeUnit.MILLISECONDS);
 
+        if (this.txBatching) {
+            this.txBatchFlusher = new AspTxBatchFlusher();
+            this.txBatchFlusher.start();
+        }
+
         for (FastList.Node<M3UAManagementEventListener> n = this.managementEventListeners.head(), end = this.managementEventListeners
                 .tail(); (n = n.getNext()) != end;) {
             M3UAManagementEventListener m3uaManagementEventListener = n.getValue();
@@ -295,6 +399,11 @@ public class M3UAManagementImpl extends Mtp3UserPartBaseImpl implements M3UAMana
         super.stop();
 
         fsmTicker.shutdown();
+
+        if (this.txBatchFlusher != null) {
+            this.txBatchFlusher.stop();
+            this.txBatchFlusher = null;
+        }
     }
 
     @Override
@@ -22,6 +22,8 @@
 package org.mobicents.protocols.ss7.m3ua.impl;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import javolution.util.FastList;
 import javolution.util.FastSet;
@@ -30,6 +32,7 @@ import org.apache.log4j.Logger;
 import org.mobicents.protocols.ss7.m3ua.As;
 import org.mobicents.protocols.ss7.m3ua.impl.oam.M3UAOAMMessages;
 import org.mobicents.protocols.ss7.m3ua.impl.parameter.TrafficModeTypeImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.router.RoutingKeyTable;
 import org.mobicents.protocols.ss7.mtp.RoutingLabelFormat;
 
 /**
@@ -50,6 +53,10 @@ import org.mobicents.protocols.ss7.mtp.RoutingLabelFormat;
  * Same {@link AsImpl} can serve multiple key combinations.
  * </p>
  * <p>
+ * The route map keyed by "dpc:opc:si" strings is the persisted configuration. Per message lookups use a
+ * {@link RoutingKeyTable} copy of it that is rebuilt every time a route is added or removed.
+ * </p>
+ * <p>
  * MTP3 Primitive RESUME is delivered to M3UA-User when {@link AsImpl} becomes ACTIVE and PAUSE is delivered when {@link AsImpl}
  * becomes INACTIVE
  * </p>
@@ -76,6 +83,12 @@ public class M3UARouteManagement {
      */
     protected RouteMap<String, RouteAsImpl> route = new RouteMap<String, RouteAsImpl>();
 
+    /**
+     * the same content as route for {@link #getAsForRoute(int, int, int, int)}
+     */
+    private volatile RoutingKeyTable<RouteAsImpl> routeIndex = new RoutingKeyTable<RouteAsImpl>(
+            new HashMap<Long, RouteAsImpl>());
+
     /**
      * Persists DPC vs As's serving this DPC. Used for notifying M3UA-user of MTP3 primitive PAUSE, RESUME.
      */
@@ -177,6 +190,8 @@ public class M3UARouteManagement {
                 logger.error(String.format("Error while adding key=%s to As list=%s", key, Arrays.toString(asList)));
             }
         }
+
+        this.updateRouteIndex();
     }
 
     /**
@@ -212,6 +227,7 @@ public class M3UARouteManagement {
             asArray.setTrafficModeType(new TrafficModeTypeImpl(traffmode));
             route.put(key, asArray);
             asArray.setM3uaManagement(this.m3uaManagement);
+            this.updateRouteIndex();
         }
 
         asArray.addRoute(dpc, opc, si, asImpl, traffmode);
@@ -259,6 +275,7 @@ public class M3UARouteManagement {
         //Final check to remove RouteAs
         if(!asArray.hasAs()){
             route.remove(key);
+            this.updateRouteIndex();
         }
 
         this.m3uaManagement.store();
@@ -281,23 +298,13 @@ public class M3UARouteManagement {
      * @return
      */
     protected AsImpl getAsForRoute(int dpc, int opc, int si, int sls) {
-        // TODO : Loadsharing needs to be implemented
-
-        String key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(si))
-                .toString();
-        RouteAsImpl routeAs = route.get(key);
+        RoutingKeyTable<RouteAsImpl> routeIndex = this.routeIndex;
 
+        RouteAsImpl routeAs = routeIndex.get(dpc, opc, si);
         if (routeAs == null) {
-            key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(opc).append(KEY_SEPARATOR).append(WILDCARD))
-                    .toString();
-
-            routeAs = route.get(key);
-
+            routeAs = routeIndex.get(dpc, opc, WILDCARD);
             if (routeAs == null) {
-                key = (new StringBuffer().append(dpc).append(KEY_SEPARATOR).append(WILDCARD).append(KEY_SEPARATOR)
-                        .append(WILDCARD)).toString();
-
-                routeAs = route.get(key);
+                routeAs = routeIndex.get(dpc, WILDCARD, WILDCARD);
             }
         }
 
@@ -311,6 +318,16 @@ public class M3UARouteManagement {
        return routeAs.getAsForRoute(count);
     }
 
+    private void updateRouteIndex() {
+        Map<Long, RouteAsImpl> entries = new HashMap<Long, RouteAsImpl>();
+        for (RouteMap.Entry<String, RouteAsImpl> e = this.route.head(), end = this.route.tail(); (e = e.getNext()) != end;) {
+            String[] keys = e.getKey().split(KEY_SEPARATOR);
+            entries.put(RoutingKeyTable.key(Integer.parseInt(keys[0]), Integer.parseInt(keys[1]), Integer.parseInt(keys[2])),
+                    e.getValue());
+        }
+        this.routeIndex = new RoutingKeyTable<RouteAsImpl>(entries);
+    }
+
     private void addAsToDPC(int dpc, AsImpl asImpl) {
         RouteRow row = null;
         for (FastSet.Record r = routeTable.head(), end = routeTable.tail(); (r = r.getNext()) != end;) {
@@ -369,5 +386,6 @@ public class M3UARouteManagement {
     public void removeAllResourses() throws Exception {
         this.route.clear();
         this.routeTable.clear();
+        this.updateRouteIndex();
     }
 }
@@ -0,0 +1,259 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Congestion aware assignment of SLS buckets to the ASPs of a loadshare As.
+ *
+ * A bucket is the ASP index AsImpl derives from the SLS. Initially every bucket is served by the ASP of the static AsImpl
+ * slsVsAspTable. At most every {@link #REBALANCE_INTERVAL} an ASP is marked as lagging when the send latency or the
+ * outstanding bytes of its association ({@link AspTrafficStats}) are {@link #LAG_RATIO} times higher than the lowest ones of
+ * the ACTIVE ASPs, and buckets are moved from lagging ASPs to the non lagging ASP with the fewest buckets. When an ASP
+ * recovers its buckets are moved back to it.
+ *
+ * To keep in-order delivery per SLS a bucket is moved only when it is quiet: no message of the bucket is being written, the
+ * last one was written at least {@link #QUIET_TIME} plus four send latencies of the old ASP ago and the old ASP has no
+ * outstanding bytes, so no earlier message of the bucket can still wait in its AspTxBatcher buffer or in a pending
+ * Association.send(). A bucket that never gets quiet stays on its ASP. The ASP, the count of writes in progress and the count
+ * of started writes of a bucket are kept in one long, so a writer registers its write and reads the ASP in one atomic step
+ * and a bucket is moved by a compare-and-set that fails if any write has started since the bucket was checked.
+ */
+public class SlsLoadBalancer {
+
+    public static final long REBALANCE_INTERVAL = 100000000L; // 100 ms
+    public static final long QUIET_TIME = 50000000L; // 50 ms
+
+    protected static final int LAG_RATIO = 4;
+    protected static final int RECOVER_RATIO = 2;
+    // lower bounds of the reference values, so that ASPs are not marked as lagging because of noise of an idle system
+    protected static final long LATENCY_FLOOR = 200000L; // 200 us
+    protected static final long OUTSTANDING_FLOOR = 32768L;
+    protected static final int MAX_MOVES = 8;
+
+    private static final long NEVER = Long.MIN_VALUE;
+    // a bucket state is the count of started writes in the upper 32 bits, the ASP index in the next 16 bits and the count of
+    // writes in progress in the lowest 16 bits
+    private static final int ASP_SHIFT = 16;
+    private static final long ASP_MASK = 0xFFFFL << ASP_SHIFT;
+    private static final long IN_FLIGHT_MASK = (1L << ASP_SHIFT) - 1;
+    private static final long WRITE_START = (1L << 32) + 1;
+
+    private final int bucketCount;
+    private final int[] defaultTable;
+    private final AtomicLongArray state;
+    private final AtomicLongArray lastWrite;
+    private final AtomicLong nextRebalance;
+
+    // guarded by this
+    private final boolean[] lagging;
+    private final long[] lastTxMessages;
+
+    /**
+     * @param slsVsAspTable the static bucket to ASP assignment
+     * @param bucketCount the count of used buckets
+     * @param aspCount the count of ASPs of the As
+     */
+    public SlsLoadBalancer(int[] slsVsAspTable, int bucketCount, int aspCount, long now) {
+        this.bucketCount = bucketCount;
+        this.defaultTable = new int[bucketCount];
+        this.state = new AtomicLongArray(bucketCount);
+        this.lastWrite = new AtomicLongArray(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            this.defaultTable[i] = slsVsAspTable[i];
+            this.state.set(i, (long) slsVsAspTable[i] << ASP_SHIFT);
+            this.lastWrite.set(i, NEVER);
+        }
+        this.lagging = new boolean[aspCount];
+        this.lastTxMessages = new long[aspCount];
+        this.nextRebalance = new AtomicLong(now + REBALANCE_INTERVAL);
+    }
+
+    public int getBucketCount() {
+        return this.bucketCount;
+    }
+
+    /**
+     * @return the index of the ASP that serves the bucket
+     */
+    public int getAsp(int bucket) {
+        return aspOf(this.state.get(bucket));
+    }
+
+    private static int aspOf(long state) {
+        return (int) ((state & ASP_MASK) >>> ASP_SHIFT);
+    }
+
+    /**
+     * Registers a write of the bucket, the bucket is not moved until {@link #onWriteEnd(int, long)}
+     *
+     * @return the index of the ASP the message must be written to
+     */
+    public int onWriteStart(int bucket) {
+        return aspOf(this.state.getAndAdd(bucket, WRITE_START));
+    }
+
+    public void onWriteEnd(int bucket, long now) {
+        this.lastWrite.set(bucket, now);
+        this.state.decrementAndGet(bucket);
+    }
+
+    /**
+     * @return true for exactly one caller per {@link #REBALANCE_INTERVAL}
+     */
+    public boolean isRebalanceDue(long now) {
+        long next = this.nextRebalance.get();
+        return now - next >= 0 && this.nextRebalance.compareAndSet(next, now + REBALANCE_INTERVAL);
+    }
+
+    public synchronized boolean isLagging(int asp) {
+        return asp < this.lagging.length && this.lagging[asp];
+    }
+
+    /**
+     * @return the count of buckets served by the ASP
+     */
+    public int getAspBucketCount(int asp) {
+        int count = 0;
+        for (int i = 0; i < this.bucketCount; i++) {
+            if (this.getAsp(i) == asp)
+                count++;
+        }
+        return count;
+    }
+
+    /**
+     * @param active ACTIVE state of ASPs
+     * @param stats traffic counters of ASPs
+     * @return the count of moved buckets
+     */
+    public synchronized int rebalance(boolean[] active, AspTrafficStats[] stats, long now) {
+        int aspCount = this.lagging.length;
+        if (active.length != aspCount || stats.length != aspCount)
+            return 0;
+
+        this.updateLagging(active, stats);
+
+        int[] counts = new int[aspCount];
+        for (int i = 0; i < this.bucketCount; i++) {
+            counts[this.getAsp(i)]++;
+        }
+
+        int moves = 0;
+
+        // moving buckets away from lagging ASPs
+        for (int i = 0; i < this.bucketCount && moves < MAX_MOVES; i++) {
+            long s = this.state.get(i);
+            int src = aspOf(s);
+            if (!this.lagging[src] || !this.isQuiet(i, s, stats[src], now))
+                continue;
+
+            int dst = -1;
+            for (int j = 0; j < aspCount; j++) {
+                if (active[j] && !this.lagging[j] && (dst == -1 || counts[j] < counts[dst]))
+                    dst = j;
+            }
+            if (dst == -1)
+                break;
+
+            if (!this.move(i, s, dst))
+                continue;
+            counts[src]--;
+            counts[dst]++;
+            moves++;
+        }
+
+        // returning buckets to recovered ASPs
+        for (int i = 0; i < this.bucketCount && moves < MAX_MOVES; i++) {
+            long s = this.state.get(i);
+            int cur = aspOf(s);
+            int def = this.defaultTable[i];
+            if (cur == def || !active[def] || this.lagging[def] || !this.isQuiet(i, s, stats[cur], now))
+                continue;
+
+            if (this.move(i, s, def))
+                moves++;
+        }
+
+        return moves;
+    }
+
+    private void updateLagging(boolean[] active, AspTrafficStats[] stats) {
+        long minLatency = Long.MAX_VALUE;
+        long minOutstanding = Long.MAX_VALUE;
+        for (int i = 0; i < active.length; i++) {
+            if (active[i]) {
+                minLatency = Math.min(minLatency, stats[i].getSendLatency());
+                minOutstanding = Math.min(minOutstanding, stats[i].getOutstandingBytes());
+            }
+        }
+        long latencyRef = Math.max(minLatency, LATENCY_FLOOR);
+        long outstandingRef = Math.max(minOutstanding, OUTSTANDING_FLOOR);
+
+        for (int i = 0; i < active.length; i++) {
+            long txMessages = stats[i].getTxMessages();
+            // the latency average of an ASP that has not sent anything since the previous check is stale
+            boolean sending = txMessages != this.lastTxMessages[i];
+            this.lastTxMessages[i] = txMessages;
+
+            if (!active[i]) {
+                this.lagging[i] = false;
+                continue;
+            }
+
+            long latency = stats[i].getSendLatency();
+            long outstanding = stats[i].getOutstandingBytes();
+            if (this.lagging[i]) {
+                if (outstanding < RECOVER_RATIO * outstandingRef && (!sending || latency < RECOVER_RATIO * latencyRef))
+                    this.lagging[i] = false;
+            } else {
+                if (outstanding > LAG_RATIO * outstandingRef || (sending && latency > LAG_RATIO * latencyRef))
+                    this.lagging[i] = true;
+            }
+        }
+    }
+
+    /**
+     * Moves the bucket only if no write of it has started since its state was read
+     */
+    private boolean move(int bucket, long state, int dst) {
+        return this.state.compareAndSet(bucket, state, (state & ~ASP_MASK) | ((long) dst << ASP_SHIFT));
+    }
+
+    /**
+     * @param state the bucket state read before, the last write time and the outstanding bytes are read after it, so they
+     *        include every write that had ended when the state was read
+     */
+    private boolean isQuiet(int bucket, long state, AspTrafficStats stats, long now) {
+        if ((state & IN_FLIGHT_MASK) != 0)
+            return false;
+        long last = this.lastWrite.get(bucket);
+        if (last != NEVER && now - last < QUIET_TIME + 4 * stats.getSendLatency())
+            return false;
+        // an earlier message of the bucket may still be buffered or being handed to the association
+        return stats.getOutstandingBytes() == 0;
+    }
+
+}
@@ -47,6 +47,8 @@ import org.mobicents.protocols.ss7.m3ua.impl.message.ssnm.DestinationUPUnavailab
 import org.mobicents.protocols.ss7.m3ua.impl.message.ssnm.DestinationUnavailableImpl;
 import org.mobicents.protocols.ss7.m3ua.impl.message.ssnm.SignallingCongestionImpl;
 import org.mobicents.protocols.ss7.m3ua.impl.message.transfer.PayloadDataImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
+import org.mobicents.protocols.ss7.m3ua.message.M3UAMessage;
 import org.mobicents.protocols.ss7.m3ua.message.MessageClass;
 import org.mobicents.protocols.ss7.m3ua.message.MessageFactory;
 import org.mobicents.protocols.ss7.m3ua.message.MessageType;
@@ -70,6 +72,12 @@ public class MessageFactoryImpl implements MessageFactory {
     // message instance
     private M3UAMessageImpl message;
 
+    // pool of recyclable PayloadData messages for pooled decoding
+    private static final int PAYLOAD_POOL_SIZE = 64;
+    private final PayloadDataImpl[] payloadPool = new PayloadDataImpl[PAYLOAD_POOL_SIZE];
+    private int payloadPoolSize = 0;
+    private final ParameterFactoryImpl parameterFactory = new ParameterFactoryImpl();
+
     public M3UAMessageImpl createMessage(int messageClass, int messageType) {
         switch (messageClass) {
             case MessageClass.TRANSFER_MESSAGES:
@@ -225,6 +233,82 @@ public class MessageFactoryImpl implements MessageFactory {
         return message;
     }
 
+    /**
+     * Decodes one complete M3UA message that starts at the current position of the buffer. PayloadData messages are taken
+     * from the pool of this factory and decoded in place from the buffer, they must be returned by
+     * {@link #releaseMessage(M3UAMessage)} after processing. Other messages are decoded as usual. The buffer position is moved
+     * to the end of the message.
+     *
+     * @return decoded message or null if the buffer does not contain a complete message (the buffer position is not changed)
+     */
+    public M3UAMessageImpl createPooledMessage(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < 8)
+            return null;
+
+        int messageClass = buffer.get(start + 2) & 0xff;
+        int messageType = buffer.get(start + 3) & 0xff;
+        int msgLength = buffer.getInt(start + 4);
+        if (msgLength < 8 || msgLength > buffer.remaining())
+            return null;
+        int end = start + msgLength;
+
+        M3UAMessageImpl msg;
+        if (messageClass == MessageClass.TRANSFER_MESSAGES && messageType == MessageType.PAYLOAD) {
+            PayloadDataImpl payload = this.acquirePayloadData();
+            payload.decode(buffer, start + 8, end, this.parameterFactory);
+            msg = payload;
+        } else {
+            msg = this.createMessage(messageClass, messageType);
+            if (msg != null && msgLength > 8) {
+                byte[] prms = new byte[msgLength - 8];
+                buffer.position(start + 8);
+                buffer.get(prms);
+                msg.decode(prms);
+            }
+        }
+
+        buffer.position(end);
+        return msg;
+    }
+
+    /**
+     * @return true if createMessage(ByteBuffer) has consumed a part of a message and waits for its remainder
+     */
+    public boolean hasPartialMessage() {
+        return this.isHeaderReady || this.pos > 0;
+    }
+
+    /**
+     * Returns a message obtained by {@link #createPooledMessage(ByteBuffer)} to the pool. Messages that are not pooled are
+     * ignored.
+     */
+    public void releaseMessage(M3UAMessage msg) {
+        if (!(msg instanceof PayloadDataImpl))
+            return;
+        PayloadDataImpl payload = (PayloadDataImpl) msg;
+        if (!payload.isRecyclable() || !payload.recycle())
+            return;
+
+        synchronized (this.payloadPool) {
+            if (this.payloadPoolSize < PAYLOAD_POOL_SIZE)
+                this.payloadPool[this.payloadPoolSize++] = payload;
+        }
+    }
+
+    private PayloadDataImpl acquirePayloadData() {
+        synchronized (this.payloadPool) {
+            if (this.payloadPoolSize > 0) {
+                PayloadDataImpl res = this.payloadPool[--this.payloadPoolSize];
+                this.payloadPool[this.payloadPoolSize] = null;
+                return res;
+            }
+        }
+        PayloadDataImpl res = new PayloadDataImpl();
+        res.setRecyclable(true);
+        return res;
+    }
+
     public M3UAMessageImpl createSctpMessage(byte[] buffer) {
         int dataLen;
         // fill header buffer completely before start parsing header
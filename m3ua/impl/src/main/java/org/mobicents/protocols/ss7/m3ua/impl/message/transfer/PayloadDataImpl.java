@@ -26,8 +26,10 @@ import java.nio.ByteBuffer;
 
 import org.mobicents.protocols.ss7.m3ua.impl.message.M3UAMessageImpl;
 import org.mobicents.protocols.ss7.m3ua.impl.parameter.CorrelationIdImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
 import org.mobicents.protocols.ss7.m3ua.impl.parameter.ParameterImpl;
 import org.mobicents.protocols.ss7.m3ua.impl.parameter.ProtocolDataImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.parameter.RoutingContextImpl;
 import org.mobicents.protocols.ss7.m3ua.message.MessageClass;
 import org.mobicents.protocols.ss7.m3ua.message.MessageType;
 import org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData;
@@ -43,10 +45,97 @@ import org.mobicents.protocols.ss7.m3ua.parameter.RoutingContext;
  */
 public class PayloadDataImpl extends M3UAMessageImpl implements PayloadData {
 
+    // boxed parameter tags, so decoding into a recycled message does not box them for every PDU
+    private static final Short TAG_NETWORK_APPEARANCE = Short.valueOf(Parameter.Network_Appearance);
+    private static final Short TAG_ROUTING_CONTEXT = Short.valueOf(Parameter.Routing_Context);
+    private static final Short TAG_PROTOCOL_DATA = Short.valueOf(Parameter.Protocol_Data);
+    private static final Short TAG_CORRELATION_ID = Short.valueOf(Parameter.Correlation_ID);
+
+    // parameter instances reused by a recyclable message
+    private ProtocolDataImpl reusableProtocolData;
+    private RoutingContextImpl reusableRoutingContext;
+    private boolean recyclable;
+    private boolean released;
+
     public PayloadDataImpl() {
         super(MessageClass.TRANSFER_MESSAGES, MessageType.PAYLOAD, MessageType.S_PAYLOAD);
     }
 
+    /**
+     * Decodes the message parameters directly from the received buffer. ProtocolData and RoutingContext parameter objects are
+     * reused, so only the MTP3 user data is allocated per message.
+     *
+     * @param buffer the received buffer
+     * @param offset absolute position of the first parameter (just after the common message header)
+     * @param end absolute position of the end of the message
+     * @param factory parameter factory
+     */
+    public void decode(ByteBuffer buffer, int offset, int end, ParameterFactoryImpl factory) {
+        if (this.reusableProtocolData == null) {
+            this.reusableProtocolData = factory.createReusableProtocolData();
+            this.reusableRoutingContext = factory.createReusableRoutingContext();
+        }
+        this.parameters.clear();
+        this.released = false;
+
+        int pos = offset;
+        while (pos < end) {
+            short tag = buffer.getShort(pos);
+            int len = buffer.getShort(pos + 2) & 0xffff;
+
+            Parameter p = factory.createParameter(tag, buffer, pos + 4, len - 4, this.reusableProtocolData,
+                    this.reusableRoutingContext);
+            this.parameters.put(boxedTag(tag), p);
+            pos += len;
+
+            // The Parameter Length does not include any padding octets. We have
+            // to consider padding here
+            int padding = 4 - ((pos - offset) % 4);
+            if (padding < 4) {
+                pos += padding;
+            }
+        }
+    }
+
+    private static Short boxedTag(short tag) {
+        switch (tag) {
+            case Parameter.Network_Appearance:
+                return TAG_NETWORK_APPEARANCE;
+            case Parameter.Routing_Context:
+                return TAG_ROUTING_CONTEXT;
+            case Parameter.Protocol_Data:
+                return TAG_PROTOCOL_DATA;
+            case Parameter.Correlation_ID:
+                return TAG_CORRELATION_ID;
+            default:
+                return Short.valueOf(tag);
+        }
+    }
+
+    /**
+     * @return true if this instance belongs to the MessageFactoryImpl pool and must be released after processing
+     */
+    public boolean isRecyclable() {
+        return this.recyclable;
+    }
+
+    public void setRecyclable(boolean recyclable) {
+        this.recyclable = recyclable;
+    }
+
+    /**
+     * Clears the message before it is returned to the pool
+     *
+     * @return false if the message has already been released
+     */
+    public boolean recycle() {
+        if (this.released)
+            return false;
+        this.released = true;
+        this.parameters.clear();
+        return true;
+    }
+
     public NetworkAppearance getNetworkAppearance() {
         return (NetworkAppearance) parameters.get(Parameter.Network_Appearance);
     }
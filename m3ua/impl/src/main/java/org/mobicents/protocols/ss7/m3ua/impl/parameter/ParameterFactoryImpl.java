@@ -21,6 +21,8 @@
  */
 package org.mobicents.protocols.ss7.m3ua.impl.parameter;
 
+import java.nio.ByteBuffer;
+
 import org.mobicents.protocols.ss7.m3ua.parameter.ASPIdentifier;
 import org.mobicents.protocols.ss7.m3ua.parameter.AffectedPointCode;
 import org.mobicents.protocols.ss7.m3ua.parameter.ConcernedDPC;
@@ -156,6 +158,49 @@ public class ParameterFactoryImpl implements ParameterFactory {
         return new HeartbeatDataImpl(data);
     }
 
+    /**
+     * Creates a ProtocolData instance that is reused by recycled PayloadData messages
+     */
+    public ProtocolDataImpl createReusableProtocolData() {
+        return new ProtocolDataImpl();
+    }
+
+    /**
+     * Creates a RoutingContext instance that is reused by recycled PayloadData messages
+     */
+    public RoutingContextImpl createReusableRoutingContext() {
+        return new RoutingContextImpl();
+    }
+
+    /**
+     * Decodes a parameter directly from the received buffer. ProtocolData and RoutingContext are decoded into the supplied
+     * reusable instances, other parameters are copied and created by {@link #createParameter(int, byte[])}.
+     *
+     * @param tag parameter tag
+     * @param buffer the received buffer
+     * @param offset absolute position of the parameter value in the buffer
+     * @param length the length of the parameter value
+     * @param protocolData reusable ProtocolData instance
+     * @param routingContext reusable RoutingContext instance
+     */
+    public Parameter createParameter(int tag, ByteBuffer buffer, int offset, int length, ProtocolDataImpl protocolData,
+            RoutingContextImpl routingContext) {
+        switch (tag) {
+            case ParameterImpl.Protocol_Data:
+                protocolData.decode(buffer, offset, length);
+                return protocolData;
+            case ParameterImpl.Routing_Context:
+                routingContext.decode(buffer, offset, length);
+                return routingContext;
+            default:
+                byte[] value = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    value[i] = buffer.get(offset + i);
+                }
+                return this.createParameter(tag, value);
+        }
+    }
+
     public Parameter createParameter(int tag, byte[] value) {
         ParameterImpl p = null;
         switch (tag) {
@@ -21,6 +21,8 @@
  */
 package org.mobicents.protocols.ss7.m3ua.impl.parameter;
 
+import java.nio.ByteBuffer;
+
 import org.mobicents.protocols.ss7.m3ua.parameter.ProtocolData;
 
 /**
@@ -52,7 +54,6 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
         this.mp = mp;
         this.sls = sls;
         this.data = data;
-        encode();
     }
 
     /**
@@ -77,6 +78,33 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
         System.arraycopy(valueData, 12, data, 0, valueData.length - 12);
     }
 
+    /**
+     * Decodes the parameter value in place (for recycled PayloadData instances). Only the MTP3 user data is copied because it
+     * is handed up to the MTP3 user.
+     *
+     * @param buffer the received buffer
+     * @param offset absolute position of the parameter value in the buffer
+     * @param length the length of the parameter value
+     */
+    protected void decode(ByteBuffer buffer, int offset, int length) {
+        this.opc = buffer.getInt(offset);
+        this.dpc = buffer.getInt(offset + 4);
+
+        this.si = buffer.get(offset + 8) & 0xff;
+        this.ni = buffer.get(offset + 9) & 0xff;
+        this.mp = buffer.get(offset + 10) & 0xff;
+        this.sls = buffer.get(offset + 11) & 0xff;
+
+        this.data = new byte[length - 12];
+        if (buffer.hasArray()) {
+            System.arraycopy(buffer.array(), buffer.arrayOffset() + offset + 12, this.data, 0, this.data.length);
+        } else {
+            for (int i = 0; i < this.data.length; i++) {
+                this.data[i] = buffer.get(offset + 12 + i);
+            }
+        }
+    }
+
     private byte[] encode() {
         // create byte array taking into account data, point codes and
         // indicators;
@@ -105,6 +133,36 @@ public class ProtocolDataImpl extends ParameterImpl implements ProtocolData {
         return value;
     }
 
+    /**
+     * Writes the parameter straight into the transmit buffer: the point codes, indicators and the MTP3 user data are put
+     * after the tag / length header without building the intermediate value array of {@link #getValue()}.
+     */
+    @Override
+    public void write(ByteBuffer buffer) {
+        this.length = (short) (this.data.length + 16);
+
+        buffer.putShort(this.tag);
+        buffer.putShort(this.length);
+
+        buffer.putInt(this.opc);
+        buffer.putInt(this.dpc);
+        buffer.put((byte) this.si);
+        buffer.put((byte) this.ni);
+        buffer.put((byte) this.mp);
+        buffer.put((byte) this.sls);
+
+        buffer.put(this.data);
+
+        // padding up to a multiple of 4 octets, it is not included in the parameter length
+        int remainder = (4 - this.length % 4);
+        if (remainder < 4) {
+            while (remainder > 0) {
+                buffer.put((byte) 0x00);
+                remainder--;
+            }
+        }
+    }
+
     public int getOpc() {
         return opc;
     }
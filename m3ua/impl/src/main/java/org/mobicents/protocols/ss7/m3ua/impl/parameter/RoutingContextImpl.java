@@ -22,6 +22,7 @@
 
 package org.mobicents.protocols.ss7.m3ua.impl.parameter;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 import javolution.xml.XMLFormat;
@@ -75,6 +76,24 @@ public class RoutingContextImpl extends ParameterImpl implements RoutingContext,
         encode();
     }
 
+    /**
+     * Decodes the parameter value in place (for recycled PayloadData instances), the rc array is reused when its size matches
+     *
+     * @param buffer the received buffer
+     * @param offset absolute position of the parameter value in the buffer
+     * @param length the length of the parameter value
+     */
+    protected void decode(ByteBuffer buffer, int offset, int length) {
+        int cnt = length / 4;
+        if (this.rcs == null || this.rcs.length != cnt)
+            this.rcs = new long[cnt];
+        for (int i = 0; i < cnt; i++) {
+            this.rcs[i] = buffer.getInt(offset + i * 4) & 0xFFFFFFFFL;
+        }
+        // the encoded form is rebuilt on demand
+        this.value = null;
+    }
+
     private void encode() {
         // create byte array taking into account data, point codes and
         // indicators;
@@ -96,6 +115,8 @@ public class RoutingContextImpl extends ParameterImpl implements RoutingContext,
 
     @Override
     protected byte[] getValue() {
+        if (value == null && rcs != null)
+            encode();
         return value;
     }
 
@@ -22,6 +22,8 @@
 
 package org.mobicents.protocols.ss7.m3ua.impl.router;
 
+import java.util.Map;
+
 import javolution.util.FastList;
 
 import org.mobicents.protocols.ss7.m3ua.impl.AsImpl;
@@ -66,6 +68,33 @@ public class DPCNode {
 
     }
 
+    protected void removeSi(int opc, int si, AsImpl asImpl) throws Exception {
+        for (FastList.Node<OPCNode> n = opcList.head(), end = opcList.tail(); (n = n.getNext()) != end;) {
+            OPCNode opcNode = n.getValue();
+            if (opcNode.opc == opc) {
+                opcNode.removeSi(si, asImpl);
+                if (opcNode.isEmpty()) {
+                    opcList.remove(opcNode);
+                    if (opcNode == wildCardOpcNode) {
+                        wildCardOpcNode = null;
+                    }
+                }
+                return;
+            }
+        }
+        throw new Exception(String.format("OPC %d doesn't exist for DPC %d", opc, this.dpc));
+    }
+
+    protected boolean isEmpty() {
+        return opcList.isEmpty();
+    }
+
+    protected void fillIndex(Map<Long, Object> index, Object noMatch) {
+        for (FastList.Node<OPCNode> n = opcList.head(), end = opcList.tail(); (n = n.getNext()) != end;) {
+            n.getValue().fillIndex(index, noMatch);
+        }
+    }
+
     protected AsImpl getAs(int opc, short si) {
         for (FastList.Node<OPCNode> n = opcList.head(), end = opcList.tail(); (n = n.getNext()) != end;) {
             OPCNode opcNode = n.getValue();
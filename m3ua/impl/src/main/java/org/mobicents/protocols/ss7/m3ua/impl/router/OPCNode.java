@@ -22,6 +22,8 @@
 
 package org.mobicents.protocols.ss7.m3ua.impl.router;
 
+import java.util.Map;
+
 import javolution.util.FastList;
 
 import org.mobicents.protocols.ss7.m3ua.impl.AsImpl;
@@ -62,6 +64,38 @@ public class OPCNode {
         }
     }
 
+    protected void removeSi(int si, AsImpl asImpl) throws Exception {
+        for (FastList.Node<SINode> n = siList.head(), end = siList.tail(); (n = n.getNext()) != end;) {
+            SINode siNode = n.getValue();
+            if (siNode.si == si && siNode.asImpl == asImpl) {
+                siList.remove(siNode);
+                if (siNode == wildCardSINode) {
+                    wildCardSINode = null;
+                }
+                return;
+            }
+        }
+        throw new Exception(String.format("Service indicator %d doesn't exist for OPC %d and DPC %d", si, opc, dpc));
+    }
+
+    protected boolean isEmpty() {
+        return siList.isEmpty();
+    }
+
+    /**
+     * Adds an entry for every SINode and the (dpc, opc, -1) entry that keeps the wild card SINode As or the passed noMatch
+     * value if there is no wild card SINode
+     */
+    protected void fillIndex(Map<Long, Object> index, Object noMatch) {
+        for (FastList.Node<SINode> n = siList.head(), end = siList.tail(); (n = n.getNext()) != end;) {
+            SINode siNode = n.getValue();
+            index.put(RoutingKeyTable.key(dpc, opc, siNode.si), siNode.asImpl);
+        }
+        if (wildCardSINode == null) {
+            index.put(RoutingKeyTable.key(dpc, opc, RoutingKeyTable.WILDCARD), noMatch);
+        }
+    }
+
     protected AsImpl getAs(short si) {
         for (FastList.Node<SINode> n = siList.head(), end = siList.tail(); (n = n.getNext()) != end;) {
             SINode siNode = n.getValue();
@@ -0,0 +1,105 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl.router;
+
+import java.util.Map;
+
+/**
+ * Immutable hash table keyed by a (DPC, OPC, SI) triple, -1 stands for a wildcard OPC or SI.
+ *
+ * A triple is packed into one long and the table is a flat open addressing array of such keys with linear probing, so a
+ * lookup costs one multiplication and usually one array read and does not create any objects. ServerM3UARouter and
+ * M3UARouteManagement build a new table every time the routing configuration is changed and apply their wildcard fallbacks
+ * as a few subsequent lookups.
+ */
+public final class RoutingKeyTable<V> {
+
+    public static final int WILDCARD = -1;
+
+    private static final long EMPTY = -1L;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+    private final int size;
+
+    /**
+     * @param entries values by keys created with {@link #key(int, int, int)}
+     */
+    public RoutingKeyTable(Map<Long, V> entries) {
+        int cap = 2;
+        while (cap < entries.size() * 2)
+            cap <<= 1;
+
+        this.keys = new long[cap];
+        this.values = new Object[cap];
+        this.mask = cap - 1;
+        for (int i = 0; i < cap; i++) {
+            this.keys[i] = EMPTY;
+        }
+
+        for (Map.Entry<Long, V> e : entries.entrySet()) {
+            long key = e.getKey();
+            int i = this.slot(key);
+            while (this.keys[i] != EMPTY)
+                i = (i + 1) & this.mask;
+            this.keys[i] = key;
+            this.values[i] = e.getValue();
+        }
+        this.size = entries.size();
+    }
+
+    /**
+     * Packs the triple into a key. Point codes are up to 24 bits (ANSI), SI is an octet, -1 is a wildcard
+     */
+    public static long key(int dpc, int opc, int si) {
+        return ((long) ((dpc + 1) & 0x1FFFFFF) << 34) | ((long) ((opc + 1) & 0x1FFFFFF) << 9) | ((si + 1) & 0x1FF);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public V get(int dpc, int opc, int si) {
+        return this.get(key(dpc, opc, si));
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int i = this.slot(key);
+        while (true) {
+            long k = this.keys[i];
+            if (k == key)
+                return (V) this.values[i];
+            if (k == EMPTY)
+                return null;
+            i = (i + 1) & this.mask;
+        }
+    }
+
+    private int slot(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> 32) & this.mask;
+    }
+
+}
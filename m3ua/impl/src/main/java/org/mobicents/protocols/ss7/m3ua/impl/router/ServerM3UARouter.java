@@ -22,6 +22,9 @@
 
 package org.mobicents.protocols.ss7.m3ua.impl.router;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import javolution.util.FastList;
 
 import org.mobicents.protocols.ss7.m3ua.impl.AsImpl;
@@ -39,14 +42,24 @@ import org.mobicents.protocols.ss7.m3ua.parameter.ServiceIndicators;
  * Each {@link OPCNode} further contains {@link SINode} as leafs. The {@link SINode} contains the reference to corresponding
  * {@link AsImpl}.
  * </p>
+ * <p>
+ * The tree is only a configuration model. After every {@link #addRk(RoutingKey, AsImpl)} and
+ * {@link #removeRk(RoutingKey, AsImpl)} it is flattened into a {@link RoutingKeyTable} and {@link #getAs(int, int, short)}
+ * makes at most four lookups in that table whatever number of routing keys is configured.
+ * </p>
  *
  * @author amit bhayani
  *
  */
 public class ServerM3UARouter {
 
+    // value of the (dpc, opc, -1) entry when OPCNode has no wild card SINode: do not fall back to the wild card OPCNode
+    private static final Object NO_MATCH = new Object();
+
     private FastList<DPCNode> dpcList = new FastList<DPCNode>();
 
+    private volatile RoutingKeyTable<Object> index = new RoutingKeyTable<Object>(new HashMap<Long, Object>());
+
     public ServerM3UARouter() {
     }
 
@@ -66,37 +79,57 @@ public class ServerM3UARouter {
      * @param asImpl
      * @throws Exception
      */
-    public void addRk(RoutingKey rk, AsImpl asImpl) throws Exception {
+    public synchronized void addRk(RoutingKey rk, AsImpl asImpl) throws Exception {
         int dpc = rk.getDestinationPointCodes()[0].getPointCode();
-        OPCList[] opcArray = rk.getOPCLists();
+        int[] opcIntArr = this.getOpcs(rk);
+        short[] siShortArr = this.getSis(rk);
 
-        int[] opcIntArr = null;
-        if (opcArray == null) {
-            opcIntArr = new int[] { -1 };
-        } else {
-            opcIntArr = opcArray[0].getPointCodes();
-        }
-
-        ServiceIndicators[] siArray = rk.getServiceIndicators();
-        short[] siShortArr = null;
-        if (siArray == null) {
-            siShortArr = new short[] { -1 };
-        } else {
-            siShortArr = siArray[0].getIndicators();
+        DPCNode dpcNode = this.findDpcNode(dpc);
+        if (dpcNode == null) {
+            dpcNode = new DPCNode(dpc);
+            this.dpcList.add(dpcNode);
         }
 
-        for (FastList.Node<DPCNode> n = dpcList.head(), end = dpcList.tail(); (n = n.getNext()) != end;) {
-            DPCNode dpcNode = n.getValue();
-            if (dpcNode.dpc == dpc) {
-                this.addSi(dpcNode, opcIntArr, siShortArr, asImpl);
-                return;
+        try {
+            this.addSi(dpcNode, opcIntArr, siShortArr, asImpl);
+        } finally {
+            if (dpcNode.isEmpty()) {
+                this.dpcList.remove(dpcNode);
             }
+            this.updateIndex();
         }
+    }
+
+    /**
+     * Remove leafs that were added by {@link #addRk(RoutingKey, AsImpl)} for the passed Routing Key and As. Empty
+     * {@link OPCNode} and {@link DPCNode} are removed too.
+     *
+     * @param rk
+     * @param asImpl
+     * @throws Exception if the Routing Key was not added for this As
+     */
+    public synchronized void removeRk(RoutingKey rk, AsImpl asImpl) throws Exception {
+        int dpc = rk.getDestinationPointCodes()[0].getPointCode();
+        int[] opcIntArr = this.getOpcs(rk);
+        short[] siShortArr = this.getSis(rk);
 
-        DPCNode dpcNode = new DPCNode(dpc);
-        this.addSi(dpcNode, opcIntArr, siShortArr, asImpl);
-        this.dpcList.add(dpcNode);
+        DPCNode dpcNode = this.findDpcNode(dpc);
+        if (dpcNode == null) {
+            throw new Exception(String.format("DPC %d doesn't exist", dpc));
+        }
 
+        try {
+            for (int i = 0; i < opcIntArr.length; i++) {
+                for (int j = 0; j < siShortArr.length; j++) {
+                    dpcNode.removeSi(opcIntArr[i], siShortArr[j], asImpl);
+                }
+            }
+        } finally {
+            if (dpcNode.isEmpty()) {
+                this.dpcList.remove(dpcNode);
+            }
+            this.updateIndex();
+        }
     }
 
     /**
@@ -115,15 +148,58 @@ public class ServerM3UARouter {
      * @return
      */
     public AsImpl getAs(int dpc, int opc, short si) {
+        RoutingKeyTable<Object> index = this.index;
+
+        Object res = this.getAs(index, dpc, opc, si);
+        if (res == null && opc != RoutingKeyTable.WILDCARD) {
+            // no OPCNode for this opc: the wild card OPCNode
+            res = this.getAs(index, dpc, RoutingKeyTable.WILDCARD, si);
+        }
+        return res == NO_MATCH ? null : (AsImpl) res;
+    }
+
+    private Object getAs(RoutingKeyTable<Object> index, int dpc, int opc, short si) {
+        Object res = index.get(dpc, opc, si);
+        if (res != null) {
+            return res;
+        }
+        return index.get(dpc, opc, RoutingKeyTable.WILDCARD);
+    }
+
+    private void updateIndex() {
+        Map<Long, Object> entries = new HashMap<Long, Object>();
+        for (FastList.Node<DPCNode> n = dpcList.head(), end = dpcList.tail(); (n = n.getNext()) != end;) {
+            n.getValue().fillIndex(entries, NO_MATCH);
+        }
+        this.index = new RoutingKeyTable<Object>(entries);
+    }
+
+    private DPCNode findDpcNode(int dpc) {
         for (FastList.Node<DPCNode> n = dpcList.head(), end = dpcList.tail(); (n = n.getNext()) != end;) {
             DPCNode dpcNode = n.getValue();
             if (dpcNode.dpc == dpc) {
-                return dpcNode.getAs(opc, si);
+                return dpcNode;
             }
         }
         return null;
     }
 
+    private int[] getOpcs(RoutingKey rk) {
+        OPCList[] opcArray = rk.getOPCLists();
+        if (opcArray == null) {
+            return new int[] { -1 };
+        }
+        return opcArray[0].getPointCodes();
+    }
+
+    private short[] getSis(RoutingKey rk) {
+        ServiceIndicators[] siArray = rk.getServiceIndicators();
+        if (siArray == null) {
+            return new short[] { -1 };
+        }
+        return siArray[0].getIndicators();
+    }
+
     private void addSi(DPCNode dpcNode, int[] opcIntArr, short[] siShortArr, AsImpl asImpl) throws Exception {
         for (int i = 0; i < opcIntArr.length; i++) {
             for (int j = 0; j < siShortArr.length; j++) {
@@ -0,0 +1,287 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.mobicents.protocols.api.Association;
+import org.mobicents.protocols.api.AssociationListener;
+import org.mobicents.protocols.api.AssociationType;
+import org.mobicents.protocols.api.IpChannelType;
+import org.mobicents.protocols.api.PayloadData;
+import org.mobicents.protocols.ss7.m3ua.impl.message.M3UAMessageImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.message.MessageFactoryImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
+import org.mobicents.protocols.ss7.m3ua.message.M3UAMessage;
+import org.mobicents.protocols.ss7.m3ua.message.MessageClass;
+import org.mobicents.protocols.ss7.m3ua.message.MessageType;
+import org.testng.annotations.Test;
+
+public class AspTxBatcherTest {
+
+    private MessageFactoryImpl messageFactory = new MessageFactoryImpl();
+    private ParameterFactoryImpl parameterFactory = new ParameterFactoryImpl();
+
+    private M3UAMessageImpl createPayload(int sls) {
+        org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData payload = (org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData) messageFactory
+                .createMessage(MessageClass.TRANSFER_MESSAGES, MessageType.PAYLOAD);
+        payload.setData(parameterFactory.createProtocolData(1, 2, 3, 2, 0, sls, new byte[] { 1, 2, 3, 4, 5, (byte) sls }));
+        return (M3UAMessageImpl) payload;
+    }
+
+    @Test(groups = { "AspTxBatcher", "functional" })
+    public void testFlushBySize() throws Exception {
+        TestAssociation association = new TestAssociation(IpChannelType.TCP);
+        // every message is 32 bytes long, 3 messages exceed 90 bytes
+        AspTxBatcher batcher = new AspTxBatcher(association, 3, 4, 90, 1000000);
+
+        batcher.write(createPayload(1), 1);
+        batcher.write(createPayload(2), 1);
+        assertEquals(association.sent.size(), 0);
+        batcher.write(createPayload(3), 1);
+        assertEquals(association.sent.size(), 1);
+
+        // one write that holds the 3 messages in order
+        PayloadData pd = association.sent.get(0);
+        assertEquals(pd.getStreamNumber(), 1);
+        ByteBuffer bb = ByteBuffer.wrap(pd.getData());
+        for (int i = 0; i < 3; i++) {
+            M3UAMessage msg = messageFactory.createMessage(bb);
+            assertEquals(((org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData) msg).getData().getSLS(), i + 1);
+        }
+        assertEquals(bb.remaining(), 0);
+
+        assertEquals(batcher.getMessageCount(), 3);
+        assertEquals(batcher.getFlushedBySizeCount(), 1);
+        assertEquals(batcher.getBatchSizeHistogram().getTotalCount(), 1);
+        assertEquals(batcher.getBatchSizeHistogram().getMaxValue(), 3);
+        assertTrue(batcher.isEmpty());
+        assertEquals(batcher.flushExpired(System.nanoTime()), Long.MAX_VALUE);
+    }
+
+    @Test(groups = { "AspTxBatcher", "functional" })
+    public void testFlusherWakeUp() throws Exception {
+        TestAssociation association = new TestAssociation(IpChannelType.TCP);
+        AspTxBatcher batcher = new AspTxBatcher(association, 3, 2, 4096, 1000);
+        AspTxBatchFlusher flusher = new AspTxBatchFlusher();
+        flusher.register(batcher);
+        flusher.start();
+        try {
+            // the flusher parks while nothing is buffered and is woken up by the first message of a batch
+            for (int i = 1; i <= 3; i++) {
+                Thread.sleep(50);
+                assertEquals(association.sent.size(), i - 1);
+                batcher.write(createPayload(i), 1);
+                long deadline = System.currentTimeMillis() + 5000;
+                while (association.sent.size() < i && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+                assertEquals(association.sent.size(), i);
+            }
+            assertEquals(batcher.getFlushedByDeadlineCount(), 3);
+        } finally {
+            flusher.stop();
+            flusher.unregister(batcher);
+        }
+    }
+
+    @Test(groups = { "AspTxBatcher", "functional" })
+    public void testTcpCoalescingAndDeadline() throws Exception {
+        TestAssociation association = new TestAssociation(IpChannelType.TCP);
+        AspTxBatcher batcher = new AspTxBatcher(association, 3, 2, 4096, 1000000);
+
+        batcher.write(createPayload(1), 1);
+        batcher.write(createPayload(2), 1);
+        batcher.write(createPayload(3), 0);
+
+        long now = System.nanoTime();
+        long next = batcher.flushExpired(now);
+        assertEquals(association.sent.size(), 0);
+        assertTrue(next <= 1000000000L);
+
+        batcher.flushExpired(now + 2000000000L);
+        assertEquals(association.sent.size(), 2);
+        assertEquals(batcher.getFlushedByDeadlineCount(), 2);
+
+        // TCP: the messages of a stream are coalesced into one payload
+        PayloadData pd = association.sent.get(0);
+        assertEquals(pd.getStreamNumber(), 0);
+        pd = association.sent.get(1);
+        assertEquals(pd.getStreamNumber(), 1);
+        ByteBuffer bb = ByteBuffer.wrap(pd.getData());
+        M3UAMessage msg1 = messageFactory.createMessage(bb);
+        M3UAMessage msg2 = messageFactory.createMessage(bb);
+        assertEquals(((org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData) msg1).getData().getSLS(), 1);
+        assertEquals(((org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData) msg2).getData().getSLS(), 2);
+
+        batcher.write(createPayload(4), 1);
+        batcher.flushAll();
+        assertEquals(association.sent.size(), 3);
+        assertEquals(batcher.getFlushedExplicitlyCount(), 1);
+
+        batcher.write(createPayload(5), 1);
+        batcher.clear();
+        batcher.flushAll();
+        assertEquals(association.sent.size(), 3);
+    }
+
+    @Test(groups = { "AspTxBatcher", "functional" })
+    public void testSctpBurst() throws Exception {
+        TestAssociation association = new TestAssociation(IpChannelType.SCTP);
+        AspTxBatcher batcher = new AspTxBatcher(association, 3, 2, 90, 1000000);
+
+        batcher.write(createPayload(1), 1);
+        batcher.write(createPayload(2), 1);
+        assertEquals(association.sent.size(), 0);
+        batcher.write(createPayload(3), 1);
+
+        // SCTP: one SCTP user message per M3UA message, sent in order when the buffer is flushed
+        assertEquals(association.sent.size(), 3);
+        for (int i = 0; i < 3; i++) {
+            PayloadData pd = association.sent.get(i);
+            assertEquals(pd.getStreamNumber(), 1);
+            assertEquals(pd.getPayloadProtocolId(), 3);
+            ByteBuffer bb = ByteBuffer.wrap(pd.getData());
+            M3UAMessage msg = messageFactory.createMessage(bb);
+            assertEquals(((org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData) msg).getData().getSLS(), i + 1);
+            assertEquals(bb.remaining(), 0);
+        }
+        assertEquals(batcher.getFlushedBySizeCount(), 1);
+        assertEquals(batcher.getBatchSizeHistogram().getMaxValue(), 3);
+
+        // a batch of more messages than the initial bound array holds
+        association.sent.clear();
+        batcher = new AspTxBatcher(association, 3, 2, 4096, 1000000);
+        for (int i = 0; i < 100; i++) {
+            batcher.write(createPayload(i & 0x0F), 0);
+        }
+        batcher.flushAll();
+        assertEquals(association.sent.size(), 100);
+        for (int i = 0; i < 100; i++) {
+            M3UAMessage msg = messageFactory.createMessage(ByteBuffer.wrap(association.sent.get(i).getData()));
+            assertEquals(((org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData) msg).getData().getSLS(), i & 0x0F);
+        }
+        assertTrue(batcher.isEmpty());
+    }
+
+    class TestAssociation implements Association {
+
+        private IpChannelType ipChannelType;
+        private List<PayloadData> sent = new CopyOnWriteArrayList<PayloadData>();
+
+        TestAssociation(IpChannelType ipChannelType) {
+            this.ipChannelType = ipChannelType;
+        }
+
+        @Override
+        public AssociationListener getAssociationListener() {
+            return null;
+        }
+
+        @Override
+        public String getHostAddress() {
+            return null;
+        }
+
+        @Override
+        public int getHostPort() {
+            return 0;
+        }
+
+        @Override
+        public String getName() {
+            return "TestAssociation";
+        }
+
+        @Override
+        public String getPeerAddress() {
+            return null;
+        }
+
+        @Override
+        public int getPeerPort() {
+            return 0;
+        }
+
+        @Override
+        public String getServerName() {
+            return null;
+        }
+
+        @Override
+        public boolean isStarted() {
+            return true;
+        }
+
+        @Override
+        public void send(PayloadData payloadData) throws Exception {
+            this.sent.add(payloadData);
+        }
+
+        @Override
+        public void setAssociationListener(AssociationListener associationListener) {
+        }
+
+        @Override
+        public IpChannelType getIpChannelType() {
+            return this.ipChannelType;
+        }
+
+        @Override
+        public AssociationType getAssociationType() {
+            return null;
+        }
+
+        @Override
+        public String[] getExtraHostAddresses() {
+            return null;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public void acceptAnonymousAssociation(AssociationListener arg0) throws Exception {
+        }
+
+        @Override
+        public void rejectAnonymousAssociation() {
+        }
+
+        @Override
+        public void stopAnonymousAssociation() throws Exception {
+        }
+
+        @Override
+        public boolean isUp() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import org.testng.annotations.Test;
+
+public class SlsLoadBalancerTest {
+
+    private static final long MS = 1000000L;
+
+    private int[] createSlsTable(int aspCount) {
+        int[] table = new int[256];
+        for (int i = 0; i < 256; i++) {
+            table[i] = i % aspCount;
+        }
+        return table;
+    }
+
+    private void send(AspTrafficStats stats, int messages, long latency) {
+        for (int i = 0; i < messages; i++) {
+            stats.onAccepted(100);
+            stats.onSent(1, 100, latency);
+        }
+    }
+
+    @Test
+    public void testTrafficStats() {
+        AspTrafficStats stats = new AspTrafficStats();
+        stats.onAccepted(100);
+        stats.onAccepted(50);
+        assertEquals(stats.getOutstandingBytes(), 150);
+        stats.onSent(1, 100, 800);
+        stats.onDiscarded(50);
+        assertEquals(stats.getOutstandingBytes(), 0);
+        assertEquals(stats.getTxMessages(), 1);
+        assertEquals(stats.getTxBytes(), 100);
+        assertEquals(stats.getSendLatency(), 100);
+
+        send(stats, 100, 800);
+        assertTrue(stats.getSendLatency() > 790 && stats.getSendLatency() <= 800);
+    }
+
+    @Test
+    public void testRebalance() {
+        long now = 0;
+        SlsLoadBalancer balancer = new SlsLoadBalancer(createSlsTable(2), 16, 2, now);
+        boolean[] active = new boolean[] { true, true };
+        AspTrafficStats[] stats = new AspTrafficStats[] { new AspTrafficStats(), new AspTrafficStats() };
+        assertEquals(balancer.getAspBucketCount(0), 8);
+        assertEquals(balancer.getAspBucketCount(1), 8);
+
+        assertFalse(balancer.isRebalanceDue(now));
+        now += SlsLoadBalancer.REBALANCE_INTERVAL;
+        assertTrue(balancer.isRebalanceDue(now));
+        assertFalse(balancer.isRebalanceDue(now));
+
+        // both ASPs are fast: no moves
+        send(stats[0], 100, 100000);
+        send(stats[1], 100, 150000);
+        assertEquals(balancer.rebalance(active, stats, now), 0);
+        assertFalse(balancer.isLagging(0));
+        assertFalse(balancer.isLagging(1));
+
+        // ASP 1 is slow, bucket 1 is busy, bucket 3 has been just written
+        send(stats[0], 100, 100000);
+        send(stats[1], 100, 10 * MS);
+        assertEquals(balancer.onWriteStart(1), 1);
+        assertEquals(balancer.onWriteStart(3), 1);
+        balancer.onWriteEnd(3, now);
+        assertEquals(balancer.rebalance(active, stats, now), 6);
+        assertTrue(balancer.isLagging(1));
+        assertEquals(balancer.getAsp(1), 1);
+        assertEquals(balancer.getAsp(3), 1);
+        assertEquals(balancer.getAsp(5), 0);
+        assertEquals(balancer.getAspBucketCount(0), 14);
+
+        // bucket 3 gets quiet, bucket 1 is still busy
+        send(stats[1], 1, 10 * MS);
+        now += SlsLoadBalancer.QUIET_TIME + 4 * stats[1].getSendLatency();
+        assertEquals(balancer.rebalance(active, stats, now), 1);
+        assertEquals(balancer.getAsp(3), 0);
+        assertEquals(balancer.getAsp(1), 1);
+
+        // ASP 1 has no traffic any more and its outstanding bytes are drained: buckets are moved back
+        balancer.onWriteEnd(1, now);
+        now += SlsLoadBalancer.QUIET_TIME + 4 * stats[1].getSendLatency();
+        assertEquals(balancer.rebalance(active, stats, now), 7);
+        assertFalse(balancer.isLagging(1));
+        assertEquals(balancer.getAspBucketCount(0), 8);
+        assertEquals(balancer.getAspBucketCount(1), 8);
+    }
+
+    @Test
+    public void testOutstandingBytes() {
+        long now = 0;
+        SlsLoadBalancer balancer = new SlsLoadBalancer(createSlsTable(3), 128, 3, now);
+        boolean[] active = new boolean[] { true, true, false };
+        AspTrafficStats[] stats = new AspTrafficStats[] { new AspTrafficStats(), new AspTrafficStats(),
+                new AspTrafficStats() };
+
+        // the association of ASP 0 is blocked, ASP 2 is not ACTIVE: buckets of ASP 0 stay, its backlog may hold their messages
+        stats[0].onAccepted(1000000);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(balancer.rebalance(active, stats, now), 0);
+        }
+        assertTrue(balancer.isLagging(0));
+        assertEquals(balancer.getAspBucketCount(0), 43);
+
+        // the backlog is handed to the association, ASP 0 still lags by its send latency
+        stats[0].onSent(1, 1000000, 10 * MS);
+        int moved = 0;
+        for (int i = 0; i < 10; i++) {
+            moved += balancer.rebalance(active, stats, now);
+            if (i < 9)
+                send(stats[0], 1, 10 * MS);
+        }
+        assertTrue(balancer.isLagging(0));
+        assertEquals(moved, 43);
+        assertEquals(balancer.getAspBucketCount(0), 0);
+        assertEquals(balancer.getAspBucketCount(1), 86);
+        assertEquals(balancer.getAspBucketCount(2), 42);
+
+        // ASP 0 recovers while the association of ASP 1 gets blocked: its buckets are not returned before it is drained
+        now += SlsLoadBalancer.QUIET_TIME + 4 * stats[0].getSendLatency();
+        stats[1].onAccepted(1000000);
+        assertEquals(balancer.rebalance(active, stats, now), 0);
+        assertFalse(balancer.isLagging(0));
+        assertTrue(balancer.isLagging(1));
+
+        stats[1].onSent(1, 1000000, 100000);
+        assertEquals(balancer.rebalance(active, stats, now), 8);
+        assertEquals(balancer.getAspBucketCount(0), 8);
+    }
+
+    @Test
+    public void testWriteDuringCheck() {
+        long now = 0;
+        SlsLoadBalancer balancer = new SlsLoadBalancer(createSlsTable(2), 16, 2, now);
+        boolean[] active = new boolean[] { true, true };
+        AspTrafficStats[] stats = new AspTrafficStats[] { new AspTrafficStats(), new AspTrafficStats() };
+        send(stats[1], 100, 10 * MS);
+
+        // the state of a bucket keeps its ASP and in-flight count next to the count of started writes
+        assertEquals(balancer.onWriteStart(1), 1);
+        balancer.onWriteEnd(1, now);
+        now += SlsLoadBalancer.QUIET_TIME + 4 * stats[1].getSendLatency();
+        assertEquals(balancer.rebalance(active, stats, now), 8);
+        assertEquals(balancer.getAsp(1), 0);
+        assertEquals(balancer.onWriteStart(1), 0);
+        balancer.onWriteEnd(1, now);
+    }
+
+}
@@ -24,10 +24,14 @@ package org.mobicents.protocols.ss7.m3ua.impl.message;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNotSame;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import org.mobicents.protocols.ss7.m3ua.message.MessageType;
 import org.mobicents.protocols.ss7.m3ua.message.transfer.PayloadData;
@@ -376,4 +380,60 @@ public class MessageFactoryTest {
 
     }
 
+
+    @Test
+    public void testPooledDecoding() {
+        // the SST message from testSst(): NA, RC, Protocol Data with padding
+        byte[] data = new byte[] { 0x01, 0x00, 0x01, 0x01, 0x00, 0x00, 0x00, 0x3c, 0x02, 0x00, 0x00, 0x08, 0x00, 0x00, 0x00,
+                0x00, 0x00, 0x06, 0x00, 0x08, 0x00, 0x00, 0x00, 0x19, 0x02, 0x10, 0x00, 0x21, 0x00, 0x00, 0x17, (byte) 0x9d,
+                0x00, 0x00, 0x18, 0x1c, 0x03, 0x03, 0x00, 0x02, 0x09, 0x00, 0x03, 0x05, 0x07, 0x02, 0x42, 0x01, 0x02, 0x42,
+                0x01, 0x05, 0x03, (byte) 0xd5, 0x1c, 0x18, 0x00, 0x00, 0x00, 0x00 };
+        PayloadData ref = (PayloadData) messageFactory.createSctpMessage(data);
+
+        // two messages in one buffer
+        ByteBuffer byteBuffer = ByteBuffer.allocate(256);
+        byteBuffer.put(data);
+        byteBuffer.put(data, 0, 20);
+        byteBuffer.flip();
+
+        M3UAMessageImpl messageImpl = messageFactory.createPooledMessage(byteBuffer);
+        assertEquals(MessageType.PAYLOAD, messageImpl.getMessageType());
+        assertEquals(byteBuffer.position(), data.length);
+        PayloadData payloadData = (PayloadData) messageImpl;
+        assertEquals(0l, payloadData.getNetworkAppearance().getNetApp());
+        assertEquals(1, payloadData.getRoutingContext().getRoutingContexts().length);
+        assertEquals(25l, payloadData.getRoutingContext().getRoutingContexts()[0]);
+        ProtocolData protocolData = payloadData.getData();
+        assertEquals(6045, protocolData.getOpc());
+        assertEquals(6172, protocolData.getDpc());
+        assertEquals(3, protocolData.getSI());
+        assertEquals(2, protocolData.getSLS());
+        assertEquals(3, protocolData.getNI());
+        assertEquals(0, protocolData.getMP());
+        assertTrue(Arrays.equals(protocolData.getData(), ref.getData().getData()));
+
+        // the second message is incomplete
+        assertNull(messageFactory.createPooledMessage(byteBuffer));
+        assertEquals(byteBuffer.position(), data.length);
+
+        // a released message is reused and re-encodes identically
+        byte[] payload = protocolData.getData();
+        messageFactory.releaseMessage(messageImpl);
+        messageFactory.releaseMessage(messageImpl);
+        M3UAMessageImpl messageImpl2 = messageFactory.createPooledMessage(ByteBuffer.wrap(data));
+        assertSame(messageImpl2, messageImpl);
+        assertNotSame(((PayloadData) messageImpl2).getData().getData(), payload);
+
+        ByteBuffer encoded = ByteBuffer.allocate(256);
+        messageImpl2.encode(encoded);
+        encoded.flip();
+        byte[] encodedData = new byte[encoded.limit()];
+        encoded.get(encodedData);
+        assertTrue(Arrays.equals(encodedData, data));
+
+        // not pooled messages are ignored
+        messageFactory.releaseMessage(ref);
+        M3UAMessageImpl messageImpl3 = messageFactory.createPooledMessage(ByteBuffer.wrap(data));
+        assertNotSame(messageImpl3, ref);
+    }
 }
@@ -177,6 +177,28 @@ public class ParameterTest {
         assertTrue(isDataCorrect, "Data mismatch");
     }
 
+    @Test
+    public void testProtocolDataWrite() throws IOException {
+        // the data length is not a multiple of 4 so the parameter must be padded
+        ProtocolDataImpl p1 = (ProtocolDataImpl) factory.createProtocolData(1408, 14150, 3, 2, 1, 7, new byte[] { 1, 2, 3,
+                4, 5 });
+        p1.write(out);
+
+        byte[] value = p1.getValue();
+        byte[] expected = new byte[24];
+        expected[0] = 0x02;
+        expected[1] = 0x10;
+        expected[2] = 0;
+        expected[3] = 21;
+        System.arraycopy(value, 0, expected, 4, value.length);
+
+        assertEquals(out.position(), expected.length);
+        byte[] data = new byte[out.position()];
+        out.flip();
+        out.get(data);
+        assertTrue(Arrays.equals(data, expected));
+    }
+
     @Test
     public void testNetworkAppearance() throws IOException, XMLStreamException {
 
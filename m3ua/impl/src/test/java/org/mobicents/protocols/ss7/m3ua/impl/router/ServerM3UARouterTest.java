@@ -0,0 +1,133 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.m3ua.impl.router;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mobicents.protocols.ss7.m3ua.impl.AsImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.parameter.ParameterFactoryImpl;
+import org.mobicents.protocols.ss7.m3ua.parameter.DestinationPointCode;
+import org.mobicents.protocols.ss7.m3ua.parameter.OPCList;
+import org.mobicents.protocols.ss7.m3ua.parameter.RoutingKey;
+import org.mobicents.protocols.ss7.m3ua.parameter.ServiceIndicators;
+import org.testng.annotations.Test;
+
+public class ServerM3UARouterTest {
+
+    private ParameterFactoryImpl factory = new ParameterFactoryImpl();
+
+    private RoutingKey createRk(int dpc, int[] opcs, short[] sis) {
+        DestinationPointCode[] dpcArr = new DestinationPointCode[] { factory.createDestinationPointCode(dpc, (short) 0) };
+        OPCList[] opcArr = null;
+        if (opcs != null) {
+            opcArr = new OPCList[] { factory.createOPCList(opcs, new short[opcs.length]) };
+        }
+        ServiceIndicators[] siArr = null;
+        if (sis != null) {
+            siArr = new ServiceIndicators[] { factory.createServiceIndicators(sis) };
+        }
+        return factory.createRoutingKey(null, null, null, null, dpcArr, siArr, opcArr);
+    }
+
+    @Test
+    public void testRoutingKeyTable() {
+        Map<Long, String> entries = new HashMap<Long, String>();
+        for (int i = 0; i < 1000; i++) {
+            entries.put(RoutingKeyTable.key(i, -1, -1), "dpc" + i);
+            entries.put(RoutingKeyTable.key(i, 16383, 3), "si" + i);
+        }
+        entries.put(RoutingKeyTable.key(0xFFFFFF, 0xFFFFFF, 255), "max");
+        RoutingKeyTable<String> table = new RoutingKeyTable<String>(entries);
+
+        assertEquals(table.size(), 2001);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(table.get(i, -1, -1), "dpc" + i);
+            assertEquals(table.get(i, 16383, 3), "si" + i);
+            assertNull(table.get(i, 16383, 4));
+            assertNull(table.get(i, 16382, 3));
+        }
+        assertEquals(table.get(0xFFFFFF, 0xFFFFFF, 255), "max");
+        assertNull(table.get(1000, -1, -1));
+
+        assertNull(new RoutingKeyTable<String>(new HashMap<Long, String>()).get(1, -1, -1));
+    }
+
+    @Test
+    public void testGetAs() throws Exception {
+        ServerM3UARouter router = new ServerM3UARouter();
+        AsImpl as1 = new AsImpl();
+        AsImpl as2 = new AsImpl();
+        AsImpl as3 = new AsImpl();
+        AsImpl as4 = new AsImpl();
+
+        // DPC only
+        router.addRk(createRk(123, null, null), as1);
+        // DPC + OPC list
+        router.addRk(createRk(456, new int[] { 1, 2 }, null), as2);
+        // DPC + OPC + SI list
+        router.addRk(createRk(456, new int[] { 3 }, new short[] { 3, 5 }), as3);
+        // DPC + SI list: wild card OPC
+        router.addRk(createRk(456, null, new short[] { 3 }), as4);
+
+        assertEquals(router.getAs(123, 1, (short) 3), as1);
+        assertEquals(router.getAs(123, 100, (short) 5), as1);
+        assertNull(router.getAs(124, 1, (short) 3));
+
+        assertEquals(router.getAs(456, 1, (short) 3), as2);
+        assertEquals(router.getAs(456, 2, (short) 5), as2);
+        assertEquals(router.getAs(456, 3, (short) 3), as3);
+        assertEquals(router.getAs(456, 3, (short) 5), as3);
+        // OPC 3 is configured without wild card SI: no fall back to the wild card OPC
+        assertNull(router.getAs(456, 3, (short) 4));
+        assertEquals(router.getAs(456, 4, (short) 3), as4);
+        assertNull(router.getAs(456, 4, (short) 5));
+
+        try {
+            router.addRk(createRk(456, new int[] { 3 }, new short[] { 5 }), as1);
+            fail("Duplicate SI must be rejected");
+        } catch (Exception e) {
+        }
+        assertEquals(router.getAs(456, 3, (short) 5), as3);
+
+        router.removeRk(createRk(456, new int[] { 3 }, new short[] { 3, 5 }), as3);
+        assertEquals(router.getAs(456, 3, (short) 3), as4);
+        assertNull(router.getAs(456, 3, (short) 5));
+
+        try {
+            router.removeRk(createRk(456, new int[] { 1 }, null), as1);
+            fail("Removing a Routing Key of other As must fail");
+        } catch (Exception e) {
+        }
+
+        router.removeRk(createRk(123, null, null), as1);
+        assertNull(router.getAs(123, 1, (short) 3));
+        router.addRk(createRk(123, null, null), as3);
+        assertEquals(router.getAs(123, 1, (short) 3), as3);
+    }
+
+}
@@ -77,6 +77,8 @@ import org.mobicents.protocols.ss7.map.api.service.supplementary.UnstructuredSSN
 import org.mobicents.protocols.ss7.map.api.service.supplementary.UnstructuredSSRequest;
 import org.mobicents.protocols.ss7.map.api.service.supplementary.UnstructuredSSResponse;
 import org.mobicents.protocols.ss7.map.datacoding.CBSDataCodingSchemeImpl;
+import org.mobicents.protocols.ss7.mtp.LoopbackMtp3UserPart;
+import org.mobicents.protocols.ss7.mtp.Mtp3UserPart;
 import org.mobicents.protocols.ss7.sccp.SccpResource;
 import org.mobicents.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.mobicents.protocols.ss7.tcap.TCAPStackImpl;
@@ -124,7 +126,7 @@ public class Client extends TestHarness {
         this.initM3UA();
 
         // Initialize SCCP
-        this.initSCCP();
+        this.initSCCP(this.clientM3UAMgmt);
 
         // Initialize TCAP
         this.initTCAP();
@@ -137,6 +139,21 @@ public class Client extends TestHarness {
         this.clientM3UAMgmt.startAsp("ASP1");
     }
 
+    /**
+     * Initializes the stack on top of the passed Mtp3UserPart (for example LoopbackMtp3UserPart) instead of SCTP and M3UA
+     */
+    protected void initializeStack(Mtp3UserPart mtp3UserPart) throws Exception {
+
+        // Initialize SCCP
+        this.initSCCP(mtp3UserPart);
+
+        // Initialize TCAP
+        this.initTCAP();
+
+        // Initialize MAP
+        this.initMAP();
+    }
+
     private void initSCTP(IpChannelType ipChannelType) throws Exception {
         this.sctpManagement = new ManagementImpl("Client");
         this.sctpManagement.setSingleThread(true);
@@ -171,9 +188,9 @@ public class Client extends TestHarness {
 
     }
 
-    private void initSCCP() throws Exception {
+    private void initSCCP(Mtp3UserPart mtp3UserPart) throws Exception {
         this.sccpStack = new SccpStackImpl("MapLoadClientSccpStack");
-        this.sccpStack.setMtp3UserPart(1, this.clientM3UAMgmt);
+        this.sccpStack.setMtp3UserPart(1, mtp3UserPart);
 
         this.sccpStack.start();
         this.sccpStack.removeAllResourses();
@@ -242,8 +259,11 @@ public class Client extends TestHarness {
         int noOfCalls = Integer.parseInt(args[0]);
         int noOfConcurrentCalls = Integer.parseInt(args[1]);
         IpChannelType ipChannelType = IpChannelType.SCTP;
+        boolean loopback = false;
         if (args.length >= 3 && args[2].toLowerCase().equals("tcp")) {
             ipChannelType = IpChannelType.TCP;
+        } else if (args.length >= 3 && args[2].toLowerCase().equals("loopback")) {
+            loopback = true;
         } else {
             ipChannelType = IpChannelType.SCTP;
         }
@@ -298,9 +318,22 @@ public class Client extends TestHarness {
         final Client client = new Client();
 
         try {
-            client.initializeStack(ipChannelType);
-
-            Thread.sleep(20000);
+            if (loopback) {
+                // the Server is started in this JVM and both SCCP stacks are connected back-to-back without SCTP / M3UA
+                LoopbackMtp3UserPart clientMtp3UserPart = new LoopbackMtp3UserPart("Client");
+                LoopbackMtp3UserPart serverMtp3UserPart = new LoopbackMtp3UserPart("Server");
+                LoopbackMtp3UserPart.connect(clientMtp3UserPart, serverMtp3UserPart);
+                clientMtp3UserPart.start();
+                serverMtp3UserPart.start();
+
+                Server server = new Server();
+                server.initializeStack(serverMtp3UserPart);
+                client.initializeStack(clientMtp3UserPart);
+            } else {
+                client.initializeStack(ipChannelType);
+
+                Thread.sleep(20000);
+            }
 
             while (client.endCount < NDIALOGS) {
                 while (client.nbConcurrentDialogs.intValue() >= MAXCONCURRENTDIALOGS) {
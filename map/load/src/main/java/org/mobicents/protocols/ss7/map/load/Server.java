@@ -74,6 +74,7 @@ import org.mobicents.protocols.ss7.map.api.service.supplementary.UnstructuredSSN
 import org.mobicents.protocols.ss7.map.api.service.supplementary.UnstructuredSSRequest;
 import org.mobicents.protocols.ss7.map.api.service.supplementary.UnstructuredSSResponse;
 import org.mobicents.protocols.ss7.map.datacoding.CBSDataCodingSchemeImpl;
+import org.mobicents.protocols.ss7.mtp.Mtp3UserPart;
 import org.mobicents.protocols.ss7.sccp.SccpResource;
 import org.mobicents.protocols.ss7.sccp.impl.SccpStackImpl;
 import org.mobicents.protocols.ss7.tcap.TCAPStackImpl;
@@ -114,7 +115,7 @@ public class Server extends TestHarness {
         this.initM3UA();
 
         // Initialize SCCP
-        this.initSCCP();
+        this.initSCCP(this.serverM3UAMgmt);
 
         // Initialize TCAP
         this.initTCAP();
@@ -126,6 +127,21 @@ public class Server extends TestHarness {
         serverM3UAMgmt.startAsp("RASP1");
     }
 
+    /**
+     * Initializes the stack on top of the passed Mtp3UserPart (for example LoopbackMtp3UserPart) instead of SCTP and M3UA
+     */
+    protected void initializeStack(Mtp3UserPart mtp3UserPart) throws Exception {
+
+        // Initialize SCCP
+        this.initSCCP(mtp3UserPart);
+
+        // Initialize TCAP
+        this.initTCAP();
+
+        // Initialize MAP
+        this.initMAP();
+    }
+
     private void initSCTP(IpChannelType ipChannelType) throws Exception {
         this.sctpManagement = new ManagementImpl("Server");
         this.sctpManagement.setSingleThread(true);
@@ -166,9 +182,9 @@ public class Server extends TestHarness {
         this.serverM3UAMgmt.addRoute(CLIENT_SPC, -1, -1, "RAS1");
     }
 
-    private void initSCCP() throws Exception {
+    private void initSCCP(Mtp3UserPart mtp3UserPart) throws Exception {
         this.sccpStack = new SccpStackImpl("MapLoadServerSccpStack");
-        this.sccpStack.setMtp3UserPart(1, this.serverM3UAMgmt);
+        this.sccpStack.setMtp3UserPart(1, mtp3UserPart);
 
         this.sccpStack.start();
         this.sccpStack.removeAllResourses();
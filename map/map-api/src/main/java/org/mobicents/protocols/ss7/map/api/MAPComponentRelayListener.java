@@ -0,0 +1,44 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.map.api;
+
+import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
+
+/**
+ * Listener for pass-through relaying of received components. It is invoked for every received component before the component
+ * parameter is decoded, so a relay can forward the raw component to another dialog by
+ * {@link MAPDialog#relayComponent(Component, Long, Long, int)} without decoding and re-encoding of MAP parameters.
+ */
+public interface MAPComponentRelayListener {
+
+    /**
+     * A component has been received
+     *
+     * @param mapDialog the dialog the component belongs to
+     * @param component received Invoke, ReturnResult, ReturnResultLast, ReturnError or Reject
+     * @return true if the component has been consumed by the relay: it will be neither decoded nor delivered to MAP service
+     *         listeners; false for the regular processing
+     */
+    boolean onComponent(MAPDialog mapDialog, Component component);
+
+}
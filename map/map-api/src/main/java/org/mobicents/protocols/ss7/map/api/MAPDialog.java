@@ -33,6 +33,7 @@ import org.mobicents.protocols.ss7.map.api.primitives.IMSI;
 import org.mobicents.protocols.ss7.map.api.primitives.MAPExtensionContainer;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
 import org.mobicents.protocols.ss7.tcap.api.MessageType;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Invoke;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Problem;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResult;
@@ -290,6 +291,21 @@ public interface MAPDialog extends Serializable {
      */
     void sendRejectComponent(Long invokeId, Problem problem) throws MAPException;
 
+    /**
+     * Sends a component received in another dialog (see {@link MAPComponentRelayListener}). The received Parameter is sent as
+     * is, without decoding and re-encoding of the MAP parameter. The linkedId of an Invoke is kept as is
+     *
+     * @param component received Invoke, ReturnResult, ReturnResultLast, ReturnError or Reject
+     * @param invokeId invokeId for the relayed component. If null: a new invokeId of this dialog is allocated for an Invoke,
+     *        the received invokeId is kept for other components
+     * @param operationCode local operation code for a relayed Invoke, ReturnResult or ReturnResultLast or null to keep the
+     *        received one
+     * @param invokeTimeout invoke timeout for a relayed Invoke (_Timer_Default means _Timer_m), ignored for other components
+     * @return invokeId of the relayed component
+     * @throws MAPException
+     */
+    Long relayComponent(Component component, Long invokeId, Long operationCode, int invokeTimeout) throws MAPException;
+
     /**
      * Reset the Invoke Timeout timer for the Invoke. (TC-TIMER-RESET)
      *
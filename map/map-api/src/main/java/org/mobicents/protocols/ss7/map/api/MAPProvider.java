@@ -98,4 +98,28 @@ public interface MAPProvider extends Serializable {
 
     MAPServiceLsm getMAPServiceLsm();
 
+    /**
+     * Lazy decoding mode of incoming operation parameters. When enabled, an incoming request keeps the raw parameter bytes
+     * with an index of its elements and every element is decoded on the first access to its getter, so applications that
+     * read only some fields or relay a message skip decoding of the rest. Only the presence of mandatory parameters is
+     * checked before the message is delivered; an element that fails to decode later causes IllegalStateException in its
+     * getter. Supported for UpdateLocationRequest, InsertSubscriberDataRequest and SendRoutingInformationRequest, other
+     * messages are always fully decoded. Disabled by default.
+     *
+     * @param lazyParameterDecoding
+     */
+    void setLazyParameterDecoding(boolean lazyParameterDecoding);
+
+    boolean isLazyParameterDecoding();
+
+    /**
+     * Sets the listener that gets every received component before it is decoded (pass-through relay mode), null to remove
+     * the listener
+     *
+     * @param componentRelayListener
+     */
+    void setMAPComponentRelayListener(MAPComponentRelayListener componentRelayListener);
+
+    MAPComponentRelayListener getMAPComponentRelayListener();
+
 }
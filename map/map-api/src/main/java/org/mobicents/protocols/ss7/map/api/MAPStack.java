@@ -46,6 +46,15 @@ public interface MAPStack {
 
     TCAPStack getTCAPStack();
 
+    /**
+     * Enables lazy decoding of incoming operation parameters, see {@link MAPProvider#setLazyParameterDecoding(boolean)}
+     *
+     * @param lazyParameterDecoding
+     */
+    void setLazyParameterDecoding(boolean lazyParameterDecoding);
+
+    boolean isLazyParameterDecoding();
+
     /**
      * As soon as congestion starts in the underlying source, it calls this method to notify about it. Notification is only
      * one-time till the congestion abates in which case {@link CongestionListener#onCongestionFinish(String)} is called
@@ -0,0 +1,199 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.map;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.mobicents.protocols.asn.AsnException;
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.ss7.map.api.MAPParsingComponentException;
+import org.mobicents.protocols.ss7.map.api.MAPParsingComponentExceptionReason;
+
+/**
+ * Index of the top-level elements of an encoded MAP operation parameter (the content of its SEQUENCE). The index is built by
+ * one pass over the tags and lengths only, every element is decoded later by the owner message on the first access to the
+ * corresponding getter. Elements are decoded in their encoded order, so when a tag is repeated the last value wins as it does
+ * with full decoding.
+ *
+ * A decoding error of a lazily decoded element can not be reported by a getter as MAPParsingComponentException, so it is
+ * thrown as IllegalStateException with the parsing exception as the cause.
+ *
+ * The index is not thread-safe, the owner message calls it under its own monitor.
+ */
+public class LazyDecodingIndex implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final byte[] data;
+    private final String primitiveName;
+
+    private int count;
+    private int[] positions = new int[INITIAL_CAPACITY];
+    private int[] tags = new int[INITIAL_CAPACITY];
+    private int[] tagClasses = new int[INITIAL_CAPACITY];
+    private boolean[] decoded = new boolean[INITIAL_CAPACITY];
+    private int decodedCount;
+
+    private LazyDecodingIndex(byte[] data, String primitiveName) {
+        this.data = data;
+        this.primitiveName = primitiveName;
+    }
+
+    /**
+     * Builds the index of the parameter elements
+     *
+     * @param data parameter content (without the SEQUENCE tag and length)
+     * @param primitiveName message name for error messages
+     */
+    public static LazyDecodingIndex build(byte[] data, String primitiveName) throws MAPParsingComponentException {
+        LazyDecodingIndex index = new LazyDecodingIndex(data, primitiveName);
+        try {
+            AsnInputStream ais = new AsnInputStream(data);
+            while (ais.available() > 0) {
+                int pos = ais.position();
+                int tag = ais.readTag();
+                index.add(pos, ais.getTagClass(), tag);
+                ais.advanceElement();
+            }
+        } catch (IOException e) {
+            throw new MAPParsingComponentException("IOException when decoding " + primitiveName + ": " + e.getMessage(), e,
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+        } catch (AsnException e) {
+            throw new MAPParsingComponentException("AsnException when decoding " + primitiveName + ": " + e.getMessage(), e,
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+        }
+        return index;
+    }
+
+    private void add(int pos, int tagClass, int tag) {
+        if (this.count == this.positions.length) {
+            int newCapacity = this.count * 2;
+            int[] newPositions = new int[newCapacity];
+            int[] newTags = new int[newCapacity];
+            int[] newTagClasses = new int[newCapacity];
+            boolean[] newDecoded = new boolean[newCapacity];
+            System.arraycopy(this.positions, 0, newPositions, 0, this.count);
+            System.arraycopy(this.tags, 0, newTags, 0, this.count);
+            System.arraycopy(this.tagClasses, 0, newTagClasses, 0, this.count);
+            System.arraycopy(this.decoded, 0, newDecoded, 0, this.count);
+            this.positions = newPositions;
+            this.tags = newTags;
+            this.tagClasses = newTagClasses;
+            this.decoded = newDecoded;
+        }
+        this.positions[this.count] = pos;
+        this.tags[this.count] = tag;
+        this.tagClasses[this.count] = tagClass;
+        this.count++;
+    }
+
+    public byte[] getData() {
+        return this.data;
+    }
+
+    /**
+     * @return the count of top-level elements
+     */
+    public int size() {
+        return this.count;
+    }
+
+    public int getTag(int num) {
+        return this.tags[num];
+    }
+
+    public int getTagClass(int num) {
+        return this.tagClasses[num];
+    }
+
+    public boolean contains(int tagClass, int tag) {
+        for (int i = 0; i < this.count; i++) {
+            if (this.tags[i] == tag && this.tagClasses[i] == tagClass)
+                return true;
+        }
+        return false;
+    }
+
+    public boolean isFullyDecoded() {
+        return this.decodedCount == this.count;
+    }
+
+    /**
+     * Decodes the element with the specified position if it has not been decoded yet
+     */
+    public void decodePosition(ElementDecoder decoder, int num) {
+        if (num < this.count && !this.decoded[num])
+            this.decodeElement(decoder, num);
+    }
+
+    /**
+     * Decodes all not yet decoded elements with the specified tag starting from the element position firstNum
+     */
+    public void decodeTag(ElementDecoder decoder, int firstNum, int tagClass, int tag) {
+        for (int i = firstNum; i < this.count; i++) {
+            if (this.tags[i] == tag && this.tagClasses[i] == tagClass && !this.decoded[i])
+                this.decodeElement(decoder, i);
+        }
+    }
+
+    /**
+     * Decodes all not yet decoded elements
+     */
+    public void decodeAll(ElementDecoder decoder) {
+        for (int i = 0; i < this.count; i++) {
+            if (!this.decoded[i])
+                this.decodeElement(decoder, i);
+        }
+    }
+
+    private void decodeElement(ElementDecoder decoder, int num) {
+        try {
+            AsnInputStream ais = new AsnInputStream(this.data);
+            ais.position(this.positions[num]);
+            int tag = ais.readTag();
+            decoder.decodeIndexedElement(ais, num, tag);
+            this.decoded[num] = true;
+            this.decodedCount++;
+        } catch (MAPParsingComponentException e) {
+            throw new IllegalStateException("Error while lazy decoding of " + this.primitiveName + ": " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new IllegalStateException("IOException when lazy decoding of " + this.primitiveName + ": " + e.getMessage(), e);
+        } catch (AsnException e) {
+            throw new IllegalStateException("AsnException when lazy decoding of " + this.primitiveName + ": " + e.getMessage(),
+                    e);
+        }
+    }
+
+    /**
+     * Implemented by messages that support lazy decoding: decodes one top-level element, the stream is positioned just after
+     * the element tag
+     */
+    public interface ElementDecoder {
+        void decodeIndexedElement(AsnInputStream ais, int num, int tag) throws MAPParsingComponentException, IOException,
+                AsnException;
+    }
+
+}
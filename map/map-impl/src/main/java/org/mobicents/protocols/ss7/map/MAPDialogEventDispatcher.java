@@ -0,0 +1,300 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.map;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.mobicents.protocols.ss7.mtp.DeliveryHistogram;
+import org.mobicents.ss7.congestion.CapacityCongestionMonitor;
+import org.mobicents.ss7.congestion.QueueDelayCongestionMonitor;
+
+/**
+ * Dispatch stage that moves the processing of TCAP indications (MAP decoding and MAPDialogListener / service listener
+ * callbacks) from the TCAP delivery thread to a pool of worker threads.
+ *
+ * Every event is keyed by the local TCAP dialog id and all events of one dialog go to the same worker, so they are processed
+ * in the order of arrival. Every worker queue is bounded and dispatch() never waits for room: TCAP delivers indications while
+ * it holds the dialog lock that a worker may need to process an earlier event of the same dialog. An event that does not fit
+ * into its queue is rejected and the caller aborts the dialog. While the dispatcher is stopped events are processed inline by
+ * the calling thread, and stop() lets the workers process the already queued events, so no dialog release is lost.
+ *
+ * Every worker keeps a histogram of the queueing latency in microseconds. The sojourn time of every event can be reported
+ * to a {@link QueueDelayCongestionMonitor}, and the dispatcher itself is a {@link CapacityCongestionMonitor.ResourceUsage}
+ * (the count of queued events against the summary capacity of queues), so both monitors can feed an AdmissionController.
+ */
+public class MAPDialogEventDispatcher implements CapacityCongestionMonitor.ResourceUsage {
+
+    private static final Logger logger = Logger.getLogger(MAPDialogEventDispatcher.class);
+
+    public static final int DEFAULT_QUEUE_CAPACITY = 10000;
+
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final long STOP_WAIT_MILLIS = 1000;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final String name;
+    private final Worker[] workers;
+    private final int queueCapacity;
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private volatile QueueDelayCongestionMonitor queueDelayMonitor;
+
+    private volatile boolean started;
+
+    /**
+     * @param name prefix of worker thread names
+     * @param workerCount count of worker threads
+     * @param queueCapacity the maximum count of events queued for a worker
+     */
+    public MAPDialogEventDispatcher(String name, int workerCount, int queueCapacity) {
+        if (workerCount <= 0)
+            throw new IllegalArgumentException("Worker count must be greater than zero");
+        if (queueCapacity <= 0)
+            throw new IllegalArgumentException("Queue capacity must be greater than zero");
+
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            this.workers[i] = new Worker(i, queueCapacity);
+        }
+    }
+
+    public MAPDialogEventDispatcher(String name, int workerCount) {
+        this(name, workerCount, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    public void start() {
+        if (this.started)
+            return;
+
+        this.started = true;
+        for (Worker w : this.workers) {
+            w.thread = new Thread(w, this.name + "-" + w.index);
+            w.thread.start();
+        }
+    }
+
+    /**
+     * Stops accepting events into queues. Every worker processes the events that are already queued (TC-END, aborts and dialog
+     * releases among them) before it terminates.
+     */
+    public void stop() {
+        if (!this.started)
+            return;
+
+        this.started = false;
+        for (Worker w : this.workers) {
+            Thread t = w.thread;
+            try {
+                t.join(STOP_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (t.isAlive())
+                logger.warn("MAPDialogEventDispatcher " + this.name + ": worker " + w.index + " is still processing "
+                        + w.queue.size() + " queued events");
+        }
+    }
+
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    public int getWorkerCount() {
+        return this.workers.length;
+    }
+
+    public int getQueueCapacity() {
+        return this.queueCapacity;
+    }
+
+    public QueueDelayCongestionMonitor getQueueDelayMonitor() {
+        return this.queueDelayMonitor;
+    }
+
+    /**
+     * Sets the monitor that receives the queue sojourn time of every dispatched event. Null disables the measurement. The
+     * monitor should be set before the dispatcher is passed to MAPProviderImpl.setEventDispatcher() that registers it for
+     * periodic invocation by the TCAP stack timer.
+     */
+    public void setQueueDelayMonitor(QueueDelayCongestionMonitor queueDelayMonitor) {
+        this.queueDelayMonitor = queueDelayMonitor;
+    }
+
+    /**
+     * Queues the event for processing after all events of the same dialog that have been dispatched before it. The method
+     * never waits: if the queue of the dialog is full the event is rejected. If the dispatcher is not started the event is
+     * processed inline.
+     *
+     * @param dialogId local TCAP dialog id
+     * @param task the event processing
+     * @param newDialog true if the event opens a new dialog (only for the statistics of rejected events)
+     * @return false if the event has been rejected because the queue is full
+     */
+    public boolean dispatch(long dialogId, Runnable task, boolean newDialog) {
+        if (!this.started) {
+            this.runInline(task);
+            return true;
+        }
+
+        long h = dialogId * HASH_MULTIPLIER;
+        Worker w = this.workers[(int) ((h >>> 32) % this.workers.length)];
+
+        QueueDelayCongestionMonitor delayMonitor = this.queueDelayMonitor;
+        if (delayMonitor != null)
+            delayMonitor.recordEnqueue();
+        Task t = new Task(task, System.nanoTime(), delayMonitor);
+        if (!w.queue.offer(t)) {
+            if (delayMonitor != null)
+                delayMonitor.recordEnqueueFailure();
+            if (newDialog)
+                this.rejectedCount.incrementAndGet();
+            else
+                this.overflowCount.incrementAndGet();
+            return false;
+        }
+
+        // stop() may have let the worker terminate after it had drained the queue but before the event was queued
+        if (!this.started && w.queue.remove(t)) {
+            if (delayMonitor != null)
+                delayMonitor.recordSojournTime(System.nanoTime() - t.enqueueTime);
+            this.runInline(task);
+        }
+        return true;
+    }
+
+    private void runInline(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable e) {
+            logger.error("MAPDialogEventDispatcher " + name + ": exception while processing a dialog event", e);
+        }
+    }
+
+    public int getQueueSize(int worker) {
+        return this.workers[worker].queue.size();
+    }
+
+    /**
+     * @return the histogram of queueing latencies in microseconds
+     */
+    public DeliveryHistogram getQueueLatencyHistogram(int worker) {
+        return this.workers[worker].queueLatency;
+    }
+
+    public long getProcessedCount(int worker) {
+        return this.workers[worker].processedCount.get();
+    }
+
+    /**
+     * @return count of new dialog events that have been rejected because of a full queue
+     */
+    public long getRejectedCount() {
+        return this.rejectedCount.get();
+    }
+
+    /**
+     * @return count of events of already open dialogs that have been rejected because of a full queue
+     */
+    public long getOverflowCount() {
+        return this.overflowCount.get();
+    }
+
+    public void resetStatistics() {
+        for (Worker w : this.workers) {
+            w.queueLatency.reset();
+            w.processedCount.set(0);
+        }
+        this.rejectedCount.set(0);
+        this.overflowCount.set(0);
+    }
+
+    public long getUsage() {
+        long res = 0;
+        for (Worker w : this.workers) {
+            res += w.queue.size();
+        }
+        return res;
+    }
+
+    public long getCapacity() {
+        return (long) this.queueCapacity * this.workers.length;
+    }
+
+    private static final class Task {
+        private final Runnable task;
+        private final long enqueueTime;
+        private final QueueDelayCongestionMonitor delayMonitor;
+
+        Task(Runnable task, long enqueueTime, QueueDelayCongestionMonitor delayMonitor) {
+            this.task = task;
+            this.enqueueTime = enqueueTime;
+            this.delayMonitor = delayMonitor;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final int index;
+        private final BlockingQueue<Task> queue;
+        private final DeliveryHistogram queueLatency = new DeliveryHistogram();
+        private final AtomicLong processedCount = new AtomicLong();
+        private volatile Thread thread;
+
+        Worker(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<Task>(queueCapacity);
+        }
+
+        public void run() {
+            // after stop() the already queued events are still processed
+            while (started || !this.queue.isEmpty()) {
+                Task t;
+                try {
+                    t = this.queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+                if (t == null)
+                    continue;
+
+                long sojournTime = System.nanoTime() - t.enqueueTime;
+                this.queueLatency.recordValue(sojournTime / 1000);
+                if (t.delayMonitor != null)
+                    t.delayMonitor.recordSojournTime(sojournTime);
+
+                try {
+                    t.task.run();
+                } catch (Throwable e) {
+                    logger.error("MAPDialogEventDispatcher " + name + ": exception while processing a dialog event", e);
+                }
+                this.processedCount.incrementAndGet();
+            }
+        }
+    }
+}
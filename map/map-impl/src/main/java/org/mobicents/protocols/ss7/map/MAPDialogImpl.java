@@ -37,6 +37,7 @@ import org.mobicents.protocols.ss7.map.api.primitives.IMSI;
 import org.mobicents.protocols.ss7.map.api.primitives.MAPExtensionContainer;
 import org.mobicents.protocols.ss7.map.errors.MAPErrorMessageImpl;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.api.ComponentPrimitiveFactory;
 import org.mobicents.protocols.ss7.tcap.api.MessageType;
 import org.mobicents.protocols.ss7.tcap.api.TCAPException;
 import org.mobicents.protocols.ss7.tcap.api.TCAPSendException;
@@ -46,11 +47,15 @@ import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCContinueRequest;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCEndRequest;
 import org.mobicents.protocols.ss7.tcap.asn.ApplicationContextName;
 import org.mobicents.protocols.ss7.tcap.asn.TcapFactory;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
+import org.mobicents.protocols.ss7.tcap.asn.comp.ComponentType;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ErrorCode;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Invoke;
+import org.mobicents.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Parameter;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Problem;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Reject;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Return;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnError;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResult;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResultLast;
@@ -530,6 +535,97 @@ public abstract class MAPDialogImpl implements MAPDialog {
         }
     }
 
+    public Long relayComponent(Component component, Long invokeId, Long operationCode, int invokeTimeout) throws MAPException {
+
+        if (this.tcapDialog.getPreviewMode())
+            return invokeId;
+
+        ComponentPrimitiveFactory factory = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory();
+        Component relayed;
+
+        try {
+            switch (component.getType()) {
+                case Invoke: {
+                    Invoke received = (Invoke) component;
+                    Invoke invoke = factory.createTCInvokeRequest();
+                    if (invokeTimeout == _Timer_Default)
+                        invoke.setTimeout(_Timer_m);
+                    else
+                        invoke.setTimeout(invokeTimeout);
+                    if (invokeId == null)
+                        invokeId = this.tcapDialog.getNewInvokeId();
+                    invoke.setInvokeId(invokeId);
+                    if (received.getLinkedId() != null)
+                        invoke.setLinkedId(received.getLinkedId());
+                    invoke.setOperationCode(this.createRelayedOperationCode(received.getOperationCode(), operationCode));
+                    invoke.setParameter(received.getParameter());
+                    relayed = invoke;
+                }
+                    break;
+
+                case ReturnResult:
+                case ReturnResultLast: {
+                    Return received = (Return) component;
+                    Return res;
+                    if (component.getType() == ComponentType.ReturnResult)
+                        res = factory.createTCResultRequest();
+                    else
+                        res = factory.createTCResultLastRequest();
+                    if (invokeId == null)
+                        invokeId = received.getInvokeId();
+                    res.setInvokeId(invokeId);
+                    res.setOperationCode(this.createRelayedOperationCode(received.getOperationCode(), operationCode));
+                    res.setParameter(received.getParameter());
+                    relayed = res;
+                }
+                    break;
+
+                case ReturnError: {
+                    ReturnError received = (ReturnError) component;
+                    ReturnError returnError = factory.createTCReturnErrorRequest();
+                    if (invokeId == null)
+                        invokeId = received.getInvokeId();
+                    returnError.setInvokeId(invokeId);
+                    returnError.setErrorCode(received.getErrorCode());
+                    returnError.setParameter(received.getParameter());
+                    relayed = returnError;
+                }
+                    break;
+
+                case Reject: {
+                    Reject received = (Reject) component;
+                    Reject reject = factory.createTCRejectRequest();
+                    if (invokeId == null)
+                        invokeId = received.getInvokeId();
+                    reject.setInvokeId(invokeId);
+                    reject.setProblem(received.getProblem());
+                    relayed = reject;
+                }
+                    break;
+
+                default:
+                    throw new MAPException("Component of type " + component.getType() + " can not be relayed");
+            }
+
+            this.tcapDialog.sendComponent(relayed);
+        } catch (TCAPException e) {
+            throw new MAPException(e.getMessage(), e);
+        } catch (TCAPSendException e) {
+            throw new MAPException(e.getMessage(), e);
+        }
+
+        return invokeId;
+    }
+
+    private OperationCode createRelayedOperationCode(OperationCode received, Long operationCode) {
+        if (operationCode == null)
+            return received;
+
+        OperationCode oc = this.mapProviderImpl.getTCAPProvider().getComponentPrimitiveFactory().createOperationCode();
+        oc.setLocalOperationCode(operationCode);
+        return oc;
+    }
+
     public void resetInvokeTimer(Long invokeId) throws MAPException {
 
         if (this.tcapDialog.getPreviewMode())
@@ -37,6 +37,7 @@ import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.ss7.map.api.MAPApplicationContext;
 import org.mobicents.protocols.ss7.map.api.MAPApplicationContextName;
 import org.mobicents.protocols.ss7.map.api.MAPApplicationContextVersion;
+import org.mobicents.protocols.ss7.map.api.MAPComponentRelayListener;
 import org.mobicents.protocols.ss7.map.api.MAPDialog;
 import org.mobicents.protocols.ss7.map.api.MAPDialogListener;
 import org.mobicents.protocols.ss7.map.api.MAPDialogueAS;
@@ -54,6 +55,7 @@ import org.mobicents.protocols.ss7.map.api.dialog.MAPProviderAbortReason;
 import org.mobicents.protocols.ss7.map.api.dialog.MAPRefuseReason;
 import org.mobicents.protocols.ss7.map.api.dialog.MAPUserAbortChoice;
 import org.mobicents.protocols.ss7.map.api.dialog.Reason;
+import org.mobicents.protocols.ss7.map.api.dialog.ResourceUnavailableReason;
 import org.mobicents.protocols.ss7.map.api.dialog.ServingCheckData;
 import org.mobicents.protocols.ss7.map.api.errors.MAPErrorCode;
 import org.mobicents.protocols.ss7.map.api.errors.MAPErrorMessage;
@@ -73,6 +75,7 @@ import org.mobicents.protocols.ss7.map.dialog.MAPCloseInfoImpl;
 import org.mobicents.protocols.ss7.map.dialog.MAPOpenInfoImpl;
 import org.mobicents.protocols.ss7.map.dialog.MAPProviderAbortInfoImpl;
 import org.mobicents.protocols.ss7.map.dialog.MAPRefuseInfoImpl;
+import org.mobicents.protocols.ss7.map.dialog.MAPUserAbortChoiceImpl;
 import org.mobicents.protocols.ss7.map.dialog.MAPUserAbortInfoImpl;
 import org.mobicents.protocols.ss7.map.errors.MAPErrorMessageFactoryImpl;
 import org.mobicents.protocols.ss7.map.errors.MAPErrorMessageImpl;
@@ -84,6 +87,7 @@ import org.mobicents.protocols.ss7.map.service.pdpContextActivation.MAPServicePd
 import org.mobicents.protocols.ss7.map.service.sms.MAPServiceSmsImpl;
 import org.mobicents.protocols.ss7.map.service.supplementary.MAPServiceSupplementaryImpl;
 import org.mobicents.protocols.ss7.tcap.DialogImpl;
+import org.mobicents.protocols.ss7.tcap.TCAPProviderImpl;
 import org.mobicents.protocols.ss7.tcap.api.MessageType;
 import org.mobicents.protocols.ss7.tcap.api.TCAPProvider;
 import org.mobicents.protocols.ss7.tcap.api.TCAPSendException;
@@ -126,6 +130,7 @@ import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnErrorProblemType;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResult;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResultLast;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResultProblemType;
+import org.mobicents.ss7.congestion.AdmissionController;
 
 /**
  *
@@ -163,6 +168,11 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
     private final transient MAPServiceSms mapServiceSms = new MAPServiceSmsImpl(this);
     private final transient MAPServiceLsm mapServiceLsm = new MAPServiceLsmImpl(this);
 
+    private transient volatile boolean lazyParameterDecoding;
+    private transient volatile MAPComponentRelayListener componentRelayListener;
+    private transient volatile AdmissionController admissionController;
+    private transient volatile MAPDialogEventDispatcher eventDispatcher;
+
     /**
      * public common methods
      */
@@ -240,6 +250,7 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
     }
 
     public void start() {
+        this.checkEventDispatcher(this.eventDispatcher);
         this.tcapProvider.addTCListener(this);
     }
 
@@ -277,6 +288,71 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         }
     }
 
+    public void setLazyParameterDecoding(boolean lazyParameterDecoding) {
+        this.lazyParameterDecoding = lazyParameterDecoding;
+    }
+
+    public boolean isLazyParameterDecoding() {
+        return this.lazyParameterDecoding;
+    }
+
+    public void setMAPComponentRelayListener(MAPComponentRelayListener componentRelayListener) {
+        this.componentRelayListener = componentRelayListener;
+    }
+
+    public MAPComponentRelayListener getMAPComponentRelayListener() {
+        return this.componentRelayListener;
+    }
+
+    /**
+     * Sets the controller that decides if an incoming TC-BEGIN may open a new MAP dialog. A rejected TC-BEGIN is answered
+     * with TC-U-ABORT "resourceUnavailable - shortTermResourceLimitation" (MAP V2+) and the MAP-User is not informed. Null
+     * (default) admits all TC-BEGINs.
+     */
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return this.admissionController;
+    }
+
+    /**
+     * Sets the dispatch stage that processes TCAP indications (and so invokes MAPDialogListener and service listeners) on
+     * its worker threads instead of the TCAP delivery thread. Events of one dialog are processed in the order of arrival. A
+     * TC-BEGIN that finds its queue full is rejected as by the admission controller, a TC-CONTINUE aborts its dialog with the
+     * same TC-U-ABORT, a dialog release is processed inline and other events are dropped (a TC-END or an abort is followed by
+     * the dialog release). Dialog and invoke timeouts are still processed on the timer thread because the MAP-User may
+     * prolong the dialog there. Null (default) processes all indications synchronously. The dispatcher can not be used
+     * together with the TCAP messagePooling option because received components are recycled when the TCAP listener callback
+     * returns.
+     *
+     * The dispatcher is started and stopped by its owner. Its queue delay monitor (if set) is invoked by the TCAP stack timer.
+     */
+    public void setEventDispatcher(MAPDialogEventDispatcher eventDispatcher) {
+        this.checkEventDispatcher(eventDispatcher);
+        MAPDialogEventDispatcher oldDispatcher = this.eventDispatcher;
+        this.eventDispatcher = eventDispatcher;
+
+        if (this.tcapProvider instanceof TCAPProviderImpl) {
+            TCAPProviderImpl provider = (TCAPProviderImpl) this.tcapProvider;
+            if (oldDispatcher != null && oldDispatcher.getQueueDelayMonitor() != null)
+                provider.removeCongestionMonitor(oldDispatcher.getQueueDelayMonitor());
+            if (eventDispatcher != null && eventDispatcher.getQueueDelayMonitor() != null)
+                provider.addCongestionMonitor(eventDispatcher.getQueueDelayMonitor());
+        }
+    }
+
+    public MAPDialogEventDispatcher getEventDispatcher() {
+        return this.eventDispatcher;
+    }
+
+    private void checkEventDispatcher(MAPDialogEventDispatcher eventDispatcher) {
+        if (eventDispatcher != null && this.tcapProvider instanceof TCAPProviderImpl
+                && ((TCAPProviderImpl) this.tcapProvider).getMessagePool() != null)
+            throw new IllegalStateException("MAP event dispatcher can not be used when TCAP messagePooling is enabled");
+    }
+
     public boolean isCongested() {
         if (this.congSources.size() > 0)
             return true;
@@ -284,7 +360,56 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
             return false;
     }
 
-    public void onTCBegin(TCBeginIndication tcBeginIndication) {
+    public void onTCBegin(final TCBeginIndication tcBeginIndication) {
+        MAPDialogEventDispatcher dispatcher = this.eventDispatcher;
+        if (dispatcher != null) {
+            Runnable task = new Runnable() {
+                public void run() {
+                    processTCBegin(tcBeginIndication);
+                }
+            };
+            if (!dispatcher.dispatch(tcBeginIndication.getDialog().getLocalDialogId(), task, true)) {
+                if (loger.isDebugEnabled())
+                    loger.debug("TC-BEGIN has been rejected: the event dispatcher queue is full");
+                if (!this.getTCAPProvider().getPreviewMode())
+                    this.rejectTCBegin(tcBeginIndication);
+            }
+            return;
+        }
+
+        this.processTCBegin(tcBeginIndication);
+    }
+
+    /**
+     * Answers a TC-BEGIN that is not admitted because of an overload with TC-U-ABORT "resourceUnavailable -
+     * shortTermResourceLimitation" (or the MAP V1 abort if the ACN is absent)
+     */
+    private void rejectTCBegin(TCBeginIndication tcBeginIndication) {
+        this.fireTCAbortResourceLimitation(tcBeginIndication.getDialog(), tcBeginIndication.getApplicationContextName());
+    }
+
+    private void fireTCAbortResourceLimitation(Dialog tcapDialog, ApplicationContextName acn) {
+        try {
+            if (acn == null) {
+                this.fireTCAbortV1(tcapDialog, false);
+            } else {
+                MAPUserAbortChoiceImpl abortChoice = new MAPUserAbortChoiceImpl();
+                abortChoice.setResourceUnavailableReason(ResourceUnavailableReason.shortTermResourceLimitation);
+                this.fireTCAbortUser(tcapDialog, abortChoice, null, false);
+            }
+        } catch (MAPException e) {
+            loger.error("Error while firing TC-U-ABORT. ", e);
+        }
+    }
+
+    /**
+     * Called when an event of an open dialog does not fit into the event dispatcher queue
+     */
+    private void onDispatcherOverflow(Dialog tcapDialog, String event) {
+        loger.warn("MAP event dispatcher queue is full, " + event + " is dropped, dialogId=" + tcapDialog.getLocalDialogId());
+    }
+
+    private void processTCBegin(TCBeginIndication tcBeginIndication) {
 
         ApplicationContextName acn = tcBeginIndication.getApplicationContextName();
         Component[] comps = tcBeginIndication.getComponents();
@@ -309,6 +434,15 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
             return;
         }
 
+        AdmissionController admission = this.admissionController;
+        if (admission != null && !this.getTCAPProvider().getPreviewMode() && !admission.admit()) {
+            if (loger.isDebugEnabled())
+                loger.debug("TC-BEGIN has been rejected by the admission controller, congestion level="
+                        + admission.getCongestionLevel());
+            this.rejectTCBegin(tcBeginIndication);
+            return;
+        }
+
         MAPApplicationContext mapAppCtx = null;
         MAPServiceBase perfSer = null;
         if (acn == null) {
@@ -684,7 +818,27 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         mapDialogImpl.delayedAreaState = null;
     }
 
-    public void onTCContinue(TCContinueIndication tcContinueIndication) {
+    public void onTCContinue(final TCContinueIndication tcContinueIndication) {
+        MAPDialogEventDispatcher dispatcher = this.eventDispatcher;
+        if (dispatcher != null) {
+            Dialog tcapDialog = tcContinueIndication.getDialog();
+            if (!dispatcher.dispatch(tcapDialog.getLocalDialogId(), new Runnable() {
+                public void run() {
+                    processTCContinue(tcContinueIndication);
+                }
+            }, false)) {
+                // the dialog can not go on without this message: abort it, the following dialog release cleans it up
+                this.onDispatcherOverflow(tcapDialog, "TC-CONTINUE");
+                if (!this.getTCAPProvider().getPreviewMode())
+                    this.fireTCAbortResourceLimitation(tcapDialog, tcapDialog.getApplicationContextName());
+            }
+            return;
+        }
+
+        this.processTCContinue(tcContinueIndication);
+    }
+
+    private void processTCContinue(TCContinueIndication tcContinueIndication) {
 
         Dialog tcapDialog = tcContinueIndication.getDialog();
 
@@ -903,7 +1057,22 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         }
     }
 
-    public void onTCEnd(TCEndIndication tcEndIndication) {
+    public void onTCEnd(final TCEndIndication tcEndIndication) {
+        MAPDialogEventDispatcher dispatcher = this.eventDispatcher;
+        if (dispatcher != null) {
+            if (!dispatcher.dispatch(tcEndIndication.getDialog().getLocalDialogId(), new Runnable() {
+                public void run() {
+                    processTCEnd(tcEndIndication);
+                }
+            }, false))
+                this.onDispatcherOverflow(tcEndIndication.getDialog(), "TC-END");
+            return;
+        }
+
+        this.processTCEnd(tcEndIndication);
+    }
+
+    private void processTCEnd(TCEndIndication tcEndIndication) {
 
         Dialog tcapDialog = tcEndIndication.getDialog();
 
@@ -1160,7 +1329,24 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         }
     }
 
-    public void onDialogReleased(Dialog tcapDialog) {
+    public void onDialogReleased(final Dialog tcapDialog) {
+        MAPDialogEventDispatcher dispatcher = this.eventDispatcher;
+        if (dispatcher != null) {
+            if (!dispatcher.dispatch(tcapDialog.getLocalDialogId(), new Runnable() {
+                public void run() {
+                    processDialogReleased(tcapDialog);
+                }
+            }, false)) {
+                // the MAP dialog must not leak: release it now, events of it that are still queued find no dialog
+                this.processDialogReleased(tcapDialog);
+            }
+            return;
+        }
+
+        this.processDialogReleased(tcapDialog);
+    }
+
+    private void processDialogReleased(Dialog tcapDialog) {
 
         MAPDialogImpl mapDialogImpl = this.removeDialog(tcapDialog.getLocalDialogId());
 
@@ -1175,7 +1361,22 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         }
     }
 
-    public void onTCPAbort(TCPAbortIndication tcPAbortIndication) {
+    public void onTCPAbort(final TCPAbortIndication tcPAbortIndication) {
+        MAPDialogEventDispatcher dispatcher = this.eventDispatcher;
+        if (dispatcher != null) {
+            if (!dispatcher.dispatch(tcPAbortIndication.getDialog().getLocalDialogId(), new Runnable() {
+                public void run() {
+                    processTCPAbort(tcPAbortIndication);
+                }
+            }, false))
+                this.onDispatcherOverflow(tcPAbortIndication.getDialog(), "TC-P-ABORT");
+            return;
+        }
+
+        this.processTCPAbort(tcPAbortIndication);
+    }
+
+    private void processTCPAbort(TCPAbortIndication tcPAbortIndication) {
         Dialog tcapDialog = tcPAbortIndication.getDialog();
 
         MAPDialogImpl mapDialogImpl;
@@ -1258,7 +1459,22 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         NoUserInfo, BadUserInfo, MapRefuse, MapUserAbort, MapProviderAbort;
     }
 
-    public void onTCUserAbort(TCUserAbortIndication tcUserAbortIndication) {
+    public void onTCUserAbort(final TCUserAbortIndication tcUserAbortIndication) {
+        MAPDialogEventDispatcher dispatcher = this.eventDispatcher;
+        if (dispatcher != null) {
+            if (!dispatcher.dispatch(tcUserAbortIndication.getDialog().getLocalDialogId(), new Runnable() {
+                public void run() {
+                    processTCUserAbort(tcUserAbortIndication);
+                }
+            }, false))
+                this.onDispatcherOverflow(tcUserAbortIndication.getDialog(), "TC-U-ABORT");
+            return;
+        }
+
+        this.processTCUserAbort(tcUserAbortIndication);
+    }
+
+    private void processTCUserAbort(TCUserAbortIndication tcUserAbortIndication) {
         Dialog tcapDialog = tcUserAbortIndication.getDialog();
 
         MAPDialogImpl mapDialogImpl;
@@ -1486,6 +1702,17 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
 
     private void doProcessComponent(MAPDialogImpl mapDialogImpl, Component c) {
 
+        // pass-through relay: the component is forwarded without decoding of its parameter
+        MAPComponentRelayListener relayListener = this.componentRelayListener;
+        if (relayListener != null) {
+            try {
+                if (relayListener.onComponent(mapDialogImpl, c))
+                    return;
+            } catch (Exception e) {
+                loger.error("Exception in MAPComponentRelayListener: " + e.getMessage() + "\nComponent" + c, e);
+            }
+        }
+
         // Getting the MAP Service that serves the MAP Dialog
         MAPServiceBaseImpl perfSer = (MAPServiceBaseImpl) mapDialogImpl.getService();
 
@@ -1659,7 +1886,22 @@ public class MAPProviderImpl implements MAPProvider, TCListener {
         }
     }
 
-    public void onTCNotice(TCNoticeIndication ind) {
+    public void onTCNotice(final TCNoticeIndication ind) {
+        MAPDialogEventDispatcher dispatcher = this.eventDispatcher;
+        if (dispatcher != null && ind.getDialog() != null) {
+            if (!dispatcher.dispatch(ind.getDialog().getLocalDialogId(), new Runnable() {
+                public void run() {
+                    processTCNotice(ind);
+                }
+            }, false))
+                this.onDispatcherOverflow(ind.getDialog(), "TC-NOTICE");
+            return;
+        }
+
+        this.processTCNotice(ind);
+    }
+
+    private void processTCNotice(TCNoticeIndication ind) {
 
         if (this.getTCAPProvider().getPreviewMode()) {
             return;
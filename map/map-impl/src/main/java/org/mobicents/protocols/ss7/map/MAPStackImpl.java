@@ -121,6 +121,14 @@ public class MAPStackImpl implements MAPStack, CongestionListener {
         return this.tcapStack;
     }
 
+    public void setLazyParameterDecoding(boolean lazyParameterDecoding) {
+        this.mapProvider.setLazyParameterDecoding(lazyParameterDecoding);
+    }
+
+    public boolean isLazyParameterDecoding() {
+        return this.mapProvider.isLazyParameterDecoding();
+    }
+
     public void onCongestionStart(String congName) {
         this.mapProvider.onCongestionStart(congName);
     }
@@ -211,9 +211,12 @@ public class MAPServiceCallHandlingImpl extends MAPServiceBaseImpl implements MA
                             + parameter.getTag(), MAPParsingComponentExceptionReason.MistypedParameter);
 
         byte[] buf = parameter.getData();
-        AsnInputStream ais = new AsnInputStream(buf);
-
-        ind.decodeData(ais, buf.length);
+        if (this.mapProviderImpl.isLazyParameterDecoding()) {
+            ind.decodeDataLazy(buf);
+        } else {
+            AsnInputStream ais = new AsnInputStream(buf);
+            ind.decodeData(ais, buf.length);
+        }
         ind.setInvokeId(invokeId);
         ind.setMAPDialog(mapDialogImpl);
 
@@ -28,6 +28,7 @@ import org.mobicents.protocols.asn.AsnException;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.mobicents.protocols.ss7.map.LazyDecodingIndex;
 import org.mobicents.protocols.ss7.map.api.MAPException;
 import org.mobicents.protocols.ss7.map.api.MAPMessageType;
 import org.mobicents.protocols.ss7.map.api.MAPOperationCode;
@@ -61,7 +62,8 @@ import org.mobicents.protocols.ss7.map.service.mobility.subscriberManagement.Ext
  * @author cristian veliscu
  *
  */
-public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl implements SendRoutingInformationRequest {
+public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl implements SendRoutingInformationRequest,
+        LazyDecodingIndex.ElementDecoder {
     private ISDNAddressString msisdn;
     private CUGCheckInfo cugCheckInfo;
     private Integer numberOfForwarding;
@@ -94,6 +96,8 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
     private EMLPPPriority callPriority;
     private long mapProtocolVersion;
 
+    private LazyDecodingIndex lazyIndex;
+
     private static final int TAG_msisdn = 0;
     private static final int TAG_cugCheckInfo = 1;
     private static final int TAG_numberOfForwarding = 2;
@@ -205,151 +209,181 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
 
     @Override
     public ISDNAddressString getMsisdn() {
+        this.decodeLazy(TAG_msisdn);
         return this.msisdn;
     }
 
     @Override
     public CUGCheckInfo getCUGCheckInfo() {
+        this.decodeLazy(TAG_cugCheckInfo);
         return this.cugCheckInfo;
     }
 
     @Override
     public Integer getNumberOfForwarding() {
+        this.decodeLazy(TAG_numberOfForwarding);
         return this.numberOfForwarding;
     }
 
     @Override
     public InterrogationType getInterogationType() {
+        this.decodeLazy(TAG_interrogationType);
         return this.interrogationType;
     }
 
     @Override
     public boolean getORInterrogation() {
+        this.decodeLazy(TAG_orInterrogation);
         return this.orInterrogation;
     }
 
     @Override
     public Integer getORCapability() {
+        this.decodeLazy(TAG_orCapability);
         return this.orCapability;
     }
 
     @Override
     public ISDNAddressString getGmscOrGsmSCFAddress() {
+        this.decodeLazy(TAG_gmscOrGsmSCFAddress);
         return this.gmscAddress;
     }
 
     @Override
     public CallReferenceNumber getCallReferenceNumber() {
+        this.decodeLazy(TAG_callReferenceNumber);
         return this.callReferenceNumber;
     }
 
     @Override
     public ForwardingReason getForwardingReason() {
+        this.decodeLazy(TAG_forwardingReason);
         return this.forwardingReason;
     }
 
     @Override
     public ExtBasicServiceCode getBasicServiceGroup() {
+        this.decodeLazy(TAG_basicServiceGroup);
         return this.basicServiceGroup;
     }
 
     @Override
     public ExternalSignalInfo getNetworkSignalInfo() {
+        this.decodeLazy(TAG_networkSignalInfo);
         return this.networkSignalInfo;
     }
 
     @Override
     public CamelInfo getCamelInfo() {
+        this.decodeLazy(TAG_camelInfo);
         return this.camelInfo;
     }
 
     @Override
     public boolean getSuppressionOfAnnouncement() {
+        this.decodeLazy(TAG_suppressionOfAnnouncement);
         return this.suppressionOfAnnouncement;
     }
 
     @Override
     public MAPExtensionContainer getExtensionContainer() {
+        this.decodeLazy(TAG_extensionContainer);
         return this.extensionContainer;
     }
 
     @Override
     public AlertingPattern getAlertingPattern() {
+        this.decodeLazy(TAG_alertingPattern);
         return this.alertingPattern;
     }
 
     @Override
     public boolean getCCBSCall() {
+        this.decodeLazy(TAG_ccbsCall);
         return this.ccbsCall;
     }
 
     @Override
     public Integer getSupportedCCBSPhase() {
+        this.decodeLazy(TAG_supportedCCBSPhase);
         return this.supportedCCBSPhase;
     }
 
     @Override
     public ExtExternalSignalInfo getAdditionalSignalInfo() {
+        this.decodeLazy(TAG_additionalSignalInfo);
         return this.additionalSignalInfo;
     }
 
     @Override
     public ISTSupportIndicator getIstSupportIndicator() {
+        this.decodeLazy(TAG_istSupportIndicator);
         return this.istSupportIndicator;
     }
 
     @Override
     public boolean getPrePagingSupported() {
+        this.decodeLazy(TAG_prePagingSupported);
         return this.prePagingSupported;
     }
 
     @Override
     public CallDiversionTreatmentIndicator getCallDiversionTreatmentIndicator() {
+        this.decodeLazy(TAG_callDiversionTreatmentIndicator);
         return this.callDiversionTreatmentIndicator;
     }
 
     @Override
     public boolean getLongFTNSupported() {
+        this.decodeLazy(TAG_longFTNSupported);
         return this.longFTNSupported;
     }
 
     @Override
     public boolean getSuppressVtCSI() {
+        this.decodeLazy(TAG_suppress_VT_CSI);
         return this.suppressVtCSI;
     }
 
     @Override
     public boolean getSuppressIncomingCallBarring() {
+        this.decodeLazy(TAG_suppressIncomingCallBarring);
         return this.suppressIncomingCallBarring;
     }
 
     @Override
     public boolean getGsmSCFInitiatedCall() {
+        this.decodeLazy(TAG_gsmSCFInitiatedCall);
         return this.gsmSCFInitiatedCall;
     }
 
     @Override
     public ExtBasicServiceCode getBasicServiceGroup2() {
+        this.decodeLazy(TAG_basicServiceGroup2);
         return this.basicServiceGroup2;
     }
 
     @Override
     public ExternalSignalInfo getNetworkSignalInfo2() {
+        this.decodeLazy(TAG_networkSignalInfo2);
         return this.networkSignalInfo2;
     }
 
     @Override
     public SuppressMTSS getSuppressMTSS() {
+        this.decodeLazy(TAG_suppressMTSS);
         return this.suppressMTSS;
     }
 
     @Override
     public boolean getMTRoamingRetrySupported() {
+        this.decodeLazy(TAG_mtRoamingRetrySupported);
         return this.mtRoamingRetrySupported;
     }
 
     @Override
     public EMLPPPriority getCallPriority() {
+        this.decodeLazy(TAG_callPriority);
         return this.callPriority;
     }
 
@@ -405,7 +439,47 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
         }
     }
 
-    private void _decode(AsnInputStream ansIS, int length) throws MAPParsingComponentException, IOException, AsnException {
+    /**
+     * Lazy decoding: only the index of the parameter elements is built here, every element is decoded on the first access to
+     * the corresponding getter. Mandatory parameters presence is checked at once.
+     * Pending elements are decoded under the message monitor, so getters may be called from several threads. An element that
+     * fails to decode makes its getter (and encodeData() / toString()) throw IllegalStateException with the
+     * decoding exception as the cause.
+     *
+     * @param data parameter content (without the SEQUENCE tag and length)
+     */
+    public void decodeDataLazy(byte[] data) throws MAPParsingComponentException {
+        this._clearFields();
+        LazyDecodingIndex index = LazyDecodingIndex.build(data, _PrimitiveName);
+
+        if (!index.contains(Tag.CLASS_CONTEXT_SPECIFIC, TAG_msisdn)) {
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Parament msisdn is mandatory but does not found", MAPParsingComponentExceptionReason.MistypedParameter);
+        }
+
+        if (this.mapProtocolVersion >= 3 && !index.contains(Tag.CLASS_CONTEXT_SPECIFIC, TAG_interrogationType)) {
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Parament interrogationType is mandatory (V3) but does not found",
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+        }
+
+        if (this.mapProtocolVersion >= 3 && !index.contains(Tag.CLASS_CONTEXT_SPECIFIC, TAG_gmscOrGsmSCFAddress)) {
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Parament gmscAddress is mandatory (V3) but does not found",
+                    MAPParsingComponentExceptionReason.MistypedParameter);
+        }
+
+        this.lazyIndex = index;
+    }
+
+    /**
+     * @return true if the message has been decoded lazily and some of its elements are not decoded yet
+     */
+    public synchronized boolean isLazyDecodingPending() {
+        return this.lazyIndex != null && !this.lazyIndex.isFullyDecoded();
+    }
+
+    private void _clearFields() {
         this.msisdn = null;
         this.cugCheckInfo = null;
         this.numberOfForwarding = null;
@@ -436,8 +510,14 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
         this.suppressMTSS = null;
         this.mtRoamingRetrySupported = false;
         this.callPriority = null;
+    }
+
+    private void _decode(AsnInputStream ansIS, int length) throws MAPParsingComponentException, IOException, AsnException {
+        this.lazyIndex = null;
+        this._clearFields();
 
         AsnInputStream ais = ansIS.readSequenceStreamData(length);
+        int num = 0;
 
         while (true) {
             if (ais.available() == 0) {
@@ -446,285 +526,8 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
 
             int tag = ais.readTag();
 
-            switch (ais.getTagClass()) {
-                case Tag.CLASS_CONTEXT_SPECIFIC:
-                    switch (tag) {
-                        case TAG_msisdn:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".msisdn: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.msisdn = new ISDNAddressStringImpl();
-                            ((ISDNAddressStringImpl) this.msisdn).decodeAll(ais);
-                            break;
-                        case TAG_cugCheckInfo:
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".cugCheckInfo: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.cugCheckInfo = new CUGCheckInfoImpl();
-                            ((CUGCheckInfoImpl) this.cugCheckInfo).decodeAll(ais);
-                            break;
-                        case TAG_numberOfForwarding:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".numberOfForwarding: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.numberOfForwarding = (int) ais.readInteger();
-                            break;
-                        case TAG_interrogationType:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".interrogationType: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            int code = (int) ais.readInteger();
-                            this.interrogationType = InterrogationType.getInterrogationType(code);
-                            break;
-                        case TAG_orInterrogation:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".orInterrogation: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.orInterrogation = true;
-                            break;
-                        case TAG_orCapability:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".orCapability: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.orCapability = (int) ais.readInteger();
-                            break;
-                        case TAG_gmscOrGsmSCFAddress:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".gmscAddress: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.gmscAddress = new ISDNAddressStringImpl();
-                            ((ISDNAddressStringImpl) this.gmscAddress).decodeAll(ais);
-                            break;
-                        case TAG_callReferenceNumber:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".callReferenceNumber: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.callReferenceNumber = new CallReferenceNumberImpl();
-                            ((CallReferenceNumberImpl) this.callReferenceNumber).decodeAll(ais);
-                            break;
-                        case TAG_forwardingReason:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".forwardingReason: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            int i = (int) ais.readInteger();
-                            this.forwardingReason = ForwardingReason.getForwardingReason(i);
-                            break;
-                        case TAG_basicServiceGroup: // explicit tag encoding
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".basicServiceGroup: is  primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            AsnInputStream ais1 = ais.readSequenceStream();
-                            ais1.readTag();
-                            this.basicServiceGroup = new ExtBasicServiceCodeImpl();
-                            ((ExtBasicServiceCodeImpl) this.basicServiceGroup).decodeAll(ais1);
-                            break;
-                        case TAG_networkSignalInfo:
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".networkSignalInfo: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.networkSignalInfo = new ExternalSignalInfoImpl();
-                            ((ExternalSignalInfoImpl) this.networkSignalInfo).decodeAll(ais);
-                            break;
-                        case TAG_camelInfo:
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".camelInfo: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.camelInfo = new CamelInfoImpl();
-                            ((CamelInfoImpl) this.camelInfo).decodeAll(ais);
-                            break;
-                        case TAG_suppressionOfAnnouncement:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".suppressionOfAnnouncement: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.suppressionOfAnnouncement = true;
-                            break;
-                        case TAG_extensionContainer:
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".extensionContainer: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.extensionContainer = new MAPExtensionContainerImpl();
-                            ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
-                            break;
-                        case TAG_alertingPattern:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".alertingPattern: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.alertingPattern = new AlertingPatternImpl();
-                            ((AlertingPatternImpl) this.alertingPattern).decodeAll(ais);
-                            break;
-                        case TAG_ccbsCall:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".ccbsCall: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.ccbsCall = true;
-                            break;
-                        case TAG_supportedCCBSPhase:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".supportedCCBSPhase: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.supportedCCBSPhase = (int) ais.readInteger();
-                            break;
-                        case TAG_additionalSignalInfo:
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".additionalSignalInfo: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.additionalSignalInfo = new ExtExternalSignalInfoImpl();
-                            ((ExtExternalSignalInfoImpl) this.additionalSignalInfo).decodeAll(ais);
-                            break;
-                        case TAG_istSupportIndicator:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".istSupportIndicator: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            int j = (int) ais.readInteger();
-                            this.istSupportIndicator = ISTSupportIndicator.getInstance(j);
-                            break;
-                        case TAG_prePagingSupported:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".prePagingSupported: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.prePagingSupported = true;
-                            break;
-                        case TAG_callDiversionTreatmentIndicator:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".callDiversionTreatmentIndicator: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.callDiversionTreatmentIndicator = new CallDiversionTreatmentIndicatorImpl();
-                            ((CallDiversionTreatmentIndicatorImpl) this.callDiversionTreatmentIndicator).decodeAll(ais);
-                            break;
-                        case TAG_longFTNSupported:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".longFTNSupported: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.longFTNSupported = true;
-                            break;
-                        case TAG_suppress_VT_CSI:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".suppressVtCSI: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.suppressVtCSI = true;
-                            break;
-                        case TAG_suppressIncomingCallBarring:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".suppressIncomingCallBarring: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.suppressIncomingCallBarring = true;
-                            break;
-                        case TAG_gsmSCFInitiatedCall:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".gsmSCFInitiatedCall: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.gsmSCFInitiatedCall = true;
-                            break;
-                        case TAG_basicServiceGroup2: // explicit tag encoding
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".basicServiceGroup2: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            AsnInputStream ais2 = ais.readSequenceStream();
-                            ais2.readTag();
-                            this.basicServiceGroup2 = new ExtBasicServiceCodeImpl();
-                            ((ExtBasicServiceCodeImpl) this.basicServiceGroup2).decodeAll(ais2);
-                            break;
-                        case TAG_networkSignalInfo2:
-                            if (ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".networkSignalInfo2: is primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.networkSignalInfo2 = new ExternalSignalInfoImpl();
-                            ((ExternalSignalInfoImpl) this.networkSignalInfo2).decodeAll(ais);
-                            break;
-                        case TAG_suppressMTSS:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".suppressMTSS: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.suppressMTSS = new SuppressMTSSImpl();
-                            ((SuppressMTSSImpl) this.suppressMTSS).decodeAll(ais);
-                            break;
-                        case TAG_mtRoamingRetrySupported:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".mtRoamingRetrySupported: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            ais.readNull();
-                            this.mtRoamingRetrySupported = true;
-                            break;
-                        case TAG_callPriority:
-                            if (!ais.isTagPrimitive()) {
-                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                        + ".callPriority: is not primitive",
-                                        MAPParsingComponentExceptionReason.MistypedParameter);
-                            }
-                            this.callPriority = EMLPPPriority.getEMLPPPriority((int) ais.readInteger());
-                            break;
-                        default:
-                            ais.advanceElement();
-                            break;
-                    }
-                    break;
-
-                default:
-                    ais.advanceElement();
-                    break;
-            }
+            this.decodeIndexedElement(ais, num, tag);
+            num++;
 
         }
 
@@ -747,6 +550,301 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
 
     }
 
+    public void decodeIndexedElement(AsnInputStream ais, int num, int tag) throws MAPParsingComponentException, IOException,
+            AsnException {
+        switch (ais.getTagClass()) {
+            case Tag.CLASS_CONTEXT_SPECIFIC:
+                switch (tag) {
+                    case TAG_msisdn:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".msisdn: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.msisdn = new ISDNAddressStringImpl();
+                        ((ISDNAddressStringImpl) this.msisdn).decodeAll(ais);
+                        break;
+                    case TAG_cugCheckInfo:
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".cugCheckInfo: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.cugCheckInfo = new CUGCheckInfoImpl();
+                        ((CUGCheckInfoImpl) this.cugCheckInfo).decodeAll(ais);
+                        break;
+                    case TAG_numberOfForwarding:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".numberOfForwarding: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.numberOfForwarding = (int) ais.readInteger();
+                        break;
+                    case TAG_interrogationType:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".interrogationType: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        int code = (int) ais.readInteger();
+                        this.interrogationType = InterrogationType.getInterrogationType(code);
+                        break;
+                    case TAG_orInterrogation:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".orInterrogation: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.orInterrogation = true;
+                        break;
+                    case TAG_orCapability:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".orCapability: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.orCapability = (int) ais.readInteger();
+                        break;
+                    case TAG_gmscOrGsmSCFAddress:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".gmscAddress: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.gmscAddress = new ISDNAddressStringImpl();
+                        ((ISDNAddressStringImpl) this.gmscAddress).decodeAll(ais);
+                        break;
+                    case TAG_callReferenceNumber:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".callReferenceNumber: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.callReferenceNumber = new CallReferenceNumberImpl();
+                        ((CallReferenceNumberImpl) this.callReferenceNumber).decodeAll(ais);
+                        break;
+                    case TAG_forwardingReason:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".forwardingReason: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        int i = (int) ais.readInteger();
+                        this.forwardingReason = ForwardingReason.getForwardingReason(i);
+                        break;
+                    case TAG_basicServiceGroup: // explicit tag encoding
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".basicServiceGroup: is  primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        AsnInputStream ais1 = ais.readSequenceStream();
+                        ais1.readTag();
+                        this.basicServiceGroup = new ExtBasicServiceCodeImpl();
+                        ((ExtBasicServiceCodeImpl) this.basicServiceGroup).decodeAll(ais1);
+                        break;
+                    case TAG_networkSignalInfo:
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".networkSignalInfo: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.networkSignalInfo = new ExternalSignalInfoImpl();
+                        ((ExternalSignalInfoImpl) this.networkSignalInfo).decodeAll(ais);
+                        break;
+                    case TAG_camelInfo:
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".camelInfo: is primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.camelInfo = new CamelInfoImpl();
+                        ((CamelInfoImpl) this.camelInfo).decodeAll(ais);
+                        break;
+                    case TAG_suppressionOfAnnouncement:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".suppressionOfAnnouncement: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.suppressionOfAnnouncement = true;
+                        break;
+                    case TAG_extensionContainer:
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".extensionContainer: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.extensionContainer = new MAPExtensionContainerImpl();
+                        ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
+                        break;
+                    case TAG_alertingPattern:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".alertingPattern: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.alertingPattern = new AlertingPatternImpl();
+                        ((AlertingPatternImpl) this.alertingPattern).decodeAll(ais);
+                        break;
+                    case TAG_ccbsCall:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".ccbsCall: is not primitive", MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.ccbsCall = true;
+                        break;
+                    case TAG_supportedCCBSPhase:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".supportedCCBSPhase: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.supportedCCBSPhase = (int) ais.readInteger();
+                        break;
+                    case TAG_additionalSignalInfo:
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".additionalSignalInfo: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.additionalSignalInfo = new ExtExternalSignalInfoImpl();
+                        ((ExtExternalSignalInfoImpl) this.additionalSignalInfo).decodeAll(ais);
+                        break;
+                    case TAG_istSupportIndicator:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".istSupportIndicator: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        int j = (int) ais.readInteger();
+                        this.istSupportIndicator = ISTSupportIndicator.getInstance(j);
+                        break;
+                    case TAG_prePagingSupported:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".prePagingSupported: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.prePagingSupported = true;
+                        break;
+                    case TAG_callDiversionTreatmentIndicator:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".callDiversionTreatmentIndicator: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.callDiversionTreatmentIndicator = new CallDiversionTreatmentIndicatorImpl();
+                        ((CallDiversionTreatmentIndicatorImpl) this.callDiversionTreatmentIndicator).decodeAll(ais);
+                        break;
+                    case TAG_longFTNSupported:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".longFTNSupported: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.longFTNSupported = true;
+                        break;
+                    case TAG_suppress_VT_CSI:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".suppressVtCSI: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.suppressVtCSI = true;
+                        break;
+                    case TAG_suppressIncomingCallBarring:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".suppressIncomingCallBarring: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.suppressIncomingCallBarring = true;
+                        break;
+                    case TAG_gsmSCFInitiatedCall:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".gsmSCFInitiatedCall: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.gsmSCFInitiatedCall = true;
+                        break;
+                    case TAG_basicServiceGroup2: // explicit tag encoding
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".basicServiceGroup2: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        AsnInputStream ais2 = ais.readSequenceStream();
+                        ais2.readTag();
+                        this.basicServiceGroup2 = new ExtBasicServiceCodeImpl();
+                        ((ExtBasicServiceCodeImpl) this.basicServiceGroup2).decodeAll(ais2);
+                        break;
+                    case TAG_networkSignalInfo2:
+                        if (ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".networkSignalInfo2: is primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.networkSignalInfo2 = new ExternalSignalInfoImpl();
+                        ((ExternalSignalInfoImpl) this.networkSignalInfo2).decodeAll(ais);
+                        break;
+                    case TAG_suppressMTSS:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".suppressMTSS: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.suppressMTSS = new SuppressMTSSImpl();
+                        ((SuppressMTSSImpl) this.suppressMTSS).decodeAll(ais);
+                        break;
+                    case TAG_mtRoamingRetrySupported:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".mtRoamingRetrySupported: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        ais.readNull();
+                        this.mtRoamingRetrySupported = true;
+                        break;
+                    case TAG_callPriority:
+                        if (!ais.isTagPrimitive()) {
+                            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                    + ".callPriority: is not primitive",
+                                    MAPParsingComponentExceptionReason.MistypedParameter);
+                        }
+                        this.callPriority = EMLPPPriority.getEMLPPPriority((int) ais.readInteger());
+                        break;
+                    default:
+                        ais.advanceElement();
+                        break;
+                }
+                break;
+
+            default:
+                ais.advanceElement();
+                break;
+        }
+    }
+
+    private synchronized void decodeLazy(int tag) {
+        if (this.lazyIndex != null)
+            this.lazyIndex.decodeTag(this, 0, Tag.CLASS_CONTEXT_SPECIFIC, tag);
+    }
+
+    private synchronized void decodeLazyAll() {
+        if (this.lazyIndex != null) {
+            this.lazyIndex.decodeAll(this);
+            this.lazyIndex = null;
+        }
+    }
+
     @Override
     public void encodeAll(AsnOutputStream asnOs) throws MAPException {
         this.encodeAll(asnOs, this.getTagClass(), this.getTag());
@@ -767,6 +865,8 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
     @Override
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
+        this.decodeLazyAll();
+
         if (this.msisdn == null)
             throw new MAPException("Error while encoding " + _PrimitiveName + " the mandatory parameter MSISDN is not defined");
 
@@ -901,6 +1001,8 @@ public class SendRoutingInformationRequestImpl extends CallHandlingMessageImpl i
     }
 
     public String toString() {
+        this.decodeLazyAll();
+
         StringBuilder sb = new StringBuilder();
         sb.append(_PrimitiveName);
         sb.append(" [");
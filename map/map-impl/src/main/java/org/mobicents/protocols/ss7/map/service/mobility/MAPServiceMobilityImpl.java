@@ -498,9 +498,13 @@ public class MAPServiceMobilityImpl extends MAPServiceBaseImpl implements MAPSer
                             + parameter.getTag(), MAPParsingComponentExceptionReason.MistypedParameter);
 
         byte[] buf = parameter.getData();
-        AsnInputStream ais = new AsnInputStream(buf);
         UpdateLocationRequestImpl ind = new UpdateLocationRequestImpl(version);
-        ind.decodeData(ais, buf.length);
+        if (this.mapProviderImpl.isLazyParameterDecoding()) {
+            ind.decodeDataLazy(buf);
+        } else {
+            AsnInputStream ais = new AsnInputStream(buf);
+            ind.decodeData(ais, buf.length);
+        }
 
         ind.setInvokeId(invokeId);
         ind.setMAPDialog(mapDialogImpl);
@@ -1315,10 +1319,13 @@ public class MAPServiceMobilityImpl extends MAPServiceBaseImpl implements MAPSer
                             + parameter.getTag(), MAPParsingComponentExceptionReason.MistypedParameter);
 
         byte[] buf = parameter.getData();
-        AsnInputStream ais = new AsnInputStream(buf);
-
         InsertSubscriberDataRequestImpl ind = new InsertSubscriberDataRequestImpl(version);
-        ind.decodeData(ais, buf.length);
+        if (this.mapProviderImpl.isLazyParameterDecoding()) {
+            ind.decodeDataLazy(buf);
+        } else {
+            AsnInputStream ais = new AsnInputStream(buf);
+            ind.decodeData(ais, buf.length);
+        }
         ind.setInvokeId(invokeId);
         ind.setMAPDialog(mapDialogImpl);
 
@@ -28,6 +28,7 @@ import org.mobicents.protocols.asn.AsnException;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.mobicents.protocols.ss7.map.LazyDecodingIndex;
 import org.mobicents.protocols.ss7.map.api.MAPException;
 import org.mobicents.protocols.ss7.map.api.MAPMessageType;
 import org.mobicents.protocols.ss7.map.api.MAPOperationCode;
@@ -54,7 +55,8 @@ import org.mobicents.protocols.ss7.map.service.mobility.MobilityMessageImpl;
  * @author sergey vetyutnev
  *
  */
-public class UpdateLocationRequestImpl extends MobilityMessageImpl implements UpdateLocationRequest {
+public class UpdateLocationRequestImpl extends MobilityMessageImpl implements UpdateLocationRequest,
+        LazyDecodingIndex.ElementDecoder {
 
     protected static final int _TAG_mscNumber = 1;
     protected static final int _TAG_roamingNumber = 0;
@@ -86,6 +88,8 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
     private boolean restorationIndicator;
     private long mapProtocolVersion;
 
+    private LazyDecodingIndex lazyIndex;
+
     public UpdateLocationRequestImpl(long mapProtocolVersion) {
         this.mapProtocolVersion = mapProtocolVersion;
     }
@@ -121,58 +125,72 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
     }
 
     public IMSI getImsi() {
+        this.decodeLazyPosition(0);
         return imsi;
     }
 
     public ISDNAddressString getMscNumber() {
+        this.decodeLazyPosition(1);
         return mscNumber;
     }
 
     public ISDNAddressString getRoamingNumber() {
+        this.decodeLazyPosition(1);
         return roamingNumber;
     }
 
     public ISDNAddressString getVlrNumber() {
+        this.decodeLazyPosition(2);
         return vlrNumber;
     }
 
     public LMSI getLmsi() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_lmsi);
         return lmsi;
     }
 
     public MAPExtensionContainer getExtensionContainer() {
+        this.decodeLazy(Tag.CLASS_UNIVERSAL, Tag.SEQUENCE);
         return extensionContainer;
     }
 
     public VLRCapability getVlrCapability() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_vlrCapability);
         return vlrCapability;
     }
 
     public boolean getInformPreviousNetworkEntity() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_informPreviousNetworkEntity);
         return informPreviousNetworkEntity;
     }
 
     public boolean getCsLCSNotSupportedByUE() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_csLCSNotSupportedByUE);
         return csLCSNotSupportedByUE;
     }
 
     public GSNAddress getVGmlcAddress() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_vGmlcAddress);
         return vGmlcAddress;
     }
 
     public ADDInfo getADDInfo() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_addInfo);
         return addInfo;
     }
 
     public PagingArea getPagingArea() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_pagingArea);
         return pagingArea;
     }
 
     public boolean getSkipSubscriberDataUpdate() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_skipSubscriberDataUpdate);
         return skipSubscriberDataUpdate;
     }
 
     public boolean getRestorationIndicator() {
+        this.decodeLazy(Tag.CLASS_CONTEXT_SPECIFIC, _TAG_restorationIndicator);
         return restorationIndicator;
     }
 
@@ -219,8 +237,35 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
         }
     }
 
-    private void _decode(AsnInputStream ansIS, int length) throws MAPParsingComponentException, IOException, AsnException {
+    /**
+     * Lazy decoding: only the index of the parameter elements is built here, every element is decoded on the first access to
+     * the corresponding getter. Mandatory parameters presence is checked at once.
+     * Pending elements are decoded under the message monitor, so getters may be called from several threads. An element that
+     * fails to decode makes its getter (and encodeData() / toString()) throw IllegalStateException with the
+     * decoding exception as the cause.
+     *
+     * @param data parameter content (without the SEQUENCE tag and length)
+     */
+    public void decodeDataLazy(byte[] data) throws MAPParsingComponentException {
+        this._clearFields();
+        LazyDecodingIndex index = LazyDecodingIndex.build(data, _PrimitiveName);
+
+        if (index.size() < 3)
+            throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                    + ": Needs at least 3 mandatory parameters, found " + index.size(),
+                    MAPParsingComponentExceptionReason.MistypedParameter);
 
+        this.lazyIndex = index;
+    }
+
+    /**
+     * @return true if the message has been decoded lazily and some of its elements are not decoded yet
+     */
+    public synchronized boolean isLazyDecodingPending() {
+        return this.lazyIndex != null && !this.lazyIndex.isFullyDecoded();
+    }
+
+    private void _clearFields() {
         imsi = null;
         mscNumber = null;
         roamingNumber = null;
@@ -235,6 +280,11 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
         pagingArea = null;
         skipSubscriberDataUpdate = false;
         restorationIndicator = false;
+    }
+
+    private void _decode(AsnInputStream ansIS, int length) throws MAPParsingComponentException, IOException, AsnException {
+        this.lazyIndex = null;
+        this._clearFields();
 
         AsnInputStream ais = ansIS.readSequenceStreamData(length);
         int num = 0;
@@ -244,152 +294,7 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
 
             int tag = ais.readTag();
 
-            switch (num) {
-                case 0:
-                    // imsi
-                    if (ais.getTagClass() != Tag.CLASS_UNIVERSAL || !ais.isTagPrimitive() || tag != Tag.STRING_OCTET)
-                        throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ".imsi: Parameter 0 bad tag or tag class or not primitive",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.imsi = new IMSIImpl();
-                    ((IMSIImpl) this.imsi).decodeAll(ais);
-                    break;
-
-                case 1:
-                    // msc-Number or (only for V1 !) roamingNumber
-                    if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive()
-                            || (tag != _TAG_mscNumber && (tag != _TAG_roamingNumber || this.mapProtocolVersion != 1)))
-                        throw new MAPParsingComponentException(
-                                "Error while decoding "
-                                        + _PrimitiveName
-                                        + ".mscNumber or roamingNumber: Parameter 1 bad tag class or tag or not primitive or unsupported in the incoming message version",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    if (tag == _TAG_mscNumber) {
-                        this.mscNumber = new ISDNAddressStringImpl();
-                        ((ISDNAddressStringImpl) this.mscNumber).decodeAll(ais);
-                    } else {
-                        this.roamingNumber = new ISDNAddressStringImpl();
-                        ((ISDNAddressStringImpl) this.roamingNumber).decodeAll(ais);
-                    }
-                    break;
-
-                case 2:
-                    // vlr-Number
-                    if (ais.getTagClass() != Tag.CLASS_UNIVERSAL || !ais.isTagPrimitive() || tag != Tag.STRING_OCTET)
-                        throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                + ".vlrNumber: Parameter 2 bad tag or tag class or not primitive",
-                                MAPParsingComponentExceptionReason.MistypedParameter);
-                    this.vlrNumber = new ISDNAddressStringImpl();
-                    ((ISDNAddressStringImpl) this.vlrNumber).decodeAll(ais);
-                    break;
-
-                default:
-                    if (ais.getTagClass() == Tag.CLASS_CONTEXT_SPECIFIC) {
-                        switch (tag) {
-                            case _TAG_lmsi: // lmsi
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".lmsi: Parameter is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.lmsi = new LMSIImpl();
-                                ((LMSIImpl) this.lmsi).decodeAll(ais);
-                                break;
-                            case _TAG_vlrCapability: // vlrCapability
-                                if (ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".vlrCapability: Parameter is primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.vlrCapability = new VLRCapabilityImpl();
-                                ((VLRCapabilityImpl) this.vlrCapability).decodeAll(ais);
-                                break;
-                            case _TAG_informPreviousNetworkEntity:
-                                // informPreviousNetworkEntity
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".informPreviousNetworkEntity: Parameter is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.informPreviousNetworkEntity = true;
-                                break;
-                            case _TAG_csLCSNotSupportedByUE:
-                                // csLCSNotSupportedByUE
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".csLCSNotSupportedByUE: Parameter is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.csLCSNotSupportedByUE = true;
-                                break;
-                            case _TAG_vGmlcAddress: // vGmlcAddress
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".vGmlcAddress: Parameter is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.vGmlcAddress = new GSNAddressImpl();
-                                ((GSNAddressImpl) this.vGmlcAddress).decodeAll(ais);
-                                break;
-                            case _TAG_addInfo: // addInfo
-                                if (ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".addInfo: Parameter is primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.addInfo = new ADDInfoImpl();
-                                ((ADDInfoImpl) this.addInfo).decodeAll(ais);
-                                break;
-                            case _TAG_pagingArea: // pagingArea
-                                if (ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".pagingArea: Parameter is primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.pagingArea = new PagingAreaImpl();
-                                ((PagingAreaImpl) this.pagingArea).decodeAll(ais);
-                                break;
-                            case _TAG_skipSubscriberDataUpdate:
-                                // skipSubscriberDataUpdate
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".skipSubscriberDataUpdate: Parameter is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.skipSubscriberDataUpdate = true;
-                                break;
-                            case _TAG_restorationIndicator:
-                                // restorationIndicator
-                                if (!ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".restorationIndicator: Parameter is not primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                ais.readNull();
-                                this.restorationIndicator = true;
-                                break;
-
-                            default:
-                                ais.advanceElement();
-                                break;
-                        }
-                    } else if (ais.getTagClass() == Tag.CLASS_UNIVERSAL) {
-
-                        switch (tag) {
-                            case Tag.SEQUENCE:
-                                // extensionContainer
-                                if (ais.isTagPrimitive())
-                                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
-                                            + ".extensionContainer: Parameter extensionContainer is primitive",
-                                            MAPParsingComponentExceptionReason.MistypedParameter);
-                                this.extensionContainer = new MAPExtensionContainerImpl();
-                                ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
-                                break;
-
-                            default:
-                                ais.advanceElement();
-                                break;
-                        }
-                    } else {
-
-                        ais.advanceElement();
-                    }
-                    break;
-            }
+            this.decodeIndexedElement(ais, num, tag);
 
             num++;
         }
@@ -400,6 +305,173 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
                     MAPParsingComponentExceptionReason.MistypedParameter);
     }
 
+    public void decodeIndexedElement(AsnInputStream ais, int num, int tag) throws MAPParsingComponentException, IOException,
+            AsnException {
+        switch (num) {
+            case 0:
+                // imsi
+                if (ais.getTagClass() != Tag.CLASS_UNIVERSAL || !ais.isTagPrimitive() || tag != Tag.STRING_OCTET)
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ".imsi: Parameter 0 bad tag or tag class or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.imsi = new IMSIImpl();
+                ((IMSIImpl) this.imsi).decodeAll(ais);
+                break;
+
+            case 1:
+                // msc-Number or (only for V1 !) roamingNumber
+                if (ais.getTagClass() != Tag.CLASS_CONTEXT_SPECIFIC || !ais.isTagPrimitive()
+                        || (tag != _TAG_mscNumber && (tag != _TAG_roamingNumber || this.mapProtocolVersion != 1)))
+                    throw new MAPParsingComponentException(
+                            "Error while decoding "
+                                    + _PrimitiveName
+                                    + ".mscNumber or roamingNumber: Parameter 1 bad tag class or tag or not primitive or unsupported in the incoming message version",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                if (tag == _TAG_mscNumber) {
+                    this.mscNumber = new ISDNAddressStringImpl();
+                    ((ISDNAddressStringImpl) this.mscNumber).decodeAll(ais);
+                } else {
+                    this.roamingNumber = new ISDNAddressStringImpl();
+                    ((ISDNAddressStringImpl) this.roamingNumber).decodeAll(ais);
+                }
+                break;
+
+            case 2:
+                // vlr-Number
+                if (ais.getTagClass() != Tag.CLASS_UNIVERSAL || !ais.isTagPrimitive() || tag != Tag.STRING_OCTET)
+                    throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                            + ".vlrNumber: Parameter 2 bad tag or tag class or not primitive",
+                            MAPParsingComponentExceptionReason.MistypedParameter);
+                this.vlrNumber = new ISDNAddressStringImpl();
+                ((ISDNAddressStringImpl) this.vlrNumber).decodeAll(ais);
+                break;
+
+            default:
+                if (ais.getTagClass() == Tag.CLASS_CONTEXT_SPECIFIC) {
+                    switch (tag) {
+                        case _TAG_lmsi: // lmsi
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".lmsi: Parameter is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.lmsi = new LMSIImpl();
+                            ((LMSIImpl) this.lmsi).decodeAll(ais);
+                            break;
+                        case _TAG_vlrCapability: // vlrCapability
+                            if (ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".vlrCapability: Parameter is primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.vlrCapability = new VLRCapabilityImpl();
+                            ((VLRCapabilityImpl) this.vlrCapability).decodeAll(ais);
+                            break;
+                        case _TAG_informPreviousNetworkEntity:
+                            // informPreviousNetworkEntity
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".informPreviousNetworkEntity: Parameter is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.informPreviousNetworkEntity = true;
+                            break;
+                        case _TAG_csLCSNotSupportedByUE:
+                            // csLCSNotSupportedByUE
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".csLCSNotSupportedByUE: Parameter is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.csLCSNotSupportedByUE = true;
+                            break;
+                        case _TAG_vGmlcAddress: // vGmlcAddress
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".vGmlcAddress: Parameter is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.vGmlcAddress = new GSNAddressImpl();
+                            ((GSNAddressImpl) this.vGmlcAddress).decodeAll(ais);
+                            break;
+                        case _TAG_addInfo: // addInfo
+                            if (ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".addInfo: Parameter is primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.addInfo = new ADDInfoImpl();
+                            ((ADDInfoImpl) this.addInfo).decodeAll(ais);
+                            break;
+                        case _TAG_pagingArea: // pagingArea
+                            if (ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".pagingArea: Parameter is primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.pagingArea = new PagingAreaImpl();
+                            ((PagingAreaImpl) this.pagingArea).decodeAll(ais);
+                            break;
+                        case _TAG_skipSubscriberDataUpdate:
+                            // skipSubscriberDataUpdate
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".skipSubscriberDataUpdate: Parameter is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.skipSubscriberDataUpdate = true;
+                            break;
+                        case _TAG_restorationIndicator:
+                            // restorationIndicator
+                            if (!ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".restorationIndicator: Parameter is not primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            ais.readNull();
+                            this.restorationIndicator = true;
+                            break;
+
+                        default:
+                            ais.advanceElement();
+                            break;
+                    }
+                } else if (ais.getTagClass() == Tag.CLASS_UNIVERSAL) {
+
+                    switch (tag) {
+                        case Tag.SEQUENCE:
+                            // extensionContainer
+                            if (ais.isTagPrimitive())
+                                throw new MAPParsingComponentException("Error while decoding " + _PrimitiveName
+                                        + ".extensionContainer: Parameter extensionContainer is primitive",
+                                        MAPParsingComponentExceptionReason.MistypedParameter);
+                            this.extensionContainer = new MAPExtensionContainerImpl();
+                            ((MAPExtensionContainerImpl) this.extensionContainer).decodeAll(ais);
+                            break;
+
+                        default:
+                            ais.advanceElement();
+                            break;
+                    }
+                } else {
+
+                    ais.advanceElement();
+                }
+                break;
+        }
+    }
+
+    private synchronized void decodeLazyPosition(int num) {
+        if (this.lazyIndex != null)
+            this.lazyIndex.decodePosition(this, num);
+    }
+
+    private synchronized void decodeLazy(int tagClass, int tag) {
+        if (this.lazyIndex != null)
+            this.lazyIndex.decodeTag(this, 3, tagClass, tag);
+    }
+
+    private synchronized void decodeLazyAll() {
+        if (this.lazyIndex != null) {
+            this.lazyIndex.decodeAll(this);
+            this.lazyIndex = null;
+        }
+    }
+
     public void encodeAll(AsnOutputStream asnOs) throws MAPException {
 
         this.encodeAll(asnOs, this.getTagClass(), this.getTag());
@@ -419,6 +491,8 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
 
     public void encodeData(AsnOutputStream asnOs) throws MAPException {
 
+        this.decodeLazyAll();
+
         try {
             if (this.imsi == null || (this.mscNumber == null && (this.roamingNumber == null || this.mapProtocolVersion > 1))
                     || this.vlrNumber == null)
@@ -464,6 +538,8 @@ public class UpdateLocationRequestImpl extends MobilityMessageImpl implements Up
 
     @Override
     public String toString() {
+        this.decodeLazyAll();
+
         StringBuilder sb = new StringBuilder();
         sb.append("UpdateLocationRequest [");
 
@@ -0,0 +1,192 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.testng.annotations.Test;
+
+public class MAPDialogEventDispatcherTest {
+
+    @Test(groups = { "functional.flow" })
+    public void testOrdering() throws Exception {
+        MAPDialogEventDispatcher dispatcher = new MAPDialogEventDispatcher("TestDispatcher", 4, 100000);
+        dispatcher.start();
+        try {
+            int dialogCount = 50;
+            int eventCount = 200;
+            final List<List<Integer>> received = new ArrayList<List<Integer>>();
+            for (int i = 0; i < dialogCount; i++) {
+                received.add(Collections.synchronizedList(new ArrayList<Integer>()));
+            }
+            final CountDownLatch done = new CountDownLatch(dialogCount * eventCount);
+
+            for (int j = 0; j < eventCount; j++) {
+                for (int i = 0; i < dialogCount; i++) {
+                    final List<Integer> lst = received.get(i);
+                    final int num = j;
+                    assertTrue(dispatcher.dispatch(i, new Runnable() {
+                        public void run() {
+                            lst.add(num);
+                            done.countDown();
+                        }
+                    }, j == 0));
+                }
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (List<Integer> lst : received) {
+                assertEquals(lst.size(), eventCount);
+                for (int j = 0; j < eventCount; j++) {
+                    assertEquals((int) lst.get(j), j);
+                }
+            }
+
+            long processed = 0;
+            long latencyCount = 0;
+            for (int i = 0; i < dispatcher.getWorkerCount(); i++) {
+                processed += dispatcher.getProcessedCount(i);
+                latencyCount += dispatcher.getQueueLatencyHistogram(i).getTotalCount();
+            }
+            assertEquals(processed, dialogCount * eventCount);
+            assertEquals(latencyCount, dialogCount * eventCount);
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    @Test(groups = { "functional.flow" })
+    public void testBoundedQueue() throws Exception {
+        final MAPDialogEventDispatcher dispatcher = new MAPDialogEventDispatcher("TestDispatcher", 1, 2);
+        dispatcher.start();
+        try {
+            final CountDownLatch blocker = new CountDownLatch(1);
+            final CountDownLatch started = new CountDownLatch(1);
+            assertTrue(dispatcher.dispatch(1, new Runnable() {
+                public void run() {
+                    started.countDown();
+                    try {
+                        blocker.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                    }
+                }
+            }, true));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            Runnable empty = new Runnable() {
+                public void run() {
+                }
+            };
+            assertTrue(dispatcher.dispatch(1, empty, false));
+            assertTrue(dispatcher.dispatch(2, empty, true));
+            assertEquals(dispatcher.getUsage(), 2);
+            assertEquals(dispatcher.getCapacity(), 2);
+
+            // the queue is full: a new dialog is rejected
+            assertFalse(dispatcher.dispatch(3, empty, true));
+            assertEquals(dispatcher.getRejectedCount(), 1);
+
+            // an event of an existing dialog does not wait for room either: the delivering thread may hold the TCAP dialog
+            // lock that the worker needs
+            assertFalse(dispatcher.dispatch(1, empty, false));
+            assertEquals(dispatcher.getOverflowCount(), 1);
+
+            blocker.countDown();
+        } finally {
+            dispatcher.stop();
+        }
+    }
+
+    @Test(groups = { "functional.flow" })
+    public void testStop() throws Exception {
+        final MAPDialogEventDispatcher dispatcher = new MAPDialogEventDispatcher("TestDispatcher", 1, 10);
+        final List<Integer> received = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+
+        // not started: events are processed inline
+        assertTrue(dispatcher.dispatch(1, new Runnable() {
+            public void run() {
+                received.add(0);
+            }
+        }, true));
+        assertEquals(received.size(), 1);
+
+        dispatcher.start();
+        assertTrue(dispatcher.dispatch(1, new Runnable() {
+            public void run() {
+                started.countDown();
+                try {
+                    blocker.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                }
+                received.add(1);
+            }
+        }, false));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 4; i++) {
+            final int num = i;
+            assertTrue(dispatcher.dispatch(1, new Runnable() {
+                public void run() {
+                    received.add(num);
+                }
+            }, false));
+        }
+
+        // the events that are queued when the dispatcher is stopped (dialog releases among them) are still processed
+        final AtomicBoolean stopped = new AtomicBoolean();
+        Thread t = new Thread() {
+            public void run() {
+                dispatcher.stop();
+                stopped.set(true);
+            }
+        };
+        t.start();
+        Thread.sleep(100);
+        blocker.countDown();
+        t.join(5000);
+        assertTrue(stopped.get());
+        assertFalse(dispatcher.isStarted());
+        assertEquals(received.size(), 5);
+        for (int i = 0; i < 5; i++) {
+            assertEquals((int) received.get(i), i);
+        }
+
+        assertTrue(dispatcher.dispatch(1, new Runnable() {
+            public void run() {
+                received.add(5);
+            }
+        }, false));
+        assertEquals(received.size(), 6);
+    }
+
+}
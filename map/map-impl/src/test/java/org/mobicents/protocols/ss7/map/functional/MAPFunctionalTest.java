@@ -28,15 +28,18 @@ import org.apache.log4j.PropertyConfigurator;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.BitSetStrictLength;
 import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.map.MAPDialogEventDispatcher;
 import org.mobicents.protocols.ss7.map.MAPDialogImpl;
 import org.mobicents.protocols.ss7.map.MAPProviderImpl;
 import org.mobicents.protocols.ss7.map.MAPStackImpl;
 import org.mobicents.protocols.ss7.map.api.MAPApplicationContext;
 import org.mobicents.protocols.ss7.map.api.MAPApplicationContextName;
 import org.mobicents.protocols.ss7.map.api.MAPApplicationContextVersion;
+import org.mobicents.protocols.ss7.map.api.MAPComponentRelayListener;
 import org.mobicents.protocols.ss7.map.api.MAPDialog;
 import org.mobicents.protocols.ss7.map.api.MAPException;
 import org.mobicents.protocols.ss7.map.api.MAPOperationCode;
+import org.mobicents.protocols.ss7.map.api.MAPProvider;
 import org.mobicents.protocols.ss7.map.api.MAPStack;
 import org.mobicents.protocols.ss7.map.api.datacoding.CBSDataCodingScheme;
 import org.mobicents.protocols.ss7.map.api.dialog.MAPAbortProviderReason;
@@ -254,6 +257,8 @@ import org.mobicents.protocols.ss7.tcap.api.MessageType;
 import org.mobicents.protocols.ss7.tcap.asn.ApplicationContextName;
 import org.mobicents.protocols.ss7.tcap.asn.OperationCodeImpl;
 import org.mobicents.protocols.ss7.tcap.asn.TcapFactory;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
+import org.mobicents.protocols.ss7.tcap.asn.comp.ComponentType;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ErrorCode;
 import org.mobicents.protocols.ss7.tcap.asn.comp.InvokeProblemType;
 import org.mobicents.protocols.ss7.tcap.asn.comp.OperationCode;
@@ -573,6 +578,41 @@ public class MAPFunctionalTest extends SccpHarness {
 
     }
 
+    /**
+     * The same dialog as in testComplexTCWithDialog but TCAP indications are processed by MAPDialogEventDispatcher worker
+     * threads at both sides
+     */
+    @Test(groups = { "functional.flow", "dialog" })
+    public void testComplexTCWithDialogEventDispatcher() throws Exception {
+        MAPDialogEventDispatcher dispatcher1 = new MAPDialogEventDispatcher("MapDispatcher1", 2);
+        MAPDialogEventDispatcher dispatcher2 = new MAPDialogEventDispatcher("MapDispatcher2", 2);
+        dispatcher1.start();
+        dispatcher2.start();
+        ((MAPProviderImpl) this.stack1.getMAPProvider()).setEventDispatcher(dispatcher1);
+        ((MAPProviderImpl) this.stack2.getMAPProvider()).setEventDispatcher(dispatcher2);
+        try {
+            this.testComplexTCWithDialog();
+
+            long processed1 = 0;
+            long processed2 = 0;
+            for (int i = 0; i < 2; i++) {
+                processed1 += dispatcher1.getProcessedCount(i);
+                processed2 += dispatcher2.getProcessedCount(i);
+            }
+            // client: TC-CONTINUE, TC-END, dialog released; server: TC-BEGIN, TC-CONTINUE, dialog released
+            assertEquals(processed1, 3);
+            assertEquals(processed2, 3);
+            assertEquals(dispatcher1.getRejectedCount(), 0);
+            assertEquals(dispatcher2.getQueueLatencyHistogram(0).getTotalCount()
+                    + dispatcher2.getQueueLatencyHistogram(1).getTotalCount(), 3);
+        } finally {
+            ((MAPProviderImpl) this.stack1.getMAPProvider()).setEventDispatcher(null);
+            ((MAPProviderImpl) this.stack2.getMAPProvider()).setEventDispatcher(null);
+            dispatcher1.stop();
+            dispatcher2.stop();
+        }
+    }
+
     /**
      * Ending Dialog in the middle of conversation by "close(true)" - without sending components
      *
@@ -7183,6 +7223,92 @@ TC-END + SendRoutingInformationResponse
 
     /**
 <code>
+TC-BEGIN + SendRoutingInformation MAV V3 (stack1 -> stack2)
+  stack2 relays the Invoke to a new dialog without decoding: TC-BEGIN + SendRoutingInformation MAV V3 (stack2 -> stack1)
+TC-END (the relayed dialog)
+TC-END (the original dialog)
+</code>
+     */
+    @Test(groups = { "functional.flow", "dialog" })
+    public void testSendRoutingInformation_Relay() throws Exception {
+
+        final List<SendRoutingInformationRequest> relayedRequests = new ArrayList<SendRoutingInformationRequest>();
+        final List<MAPDialog> relayDialogs = new ArrayList<MAPDialog>();
+        final List<Exception> relayErrors = new ArrayList<Exception>();
+
+        Client client = new Client(stack1, this, peer1Address, peer2Address) {
+            @Override
+            public void onSendRoutingInformationRequest(SendRoutingInformationRequest request) {
+                super.onSendRoutingInformationRequest(request);
+                relayedRequests.add(request);
+            }
+
+            @Override
+            public void onDialogDelimiter(MAPDialog mapDialog) {
+                super.onDialogDelimiter(mapDialog);
+                try {
+                    mapDialog.close(false);
+                } catch (MAPException e) {
+                    this.error("Error while closing the relayed dialog", e);
+                    fail("Error while closing the relayed dialog");
+                }
+            }
+        };
+
+        Server server = new Server(this.stack2, this, peer2Address, peer1Address) {
+            @Override
+            public void onDialogDelimiter(MAPDialog mapDialog) {
+                super.onDialogDelimiter(mapDialog);
+                try {
+                    mapDialog.close(false);
+                } catch (MAPException e) {
+                    this.error("Error while closing the original dialog", e);
+                    fail("Error while closing the original dialog");
+                }
+            }
+        };
+
+        final MAPProvider relayProvider = this.stack2.getMAPProvider();
+        relayProvider.setMAPComponentRelayListener(new MAPComponentRelayListener() {
+            public boolean onComponent(MAPDialog mapDialog, Component component) {
+                if (component.getType() != ComponentType.Invoke)
+                    return false;
+
+                try {
+                    MAPDialogCallHandling relayDialog = relayProvider.getMAPServiceCallHandling().createNewDialog(
+                            mapDialog.getApplicationContext(), peer2Address, null, peer1Address, null);
+                    relayDialog.relayComponent(component, null, null, MAPDialog._Timer_Default);
+                    relayDialog.send();
+                    relayDialogs.add(relayDialog);
+                } catch (MAPException e) {
+                    relayErrors.add(e);
+                }
+                return true;
+            }
+        });
+
+        client.sendSendRoutingInformation_V3();
+        waitForEnd();
+
+        assertEquals(relayErrors.size(), 0);
+        assertEquals(relayDialogs.size(), 1);
+        assertEquals(relayedRequests.size(), 1);
+
+        SendRoutingInformationRequest ind = relayedRequests.get(0);
+        assertEquals(ind.getMapProtocolVersion(), 3);
+        assertEquals(ind.getMsisdn().getAddress(), "29113123311");
+        assertEquals(ind.getGmscOrGsmSCFAddress().getAddress(), "49883700292");
+        assertEquals(ind.getInterogationType(), InterrogationType.forwarding);
+        assertEquals(ind.getMAPDialog().getRemoteDialogId(), relayDialogs.get(0).getLocalDialogId());
+
+        // the relayed Invoke has not been delivered to MAP service listeners of the relay
+        for (TestEvent te : server.observerdEvents) {
+            assertFalse(te.getEventType() == EventType.SendRoutingInformation);
+        }
+    }
+
+    /**
+<code>
 TC-BEGIN + SendRoutingInformation MAV V2
 TC-END + SendRoutingInformationResponse
 </code>
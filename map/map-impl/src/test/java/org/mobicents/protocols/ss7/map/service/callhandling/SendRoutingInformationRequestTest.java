@@ -27,6 +27,7 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.util.Arrays;
 
@@ -34,6 +35,7 @@ import org.apache.log4j.Logger;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.mobicents.protocols.ss7.map.api.MAPParsingComponentException;
 import org.mobicents.protocols.ss7.map.api.primitives.AddressNature;
 import org.mobicents.protocols.ss7.map.api.primitives.AlertingCategory;
 import org.mobicents.protocols.ss7.map.api.primitives.AlertingPattern;
@@ -423,6 +425,49 @@ public class SendRoutingInformationRequestTest {
 
     }
 
+    private static byte[] getContent(byte[] data) throws Exception {
+        AsnInputStream asn = new AsnInputStream(data);
+        asn.readTag();
+        int length = asn.readLength();
+        return Arrays.copyOfRange(data, asn.position(), asn.position() + length);
+    }
+
+    @Test(groups = { "functional.decode", "service.callhandling" })
+    public void testDecodeLazy() throws Exception {
+        byte[][] dataList = new byte[][] { getData1(), getData2(), getData3() };
+        int[] versions = new int[] { 3, 2, 1 };
+        for (int i = 0; i < dataList.length; i++) {
+            AsnInputStream asn = new AsnInputStream(dataList[i]);
+            asn.readTag();
+            SendRoutingInformationRequestImpl full = new SendRoutingInformationRequestImpl(versions[i]);
+            full.decodeAll(asn);
+
+            SendRoutingInformationRequestImpl lazy = new SendRoutingInformationRequestImpl(versions[i]);
+            lazy.decodeDataLazy(getContent(dataList[i]));
+            assertTrue(lazy.isLazyDecodingPending());
+
+            assertEquals(lazy.getMsisdn().getAddress(), full.getMsisdn().getAddress());
+            assertTrue(lazy.isLazyDecodingPending());
+
+            assertEquals(lazy.toString(), full.toString());
+            assertFalse(lazy.isLazyDecodingPending());
+
+            AsnOutputStream asnFull = new AsnOutputStream();
+            full.encodeAll(asnFull);
+            AsnOutputStream asnLazy = new AsnOutputStream();
+            lazy.encodeAll(asnLazy);
+            assertTrue(Arrays.equals(asnLazy.toByteArray(), asnFull.toByteArray()));
+        }
+
+        // msisdn is missing
+        SendRoutingInformationRequestImpl lazy = new SendRoutingInformationRequestImpl(1);
+        try {
+            lazy.decodeDataLazy(new byte[] { -126, 1, 5 });
+            fail("MAPParsingComponentException expected");
+        } catch (MAPParsingComponentException e) {
+        }
+    }
+
     @Test(groups = { "functional.encode", "service.callhandling" })
     public void testEncode() throws Exception {
         // MAP V 3 Message Testing Starts
@@ -26,6 +26,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -33,6 +34,7 @@ import java.util.Arrays;
 import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.Tag;
+import org.mobicents.protocols.ss7.map.api.MAPParsingComponentException;
 import org.mobicents.protocols.ss7.map.api.primitives.AddressNature;
 import org.mobicents.protocols.ss7.map.api.primitives.IMSI;
 import org.mobicents.protocols.ss7.map.api.primitives.ISDNAddressString;
@@ -239,6 +241,61 @@ public class UpdateLocationRequestTest {
         assertFalse(asc.getRestorationIndicator());
     }
 
+    private static byte[] getContent(byte[] data) throws Exception {
+        AsnInputStream asn = new AsnInputStream(data);
+        asn.readTag();
+        int length = asn.readLength();
+        return Arrays.copyOfRange(data, asn.position(), asn.position() + length);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testDecodeLazy() throws Exception {
+        byte[][] dataList = new byte[][] { getEncodedData(), getEncodedData2(), getEncodedData3(), getEncodedData_V1() };
+        int[] versions = new int[] { 3, 3, 3, 1 };
+        for (int i = 0; i < dataList.length; i++) {
+            AsnInputStream asn = new AsnInputStream(dataList[i]);
+            asn.readTag();
+            UpdateLocationRequestImpl full = new UpdateLocationRequestImpl(versions[i]);
+            full.decodeAll(asn);
+
+            UpdateLocationRequestImpl lazy = new UpdateLocationRequestImpl(versions[i]);
+            lazy.decodeDataLazy(getContent(dataList[i]));
+            assertTrue(lazy.isLazyDecodingPending());
+
+            assertEquals(lazy.getImsi().getData(), full.getImsi().getData());
+            assertEquals(lazy.getVlrNumber().getAddress(), full.getVlrNumber().getAddress());
+            assertTrue(lazy.isLazyDecodingPending());
+
+            assertEquals(lazy.toString(), full.toString());
+            assertFalse(lazy.isLazyDecodingPending());
+
+            AsnOutputStream asnFull = new AsnOutputStream();
+            full.encodeAll(asnFull);
+            AsnOutputStream asnLazy = new AsnOutputStream();
+            lazy.encodeAll(asnLazy);
+            assertTrue(Arrays.equals(asnLazy.toByteArray(), asnFull.toByteArray()));
+        }
+
+        // only two of three mandatory parameters
+        UpdateLocationRequestImpl lazy = new UpdateLocationRequestImpl(3);
+        try {
+            lazy.decodeDataLazy(new byte[] { 4, 5, 17, 17, 33, 34, 34, -127, 4, -111, 34, 34, -8 });
+            fail("MAPParsingComponentException expected");
+        } catch (MAPParsingComponentException e) {
+        }
+
+        // a bad imsi is reported when the imsi is accessed
+        lazy = new UpdateLocationRequestImpl(3);
+        lazy.decodeDataLazy(new byte[] { 36, 0, -127, 4, -111, 34, 34, -8, 4, 4, -111, 34, 34, -7 });
+        assertEquals(lazy.getVlrNumber().getAddress(), "22229");
+        try {
+            lazy.getImsi();
+            fail("IllegalStateException expected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof MAPParsingComponentException);
+        }
+    }
+
     @Test(groups = { "functional.encode" })
     public void testEncode() throws Exception {
 
@@ -26,6 +26,7 @@ import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,6 +35,7 @@ import org.mobicents.protocols.asn.AsnInputStream;
 import org.mobicents.protocols.asn.AsnOutputStream;
 import org.mobicents.protocols.asn.BitSetStrictLength;
 import org.mobicents.protocols.asn.Tag;
+import org.mobicents.protocols.ss7.map.api.MAPParsingComponentException;
 import org.mobicents.protocols.ss7.map.api.primitives.AddressNature;
 import org.mobicents.protocols.ss7.map.api.primitives.DiameterIdentity;
 import org.mobicents.protocols.ss7.map.api.primitives.FTNAddressString;
@@ -1676,6 +1678,48 @@ public class InsertSubscriberDataRequestTest {
 
     }
 
+    private static byte[] getContent(byte[] data) throws Exception {
+        AsnInputStream asn = new AsnInputStream(data);
+        asn.readTag();
+        int length = asn.readLength();
+        return Arrays.copyOfRange(data, asn.position(), asn.position() + length);
+    }
+
+    @Test(groups = { "functional.decode", "service.mobility.subscriberManagement" })
+    public void testDecodeLazy() throws Exception {
+        byte[][] dataList = new byte[][] { getData(), getData1() };
+        int[] versions = new int[] { 3, 2 };
+        for (int i = 0; i < dataList.length; i++) {
+            AsnInputStream asn = new AsnInputStream(dataList[i]);
+            asn.readTag();
+            InsertSubscriberDataRequestImpl full = new InsertSubscriberDataRequestImpl(versions[i]);
+            full.decodeAll(asn);
+
+            InsertSubscriberDataRequestImpl lazy = new InsertSubscriberDataRequestImpl(versions[i]);
+            lazy.decodeDataLazy(getContent(dataList[i]));
+            assertTrue(lazy.isLazyDecodingPending());
+
+            assertEquals(lazy.getImsi().getData(), full.getImsi().getData());
+            assertTrue(lazy.isLazyDecodingPending());
+
+            assertEquals(lazy.toString(), full.toString());
+            assertFalse(lazy.isLazyDecodingPending());
+
+            AsnOutputStream asnFull = new AsnOutputStream();
+            full.encodeAll(asnFull);
+            AsnOutputStream asnLazy = new AsnOutputStream();
+            lazy.encodeAll(asnLazy);
+            assertTrue(Arrays.equals(asnLazy.toByteArray(), asnFull.toByteArray()));
+        }
+
+        InsertSubscriberDataRequestImpl lazy = new InsertSubscriberDataRequestImpl(3);
+        try {
+            lazy.decodeDataLazy(new byte[0]);
+            fail("MAPParsingComponentException expected");
+        } catch (MAPParsingComponentException e) {
+        }
+    }
+
     @Test(groups = { "functional.encode", "service.mobility.subscriberManagement" })
     public void testEncode() throws Exception {
 
@@ -0,0 +1,137 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram with power-of-two buckets: bucket 0 holds the value 0 and bucket n (n > 0) holds values in
+ * [2^(n-1), 2^n - 1]. Percentiles are reported as the upper bound of the bucket, so they are precise within a factor of two,
+ * which is enough for queue depth and delivery latency monitoring and costs one atomic increment per sample.
+ */
+public class DeliveryHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    public void recordValue(long value) {
+        if (value < 0)
+            value = 0;
+        this.buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(value));
+        this.totalCount.incrementAndGet();
+        this.totalSum.addAndGet(value);
+        long max = this.maxValue.get();
+        while (value > max) {
+            if (this.maxValue.compareAndSet(max, value))
+                break;
+            max = this.maxValue.get();
+        }
+    }
+
+    public long getTotalCount() {
+        return this.totalCount.get();
+    }
+
+    public long getMaxValue() {
+        return this.maxValue.get();
+    }
+
+    public double getMean() {
+        long cnt = this.totalCount.get();
+        if (cnt == 0)
+            return 0;
+        return (double) this.totalSum.get() / cnt;
+    }
+
+    /**
+     * @param percentile percentile in the range 0 - 100
+     * @return the upper bound of the bucket that contains the requested percentile or 0 if no value has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] counts = this.getBucketCounts();
+        long cnt = 0;
+        for (long c : counts) {
+            cnt += c;
+        }
+        if (cnt == 0)
+            return 0;
+
+        long target = (long) Math.ceil(cnt * Math.min(Math.max(percentile, 0), 100) / 100.0);
+        if (target < 1)
+            target = 1;
+        long acc = 0;
+        for (int i = 0; i < counts.length; i++) {
+            acc += counts[i];
+            if (acc >= target)
+                return Math.min(getBucketUpperBound(i), this.maxValue.get());
+        }
+        return this.maxValue.get();
+    }
+
+    public long[] getBucketCounts() {
+        long[] res = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            res[i] = this.buckets.get(i);
+        }
+        return res;
+    }
+
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket == 0)
+            return 0;
+        if (bucket >= 63)
+            return Long.MAX_VALUE;
+        return (1L << bucket) - 1;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            this.buckets.set(i, 0);
+        }
+        this.totalCount.set(0);
+        this.totalSum.set(0);
+        this.maxValue.set(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("DeliveryHistogram [count=");
+        sb.append(this.getTotalCount());
+        sb.append(", mean=");
+        sb.append(String.format("%.1f", this.getMean()));
+        sb.append(", p50=");
+        sb.append(this.getValueAtPercentile(50));
+        sb.append(", p99=");
+        sb.append(this.getValueAtPercentile(99));
+        sb.append(", max=");
+        sb.append(this.getMaxValue());
+        sb.append("]");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+/**
+ * Supplies the ordering key of an incoming Mtp3TransferPrimitive for the work-stealing delivery engine. Messages with equal
+ * keys are delivered to Mtp3UserPartListener's strictly in the order of arrival, messages with different keys may be
+ * delivered in parallel. The key must be stable for all messages that need to be kept in order (for example all messages of
+ * one TCAP dialog), so an implementation that mixes a TCAP transaction id into the key must use the same transaction id for
+ * every message of a dialog.
+ */
+public interface DeliveryOrderingKeyProvider {
+
+    /**
+     * @param msg incoming message
+     * @param sls the effective SLS of the message (already masked by the SLS filter)
+     * @return ordering key
+     */
+    long getOrderingKey(Mtp3TransferPrimitive msg, int sls);
+
+}
@@ -0,0 +1,216 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+/**
+ * In-JVM Mtp3UserPart that connects two MTP3 users (for example two SCCP stacks) back-to-back without SCTP / M3UA. It is
+ * intended for load tests and profiling of the upper layers only.
+ *
+ * sendMessage() puts the message into the lock-free ring buffer of the peer and does not wait for its processing. A transport
+ * thread of the peer takes messages from the ring buffer and passes them to the usual delivery of Mtp3UserPartBaseImpl, so
+ * the threading model of the receiving side is the same as with M3UA. If the ring buffer of the peer is full the sender waits
+ * until the transport thread frees a slot, so a fast sender is throttled instead of losing messages.
+ *
+ * <pre>
+ * LoopbackMtp3UserPart mtp3a = new LoopbackMtp3UserPart("A");
+ * LoopbackMtp3UserPart mtp3b = new LoopbackMtp3UserPart("B");
+ * LoopbackMtp3UserPart.connect(mtp3a, mtp3b);
+ * mtp3a.start();
+ * mtp3b.start();
+ * </pre>
+ */
+public class LoopbackMtp3UserPart extends Mtp3UserPartBaseImpl {
+
+    private static final Logger logger = Logger.getLogger(LoopbackMtp3UserPart.class);
+
+    public static final int DEFAULT_RING_CAPACITY = 16384;
+
+    private static final int SPIN_COUNT = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final String name;
+    private final MpscRingBuffer<Mtp3TransferPrimitive> inbound;
+
+    private volatile LoopbackMtp3UserPart peer;
+    private volatile Thread transportThread;
+    private volatile boolean transportIdle;
+
+    // updated by the transport thread only
+    private volatile long receivedCount;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong senderWaitCount = new AtomicLong();
+
+    public LoopbackMtp3UserPart(String name, int ringCapacity) {
+        super(null);
+        this.name = name;
+        this.inbound = new MpscRingBuffer<Mtp3TransferPrimitive>(ringCapacity);
+    }
+
+    public LoopbackMtp3UserPart(String name) {
+        this(name, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * Connects two parts with each other: messages sent by one part are received by the other one
+     */
+    public static void connect(LoopbackMtp3UserPart part1, LoopbackMtp3UserPart part2) {
+        part1.peer = part2;
+        part2.peer = part1;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public LoopbackMtp3UserPart getPeer() {
+        return this.peer;
+    }
+
+    public int getRingCapacity() {
+        return this.inbound.capacity();
+    }
+
+    /**
+     * @return count of messages that are waiting in the ring buffer of this part for the transport thread
+     */
+    public int getRingSize() {
+        return this.inbound.size();
+    }
+
+    public long getSentCount() {
+        return this.sentCount.get();
+    }
+
+    public long getReceivedCount() {
+        return this.receivedCount;
+    }
+
+    /**
+     * @return count of sendMessage() invocations that had to wait because the ring buffer of the peer was full
+     */
+    public long getSenderWaitCount() {
+        return this.senderWaitCount.get();
+    }
+
+    @Override
+    public void start() throws Exception {
+        if (this.isStarted)
+            return;
+
+        super.start();
+
+        Thread t = new Thread(new Transport(), "LoopbackMtp3-" + this.name);
+        t.setDaemon(true);
+        this.transportThread = t;
+        t.start();
+    }
+
+    @Override
+    public void stop() throws Exception {
+        if (!this.isStarted)
+            return;
+
+        super.stop();
+
+        Thread t = this.transportThread;
+        this.transportThread = null;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        while (this.inbound.poll() != null)
+            ;
+    }
+
+    @Override
+    public void sendMessage(Mtp3TransferPrimitive msg) throws IOException {
+        LoopbackMtp3UserPart p = this.peer;
+        if (p == null)
+            throw new IOException("LoopbackMtp3UserPart " + this.name + " is not connected to a peer");
+        if (!this.isStarted)
+            throw new IOException("LoopbackMtp3UserPart " + this.name + " is not started");
+
+        if (!p.inbound.offer(msg)) {
+            this.senderWaitCount.incrementAndGet();
+            do {
+                if (!p.isStarted)
+                    throw new IOException("LoopbackMtp3UserPart " + p.name + " is not started, message is dropped");
+                p.wakeUpTransport();
+                LockSupport.parkNanos(FULL_PARK_NANOS);
+            } while (!p.inbound.offer(msg));
+        }
+        this.sentCount.incrementAndGet();
+        p.wakeUpTransport();
+    }
+
+    private void wakeUpTransport() {
+        if (this.transportIdle) {
+            Thread t = this.transportThread;
+            if (t != null)
+                LockSupport.unpark(t);
+        }
+    }
+
+    private class Transport implements Runnable {
+        public void run() {
+            int idleSpins = 0;
+            while (isStarted && transportThread == Thread.currentThread()) {
+                Mtp3TransferPrimitive msg = inbound.poll();
+                if (msg == null) {
+                    if (++idleSpins < SPIN_COUNT) {
+                        Thread.yield();
+                        continue;
+                    }
+                    transportIdle = true;
+                    // re-check after publishing the idle flag, so a message offered concurrently is not missed
+                    if (inbound.isEmpty())
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    transportIdle = false;
+                    idleSpins = 0;
+                    continue;
+                }
+
+                idleSpins = 0;
+                receivedCount++;
+                try {
+                    sendTransferMessageToLocalUser(msg, msg.getSls());
+                } catch (Throwable e) {
+                    logger.error("LoopbackMtp3UserPart " + name + ": exception while delivering a message", e);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ *
+ * Every slot carries a sequence number: a producer claims a slot by advancing the tail with a CAS and publishes the element by
+ * setting the slot sequence to position + 1, the consumer frees a slot by setting its sequence to position + capacity. So
+ * neither side ever blocks the other one and a full buffer is reported to the producer instead of waiting.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // updated by the consumer thread only
+    private volatile long head;
+
+    /**
+     * @param capacity count of slots, rounded up to a power of two
+     */
+    MpscRingBuffer(int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be greater than zero");
+
+        int c = 1;
+        while (c < capacity)
+            c <<= 1;
+
+        this.capacity = c;
+        this.mask = c - 1;
+        this.elements = new AtomicReferenceArray<E>(c);
+        this.sequences = new AtomicLongArray(c);
+        for (int i = 0; i < c; i++) {
+            this.sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return this.capacity;
+    }
+
+    /**
+     * @return false if the buffer is full
+     */
+    boolean offer(E e) {
+        while (true) {
+            long pos = this.tail.get();
+            int idx = (int) pos & this.mask;
+            long dif = this.sequences.get(idx) - pos;
+            if (dif == 0) {
+                if (this.tail.compareAndSet(pos, pos + 1)) {
+                    this.elements.set(idx, e);
+                    this.sequences.set(idx, pos + 1);
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false;
+            }
+            // else another producer has claimed the slot: retry with a fresh tail
+        }
+    }
+
+    /**
+     * Must be invoked by the consumer thread only
+     *
+     * @return the oldest element or null if the buffer is empty
+     */
+    E poll() {
+        long pos = this.head;
+        int idx = (int) pos & this.mask;
+        if (this.sequences.get(idx) != pos + 1)
+            return null;
+
+        E e = this.elements.get(idx);
+        this.elements.set(idx, null);
+        this.sequences.set(idx, pos + this.capacity);
+        this.head = pos + 1;
+        return e;
+    }
+
+    boolean isEmpty() {
+        return this.sequences.get((int) this.head & this.mask) != this.head + 1;
+    }
+
+    /**
+     * @return count of elements in the buffer, approximate when producers or the consumer are active
+     */
+    int size() {
+        long s = this.tail.get() - this.head;
+        if (s < 0)
+            return 0;
+        return (int) Math.min(s, this.capacity);
+    }
+
+}
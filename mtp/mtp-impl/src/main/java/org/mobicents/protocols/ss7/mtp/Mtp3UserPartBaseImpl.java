@@ -25,8 +25,11 @@ package org.mobicents.protocols.ss7.mtp;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
+import org.mobicents.ss7.congestion.QueueDelayCongestionMonitor;
 
 // lic dep 1
 
@@ -50,14 +53,24 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
     // For single thread model this value should be equal 1
     // TODO: make it configurable
     protected int deliveryTransferMessageThreadCount = Runtime.getRuntime().availableProcessors() * 2;
+    // if true, Mtp3TransferMessage's are delivered by WorkStealingDeliveryExecutor instead of the per SLS thread set
+    protected boolean deliveryWorkStealing = false;
+    // the ordering key for the work-stealing delivery, if null the effective SLS is used
+    protected DeliveryOrderingKeyProvider deliveryOrderingKeyProvider = new TcapTransactionOrderingKeyProvider();
+    // if not null, the time every Mtp3TransferMessage has spent in the delivery queue is reported to this monitor
+    protected volatile QueueDelayCongestionMonitor deliveryQueueDelayMonitor;
+    // the period of deliveryQueueDelayMonitor.monitor() invocations in milliseconds, 0 - the user invokes it
+    protected long deliveryQueueDelayMonitorInterval = 100;
 
     protected boolean isStarted = false;
 
     private CopyOnWriteArrayList<Mtp3UserPartListener> userListeners = new CopyOnWriteArrayList<Mtp3UserPartListener>();
     // a thread pool for delivering Mtp3TransferMessage messages
     private ExecutorService[] msgDeliveryExecutors;
-    // a thread for delivering PAUSE, RESUME and STATUS messages
-    private ExecutorService msgDeliveryExecutorSystem;
+    // work-stealing engine for delivering Mtp3TransferMessage messages (when deliveryWorkStealing == true)
+    private WorkStealingDeliveryExecutor msgDeliveryWorkStealingExecutor;
+    // a thread for delivering PAUSE, RESUME and STATUS messages, it also invokes deliveryQueueDelayMonitor
+    private ScheduledExecutorService msgDeliveryExecutorSystem;
     private int[] slsTable = null;
 
     private RoutingLabelFormat routingLabelFormat = RoutingLabelFormat.ITU;
@@ -85,6 +98,64 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
             this.deliveryTransferMessageThreadCount = deliveryMessageThreadCount;
     }
 
+    public boolean isDeliveryMessageWorkStealing() {
+        return this.deliveryWorkStealing;
+    }
+
+    /**
+     * Selects the delivery engine for Mtp3TransferMessage's. If false (default) every SLS is bound to one of
+     * deliveryMessageThreadCount single thread executors. If true, deliveryMessageThreadCount workers of
+     * WorkStealingDeliveryExecutor are used: messages with the same ordering key are still delivered in order but idle workers
+     * may take over a busy ordered queue. The value is applied at the next start().
+     */
+    public void setDeliveryMessageWorkStealing(boolean deliveryWorkStealing) {
+        this.deliveryWorkStealing = deliveryWorkStealing;
+    }
+
+    public DeliveryOrderingKeyProvider getDeliveryOrderingKeyProvider() {
+        return this.deliveryOrderingKeyProvider;
+    }
+
+    /**
+     * Sets the ordering key provider for the work-stealing delivery engine. The default is TcapTransactionOrderingKeyProvider
+     * that keeps messages of one TCAP transaction in order. If null the effective SLS is used as the ordering key.
+     */
+    public void setDeliveryOrderingKeyProvider(DeliveryOrderingKeyProvider deliveryOrderingKeyProvider) {
+        this.deliveryOrderingKeyProvider = deliveryOrderingKeyProvider;
+    }
+
+    public QueueDelayCongestionMonitor getDeliveryQueueDelayMonitor() {
+        return this.deliveryQueueDelayMonitor;
+    }
+
+    /**
+     * Sets the monitor that receives the delivery queue sojourn time of every incoming Mtp3TransferMessage (for both delivery
+     * engines). Its monitor() is invoked every deliveryQueueDelayMonitorInterval milliseconds. Null disables the measurement.
+     */
+    public void setDeliveryQueueDelayMonitor(QueueDelayCongestionMonitor deliveryQueueDelayMonitor) {
+        this.deliveryQueueDelayMonitor = deliveryQueueDelayMonitor;
+    }
+
+    public long getDeliveryQueueDelayMonitorInterval() {
+        return this.deliveryQueueDelayMonitorInterval;
+    }
+
+    /**
+     * Sets the period of the deliveryQueueDelayMonitor measurement in milliseconds. 0 disables the scheduling, then the user
+     * has to invoke monitor() of the monitor. The value is applied at the next start().
+     */
+    public void setDeliveryQueueDelayMonitorInterval(long deliveryQueueDelayMonitorInterval) {
+        if (deliveryQueueDelayMonitorInterval >= 0)
+            this.deliveryQueueDelayMonitorInterval = deliveryQueueDelayMonitorInterval;
+    }
+
+    /**
+     * @return the work-stealing delivery engine (for its per worker statistics) or null if it is not used
+     */
+    public WorkStealingDeliveryExecutor getDeliveryWorkStealingExecutor() {
+        return this.msgDeliveryWorkStealingExecutor;
+    }
+
     @Override
     public void addMtp3UserPartListener(Mtp3UserPartListener listener) {
         this.userListeners.add(listener);
@@ -175,11 +246,23 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
 
         this.createSLSTable(this.deliveryTransferMessageThreadCount);
 
-        this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
-        for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
-            this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1);
+        if (this.deliveryWorkStealing) {
+            this.msgDeliveryExecutors = null;
+            this.msgDeliveryWorkStealingExecutor = new WorkStealingDeliveryExecutor("Mtp3Delivery",
+                    this.deliveryTransferMessageThreadCount);
+            this.msgDeliveryWorkStealingExecutor.start();
+        } else {
+            this.msgDeliveryWorkStealingExecutor = null;
+            this.msgDeliveryExecutors = new ExecutorService[this.deliveryTransferMessageThreadCount];
+            for (int i = 0; i < this.deliveryTransferMessageThreadCount; i++) {
+                this.msgDeliveryExecutors[i] = Executors.newFixedThreadPool(1);
+            }
+        }
+        this.msgDeliveryExecutorSystem = Executors.newSingleThreadScheduledExecutor();
+        if (this.deliveryQueueDelayMonitorInterval > 0) {
+            this.msgDeliveryExecutorSystem.scheduleWithFixedDelay(new DeliveryQueueDelayMonitorTask(),
+                    this.deliveryQueueDelayMonitorInterval, this.deliveryQueueDelayMonitorInterval, TimeUnit.MILLISECONDS);
         }
-        this.msgDeliveryExecutorSystem = Executors.newFixedThreadPool(1);
 
         this.isStarted = true;
     }
@@ -191,8 +274,13 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
 
         this.isStarted = false;
 
-        for (ExecutorService es : this.msgDeliveryExecutors) {
-            es.shutdown();
+        if (this.msgDeliveryExecutors != null) {
+            for (ExecutorService es : this.msgDeliveryExecutors) {
+                es.shutdown();
+            }
+        }
+        if (this.msgDeliveryWorkStealingExecutor != null) {
+            this.msgDeliveryWorkStealingExecutor.stop();
         }
         this.msgDeliveryExecutorSystem.shutdown();
     }
@@ -208,7 +296,15 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
             MsgTransferDeliveryHandler hdl = new MsgTransferDeliveryHandler(msg);
 
             seqControl = seqControl & slsFilter;
-            this.msgDeliveryExecutors[this.slsTable[seqControl]].execute(hdl);
+            if (this.msgDeliveryWorkStealingExecutor != null) {
+                long key = seqControl;
+                DeliveryOrderingKeyProvider keyProvider = this.deliveryOrderingKeyProvider;
+                if (keyProvider != null)
+                    key = keyProvider.getOrderingKey(msg, seqControl);
+                this.msgDeliveryWorkStealingExecutor.execute(key, hdl);
+            } else {
+                this.msgDeliveryExecutors[this.slsTable[seqControl]].execute(hdl);
+            }
         } else {
             logger.error(String.format(
                     "Received Mtp3TransferPrimitive=%s but Mtp3UserPart is not started. Message will be dropped", msg));
@@ -255,16 +351,41 @@ public abstract class Mtp3UserPartBaseImpl implements Mtp3UserPart {
         }
     }
 
+    private class DeliveryQueueDelayMonitorTask implements Runnable {
+
+        @Override
+        public void run() {
+            QueueDelayCongestionMonitor delayMonitor = deliveryQueueDelayMonitor;
+            if (delayMonitor != null) {
+                try {
+                    delayMonitor.monitor();
+                } catch (Exception e) {
+                    logger.error("Exception while monitoring the delivery queue delay: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
     private class MsgTransferDeliveryHandler implements Runnable {
 
         private Mtp3TransferPrimitive msg;
+        private QueueDelayCongestionMonitor delayMonitor;
+        private long enqueueTime;
 
         public MsgTransferDeliveryHandler(Mtp3TransferPrimitive msg) {
             this.msg = msg;
+            this.delayMonitor = deliveryQueueDelayMonitor;
+            if (this.delayMonitor != null) {
+                this.enqueueTime = System.nanoTime();
+                this.delayMonitor.recordEnqueue();
+            }
         }
 
         @Override
         public void run() {
+            if (this.delayMonitor != null)
+                this.delayMonitor.recordSojournTime(System.nanoTime() - this.enqueueTime);
+
             if (isStarted) {
                 try {
                     for (Mtp3UserPartListener lsn : userListeners) {
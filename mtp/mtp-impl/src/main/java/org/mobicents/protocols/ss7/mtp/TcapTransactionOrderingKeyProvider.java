@@ -0,0 +1,268 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ordering key provider that keeps the messages of one TCAP transaction in order instead of all messages of one SLS, so a hot
+ * SLS is spread over the workers of WorkStealingDeliveryExecutor.
+ *
+ * The key is taken from an ITU TCAP message carried in SCCP UDT / UDTS, XUDT / XUDTS or LUDT / LUDTS. Every incoming message
+ * of a dialog is keyed by the transaction id of the peer: the OTID of TC-BEGIN and TC-CONTINUE. TC-END and TC-ABORT carry only
+ * our local transaction id (DTID), so the peer id is remembered per local id and peer point code when a TC-CONTINUE is received
+ * and is looked up (and forgotten) for TC-END and TC-ABORT. A TC-END or TC-ABORT without a remembered peer id (the peer has not
+ * sent a TC-CONTINUE, or has not sent one for a whole mapping generation) is keyed by its DTID. The effective SLS is used
+ * as the key for non SCCP messages, segments of a segmented SCCP message (they must reach the reassembly in order), TC-UNI,
+ * ANSI TCAP and messages that can not be parsed.
+ *
+ * Remembered peer ids are kept in two generations that are rotated every {@link #MAPPING_GENERATION_TIME} nanoseconds, every
+ * TC-CONTINUE stores its entry in the current generation again. So entries of dialogs that are ended locally or by a timeout
+ * are dropped, and an entry is only lost after the dialog has received no TC-CONTINUE for a whole generation, when no earlier
+ * message of the dialog can still be waiting for delivery.
+ */
+public class TcapTransactionOrderingKeyProvider implements DeliveryOrderingKeyProvider {
+
+    // transaction keys are kept apart from SLS keys (0..255)
+    private static final long TRANSACTION_KEY_FLAG = 1L << 32;
+
+    private static final int SI_SCCP = 3;
+
+    private static final int SCCP_UDT = 0x09;
+    private static final int SCCP_UDTS = 0x0A;
+    private static final int SCCP_XUDT = 0x11;
+    private static final int SCCP_XUDTS = 0x12;
+    private static final int SCCP_LUDT = 0x13;
+    private static final int SCCP_LUDTS = 0x14;
+    private static final int SCCP_SEGMENTATION = 0x10;
+
+    private static final int TCAP_BEGIN = 0x62;
+    private static final int TCAP_END = 0x64;
+    private static final int TCAP_CONTINUE = 0x65;
+    private static final int TCAP_ABORT = 0x67;
+    private static final int TCAP_OTID = 0x48;
+    private static final int TCAP_DTID = 0x49;
+
+    public static final long MAPPING_GENERATION_TIME = TimeUnit.SECONDS.toNanos(30);
+
+    // peer transaction ids by "peer point code << 32 | local transaction id"
+    private volatile ConcurrentHashMap<Long, Long> peerIds = new ConcurrentHashMap<Long, Long>();
+    private volatile ConcurrentHashMap<Long, Long> previousPeerIds = new ConcurrentHashMap<Long, Long>();
+    private final AtomicLong nextRotation = new AtomicLong(System.nanoTime() + MAPPING_GENERATION_TIME);
+
+    public long getOrderingKey(Mtp3TransferPrimitive msg, int sls) {
+        if (msg.getSi() != SI_SCCP)
+            return sls;
+        byte[] data = msg.getData();
+        if (data == null)
+            return sls;
+        Transaction tr = getTransaction(data);
+        if (tr == null)
+            return sls;
+
+        long peerId;
+        switch (tr.messageTag) {
+            case TCAP_BEGIN:
+                peerId = tr.otid;
+                break;
+            case TCAP_CONTINUE:
+                peerId = tr.otid;
+                this.rotate();
+                this.peerIds.put(((long) msg.getOpc() << 32) | tr.dtid, peerId);
+                break;
+            default:
+                peerId = this.removePeerId(((long) msg.getOpc() << 32) | tr.dtid);
+                if (peerId < 0)
+                    peerId = tr.dtid;
+                break;
+        }
+        return TRANSACTION_KEY_FLAG | peerId;
+    }
+
+    private void rotate() {
+        long next = this.nextRotation.get();
+        long now = System.nanoTime();
+        if (now - next >= 0 && this.nextRotation.compareAndSet(next, now + MAPPING_GENERATION_TIME)) {
+            this.previousPeerIds = this.peerIds;
+            this.peerIds = new ConcurrentHashMap<Long, Long>();
+        }
+    }
+
+    /**
+     * @return the remembered peer transaction id or -1
+     */
+    private long removePeerId(long localKey) {
+        Long key = Long.valueOf(localKey);
+        Long peerId = this.peerIds.remove(key);
+        Long previous = this.previousPeerIds.remove(key);
+        if (peerId == null)
+            peerId = previous;
+        return peerId != null ? peerId.longValue() : -1;
+    }
+
+    /**
+     * @param data SCCP message
+     * @return the TCAP message type and transaction ids or null if the message must be keyed by SLS
+     */
+    static Transaction getTransaction(byte[] data) {
+        if (data.length < 5)
+            return null;
+
+        int dataStart;
+        int dataLen;
+        int optionalStart = -1;
+        switch (data[0] & 0xFF) {
+            case SCCP_UDT:
+            case SCCP_UDTS:
+                // type, protocol class / return cause, 3 one octet pointers
+                dataStart = 4 + (data[4] & 0xFF);
+                if (dataStart >= data.length)
+                    return null;
+                dataLen = data[dataStart++] & 0xFF;
+                break;
+
+            case SCCP_XUDT:
+            case SCCP_XUDTS:
+                // type, protocol class / return cause, hop counter, 4 one octet pointers
+                if (data.length < 7)
+                    return null;
+                dataStart = 5 + (data[5] & 0xFF);
+                if ((data[6] & 0xFF) != 0)
+                    optionalStart = 6 + (data[6] & 0xFF);
+                if (dataStart >= data.length)
+                    return null;
+                dataLen = data[dataStart++] & 0xFF;
+                break;
+
+            case SCCP_LUDT:
+            case SCCP_LUDTS:
+                // type, protocol class / return cause, hop counter, 4 two octet pointers
+                if (data.length < 11)
+                    return null;
+                dataStart = 7 + ((data[7] & 0xFF) | ((data[8] & 0xFF) << 8));
+                int optionalPointer = (data[9] & 0xFF) | ((data[10] & 0xFF) << 8);
+                if (optionalPointer != 0)
+                    optionalStart = 9 + optionalPointer;
+                if (dataStart + 1 >= data.length)
+                    return null;
+                dataLen = (data[dataStart] & 0xFF) | ((data[dataStart + 1] & 0xFF) << 8);
+                dataStart += 2;
+                break;
+
+            default:
+                return null;
+        }
+
+        if (optionalStart > 0 && isSegment(data, optionalStart))
+            return null;
+
+        int end = dataStart + dataLen;
+        if (end > data.length)
+            return null;
+        return getTcapTransaction(data, dataStart, end);
+    }
+
+    private static boolean isSegment(byte[] data, int pos) {
+        while (pos + 1 < data.length) {
+            int code = data[pos] & 0xFF;
+            if (code == 0)
+                return false;
+            int len = data[pos + 1] & 0xFF;
+            if (code == SCCP_SEGMENTATION) {
+                if (len < 1 || pos + 2 >= data.length)
+                    return true;
+                int b = data[pos + 2] & 0xFF;
+                // a single not segmented message (first segment, no remaining segments) is not a segment
+                return (b & 0x80) == 0 || (b & 0x0F) != 0;
+            }
+            pos += 2 + len;
+        }
+        return false;
+    }
+
+    private static Transaction getTcapTransaction(byte[] data, int pos, int end) {
+        if (pos + 2 > end)
+            return null;
+        int messageTag = data[pos++] & 0xFF;
+        if (messageTag != TCAP_BEGIN && messageTag != TCAP_END && messageTag != TCAP_CONTINUE && messageTag != TCAP_ABORT)
+            return null;
+
+        // message length: short, long (one or two octets) or indefinite form
+        int b = data[pos++] & 0xFF;
+        if (b > 0x80) {
+            int n = b & 0x7F;
+            if (n > 2)
+                return null;
+            pos += n;
+        }
+
+        long otid = -1;
+        long dtid = -1;
+        while (pos + 2 <= end) {
+            int tag = data[pos] & 0xFF;
+            int len = data[pos + 1] & 0xFF;
+            pos += 2;
+            if (len < 1 || len > 4 || pos + len > end)
+                return null;
+            if (tag == TCAP_OTID && otid < 0 && dtid < 0)
+                otid = readId(data, pos, len);
+            else if (tag == TCAP_DTID && dtid < 0)
+                dtid = readId(data, pos, len);
+            else
+                break;
+            pos += len;
+        }
+
+        switch (messageTag) {
+            case TCAP_BEGIN:
+                return otid >= 0 ? new Transaction(messageTag, otid, -1) : null;
+            case TCAP_CONTINUE:
+                return otid >= 0 && dtid >= 0 ? new Transaction(messageTag, otid, dtid) : null;
+            default:
+                return dtid >= 0 ? new Transaction(messageTag, -1, dtid) : null;
+        }
+    }
+
+    private static long readId(byte[] data, int pos, int len) {
+        long id = 0;
+        for (int i = 0; i < len; i++) {
+            id = (id << 8) | (data[pos + i] & 0xFF);
+        }
+        return id;
+    }
+
+    static final class Transaction {
+        final int messageTag;
+        final long otid;
+        final long dtid;
+
+        Transaction(int messageTag, long otid, long dtid) {
+            this.messageTag = messageTag;
+            this.otid = otid;
+            this.dtid = dtid;
+        }
+    }
+
+}
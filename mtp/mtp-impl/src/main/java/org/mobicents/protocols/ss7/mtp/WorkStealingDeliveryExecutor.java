@@ -0,0 +1,312 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Delivery engine for incoming Mtp3TransferPrimitive's that keeps the ordering per key but does not pin a key to a thread.
+ *
+ * Tasks are put into ordered lanes selected by the ordering key hash. A lane that has pending tasks is scheduled to exactly
+ * one worker at a time: first to its home worker, later to the worker that has processed it last. Every worker takes lanes
+ * from the head of its own deque and processes a bounded batch of tasks of a lane before it requeues it, an idle worker
+ * steals whole lanes from the tail of the deques of the other workers. So tasks of one lane are never processed in parallel
+ * and are always processed in the order of arrival, while a hot lane can not keep the other workers idle behind it.
+ *
+ * Every worker keeps a histogram of the lane depth found when the worker takes a lane and a histogram of the delivery latency
+ * (from execute() to the start of the task) in microseconds.
+ */
+public class WorkStealingDeliveryExecutor {
+
+    private static final Logger logger = Logger.getLogger(WorkStealingDeliveryExecutor.class);
+
+    public static final int DEFAULT_LANES_PER_WORKER = 64;
+
+    private static final int LANE_BATCH_SIZE = 32;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final String name;
+    private final Worker[] workers;
+    private final Lane[] lanes;
+    private final int laneMask;
+
+    private volatile boolean started;
+
+    /**
+     * @param name prefix of worker thread names
+     * @param workerCount count of worker threads
+     * @param laneCount count of ordered lanes, rounded up to a power of two
+     */
+    public WorkStealingDeliveryExecutor(String name, int workerCount, int laneCount) {
+        if (workerCount <= 0)
+            throw new IllegalArgumentException("Worker count must be greater than zero");
+
+        int lc = 1;
+        while (lc < laneCount || lc < workerCount)
+            lc <<= 1;
+
+        this.name = name;
+        this.workers = new Worker[workerCount];
+        for (int i = 0; i < workerCount; i++) {
+            this.workers[i] = new Worker(i);
+        }
+        this.lanes = new Lane[lc];
+        for (int i = 0; i < lc; i++) {
+            this.lanes[i] = new Lane(i % workerCount);
+        }
+        this.laneMask = lc - 1;
+    }
+
+    public WorkStealingDeliveryExecutor(String name, int workerCount) {
+        this(name, workerCount, workerCount * DEFAULT_LANES_PER_WORKER);
+    }
+
+    public void start() {
+        if (this.started)
+            return;
+
+        this.started = true;
+        for (Worker w : this.workers) {
+            w.thread = new Thread(w, this.name + "-" + w.index);
+            w.thread.start();
+        }
+    }
+
+    public void stop() {
+        if (!this.started)
+            return;
+
+        this.started = false;
+        for (Worker w : this.workers) {
+            LockSupport.unpark(w.thread);
+        }
+        for (Worker w : this.workers) {
+            try {
+                w.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            w.thread = null;
+            w.deque.clear();
+        }
+        for (Lane l : this.lanes) {
+            l.queue.clear();
+            l.pending.set(0);
+            l.scheduled.set(false);
+        }
+    }
+
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    public int getWorkerCount() {
+        return this.workers.length;
+    }
+
+    public int getLaneCount() {
+        return this.lanes.length;
+    }
+
+    /**
+     * Schedules the task for execution after all tasks with the same ordering key that have been submitted before it
+     */
+    public void execute(long orderingKey, Runnable task) {
+        if (!this.started)
+            throw new RejectedExecutionException("WorkStealingDeliveryExecutor " + this.name + " is not started");
+
+        long h = orderingKey * HASH_MULTIPLIER;
+        Lane lane = this.lanes[(int) (h >>> 32) & this.laneMask];
+        lane.queue.add(new Task(task, System.nanoTime()));
+        lane.pending.incrementAndGet();
+        if (lane.scheduled.compareAndSet(false, true)) {
+            Worker w = this.workers[lane.lastWorker];
+            w.deque.offerLast(lane);
+            this.wakeUp(w);
+        }
+    }
+
+    private void wakeUp(Worker preferred) {
+        if (preferred.idle) {
+            LockSupport.unpark(preferred.thread);
+            return;
+        }
+        // the preferred worker is busy: wake up an idle one so it can steal the lane
+        for (Worker w : this.workers) {
+            if (w.idle) {
+                LockSupport.unpark(w.thread);
+                return;
+            }
+        }
+    }
+
+    public DeliveryHistogram getQueueDepthHistogram(int worker) {
+        return this.workers[worker].queueDepth;
+    }
+
+    /**
+     * @return the histogram of delivery latencies in microseconds
+     */
+    public DeliveryHistogram getDeliveryLatencyHistogram(int worker) {
+        return this.workers[worker].deliveryLatency;
+    }
+
+    public long getDeliveredCount(int worker) {
+        return this.workers[worker].deliveredCount.get();
+    }
+
+    public long getStolenLaneCount(int worker) {
+        return this.workers[worker].stolenCount.get();
+    }
+
+    public void resetStatistics() {
+        for (Worker w : this.workers) {
+            w.queueDepth.reset();
+            w.deliveryLatency.reset();
+            w.deliveredCount.set(0);
+            w.stolenCount.set(0);
+        }
+    }
+
+    private Lane steal(Worker thief) {
+        int cnt = this.workers.length;
+        for (int i = 1; i < cnt; i++) {
+            Worker victim = this.workers[(thief.index + i) % cnt];
+            Lane lane = victim.deque.pollLast();
+            if (lane != null)
+                return lane;
+        }
+        return null;
+    }
+
+    private boolean hasWork() {
+        for (Worker w : this.workers) {
+            if (!w.deque.isEmpty())
+                return true;
+        }
+        return false;
+    }
+
+    private static final class Task {
+        private final Runnable task;
+        private final long enqueueTime;
+
+        Task(Runnable task, long enqueueTime) {
+            this.task = task;
+            this.enqueueTime = enqueueTime;
+        }
+    }
+
+    private static final class Lane {
+        private final ConcurrentLinkedQueue<Task> queue = new ConcurrentLinkedQueue<Task>();
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // the worker the lane is scheduled to next time, updated by the worker that owns the lane at the moment
+        private volatile int lastWorker;
+
+        Lane(int homeWorker) {
+            this.lastWorker = homeWorker;
+        }
+    }
+
+    private class Worker implements Runnable {
+        private final int index;
+        private final LinkedBlockingDeque<Lane> deque = new LinkedBlockingDeque<Lane>();
+        private final DeliveryHistogram queueDepth = new DeliveryHistogram();
+        private final DeliveryHistogram deliveryLatency = new DeliveryHistogram();
+        private final AtomicLong deliveredCount = new AtomicLong();
+        private final AtomicLong stolenCount = new AtomicLong();
+        private volatile boolean idle;
+        private volatile Thread thread;
+
+        Worker(int index) {
+            this.index = index;
+        }
+
+        public void run() {
+            while (started) {
+                Lane lane = this.deque.pollFirst();
+                if (lane == null) {
+                    lane = steal(this);
+                    if (lane != null)
+                        this.stolenCount.incrementAndGet();
+                }
+                if (lane == null) {
+                    this.idle = true;
+                    // re-check after publishing the idle flag, so a lane scheduled concurrently is not missed
+                    if (started && !hasWork())
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    this.idle = false;
+                    continue;
+                }
+
+                this.processLane(lane);
+            }
+        }
+
+        private void processLane(Lane lane) {
+            lane.lastWorker = this.index;
+            this.queueDepth.recordValue(lane.pending.get());
+
+            for (int i = 0; i < LANE_BATCH_SIZE; i++) {
+                Task t = lane.queue.poll();
+                if (t == null)
+                    break;
+                lane.pending.decrementAndGet();
+                this.deliveryLatency.recordValue((System.nanoTime() - t.enqueueTime) / 1000);
+                try {
+                    t.task.run();
+                } catch (Throwable e) {
+                    logger.error("WorkStealingDeliveryExecutor " + name + ": exception while delivering a message", e);
+                }
+                this.deliveredCount.incrementAndGet();
+            }
+
+            if (!lane.queue.isEmpty()) {
+                // the batch is over: give other lanes of this worker a chance, idle workers may steal this one
+                this.deque.offerLast(lane);
+                for (Worker w : workers) {
+                    if (w.idle) {
+                        LockSupport.unpark(w.thread);
+                        break;
+                    }
+                }
+            } else {
+                lane.scheduled.set(false);
+                // a task may have been added after the queue has been found empty but before the flag was cleared
+                if (!lane.queue.isEmpty() && lane.scheduled.compareAndSet(false, true))
+                    this.deque.offerLast(lane);
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class LoopbackMtp3UserPartTest {
+
+    @Test(groups = { "LoopbackMtp3UserPart", "functional" })
+    public void testRingBuffer() throws Exception {
+        MpscRingBuffer<Integer> ring = new MpscRingBuffer<Integer>(3);
+        assertEquals(ring.capacity(), 4);
+        assertTrue(ring.isEmpty());
+        assertNull(ring.poll());
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertTrue(ring.offer(i));
+            }
+            assertFalse(ring.offer(4));
+            assertEquals(ring.size(), 4);
+
+            for (int i = 0; i < 4; i++) {
+                assertEquals((int) ring.poll(), i);
+            }
+            assertNull(ring.poll());
+            assertTrue(ring.isEmpty());
+        }
+    }
+
+    @Test(groups = { "LoopbackMtp3UserPart", "functional" })
+    public void testTransfer() throws Exception {
+        // a small ring buffer makes senders wait for the transport thread
+        LoopbackMtp3UserPart mtp3a = new LoopbackMtp3UserPart("A", 16);
+        LoopbackMtp3UserPart mtp3b = new LoopbackMtp3UserPart("B", 16);
+        mtp3b.setDeliveryMessageThreadCount(4);
+        LoopbackMtp3UserPart.connect(mtp3a, mtp3b);
+
+        final int senderCount = 4;
+        final int perSender = 5000;
+        final List<List<Integer>> results = new ArrayList<List<Integer>>();
+        for (int i = 0; i < senderCount; i++) {
+            results.add(Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+        final CountDownLatch done = new CountDownLatch(senderCount * perSender);
+        mtp3b.addMtp3UserPartListener(new Mtp3UserPartListener() {
+            public void onMtp3TransferMessage(Mtp3TransferPrimitive msg) {
+                byte[] data = msg.getData();
+                results.get(msg.getSls()).add(((data[0] & 0xFF) << 8) | (data[1] & 0xFF));
+                done.countDown();
+            }
+
+            public void onMtp3PauseMessage(Mtp3PausePrimitive msg) {
+            }
+
+            public void onMtp3ResumeMessage(Mtp3ResumePrimitive msg) {
+            }
+
+            public void onMtp3StatusMessage(Mtp3StatusPrimitive msg) {
+            }
+        });
+
+        mtp3a.start();
+        mtp3b.start();
+        try {
+            final Mtp3TransferPrimitiveFactory factory = mtp3a.getMtp3TransferPrimitiveFactory();
+            Thread[] senders = new Thread[senderCount];
+            for (int i = 0; i < senderCount; i++) {
+                final int sls = i;
+                senders[i] = new Thread() {
+                    public void run() {
+                        try {
+                            for (int n = 0; n < perSender; n++) {
+                                byte[] data = new byte[] { (byte) (n >> 8), (byte) n };
+                                mtp3a.sendMessage(factory.createMtp3TransferPrimitive(3, 2, 0, 1, 2, sls, data));
+                            }
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                };
+                senders[i].start();
+            }
+            for (Thread t : senders) {
+                t.join();
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertEquals(mtp3a.getSentCount(), senderCount * perSender);
+            assertEquals(mtp3b.getReceivedCount(), senderCount * perSender);
+            assertEquals(mtp3b.getRingSize(), 0);
+            // the messages of one SLS are delivered in the order they have been sent
+            for (int i = 0; i < senderCount; i++) {
+                List<Integer> lst = results.get(i);
+                assertEquals(lst.size(), perSender);
+                for (int n = 0; n < perSender; n++) {
+                    assertEquals((int) lst.get(n), n);
+                }
+            }
+        } finally {
+            mtp3a.stop();
+            mtp3b.stop();
+        }
+    }
+
+    @Test(groups = { "LoopbackMtp3UserPart", "functional" })
+    public void testNotConnected() throws Exception {
+        LoopbackMtp3UserPart mtp3 = new LoopbackMtp3UserPart("A");
+        mtp3.start();
+        try {
+            mtp3.sendMessage(mtp3.getMtp3TransferPrimitiveFactory().createMtp3TransferPrimitive(3, 2, 0, 1, 2, 0,
+                    new byte[] { 1 }));
+            fail("IOException expected");
+        } catch (IOException e) {
+        } finally {
+            mtp3.stop();
+        }
+    }
+
+}
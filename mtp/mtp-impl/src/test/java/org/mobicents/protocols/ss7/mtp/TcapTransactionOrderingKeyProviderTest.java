@@ -0,0 +1,225 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class TcapTransactionOrderingKeyProviderTest {
+
+    private static final int SLS = 5;
+    private static final long TRANSACTION_KEY_FLAG = 1L << 32;
+
+    private static byte[] tcBegin(int otid) {
+        return new byte[] { 0x62, 6, 0x48, 4, (byte) (otid >> 24), (byte) (otid >> 16), (byte) (otid >> 8), (byte) otid };
+    }
+
+    private static byte[] tcContinue(int otid, int dtid) {
+        return new byte[] { 0x65, 12, 0x48, 4, (byte) (otid >> 24), (byte) (otid >> 16), (byte) (otid >> 8), (byte) otid,
+                0x49, 4, (byte) (dtid >> 24), (byte) (dtid >> 16), (byte) (dtid >> 8), (byte) dtid };
+    }
+
+    /**
+     * TC-CONTINUE with an appended component portion that carries a sequence number
+     */
+    private static byte[] tcContinue(int otid, int dtid, int seq) {
+        byte[] tcap = tcContinue(otid, dtid);
+        byte[] res = new byte[tcap.length + 6];
+        System.arraycopy(tcap, 0, res, 0, tcap.length);
+        res[1] += 6;
+        res[tcap.length] = 0x6C;
+        res[tcap.length + 1] = 4;
+        for (int i = 0; i < 4; i++) {
+            res[tcap.length + 2 + i] = (byte) (seq >> (24 - 8 * i));
+        }
+        return res;
+    }
+
+    private static byte[] tcEnd(int dtid) {
+        return new byte[] { 0x64, 3, 0x49, 1, (byte) dtid };
+    }
+
+    private static byte[] tcUni() {
+        return new byte[] { 0x61, 2, 0x6C, 0 };
+    }
+
+    private static byte[] udt(byte[] tcap) {
+        // called / calling party addresses: SSN only
+        byte[] res = new byte[12 + tcap.length];
+        byte[] hdr = new byte[] { 0x09, (byte) 0x81, 3, 5, 7, 2, 0x42, 8, 2, 0x42, 8, (byte) tcap.length };
+        System.arraycopy(hdr, 0, res, 0, hdr.length);
+        System.arraycopy(tcap, 0, res, hdr.length, tcap.length);
+        return res;
+    }
+
+    /**
+     * @param segmentation the first octet of the segmentation parameter or -1 if the parameter is absent
+     */
+    private static byte[] xudt(byte[] tcap, int segmentation) {
+        byte[] hdr = new byte[] { 0x11, (byte) 0x81, 15, 4, 6, 8, 0, 2, 0x42, 8, 2, 0x42, 8, (byte) tcap.length };
+        byte[] opt = segmentation < 0 ? new byte[0] : new byte[] { 0x10, 4, (byte) segmentation, 0, 0, 1, 0 };
+        if (opt.length > 0)
+            hdr[6] = (byte) (8 + tcap.length);
+        byte[] res = new byte[hdr.length + tcap.length + opt.length];
+        System.arraycopy(hdr, 0, res, 0, hdr.length);
+        System.arraycopy(tcap, 0, res, hdr.length, tcap.length);
+        System.arraycopy(opt, 0, res, hdr.length + tcap.length, opt.length);
+        return res;
+    }
+
+    private static byte[] ludt(byte[] tcap) {
+        byte[] hdr = new byte[] { 0x13, (byte) 0x81, 15, 8, 0, 9, 0, 10, 0, 0, 0, 2, 0x42, 8, 2, 0x42, 8, (byte) tcap.length,
+                0 };
+        byte[] res = new byte[hdr.length + tcap.length];
+        System.arraycopy(hdr, 0, res, 0, hdr.length);
+        System.arraycopy(tcap, 0, res, hdr.length, tcap.length);
+        return res;
+    }
+
+    private static long getKey(int si, byte[] data) {
+        return getKey(new TcapTransactionOrderingKeyProvider(), si, 1, data);
+    }
+
+    private static long getKey(TcapTransactionOrderingKeyProvider provider, int si, int opc, byte[] data) {
+        Mtp3TransferPrimitive msg = new Mtp3TransferPrimitiveFactory(RoutingLabelFormat.ITU).createMtp3TransferPrimitive(si, 2,
+                0, opc, 2, SLS, data);
+        return provider.getOrderingKey(msg, SLS);
+    }
+
+    @Test(groups = { "TcapTransactionOrderingKeyProvider", "functional" })
+    public void testKey() {
+        assertEquals(getKey(3, udt(tcBegin(0x01020304))), TRANSACTION_KEY_FLAG | 0x01020304L);
+        assertEquals(getKey(3, udt(tcContinue(0x0A0B0C0D, 0x11223344))), TRANSACTION_KEY_FLAG | 0x0A0B0C0DL);
+        assertEquals(getKey(3, udt(tcEnd(0x77))), TRANSACTION_KEY_FLAG | 0x77L);
+        assertEquals(getKey(3, xudt(tcContinue(1, 0x11223344), -1)), TRANSACTION_KEY_FLAG | 1L);
+        assertEquals(getKey(3, ludt(tcEnd(0x55))), TRANSACTION_KEY_FLAG | 0x55L);
+
+        // not segmented message with a segmentation parameter
+        assertEquals(getKey(3, xudt(tcEnd(0x55), 0x80)), TRANSACTION_KEY_FLAG | 0x55L);
+
+        // SLS: segments, TC-UNI, non SCCP and broken messages
+        assertEquals(getKey(3, xudt(tcEnd(0x55), 0x82)), SLS);
+        assertEquals(getKey(3, xudt(tcEnd(0x55), 0x01)), SLS);
+        assertEquals(getKey(3, udt(tcUni())), SLS);
+        assertEquals(getKey(5, udt(tcEnd(0x55))), SLS);
+        assertEquals(getKey(3, new byte[] { 0x09, (byte) 0x81, 3, 5, 100 }), SLS);
+        byte[] truncated = udt(tcContinue(1, 2));
+        truncated[11] = 10;
+        assertEquals(getKey(3, truncated), SLS);
+    }
+
+    @Test(groups = { "TcapTransactionOrderingKeyProvider", "functional" })
+    public void testDialogKey() {
+        TcapTransactionOrderingKeyProvider provider = new TcapTransactionOrderingKeyProvider();
+
+        // a dialog initiated by the peer (peer id 0x1234, local id 0x55) is keyed by the peer id
+        long key = TRANSACTION_KEY_FLAG | 0x1234L;
+        assertEquals(getKey(provider, 3, 1, udt(tcBegin(0x1234))), key);
+        assertEquals(getKey(provider, 3, 1, udt(tcContinue(0x1234, 0x55))), key);
+        assertEquals(getKey(provider, 3, 1, udt(tcContinue(0x1234, 0x55))), key);
+        // the same local id of a dialog with another peer point code
+        assertEquals(getKey(provider, 3, 7, udt(tcContinue(0x9999, 0x55))), TRANSACTION_KEY_FLAG | 0x9999L);
+        assertEquals(getKey(provider, 3, 1, udt(tcEnd(0x55))), key);
+
+        // the remembered peer id is forgotten with the end of the dialog
+        assertEquals(getKey(provider, 3, 1, udt(tcEnd(0x55))), TRANSACTION_KEY_FLAG | 0x55L);
+        assertEquals(getKey(provider, 3, 7, udt(tcEnd(0x55))), TRANSACTION_KEY_FLAG | 0x9999L);
+    }
+
+    @Test(groups = { "TcapTransactionOrderingKeyProvider", "functional" })
+    public void testHotSlsSpread() throws Exception {
+        LoopbackMtp3UserPart mtp3a = new LoopbackMtp3UserPart("A");
+        LoopbackMtp3UserPart mtp3b = new LoopbackMtp3UserPart("B");
+        mtp3b.setDeliveryMessageThreadCount(4);
+        mtp3b.setDeliveryMessageWorkStealing(true);
+        LoopbackMtp3UserPart.connect(mtp3a, mtp3b);
+
+        final int transactionCount = 64;
+        final int perTransaction = 50;
+        final List<List<Integer>> results = new ArrayList<List<Integer>>();
+        for (int i = 0; i < transactionCount; i++) {
+            results.add(Collections.synchronizedList(new ArrayList<Integer>()));
+        }
+        final Set<String> threads = Collections.synchronizedSet(new HashSet<String>());
+        final CountDownLatch done = new CountDownLatch(transactionCount * perTransaction);
+        mtp3b.addMtp3UserPartListener(new Mtp3UserPartListener() {
+            public void onMtp3TransferMessage(Mtp3TransferPrimitive msg) {
+                // OTID and DTID carry the transaction, the component portion the sequence number
+                byte[] data = msg.getData();
+                int tr = data[25] & 0xFF;
+                int seq = ((data[28] & 0xFF) << 24) | ((data[29] & 0xFF) << 16) | ((data[30] & 0xFF) << 8) | (data[31] & 0xFF);
+                results.get(tr).add(seq);
+                threads.add(Thread.currentThread().getName());
+                long start = System.nanoTime();
+                while (System.nanoTime() - start < 20000)
+                    ;
+                done.countDown();
+            }
+
+            public void onMtp3PauseMessage(Mtp3PausePrimitive msg) {
+            }
+
+            public void onMtp3ResumeMessage(Mtp3ResumePrimitive msg) {
+            }
+
+            public void onMtp3StatusMessage(Mtp3StatusPrimitive msg) {
+            }
+        });
+
+        mtp3a.start();
+        mtp3b.start();
+        try {
+            Mtp3TransferPrimitiveFactory factory = mtp3a.getMtp3TransferPrimitiveFactory();
+            for (int n = 0; n < perTransaction; n++) {
+                for (int tr = 0; tr < transactionCount; tr++) {
+                    // all messages are sent with the same SLS
+                    mtp3a.sendMessage(factory.createMtp3TransferPrimitive(3, 2, 0, 1, 2, SLS, udt(tcContinue(tr, tr, n))));
+                }
+            }
+
+            assertTrue(done.await(20, TimeUnit.SECONDS));
+            assertTrue(threads.size() > 1, "one SLS must be delivered by several workers: " + threads);
+            for (int tr = 0; tr < transactionCount; tr++) {
+                List<Integer> lst = results.get(tr);
+                assertEquals(lst.size(), perTransaction);
+                for (int n = 0; n < perTransaction; n++) {
+                    assertEquals((int) lst.get(n), n);
+                }
+            }
+        } finally {
+            mtp3a.stop();
+            mtp3b.stop();
+        }
+    }
+
+}
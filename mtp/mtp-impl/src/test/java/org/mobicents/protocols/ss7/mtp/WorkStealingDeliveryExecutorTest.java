@@ -0,0 +1,150 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.mtp;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.annotations.Test;
+
+public class WorkStealingDeliveryExecutorTest {
+
+    @Test(groups = { "WorkStealingDeliveryExecutor", "functional" })
+    public void testOrderingPerKey() throws Exception {
+        WorkStealingDeliveryExecutor executor = new WorkStealingDeliveryExecutor("Test", 4, 16);
+        executor.start();
+        try {
+            final int keyCount = 8;
+            final int perKey = 2000;
+            final List<List<Integer>> results = new ArrayList<List<Integer>>();
+            for (int i = 0; i < keyCount; i++) {
+                results.add(Collections.synchronizedList(new ArrayList<Integer>()));
+            }
+            final CountDownLatch done = new CountDownLatch(keyCount * perKey);
+
+            for (int n = 0; n < perKey; n++) {
+                for (int k = 0; k < keyCount; k++) {
+                    final List<Integer> lst = results.get(k);
+                    final int val = n;
+                    executor.execute(k, new Runnable() {
+                        public void run() {
+                            lst.add(val);
+                            done.countDown();
+                        }
+                    });
+                }
+            }
+
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            for (int k = 0; k < keyCount; k++) {
+                List<Integer> lst = results.get(k);
+                assertEquals(lst.size(), perKey);
+                for (int n = 0; n < perKey; n++) {
+                    assertEquals((int) lst.get(n), n);
+                }
+            }
+
+            long delivered = 0;
+            for (int i = 0; i < executor.getWorkerCount(); i++) {
+                delivered += executor.getDeliveredCount(i);
+                assertEquals(executor.getDeliveryLatencyHistogram(i).getTotalCount(), executor.getDeliveredCount(i));
+            }
+            assertEquals(delivered, keyCount * perKey);
+        } finally {
+            executor.stop();
+        }
+    }
+
+    @Test(groups = { "WorkStealingDeliveryExecutor", "functional" })
+    public void testStealing() throws Exception {
+        // 2 workers, 2 lanes: lane 0 and lane 1 have different home workers
+        WorkStealingDeliveryExecutor executor = new WorkStealingDeliveryExecutor("Test", 2, 2);
+        executor.start();
+        try {
+            final CountDownLatch blocker = new CountDownLatch(1);
+            final CountDownLatch blockerStarted = new CountDownLatch(1);
+            final CountDownLatch done = new CountDownLatch(1);
+
+            long keyA = findKeyForLane(0, 2);
+            long keyB = findKeyForLane(1, 2);
+
+            // worker 1 is blocked by a long task of its lane
+            executor.execute(keyB, new Runnable() {
+                public void run() {
+                    blockerStarted.countDown();
+                    try {
+                        blocker.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                    }
+                }
+            });
+            assertTrue(blockerStarted.await(5, TimeUnit.SECONDS));
+
+            // a task with another key must not wait behind the blocked one
+            executor.execute(keyA, new Runnable() {
+                public void run() {
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            blocker.countDown();
+        } finally {
+            executor.stop();
+        }
+    }
+
+    private long findKeyForLane(int lane, int laneCount) {
+        for (long key = 0;; key++) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            if (((int) (h >>> 32) & (laneCount - 1)) == lane)
+                return key;
+        }
+    }
+
+    @Test(groups = { "WorkStealingDeliveryExecutor", "functional" })
+    public void testHistogram() throws Exception {
+        DeliveryHistogram h = new DeliveryHistogram();
+        assertEquals(h.getValueAtPercentile(50), 0);
+
+        for (int i = 0; i < 99; i++) {
+            h.recordValue(3);
+        }
+        h.recordValue(1000);
+
+        assertEquals(h.getTotalCount(), 100);
+        assertEquals(h.getMaxValue(), 1000);
+        assertEquals(h.getValueAtPercentile(50), 3);
+        assertEquals(h.getValueAtPercentile(99), 3);
+        assertEquals(h.getValueAtPercentile(100), 1000);
+        assertEquals(h.getBucketCounts()[2], 99);
+
+        h.reset();
+        assertEquals(h.getTotalCount(), 0);
+    }
+}
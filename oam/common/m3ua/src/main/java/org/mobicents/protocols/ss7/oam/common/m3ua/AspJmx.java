@@ -25,6 +25,9 @@ import org.mobicents.protocols.ss7.m3ua.As;
 import org.mobicents.protocols.ss7.m3ua.Asp;
 import org.mobicents.protocols.ss7.m3ua.AspFactory;
 import org.mobicents.protocols.ss7.m3ua.State;
+import org.mobicents.protocols.ss7.m3ua.impl.AsImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.AspImpl;
+import org.mobicents.protocols.ss7.m3ua.impl.AspTrafficStats;
 import org.mobicents.protocols.ss7.m3ua.parameter.ASPIdentifier;
 
 /**
@@ -103,4 +106,53 @@ public class AspJmx implements AspJmxMBean {
         return this.wrappedAsp.isUp();
     }
 
+    @Override
+    public long getTxMessages() {
+        AspTrafficStats stats = this.getTrafficStats();
+        return stats != null ? stats.getTxMessages() : 0;
+    }
+
+    @Override
+    public long getTxBytes() {
+        AspTrafficStats stats = this.getTrafficStats();
+        return stats != null ? stats.getTxBytes() : 0;
+    }
+
+    @Override
+    public long getOutstandingBytes() {
+        AspTrafficStats stats = this.getTrafficStats();
+        return stats != null ? stats.getOutstandingBytes() : 0;
+    }
+
+    @Override
+    public long getSendLatency() {
+        AspTrafficStats stats = this.getTrafficStats();
+        return stats != null ? stats.getSendLatency() / 1000 : 0;
+    }
+
+    @Override
+    public int getSlsBucketCount() {
+        As as = this.wrappedAsp.getAs();
+        if (as instanceof AsImpl) {
+            return ((AsImpl) as).getSlsBucketCount(this.wrappedAsp);
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isLagging() {
+        As as = this.wrappedAsp.getAs();
+        if (as instanceof AsImpl) {
+            return ((AsImpl) as).isAspLagging(this.wrappedAsp);
+        }
+        return false;
+    }
+
+    private AspTrafficStats getTrafficStats() {
+        if (this.wrappedAsp instanceof AspImpl) {
+            return ((AspImpl) this.wrappedAsp).getAspFactory().getTrafficStats();
+        }
+        return null;
+    }
+
 }
@@ -29,4 +29,35 @@ import org.mobicents.protocols.ss7.m3ua.Asp;
  *
  */
 public interface AspJmxMBean extends Asp {
+
+    /**
+     * @return count of DATA messages sent via the association of this ASP
+     */
+    long getTxMessages();
+
+    /**
+     * @return count of bytes of DATA messages sent via the association of this ASP
+     */
+    long getTxBytes();
+
+    /**
+     * @return bytes of DATA messages that are encoded but not yet handed to the association
+     */
+    long getOutstandingBytes();
+
+    /**
+     * @return moving average of the DATA message send latency in microseconds
+     */
+    long getSendLatency();
+
+    /**
+     * @return count of SLS buckets of the As whose traffic is sent via this ASP
+     */
+    int getSlsBucketCount();
+
+    /**
+     * @return true if adaptive load sharing moves the traffic of the As away from this ASP
+     */
+    boolean isLagging();
+
 }
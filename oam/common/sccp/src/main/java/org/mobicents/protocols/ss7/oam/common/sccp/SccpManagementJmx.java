@@ -97,6 +97,21 @@ public class SccpManagementJmx implements SccpManagementJmxMBean {
         return this.wrappedSccpStack.getReassemblyTimerDelay();
     }
 
+    @Override
+    public int getReassemblyInProgressCount() {
+        return this.wrappedSccpStack.getReassemblyInProgressCount();
+    }
+
+    @Override
+    public long getReassemblyCompletedCount() {
+        return this.wrappedSccpStack.getReassemblyCompletedCount();
+    }
+
+    @Override
+    public long getReassemblyExpiredCount() {
+        return this.wrappedSccpStack.getReassemblyExpiredCount();
+    }
+
     @Override
     public Router getRouter() {
         return this.wrappedSccpStack.getRouter();
@@ -42,7 +42,10 @@ import org.mobicents.protocols.ss7.oam.common.statistics.api.CounterDefSet;
 import org.mobicents.protocols.ss7.oam.common.statistics.api.CounterMediator;
 import org.mobicents.protocols.ss7.oam.common.statistics.api.CounterType;
 import org.mobicents.protocols.ss7.oam.common.statistics.api.SourceValueSet;
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
 import org.mobicents.protocols.ss7.statistics.api.LongValue;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitKeyType;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitRule;
 import org.mobicents.protocols.ss7.tcap.api.TCAPCounterProvider;
 import org.mobicents.protocols.ss7.tcap.api.TCAPProvider;
 import org.mobicents.protocols.ss7.tcap.api.TCAPStack;
@@ -200,6 +203,56 @@ public class TcapManagementJmx implements TcapManagementJmxMBean, CounterMediato
         return this.wrappedTCAPStack.getStatisticsEnabled();
     }
 
+    @Override
+    public void setUseTimerWheel(boolean val) throws Exception {
+        this.wrappedTCAPStack.setUseTimerWheel(val);
+    }
+
+    @Override
+    public boolean getUseTimerWheel() {
+        return this.wrappedTCAPStack.getUseTimerWheel();
+    }
+
+    @Override
+    public void setMessagePooling(boolean val) throws Exception {
+        this.wrappedTCAPStack.setMessagePooling(val);
+    }
+
+    @Override
+    public boolean getMessagePooling() {
+        return this.wrappedTCAPStack.getMessagePooling();
+    }
+
+    @Override
+    public void addRateLimitRule(int id, RateLimitKeyType keyType, String key, int maxRate, int burstSize) throws Exception {
+        this.wrappedTCAPStack.addRateLimitRule(id, keyType, key, maxRate, burstSize);
+    }
+
+    @Override
+    public void removeRateLimitRule(int id) throws Exception {
+        this.wrappedTCAPStack.removeRateLimitRule(id);
+    }
+
+    @Override
+    public RateLimitRule getRateLimitRule(int id) {
+        return this.wrappedTCAPStack.getRateLimitRule(id);
+    }
+
+    @Override
+    public RateLimitRule[] getRateLimitRules() {
+        return this.wrappedTCAPStack.getRateLimitRules();
+    }
+
+    @Override
+    public void setRateLimitSendAbort(boolean val) throws Exception {
+        this.wrappedTCAPStack.setRateLimitSendAbort(val);
+    }
+
+    @Override
+    public boolean getRateLimitSendAbort() {
+        return this.wrappedTCAPStack.getRateLimitSendAbort();
+    }
+
     // Statistics part
 
     @Override
@@ -296,6 +349,13 @@ public class TcapManagementJmx implements TcapManagementJmxMBean, CounterMediato
         cd = new CounterDefImpl(CounterType.ComplexValue, "IncomingRejectPerProblem", "An incoming Reject count per Problem");
         cds.addCounterDef(cd);
 
+        cd = new CounterDefImpl(CounterType.ComplexValue, "DialogsDurationPerApplicatioContextName",
+                "Released Dialogs duration percentiles per ApplicationContextNames (in milliseconds)");
+        cds.addCounterDef(cd);
+        cd = new CounterDefImpl(CounterType.ComplexValue, "InvokeResponseTimePerOperationCode",
+                "Invoke response time percentiles per OperationCodes (in microseconds)");
+        cds.addCounterDef(cd);
+
         lstCounters = lst;
     }
 
@@ -430,6 +490,10 @@ public class TcapManagementJmx implements TcapManagementJmxMBean, CounterMediato
                     svo = createComplexValue(cp.getOutgoingRejectPerProblem(campaignName));
                 } else if (cd.getCounterName().equals("IncomingRejectPerProblem")) {
                     svo = createComplexValue(cp.getIncomingRejectPerProblem(campaignName));
+                } else if (cd.getCounterName().equals("DialogsDurationPerApplicatioContextName")) {
+                    svo = createHistogramComplexValue(cp.getDialogsDurationPerApplicatioContextName(campaignName));
+                } else if (cd.getCounterName().equals("InvokeResponseTimePerOperationCode")) {
+                    svo = createHistogramComplexValue(cp.getInvokeResponseTimePerOperationCode(campaignName));
                 }
                 if (svo != null)
                     scs.addObject(svo);
@@ -464,6 +528,29 @@ public class TcapManagementJmx implements TcapManagementJmxMBean, CounterMediato
         return svo;
     }
 
+    /**
+     * A histogram is exposed as a set of complex values with keys "<key>:count", "<key>:p50", "<key>:p99", "<key>:p99.9" and
+     * "<key>:max"
+     */
+    private SourceValueObjectImpl createHistogramComplexValue(Map<String, HistogramValue> vv) {
+        SourceValueObjectImpl svo = null;
+        if (vv != null) {
+            svo = new SourceValueObjectImpl(this.getName(), 0);
+            ComplexValue[] vvv = new ComplexValue[vv.size() * 5];
+            int i1 = 0;
+            for (String s : vv.keySet()) {
+                HistogramValue hv = vv.get(s);
+                vvv[i1++] = new ComplexValueImpl(s + ":count", hv.getCount());
+                vvv[i1++] = new ComplexValueImpl(s + ":p50", hv.getValueAtPercentile(50));
+                vvv[i1++] = new ComplexValueImpl(s + ":p99", hv.getValueAtPercentile(99));
+                vvv[i1++] = new ComplexValueImpl(s + ":p99.9", hv.getValueAtPercentile(99.9));
+                vvv[i1++] = new ComplexValueImpl(s + ":max", hv.getMax());
+            }
+            svo.setComplexValue(vvv);
+        }
+        return svo;
+    }
+
     public enum TcapManagementType implements MBeanType {
         MANAGEMENT("Management");
 
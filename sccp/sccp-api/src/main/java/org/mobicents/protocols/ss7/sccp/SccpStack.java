@@ -219,6 +219,28 @@ public interface SccpStack {
      */
     void setReassemblyTimerDelay(int reassemblyTimerDelay);
 
+    /**
+     * Returns the count of segmented messages whose reassembly is in progress now
+     *
+     * @return
+     */
+    int getReassemblyInProgressCount();
+
+    /**
+     * Returns the count of segmented messages that have been successfully reassembled since the stack creation
+     *
+     * @return
+     */
+    long getReassemblyCompletedCount();
+
+    /**
+     * Returns the count of segmented message reassemblies that have been terminated by the reassembly timer since the stack
+     * creation
+     *
+     * @return
+     */
+    long getReassemblyExpiredCount();
+
     /**
      * Set the underlying MTP3 layer
      *
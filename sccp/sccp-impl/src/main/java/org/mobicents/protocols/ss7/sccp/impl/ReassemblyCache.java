@@ -0,0 +1,248 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mobicents.protocols.ss7.sccp.impl.SccpStackImpl.MessageReassemblyProcess;
+import org.mobicents.protocols.ss7.sccp.impl.message.SccpSegmentableMessageImpl;
+
+/**
+ * Store of segmented messages whose reassembly is in progress.
+ *
+ * Reassemblies are spread by (OPC, segmentation local reference) over independently locked shards. Every shard has a bounded
+ * capacity and its own hashed timing wheel of reassembly deadlines: a reassembly start or finish only links / unlinks an
+ * entry, no per-reassembly timer task is created. A single periodic task calls {@link #expire()} once per tick.
+ */
+public class ReassemblyCache {
+
+    public static final int DEFAULT_SHARD_COUNT = 16;
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    public static final long TICK_DURATION = 100;
+    // one wheel revolution (25.6 sec) is longer than the max reassembly timer value
+    private static final int WHEEL_SIZE = 256;
+
+    private final Shard[] shards;
+    private final int shardCapacity;
+    private final long startTime = System.nanoTime();
+
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong completedCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    /**
+     * @param shardCount count of shards, rounded up to a power of two
+     * @param capacity max count of simultaneous reassemblies
+     */
+    public ReassemblyCache(int shardCount, int capacity) {
+        int sc = 1;
+        while (sc < shardCount)
+            sc <<= 1;
+        this.shards = new Shard[sc];
+        for (int i = 0; i < sc; i++) {
+            this.shards[i] = new Shard();
+        }
+        this.shardCapacity = Math.max(1, (capacity + sc - 1) / sc);
+    }
+
+    private Shard shardFor(MessageReassemblyProcess key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return this.shards[h & (this.shards.length - 1)];
+    }
+
+    private long currentTick() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startTime) / TICK_DURATION;
+    }
+
+    /**
+     * Stores the first segment of a message
+     *
+     * @param delay reassembly timeout in milliseconds
+     * @return false if the cache is full and the reassembly can not be started
+     */
+    public boolean put(MessageReassemblyProcess key, SccpSegmentableMessageImpl msg, long delay) {
+        Shard shard = this.shardFor(key);
+        long deadline = this.currentTick() + Math.max(1, (delay + TICK_DURATION - 1) / TICK_DURATION);
+        synchronized (shard) {
+            Entry prev = shard.map.get(key);
+            if (prev == null && shard.map.size() >= this.shardCapacity)
+                return false;
+
+            // a deadline must never fall into an already passed wheel bucket
+            Entry e = new Entry(key, msg, Math.max(deadline, shard.lastTick + 1));
+            shard.map.put(key, e);
+            if (prev != null)
+                shard.unlink(prev);
+            else
+                this.size.incrementAndGet();
+            shard.link(e);
+            return true;
+        }
+    }
+
+    public SccpSegmentableMessageImpl get(MessageReassemblyProcess key) {
+        Shard shard = this.shardFor(key);
+        synchronized (shard) {
+            Entry e = shard.map.get(key);
+            return e != null ? e.msg : null;
+        }
+    }
+
+    /**
+     * Removes an unsuccessful reassembly
+     */
+    public SccpSegmentableMessageImpl remove(MessageReassemblyProcess key) {
+        Shard shard = this.shardFor(key);
+        synchronized (shard) {
+            Entry e = shard.map.remove(key);
+            if (e == null)
+                return null;
+            shard.unlink(e);
+            this.size.decrementAndGet();
+            return e.msg;
+        }
+    }
+
+    /**
+     * Removes a reassembly that has received its last segment
+     */
+    public SccpSegmentableMessageImpl complete(MessageReassemblyProcess key) {
+        SccpSegmentableMessageImpl msg = this.remove(key);
+        if (msg != null)
+            this.completedCount.incrementAndGet();
+        return msg;
+    }
+
+    /**
+     * Removes reassemblies whose timer has expired, segmentation of the returned messages is already cancelled
+     */
+    public List<SccpSegmentableMessageImpl> expire() {
+        long now = this.currentTick();
+        List<SccpSegmentableMessageImpl> res = null;
+        for (Shard shard : this.shards) {
+            synchronized (shard) {
+                if (shard.map.size() == 0) {
+                    shard.lastTick = now;
+                    continue;
+                }
+                long from = Math.max(shard.lastTick + 1, now - WHEEL_SIZE + 1);
+                for (long tick = from; tick <= now; tick++) {
+                    Entry e = shard.wheel[(int) (tick & (WHEEL_SIZE - 1))];
+                    while (e != null) {
+                        Entry next = e.next;
+                        if (e.deadline <= now) {
+                            shard.map.remove(e.key);
+                            shard.unlink(e);
+                            this.size.decrementAndGet();
+                            this.expiredCount.incrementAndGet();
+                            e.msg.cancelSegmentation();
+                            if (res == null)
+                                res = new ArrayList<SccpSegmentableMessageImpl>();
+                            res.add(e.msg);
+                        }
+                        e = next;
+                    }
+                }
+                shard.lastTick = now;
+            }
+        }
+        if (res == null)
+            return Collections.emptyList();
+        return res;
+    }
+
+    public void clear() {
+        for (Shard shard : this.shards) {
+            synchronized (shard) {
+                this.size.addAndGet(-shard.map.size());
+                shard.map.clear();
+                for (int i = 0; i < WHEEL_SIZE; i++) {
+                    shard.wheel[i] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return count of reassemblies in progress
+     */
+    public int size() {
+        return this.size.get();
+    }
+
+    public long getCompletedCount() {
+        return this.completedCount.get();
+    }
+
+    public long getExpiredCount() {
+        return this.expiredCount.get();
+    }
+
+    private static final class Entry {
+        private final MessageReassemblyProcess key;
+        private final SccpSegmentableMessageImpl msg;
+        private final long deadline;
+        private Entry prev;
+        private Entry next;
+
+        Entry(MessageReassemblyProcess key, SccpSegmentableMessageImpl msg, long deadline) {
+            this.key = key;
+            this.msg = msg;
+            this.deadline = deadline;
+        }
+    }
+
+    private final class Shard {
+        private final HashMap<MessageReassemblyProcess, Entry> map = new HashMap<MessageReassemblyProcess, Entry>();
+        private final Entry[] wheel = new Entry[WHEEL_SIZE];
+        private long lastTick = currentTick();
+
+        void link(Entry e) {
+            int idx = (int) (e.deadline & (WHEEL_SIZE - 1));
+            e.prev = null;
+            e.next = this.wheel[idx];
+            if (e.next != null)
+                e.next.prev = e;
+            this.wheel[idx] = e;
+        }
+
+        void unlink(Entry e) {
+            if (e.prev != null)
+                e.prev.next = e.next;
+            else
+                this.wheel[(int) (e.deadline & (WHEEL_SIZE - 1))] = e.next;
+            if (e.next != null)
+                e.next.prev = e.prev;
+            e.prev = null;
+            e.next = null;
+        }
+    }
+}
@@ -31,7 +31,6 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -151,7 +150,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
     protected FastMap<Integer, Mtp3UserPart> mtp3UserParts = new FastMap<Integer, Mtp3UserPart>();
     protected ScheduledExecutorService timerExecutors;
-    protected FastMap<MessageReassemblyProcess, SccpSegmentableMessageImpl> reassemplyCache = new FastMap<MessageReassemblyProcess, SccpSegmentableMessageImpl>();
+    protected ReassemblyCache reassemplyCache = new ReassemblyCache(ReassemblyCache.DEFAULT_SHARD_COUNT,
+            ReassemblyCache.DEFAULT_CAPACITY);
 
     // protected int localSpc;
     // protected int ni = 2;
@@ -355,6 +355,24 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         this.store();
     }
 
+    public int getReassemblyInProgressCount() {
+        return this.reassemplyCache.size();
+    }
+
+    public long getReassemblyCompletedCount() {
+        return this.reassemplyCache.getCompletedCount();
+    }
+
+    public long getReassemblyExpiredCount() {
+        return this.reassemplyCache.getExpiredCount();
+    }
+
+    protected void createTimerExecutors() {
+        this.timerExecutors = Executors.newScheduledThreadPool(1);
+        this.timerExecutors.scheduleAtFixedRate(new ReassemblyExpiryTask(), ReassemblyCache.TICK_DURATION,
+                ReassemblyCache.TICK_DURATION, TimeUnit.MILLISECONDS);
+    }
+
     public synchronized int newSegmentationLocalRef() {
         return ++this.segmentationLocalRef;
     }
@@ -413,7 +431,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         this.sccpManagement.start();
         logger.info("Starting MSU handler...");
 
-        this.timerExecutors = Executors.newScheduledThreadPool(1);
+        this.createTimerExecutors();
 
         for (FastMap.Entry<Integer, Mtp3UserPart> e = this.mtp3UserParts.head(), end = this.mtp3UserParts.tail(); (e = e
                 .getNext()) != end;) {
@@ -466,10 +484,8 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         this.router.stop();
 
-        synchronized (reassemplyCache) {
-            this.timerExecutors.shutdownNow();
-            reassemplyCache.clear();
-        }
+        this.timerExecutors.shutdownNow();
+        reassemplyCache.clear();
 
         this.store();
 
@@ -763,23 +779,25 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
                             // first segment
                             sgmMsg.setReceivedFirstSegment();
-                            MessageReassemblyProcess msp = new MessageReassemblyProcess(segm.getSegmentationLocalRef(),
-                                    sgmMsg.getCallingPartyAddress());
-                            synchronized (this.reassemplyCache) {
-                                this.reassemplyCache.put(msp, sgmMsg);
-                            }
+                            MessageReassemblyProcess msp = new MessageReassemblyProcess(mtp3Msg.getOpc(),
+                                    segm.getSegmentationLocalRef(), sgmMsg.getCallingPartyAddress());
                             sgmMsg.setMessageReassemblyProcess(msp);
-                            msp.startTimer();
+                            if (!this.reassemplyCache.put(msp, sgmMsg, this.reassemblyTimerDelay)) {
+                                if (logger.isEnabledFor(Level.WARN)) {
+                                    logger.warn(String
+                                            .format("Reassembly function failure: too many reassemblies are in progress (%d). SccpMessageSegment=%s",
+                                                    this.reassemplyCache.size(), msg));
+                                }
+                                sgmMsg.cancelSegmentation();
+                                this.sccpRoutingControl.sendSccpError(sgmMsg, ReturnCauseValue.CANNOT_REASEMBLE);
+                            }
                             return;
                         } else {
 
                             // nonfirst segment
-                            MessageReassemblyProcess msp = new MessageReassemblyProcess(segm.getSegmentationLocalRef(),
-                                    sgmMsg.getCallingPartyAddress());
-                            SccpSegmentableMessageImpl sgmMsgFst = null;
-                            synchronized (this.reassemplyCache) {
-                                sgmMsgFst = this.reassemplyCache.get(msp);
-                            }
+                            MessageReassemblyProcess msp = new MessageReassemblyProcess(mtp3Msg.getOpc(),
+                                    segm.getSegmentationLocalRef(), sgmMsg.getCallingPartyAddress());
+                            SccpSegmentableMessageImpl sgmMsgFst = this.reassemplyCache.get(msp);
                             if (sgmMsgFst == null) {
                                 // previous segments cache is not found -
                                 // discard a segment
@@ -792,12 +810,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
                             }
                             if (sgmMsgFst.getRemainingSegments() - 1 != segm.getRemainingSegments()) {
                                 // segments bad order
-                                synchronized (this.reassemplyCache) {
-                                    this.reassemplyCache.remove(msp);
-                                    MessageReassemblyProcess mspMain = sgmMsgFst.getMessageReassemblyProcess();
-                                    if (mspMain != null)
-                                        mspMain.stopTimer();
-                                }
+                                this.reassemplyCache.remove(msp);
                                 if (logger.isEnabledFor(Level.WARN)) {
                                     logger.warn(String
                                             .format("Reassembly function failure: when receiving a next segment message order is missing. SccpMessageSegment=%s",
@@ -809,12 +822,9 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
                             if (sgmMsgFst.getRemainingSegments() == 1) {
                                 // last segment
-                                synchronized (this.reassemplyCache) {
-                                    MessageReassemblyProcess mspMain = sgmMsgFst.getMessageReassemblyProcess();
-                                    if (mspMain != null)
-                                        mspMain.stopTimer();
-                                    this.reassemplyCache.remove(msp);
-                                }
+                                if (this.reassemplyCache.complete(msp) == null)
+                                    // the reassembly timer has just expired
+                                    return;
                                 if (sgmMsgFst.getRemainingSegments() != 1)
                                     return;
 
@@ -858,13 +868,16 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
         }
     }
 
-    public class MessageReassemblyProcess implements Runnable {
+    /**
+     * Reassembly identification: OPC, segmentation local reference and calling party address of the segments
+     */
+    public static class MessageReassemblyProcess {
+        private int opc;
         private int segmentationLocalRef;
         private SccpAddress callingPartyAddress;
 
-        private Future timer;
-
-        public MessageReassemblyProcess(int segmentationLocalRef, SccpAddress callingPartyAddress) {
+        public MessageReassemblyProcess(int opc, int segmentationLocalRef, SccpAddress callingPartyAddress) {
+            this.opc = opc;
             this.segmentationLocalRef = segmentationLocalRef;
             this.callingPartyAddress = callingPartyAddress;
         }
@@ -876,7 +889,7 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
             if (!(obj instanceof MessageReassemblyProcess))
                 return false;
             MessageReassemblyProcess x = (MessageReassemblyProcess) obj;
-            if (this.segmentationLocalRef != x.segmentationLocalRef)
+            if (this.segmentationLocalRef != x.segmentationLocalRef || this.opc != x.opc)
                 return false;
 
             if (this.callingPartyAddress == null || x.callingPartyAddress == null)
@@ -887,34 +900,22 @@ public class SccpStackImpl implements SccpStack, Mtp3UserPartListener {
 
         @Override
         public int hashCode() {
-            return this.segmentationLocalRef;
-        }
-
-        public void startTimer() {
-            this.timer = timerExecutors.schedule(this, reassemblyTimerDelay, TimeUnit.MILLISECONDS);
-        }
-
-        public void stopTimer() {
-            if (this.timer != null) {
-                this.timer.cancel(false);
-                this.timer = null;
-            }
+            return this.segmentationLocalRef * 31 + this.opc;
         }
+    }
 
+    private class ReassemblyExpiryTask implements Runnable {
         public void run() {
-            SccpSegmentableMessageImpl msg = null;
-            synchronized (reassemplyCache) {
-                msg = reassemplyCache.remove(this);
-                if (msg == null)
-                    return;
-
-                msg.cancelSegmentation();
-            }
-
             try {
-                sccpRoutingControl.sendSccpError(msg, ReturnCauseValue.CANNOT_REASEMBLE);
-            } catch (Exception e) {
-                logger.warn("IOException when sending an error message", e);
+                for (SccpSegmentableMessageImpl msg : reassemplyCache.expire()) {
+                    try {
+                        sccpRoutingControl.sendSccpError(msg, ReturnCauseValue.CANNOT_REASEMBLE);
+                    } catch (Exception e) {
+                        logger.warn("IOException when sending an error message", e);
+                    }
+                }
+            } catch (Throwable e) {
+                logger.error("Exception while processing reassembly timeouts", e);
             }
         }
     }
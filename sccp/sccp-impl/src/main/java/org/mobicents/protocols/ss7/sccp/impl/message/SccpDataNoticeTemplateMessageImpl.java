@@ -332,7 +332,7 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                     return new EncodingResultData(EncodingResult.ReturnFailure, null, null, ReturnCauseValue.SEG_NOT_SUPPORTED);
                 }
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLen + bf.length);
+                ExactSizeOutputStream out = new ExactSizeOutputStream(fieldsLen + bf.length);
 
                 if (isServiceMessage)
                     this.type = SccpMessage.MESSAGE_TYPE_UDTS;
@@ -384,7 +384,7 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
 
                 if (bf.length <= availLenX && bf.length <= sccpStackImpl.getZMarginXudtMessage()) {
                     // one segment
-                    ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenX + bf.length);
+                    ExactSizeOutputStream out = new ExactSizeOutputStream(fieldsLenX + bf.length);
 
                     out.write(this.type);
 
@@ -468,12 +468,39 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                                 sccpStackImpl.newSegmentationLocalRef());
                     }
 
+                    // the common header (fixed part, pointers, called and calling party addresses) and the optional part
+                    // are encoded once, every segment is then assembled by copying them into a single exactly sized array
+                    // together with its data slice; only the data pointer, the data length and the first octet of the
+                    // segmentation parameter differ between segments
+                    byte[] secondParam = this.getSecondParamaterData(removeSPC, sccpProtocolVersion);
+                    int headerLen = 1 + secondParam.length + 1 + 4 + 1 + cdp.length + 1 + cnp.length;
+                    byte[] header = new byte[headerLen];
+                    int pos = 0;
+                    header[pos++] = (byte) this.type;
+                    System.arraycopy(secondParam, 0, header, pos, secondParam.length);
+                    pos += secondParam.length;
+                    header[pos++] = (byte) this.hopCounter.getValue();
+                    // we have 4 pointers, cdp,cnp,data and optionalm, cdp starts after 4 octests than
+                    int optionalPointerPos = pos + 3;
+                    header[pos++] = 4;
+                    header[pos++] = (byte) (4 + cdp.length);
+                    header[pos++] = (byte) (4 + cdp.length + cnp.length);
+                    pos++; // optional part pointer, filled per segment
+                    header[pos++] = (byte) cdp.length;
+                    System.arraycopy(cdp, 0, header, pos, cdp.length);
+                    pos += cdp.length;
+                    header[pos++] = (byte) cnp.length;
+                    System.arraycopy(cnp, 0, header, pos, cnp.length);
+
+                    byte[] segmBuf = segmentation.encode(removeSPC, sccpProtocolVersion);
                     byte[] importanceBuf = null;
+                    int optionalLen = 2 + segmBuf.length + 1;
                     if (importance != null) {
                         importanceBuf = importance.encode(removeSPC, sccpProtocolVersion);
+                        optionalLen += 2 + importanceBuf.length;
                     }
 
-                    ArrayList<byte[]> res = new ArrayList<byte[]>();
+                    ArrayList<byte[]> res = new ArrayList<byte[]>(segmCount);
                     for (int num = 0; num < segmCount; num++) {
                         int fst = num * segmLen;
                         int last = fst + segmLen;
@@ -481,51 +508,34 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                             last = bf.length;
                         int mLen = last - fst;
 
-                        ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenXSegm + mLen);
-
-                        out.write(this.type);
-
-                        out.write(this.getSecondParamaterData(removeSPC, sccpProtocolVersion));
-                        out.write(this.hopCounter.getValue());
-
-                        // we have 4 pointers, cdp,cnp,data and optionalm, cdp starts after 4 octests than
-                        int len = 4;
-                        out.write(len);
-
-                        len += cdp.length;
-                        out.write(len);
-
-                        len += cnp.length;
-                        out.write(len);
-
-                        len += (mLen);
-                        out.write(len);
-
-                        out.write((byte) cdp.length);
-                        out.write(cdp);
-
-                        out.write((byte) cnp.length);
-                        out.write(cnp);
+                        byte[] out = new byte[headerLen + 1 + mLen + optionalLen];
+                        System.arraycopy(header, 0, out, 0, headerLen);
+                        out[optionalPointerPos] = (byte) (4 + cdp.length + cnp.length + mLen);
+                        pos = headerLen;
 
-                        out.write((byte) mLen);
-                        out.write(bf, fst, mLen);
+                        out[pos++] = (byte) mLen;
+                        System.arraycopy(bf, fst, out, pos, mLen);
+                        pos += mLen;
 
-                        out.write(Segmentation.PARAMETER_CODE);
+                        out[pos++] = (byte) Segmentation.PARAMETER_CODE;
                         segmentation.setRemainingSegments((byte) (segmentation.getRemainingSegments() - 1));
-                        byte[] b = segmentation.encode(removeSPC, sccpProtocolVersion);
-                        out.write(b.length);
-                        out.write(b);
+                        segmBuf[0] = (byte) ((segmBuf[0] & 0x40) | (segmentation.isFirstSegIndication() ? 0x80 : 0)
+                                | (segmentation.getRemainingSegments() & 0x0F));
+                        out[pos++] = (byte) segmBuf.length;
+                        System.arraycopy(segmBuf, 0, out, pos, segmBuf.length);
+                        pos += segmBuf.length;
                         segmentation.setFirstSegIndication(false);
 
                         if (importanceBuf != null) {
-                            out.write(Importance.PARAMETER_CODE);
-                            out.write(importanceBuf.length);
-                            out.write(importanceBuf);
+                            out[pos++] = (byte) Importance.PARAMETER_CODE;
+                            out[pos++] = (byte) importanceBuf.length;
+                            System.arraycopy(importanceBuf, 0, out, pos, importanceBuf.length);
+                            pos += importanceBuf.length;
                         }
 
-                        out.write(0x00);
+                        // the trailing end of optional parameters octet (0x00) is already zero in a new array
 
-                        res.add(out.toByteArray());
+                        res.add(out);
                     }
 
                     return new EncodingResultData(EncodingResult.Success, null, res, null);
@@ -555,7 +565,7 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
                     return new EncodingResultData(EncodingResult.ReturnFailure, null, null, ReturnCauseValue.SEG_FAILURE);
                 }
 
-                ByteArrayOutputStream out = new ByteArrayOutputStream(fieldsLenL + bf.length);
+                ExactSizeOutputStream out = new ExactSizeOutputStream(fieldsLenL + bf.length);
 
                 out.write(this.type);
 
@@ -624,4 +634,22 @@ public abstract class SccpDataNoticeTemplateMessageImpl extends SccpSegmentableM
         addressImpl.decode(buffer, factory, sccpProtocolVersion);
         return addressImpl;
     }
+
+    /**
+     * Output stream that is created with the exact size of the encoded message, so toByteArray() returns its buffer without
+     * copying it
+     */
+    private static final class ExactSizeOutputStream extends ByteArrayOutputStream {
+
+        ExactSizeOutputStream(int size) {
+            super(size);
+        }
+
+        @Override
+        public synchronized byte[] toByteArray() {
+            if (this.count == this.buf.length)
+                return this.buf;
+            return super.toByteArray();
+        }
+    }
 }
@@ -0,0 +1,204 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.sccp.LongMessageRule;
+import org.mobicents.protocols.ss7.sccp.Mtp3Destination;
+import org.mobicents.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+
+/**
+ * Immutable lookup index over a snapshot of Mtp3ServiceAccessPoints and LongMessageRules.
+ *
+ * DPC ranges of SAP destinations and long message rules are cut into non-overlapping segments, every segment keeps the list
+ * of ranges that cover it in the configuration (map iteration) order. A lookup is a binary search for the segment followed
+ * by the check of the few ranges that cover the DPC, so the result is the same as of the former linear scan. SAP ranges are
+ * additionally indexed per networkId, local point codes are kept in a sorted array.
+ *
+ * RouterImpl builds a new index every time SAPs, their destinations or long message rules are changed.
+ */
+final class Mtp3RoutingIndex {
+
+    private final DpcRangeIndex sapIndex;
+    private final Map<Integer, DpcRangeIndex> sapIndexByNetworkId = new HashMap<Integer, DpcRangeIndex>();
+    private final DpcRangeIndex longMessageRuleIndex;
+    private final int[] localSpcs;
+
+    Mtp3RoutingIndex(FastMap<Integer, Mtp3ServiceAccessPoint> saps, FastMap<Integer, LongMessageRule> longMessageRules) {
+        ArrayList<DpcRange> sapRanges = new ArrayList<DpcRange>();
+        Map<Integer, ArrayList<DpcRange>> sapRangesByNetworkId = new HashMap<Integer, ArrayList<DpcRange>>();
+        int[] spcs = new int[saps.size()];
+        int spcCount = 0;
+        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = saps.head(), end = saps.tail(); (e = e.getNext()) != end;) {
+            Mtp3ServiceAccessPoint sap = e.getValue();
+            spcs[spcCount++] = sap.getOpc();
+
+            ArrayList<DpcRange> lst = sapRangesByNetworkId.get(sap.getNetworkId());
+            if (lst == null) {
+                lst = new ArrayList<DpcRange>();
+                sapRangesByNetworkId.put(sap.getNetworkId(), lst);
+            }
+            for (Mtp3Destination dest : sap.getMtp3Destinations().values()) {
+                DpcRange range = new DpcRange(dest.getFirstDpc(), dest.getLastDpc(), sap, dest);
+                sapRanges.add(range);
+                lst.add(range);
+            }
+        }
+        this.sapIndex = new DpcRangeIndex(sapRanges);
+        for (Map.Entry<Integer, ArrayList<DpcRange>> e : sapRangesByNetworkId.entrySet()) {
+            this.sapIndexByNetworkId.put(e.getKey(), new DpcRangeIndex(e.getValue()));
+        }
+
+        ArrayList<DpcRange> lmrRanges = new ArrayList<DpcRange>();
+        for (FastMap.Entry<Integer, LongMessageRule> e = longMessageRules.head(), end = longMessageRules.tail(); (e = e
+                .getNext()) != end;) {
+            LongMessageRule rule = e.getValue();
+            lmrRanges.add(new DpcRange(rule.getFirstSpc(), rule.getLastSpc(), rule, null));
+        }
+        this.longMessageRuleIndex = new DpcRangeIndex(lmrRanges);
+
+        Arrays.sort(spcs);
+        this.localSpcs = spcs;
+    }
+
+    Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls) {
+        return findSap(this.sapIndex, dpc, sls);
+    }
+
+    Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls, int networkId) {
+        DpcRangeIndex index = this.sapIndexByNetworkId.get(networkId);
+        if (index == null)
+            return null;
+        return findSap(index, dpc, sls);
+    }
+
+    Mtp3ServiceAccessPoint findMtp3ServiceAccessPointForIncMes(int localPC, int remotePC) {
+        DpcRange[] ranges = this.sapIndex.find(remotePC);
+        for (int i = 0; i < ranges.length; i++) {
+            Mtp3ServiceAccessPoint sap = (Mtp3ServiceAccessPoint) ranges[i].owner;
+            if (sap.getOpc() == localPC)
+                return sap;
+        }
+        return null;
+    }
+
+    LongMessageRule findLongMessageRule(int dpc) {
+        DpcRange[] ranges = this.longMessageRuleIndex.find(dpc);
+        if (ranges.length == 0)
+            return null;
+        return (LongMessageRule) ranges[0].owner;
+    }
+
+    boolean spcIsLocal(int spc) {
+        return Arrays.binarySearch(this.localSpcs, spc) >= 0;
+    }
+
+    private static Mtp3ServiceAccessPoint findSap(DpcRangeIndex index, int dpc, int sls) {
+        DpcRange[] ranges = index.find(dpc);
+        for (int i = 0; i < ranges.length; i++) {
+            if (ranges[i].destination.match(dpc, sls))
+                return (Mtp3ServiceAccessPoint) ranges[i].owner;
+        }
+        return null;
+    }
+
+    private static final class DpcRange {
+        private final int first;
+        private final int last;
+        private final Object owner;
+        private final Mtp3Destination destination;
+
+        DpcRange(int first, int last, Object owner, Mtp3Destination destination) {
+            this.first = first;
+            this.last = last;
+            this.owner = owner;
+            this.destination = destination;
+        }
+    }
+
+    private static final class DpcRangeIndex {
+        private static final DpcRange[] EMPTY = new DpcRange[0];
+
+        // segment i covers [bounds[i], bounds[i + 1])
+        private final long[] bounds;
+        private final DpcRange[][] segments;
+
+        /**
+         * @param ranges ranges in the configuration order
+         */
+        DpcRangeIndex(ArrayList<DpcRange> ranges) {
+            long[] b = new long[ranges.size() * 2];
+            int cnt = 0;
+            for (DpcRange r : ranges) {
+                if (r.first > r.last)
+                    continue;
+                b[cnt++] = r.first;
+                b[cnt++] = (long) r.last + 1;
+            }
+            Arrays.sort(b, 0, cnt);
+            int uniq = 0;
+            for (int i = 0; i < cnt; i++) {
+                if (uniq == 0 || b[uniq - 1] != b[i])
+                    b[uniq++] = b[i];
+            }
+            this.bounds = Arrays.copyOf(b, uniq);
+
+            int segCount = Math.max(uniq - 1, 0);
+            ArrayList<ArrayList<DpcRange>> lst = new ArrayList<ArrayList<DpcRange>>(segCount);
+            for (int i = 0; i < segCount; i++) {
+                lst.add(new ArrayList<DpcRange>(1));
+            }
+            for (DpcRange r : ranges) {
+                if (r.first > r.last)
+                    continue;
+                int from = Arrays.binarySearch(this.bounds, r.first);
+                int to = Arrays.binarySearch(this.bounds, (long) r.last + 1);
+                for (int i = from; i < to; i++) {
+                    lst.get(i).add(r);
+                }
+            }
+            this.segments = new DpcRange[segCount][];
+            for (int i = 0; i < segCount; i++) {
+                this.segments[i] = lst.get(i).toArray(EMPTY);
+            }
+        }
+
+        /**
+         * @return ranges that cover the DPC in the configuration order
+         */
+        DpcRange[] find(int dpc) {
+            int i = Arrays.binarySearch(this.bounds, dpc);
+            if (i < 0)
+                i = -i - 2;
+            if (i < 0 || i >= this.segments.length)
+                return EMPTY;
+            return this.segments[i];
+        }
+    }
+}
@@ -208,10 +208,14 @@ public class RouterImpl implements Router {
     private final RuleComparator ruleComparator = new RuleComparator();
     // rule list
     private RuleMap<Integer, Rule> rulesMap = new RuleMap<Integer, Rule>();
+    // lookup index over rulesMap, rebuilt every time rulesMap is replaced
+    private volatile RuleIndex ruleIndex = new RuleIndex(rulesMap);
     private SccpAddressMap<Integer, SccpAddressImpl> routingAddresses = new SccpAddressMap<Integer, SccpAddressImpl>();
     // private SccpAddressMap<Integer, SccpAddress> backupAddresses = new SccpAddressMap<Integer, SccpAddress>();
     private LongMessageRuleMap<Integer, LongMessageRule> longMessageRules = new LongMessageRuleMap<Integer, LongMessageRule>();
     private Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint> saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+    // lookup index over saps and longMessageRules, rebuilt every time they are changed
+    private volatile Mtp3RoutingIndex mtp3RoutingIndex = new Mtp3RoutingIndex(saps, longMessageRules);
 
     private final String name;
     private final SccpStack sccpStack;
@@ -271,57 +275,23 @@ public class RouterImpl implements Router {
      * @return the rule with match to the called party address
      */
     public Rule findRule(SccpAddress calledParty, boolean isMtpOriginated, int msgNetworkId) {
-
-        for (FastMap.Entry<Integer, Rule> e = this.rulesMap.head(), end = this.rulesMap.tail(); (e = e.getNext()) != end;) {
-            Rule rule = e.getValue();
-            if (rule.matches(calledParty, isMtpOriginated, msgNetworkId)) {
-                return rule;
-            }
-        }
-        return null;
+        return this.ruleIndex.findRule(calledParty, isMtpOriginated, msgNetworkId);
     }
 
     public LongMessageRule findLongMessageRule(int dpc) {
-        for (FastMap.Entry<Integer, LongMessageRule> e = this.longMessageRules.head(), end = this.longMessageRules.tail(); (e = e
-                .getNext()) != end;) {
-            LongMessageRule rule = e.getValue();
-            if (rule.matches(dpc)) {
-                return rule;
-            }
-        }
-        return null;
+        return this.mtp3RoutingIndex.findLongMessageRule(dpc);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.matches(dpc, sls)) {
-                return sap;
-            }
-        }
-        return null;
+        return this.mtp3RoutingIndex.findMtp3ServiceAccessPoint(dpc, sls);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPoint(int dpc, int sls, int networkId) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.matches(dpc, sls)) {
-                if (sap.getNetworkId() == networkId) {
-                    return sap;
-                }
-            }
-        }
-        return null;
+        return this.mtp3RoutingIndex.findMtp3ServiceAccessPoint(dpc, sls, networkId);
     }
 
     public Mtp3ServiceAccessPoint findMtp3ServiceAccessPointForIncMes(int localPC, int remotePC) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getOpc() == localPC && sap.matches(remotePC)) {
-                return sap;
-            }
-        }
-        return null;
+        return this.mtp3RoutingIndex.findMtp3ServiceAccessPointForIncMes(localPC, remotePC);
     }
 
     public Rule getRule(int id) {
@@ -345,13 +315,7 @@ public class RouterImpl implements Router {
     }
 
     public boolean spcIsLocal(int spc) {
-        for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = this.saps.head(), end = this.saps.tail(); (e = e.getNext()) != end;) {
-            Mtp3ServiceAccessPoint sap = e.getValue();
-            if (sap.getOpc() == spc) {
-                return true;
-            }
-        }
-        return false;
+        return this.mtp3RoutingIndex.spcIsLocal(spc);
     }
 
     public Map<Integer, Rule> getRules() {
@@ -453,6 +417,7 @@ public class RouterImpl implements Router {
                 newRule.put(ruleTemp.getRuleId(), ruleTemp);
             }
             this.rulesMap = newRule;
+            this.ruleIndex = new RuleIndex(newRule);
             this.store();
         }
     }
@@ -525,6 +490,7 @@ public class RouterImpl implements Router {
                 newRule.put(ruleTemp.getRuleId(), ruleTemp);
             }
             this.rulesMap = newRule;
+            this.ruleIndex = new RuleIndex(newRule);
             this.store();
         }
     }
@@ -540,6 +506,7 @@ public class RouterImpl implements Router {
             newRule.putAll(this.rulesMap);
             newRule.remove(id);
             this.rulesMap = newRule;
+            this.ruleIndex = new RuleIndex(newRule);
             this.store();
         }
     }
@@ -643,6 +610,7 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
+            this.updateMtp3RoutingIndex();
             this.store();
         }
     }
@@ -659,6 +627,7 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.put(id, longMessageRule);
             this.longMessageRules = newLongMessageRule;
+            this.updateMtp3RoutingIndex();
             this.store();
         }
     }
@@ -674,6 +643,7 @@ public class RouterImpl implements Router {
             newLongMessageRule.putAll(this.longMessageRules);
             newLongMessageRule.remove(id);
             this.longMessageRules = newLongMessageRule;
+            this.updateMtp3RoutingIndex();
             this.store();
         }
     }
@@ -686,6 +656,7 @@ public class RouterImpl implements Router {
         }
         // TODO Synchronize??
         sap.addMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+        this.updateMtp3RoutingIndex();
         this.store();
     }
 
@@ -698,6 +669,7 @@ public class RouterImpl implements Router {
         }
         // TODO Synchronize??
         sap.modifyMtp3Destination(destId, firstDpc, lastDpc, firstSls, lastSls, slsMask);
+        this.updateMtp3RoutingIndex();
         this.store();
     }
 
@@ -709,6 +681,7 @@ public class RouterImpl implements Router {
         }
 
         sap.removeMtp3Destination(destId);
+        this.updateMtp3RoutingIndex();
         this.store();
     }
 
@@ -728,6 +701,7 @@ public class RouterImpl implements Router {
             newSap.putAll(this.saps);
             newSap.put(id, sap);
             this.saps = newSap;
+            this.updateMtp3RoutingIndex();
             this.store();
         }
     }
@@ -747,6 +721,7 @@ public class RouterImpl implements Router {
             newSap.putAll(this.saps);
             newSap.put(id, sap);
             this.saps = newSap;
+            this.updateMtp3RoutingIndex();
             this.store();
         }
     }
@@ -762,6 +737,7 @@ public class RouterImpl implements Router {
             newSap.putAll(this.saps);
             newSap.remove(id);
             this.saps = newSap;
+            this.updateMtp3RoutingIndex();
             this.store();
         }
     }
@@ -777,10 +753,12 @@ public class RouterImpl implements Router {
                 return;
 
             rulesMap = new RuleMap<Integer, Rule>();
+            ruleIndex = new RuleIndex(rulesMap);
             routingAddresses = new SccpAddressMap<Integer, SccpAddressImpl>();
             // backupAddresses = new SccpAddressMap<Integer, SccpAddress>();
             longMessageRules = new LongMessageRuleMap<Integer, LongMessageRule>();
             saps = new Mtp3ServiceAccessPointMap<Integer, Mtp3ServiceAccessPoint>();
+            this.updateMtp3RoutingIndex();
 
             // We store the cleared state
             this.store();
@@ -846,6 +824,14 @@ public class RouterImpl implements Router {
         } catch (IOException e) {
             logger.error(String.format("Failed to load the SS7 configuration file. \n%s", e.getMessage()));
         }
+
+        this.ruleIndex = new RuleIndex(this.rulesMap);
+        this.updateMtp3RoutingIndex();
+    }
+
+    private synchronized void updateMtp3RoutingIndex() {
+        // synchronized: the last rebuild always sees the latest configuration
+        this.mtp3RoutingIndex = new Mtp3RoutingIndex(this.saps, this.longMessageRules);
     }
 
     private void moveBackupToRoutingAddress(SccpAddressMap<Integer, SccpAddress> backupAddresses) {
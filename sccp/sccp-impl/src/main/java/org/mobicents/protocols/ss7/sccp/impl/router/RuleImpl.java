@@ -57,16 +57,13 @@ import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
  */
 public class RuleImpl implements Rule, Serializable {
 
-    private static final char CHAR_WILD_CARD_ALL = '*';
-    private static final char CHAR_WILD_CARD_SINGLE = '?';
-    private static final char CHAR_MASK_SEPARATOR = '/';
-
-    private static final String WILD_CARD_ALL = "*";
-    private static final String WILD_CARD_SINGLE = "?";
-    private static final String MASK_SEPARATOR = "/";
-    private static final String MASK_KEEP = "K";
-    private static final String MASK_REPLACE = "R";
-    private static final String MASK_IGNORE = "-";
+    static final char CHAR_WILD_CARD_ALL = '*';
+    static final char CHAR_WILD_CARD_SINGLE = '?';
+    static final char CHAR_MASK_SEPARATOR = '/';
+
+    static final String MASK_KEEP = "K";
+    static final String MASK_REPLACE = "R";
+    static final String MASK_IGNORE = "-";
     private static final String NETWORK_ID = "networkId";
 
     private static final Logger logger = Logger.getLogger(RuleImpl.class);
@@ -106,7 +103,11 @@ public class RuleImpl implements Rule, Serializable {
 
     private String mask = null;
 
-    private String[] maskPattern = null;
+    // compiled digits translation, built from mask and pattern digits in configure()
+    private transient volatile TranslationProgram translationProgram;
+    // the last compiled primary / secondary address digits
+    private transient volatile CompiledReplacement lastReplacement;
+    private transient volatile CompiledReplacement prevReplacement;
 
     public static final int MIN_SIGNIFICANT_SSN = 1;
     public static final int MAX_SIGNIFICANT_SSN = 255;
@@ -184,7 +185,9 @@ public class RuleImpl implements Rule, Serializable {
     }
 
     private void configure() {
-        this.maskPattern = this.mask.split("/");
+        this.translationProgram = null;
+        if (this.pattern != null && this.pattern.getGlobalTitle() != null && this.pattern.getGlobalTitle().getDigits() != null)
+            this.translationProgram = new TranslationProgram(this.mask, this.pattern.getGlobalTitle().getDigits());
     }
 
     public int getPrimaryAddressId() {
@@ -229,13 +232,18 @@ public class RuleImpl implements Rule, Serializable {
     public SccpAddress translate(SccpAddress address, SccpAddress ruleAddress) {
 
         String digits = address.getGlobalTitle().getDigits();
-        String patternDigits = pattern.getGlobalTitle().getDigits();
+
+        TranslationProgram program = this.translationProgram;
+        if (program == null) {
+            // a rule that has been deserialized by java serialization
+            program = new TranslationProgram(this.mask, pattern.getGlobalTitle().getDigits());
+            this.translationProgram = program;
+        }
 
         String primaryDigits = ruleAddress.getGlobalTitle().getDigits();
 
         // step #1. translate digits
-        String translatedDigits = translateDigits(digits, maskPattern, patternDigits.split(MASK_SEPARATOR),
-                primaryDigits.split(MASK_SEPARATOR));
+        String translatedDigits = program.translate(digits, this.getReplacement(primaryDigits));
         // step #2. translate global title
         GlobalTitle gt = null;
 
@@ -545,38 +553,22 @@ public class RuleImpl implements Rule, Serializable {
         return (MIN_SIGNIFICANT_SSN <= ssn && ssn <= MAX_SIGNIFICANT_SSN);
     }
 
-    private String translateDigits(String digits, String[] masks, String[] patternDigits, String[] addressDigits) {
-        StringBuffer translatedDigits = new StringBuffer();
-        String[] digitComponents = new String[patternDigits.length];
-        int offset = 0;
-        for (int count = 0; count < patternDigits.length; count++) {
-            if (patternDigits[count].equals(WILD_CARD_ALL)) {
-                digitComponents[count] = digits.substring(offset, digits.length());
-                break;
-            } else {
-                digitComponents[count] = digits.substring(offset, offset + patternDigits[count].length());
-            }
-            offset += patternDigits[count].length();
+    private String[] getReplacement(String addressDigits) {
+        // a rule is used with its primary and its secondary address, so two last compiled variants are kept
+        CompiledReplacement r = this.lastReplacement;
+        if (r != null && r.addressDigits.equals(addressDigits))
+            return r.segments;
+        CompiledReplacement p = this.prevReplacement;
+        if (p != null && p.addressDigits.equals(addressDigits)) {
+            this.prevReplacement = r;
+            this.lastReplacement = p;
+            return p.segments;
         }
 
-        for (int count = 0; count < patternDigits.length; count++) {
-            if (masks[count].equals(MASK_KEEP)) {
-                if (digitComponents[count] != null) {
-                    // Check if digits is null? This is possible if user
-                    // specified pattern like */5555 where all the digits are
-                    // consumed
-                    translatedDigits.append(digitComponents[count]);
-                }
-            } else if (masks[count].equals(MASK_REPLACE)) {
-                // If its not padding
-                if (!addressDigits[count].contains(MASK_IGNORE)) {
-                    translatedDigits.append(addressDigits[count]);
-                }
-            } else {
-                // TODO Throw exception or return original digits only?
-            }
-        }
-        return translatedDigits.toString();
+        CompiledReplacement n = new CompiledReplacement(addressDigits, TranslationProgram.compileReplacement(addressDigits));
+        this.prevReplacement = r;
+        this.lastReplacement = n;
+        return n.segments;
     }
 
     private boolean matchPattern(char[] digits, char[] pattern) {
@@ -722,4 +714,14 @@ public class RuleImpl implements Rule, Serializable {
 
         return buff.toString();
     }
+
+    private static final class CompiledReplacement {
+        private final String addressDigits;
+        private final String[] segments;
+
+        CompiledReplacement(String addressDigits, String[] segments) {
+            this.addressDigits = addressDigits;
+            this.segments = segments;
+        }
+    }
 }
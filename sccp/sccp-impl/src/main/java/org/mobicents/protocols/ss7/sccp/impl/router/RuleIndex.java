@@ -0,0 +1,286 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl.router;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.indicator.GlobalTitleIndicator;
+import org.mobicents.protocols.ss7.indicator.NatureOfAddress;
+import org.mobicents.protocols.ss7.indicator.NumberingPlan;
+import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.sccp.Rule;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle0001;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle0010;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle0011;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle0100;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * Immutable lookup index over a snapshot of GTT rules.
+ *
+ * Rules are partitioned by networkId, GT type and the GT fields that must be equal (TT / NP / NAI), inside a partition the
+ * rule pattern digits are compiled into a trie ('/' separators removed, '?' is a wildcard child, '*' ends the pattern). A
+ * lookup walks the trie with the called party digits and collects a small candidate set, candidates are then checked by
+ * {@link Rule#matches(SccpAddress, boolean, int)} in the rule priority order. So the result is always the same as the linear
+ * scan over the sorted rule map, but the cost no longer depends on the total rule count.
+ *
+ * A new index is built every time the rule map is replaced, the index itself is never modified.
+ */
+final class RuleIndex {
+
+    private static final int KIND_0001 = 1;
+    private static final int KIND_0010 = 2;
+    private static final int KIND_0011 = 3;
+    private static final int KIND_0100 = 4;
+
+    private static final int[] EMPTY = new int[0];
+
+    // rules in the priority (rule map iteration) order
+    private final Rule[] rules;
+    private final HashMap<Long, Node> partitions = new HashMap<Long, Node>();
+
+    RuleIndex(FastMap<Integer, Rule> rulesMap) {
+        this.rules = new Rule[rulesMap.size()];
+        int pos = 0;
+        for (FastMap.Entry<Integer, Rule> e = rulesMap.head(), end = rulesMap.tail(); (e = e.getNext()) != end;) {
+            Rule rule = e.getValue();
+            this.rules[pos] = rule;
+            this.addRule(rule, pos);
+            pos++;
+        }
+    }
+
+    int getRuleCount() {
+        return this.rules.length;
+    }
+
+    /**
+     * Looks up the first rule (in the priority order) that matches the called party address
+     */
+    Rule findRule(SccpAddress calledParty, boolean isMtpOriginated, int msgNetworkId) {
+        if (this.rules.length == 0)
+            return null;
+
+        // Rule is for GTT only
+        if (calledParty.getAddressIndicator().getRoutingIndicator() == RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN)
+            return null;
+
+        GlobalTitle gt = calledParty.getGlobalTitle();
+        long key;
+        GlobalTitleIndicator gti = calledParty.getAddressIndicator().getGlobalTitleIndicator();
+        switch (gti) {
+            case GLOBAL_TITLE_INCLUDES_NATURE_OF_ADDRESS_INDICATOR_ONLY:
+                key = partitionKey(msgNetworkId, KIND_0001, 0, null, ((GlobalTitle0001) gt).getNatureOfAddress());
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_ONLY:
+                key = partitionKey(msgNetworkId, KIND_0010, ((GlobalTitle0010) gt).getTranslationType(), null, null);
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_AND_ENCODING_SCHEME:
+                GlobalTitle0011 gt0011 = (GlobalTitle0011) gt;
+                key = partitionKey(msgNetworkId, KIND_0011, gt0011.getTranslationType(), gt0011.getNumberingPlan(), null);
+                break;
+            case GLOBAL_TITLE_INCLUDES_TRANSLATION_TYPE_NUMBERING_PLAN_ENCODING_SCHEME_AND_NATURE_OF_ADDRESS:
+                GlobalTitle0100 gt0100 = (GlobalTitle0100) gt;
+                key = partitionKey(msgNetworkId, KIND_0100, gt0100.getTranslationType(), gt0100.getNumberingPlan(),
+                        gt0100.getNatureOfAddress());
+                break;
+            default:
+                return null;
+        }
+
+        Node root = this.partitions.get(key);
+        if (root == null)
+            return null;
+
+        String digits = gt.getDigits();
+        if (digits == null) {
+            // can not be walked through the trie - leave the decision to the rules themselves
+            return this.findRuleLinear(calledParty, isMtpOriginated, msgNetworkId);
+        }
+
+        Candidates candidates = new Candidates();
+        collect(root, digits, 0, candidates);
+        if (candidates.size == 0)
+            return null;
+
+        int[] found = candidates.sorted();
+        int prev = -1;
+        for (int i = 0; i < found.length; i++) {
+            int pos = found[i];
+            if (pos == prev)
+                continue;
+            prev = pos;
+            Rule rule = this.rules[pos];
+            if (rule.matches(calledParty, isMtpOriginated, msgNetworkId))
+                return rule;
+        }
+        return null;
+    }
+
+    private Rule findRuleLinear(SccpAddress calledParty, boolean isMtpOriginated, int msgNetworkId) {
+        for (Rule rule : this.rules) {
+            if (rule.matches(calledParty, isMtpOriginated, msgNetworkId))
+                return rule;
+        }
+        return null;
+    }
+
+    private static void collect(Node node, String digits, int pos, Candidates candidates) {
+        // "*" patterns are taken at every reached node including the last one: RuleImpl matches "xxx/*" to "xxx" digits
+        candidates.add(node.starRules);
+        if (pos == digits.length()) {
+            candidates.add(node.endRules);
+            return;
+        }
+
+        Node child = node.child(digits.charAt(pos));
+        if (child != null)
+            collect(child, digits, pos + 1, candidates);
+        if (node.anyChild != null)
+            collect(node.anyChild, digits, pos + 1, candidates);
+    }
+
+    private void addRule(Rule rule, int pos) {
+        SccpAddress pattern = rule.getPattern();
+        if (pattern == null)
+            return;
+        GlobalTitle patternGT = pattern.getGlobalTitle();
+        if (patternGT == null || patternGT.getDigits() == null)
+            return;
+
+        // a rule whose pattern GT is of none of the types below never matches and so is not indexed
+        int networkId = rule.getNetworkId();
+        if (patternGT instanceof GlobalTitle0001) {
+            this.insert(partitionKey(networkId, KIND_0001, 0, null, ((GlobalTitle0001) patternGT).getNatureOfAddress()),
+                    patternGT.getDigits(), pos);
+        }
+        if (patternGT instanceof GlobalTitle0010) {
+            this.insert(partitionKey(networkId, KIND_0010, ((GlobalTitle0010) patternGT).getTranslationType(), null, null),
+                    patternGT.getDigits(), pos);
+        }
+        if (patternGT instanceof GlobalTitle0011) {
+            GlobalTitle0011 gt = (GlobalTitle0011) patternGT;
+            this.insert(partitionKey(networkId, KIND_0011, gt.getTranslationType(), gt.getNumberingPlan(), null),
+                    patternGT.getDigits(), pos);
+        }
+        if (patternGT instanceof GlobalTitle0100) {
+            GlobalTitle0100 gt = (GlobalTitle0100) patternGT;
+            this.insert(
+                    partitionKey(networkId, KIND_0100, gt.getTranslationType(), gt.getNumberingPlan(), gt.getNatureOfAddress()),
+                    patternGT.getDigits(), pos);
+        }
+    }
+
+    private void insert(long key, String patternDigits, int pos) {
+        Node node = this.partitions.get(key);
+        if (node == null) {
+            node = new Node();
+            this.partitions.put(key, node);
+        }
+
+        for (int i = 0; i < patternDigits.length(); i++) {
+            char c = patternDigits.charAt(i);
+            if (c == RuleImpl.CHAR_WILD_CARD_ALL) {
+                node.starRules = append(node.starRules, pos);
+                return;
+            } else if (c == RuleImpl.CHAR_WILD_CARD_SINGLE) {
+                if (node.anyChild == null)
+                    node.anyChild = new Node();
+                node = node.anyChild;
+            } else if (c != RuleImpl.CHAR_MASK_SEPARATOR) {
+                node = node.getOrCreateChild(c);
+            }
+        }
+        node.endRules = append(node.endRules, pos);
+    }
+
+    /**
+     * TT, NP and NAI are packed into the low 32 bits. Out of range values may share a partition which only widens the candidate
+     * set, the final decision is always made by Rule.matches().
+     */
+    private static long partitionKey(int networkId, int kind, int tt, NumberingPlan np, NatureOfAddress nai) {
+        int npVal = np == null ? 0 : (np.getValue() + 1) & 0xFF;
+        int naiVal = nai == null ? 0 : (nai.getValue() + 1) & 0xFF;
+        return ((long) networkId << 32) | ((long) kind << 24) | ((tt & 0xFF) << 16) | (npVal << 8) | naiVal;
+    }
+
+    private static int[] append(int[] arr, int val) {
+        int[] res = Arrays.copyOf(arr, arr.length + 1);
+        res[arr.length] = val;
+        return res;
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private Node anyChild;
+        private int[] starRules = EMPTY;
+        private int[] endRules = EMPTY;
+
+        Node child(char c) {
+            char[] k = this.keys;
+            for (int i = 0; i < k.length; i++) {
+                if (k[i] == c)
+                    return this.children[i];
+            }
+            return null;
+        }
+
+        Node getOrCreateChild(char c) {
+            Node n = this.child(c);
+            if (n == null) {
+                n = new Node();
+                int len = this.keys.length;
+                this.keys = Arrays.copyOf(this.keys, len + 1);
+                this.children = Arrays.copyOf(this.children, len + 1);
+                this.keys[len] = c;
+                this.children[len] = n;
+            }
+            return n;
+        }
+    }
+
+    private static final class Candidates {
+        private int[] data = EMPTY;
+        private int size;
+
+        void add(int[] positions) {
+            if (positions.length == 0)
+                return;
+            if (this.size + positions.length > this.data.length)
+                this.data = Arrays.copyOf(this.data, Math.max(8, (this.size + positions.length) * 2));
+            System.arraycopy(positions, 0, this.data, this.size, positions.length);
+            this.size += positions.length;
+        }
+
+        int[] sorted() {
+            int[] res = Arrays.copyOf(this.data, this.size);
+            Arrays.sort(res);
+            return res;
+        }
+    }
+}
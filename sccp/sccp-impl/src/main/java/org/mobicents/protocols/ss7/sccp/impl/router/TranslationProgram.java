@@ -0,0 +1,185 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl.router;
+
+import java.util.ArrayList;
+
+/**
+ * GT digits translation of a rule compiled from the rule mask and the pattern digits.
+ *
+ * The pattern and the mask are split into "/" separated segments once, when the rule is configured. Every translation then
+ * only copies the kept address digit ranges and the replacement segments into a per-thread char buffer. The result is
+ * identical to the former String.split() based translation, including the behavior for malformed rules.
+ */
+final class TranslationProgram {
+
+    private static final int OP_NONE = 0;
+    private static final int OP_KEEP = 1;
+    private static final int OP_REPLACE = 2;
+    private static final int OP_NO_MASK = 3;
+
+    private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<char[]>() {
+        protected char[] initialValue() {
+            return new char[32];
+        }
+    };
+
+    // length of every pattern segment
+    private final int[] segmentLength;
+    // index of the first "*" segment or segmentLength.length if none
+    private final int wildcardSegment;
+    private final int[] ops;
+
+    TranslationProgram(String mask, String patternDigits) {
+        String[] masks = split(mask);
+        String[] segments = split(patternDigits);
+
+        this.segmentLength = new int[segments.length];
+        this.ops = new int[segments.length];
+        int wildcard = segments.length;
+        for (int i = 0; i < segments.length; i++) {
+            this.segmentLength[i] = segments[i].length();
+            if (wildcard == segments.length && segments[i].length() == 1
+                    && segments[i].charAt(0) == RuleImpl.CHAR_WILD_CARD_ALL)
+                wildcard = i;
+
+            if (i >= masks.length)
+                this.ops[i] = OP_NO_MASK;
+            else if (masks[i].equals(RuleImpl.MASK_KEEP))
+                this.ops[i] = OP_KEEP;
+            else if (masks[i].equals(RuleImpl.MASK_REPLACE))
+                this.ops[i] = OP_REPLACE;
+            else
+                this.ops[i] = OP_NONE;
+        }
+        this.wildcardSegment = wildcard;
+    }
+
+    /**
+     * Splits primary / secondary address digits into replacement segments, a segment that contains the padding "-" is
+     * stored as null
+     */
+    static String[] compileReplacement(String addressDigits) {
+        String[] res = split(addressDigits);
+        for (int i = 0; i < res.length; i++) {
+            if (res[i].contains(RuleImpl.MASK_IGNORE))
+                res[i] = null;
+        }
+        return res;
+    }
+
+    /**
+     * @param digits called party address digits
+     * @param replacement the result of {@link #compileReplacement(String)} for the rule address digits
+     */
+    String translate(String digits, String[] replacement) {
+        int len = digits.length();
+        int segCount = this.segmentLength.length;
+
+        // all address digit ranges are checked before anything is written
+        int offset = 0;
+        for (int i = 0; i < segCount; i++) {
+            if (i == this.wildcardSegment) {
+                if (offset > len)
+                    throw new StringIndexOutOfBoundsException(len - offset);
+                break;
+            }
+            offset += this.segmentLength[i];
+            if (offset > len)
+                throw new StringIndexOutOfBoundsException(offset);
+        }
+
+        char[] buf = BUFFER.get();
+        int pos = 0;
+        offset = 0;
+        for (int i = 0; i < segCount; i++) {
+            int start = offset;
+            int end;
+            if (i < this.wildcardSegment) {
+                end = offset + this.segmentLength[i];
+                offset = end;
+            } else if (i == this.wildcardSegment) {
+                end = len;
+            } else {
+                // all digits are consumed by the "*" segment
+                end = -1;
+            }
+
+            switch (this.ops[i]) {
+                case OP_KEEP:
+                    if (end >= 0) {
+                        buf = ensureCapacity(buf, pos + end - start);
+                        digits.getChars(start, end, buf, pos);
+                        pos += end - start;
+                    }
+                    break;
+                case OP_REPLACE:
+                    if (i >= replacement.length)
+                        throw new ArrayIndexOutOfBoundsException(i);
+                    String s = replacement[i];
+                    if (s != null) {
+                        buf = ensureCapacity(buf, pos + s.length());
+                        s.getChars(0, s.length(), buf, pos);
+                        pos += s.length();
+                    }
+                    break;
+                case OP_NO_MASK:
+                    throw new ArrayIndexOutOfBoundsException(i);
+            }
+        }
+        return new String(buf, 0, pos);
+    }
+
+    private static char[] ensureCapacity(char[] buf, int size) {
+        if (size <= buf.length)
+            return buf;
+        char[] res = new char[Math.max(size, buf.length * 2)];
+        System.arraycopy(buf, 0, res, 0, buf.length);
+        BUFFER.set(res);
+        return res;
+    }
+
+    /**
+     * The same result as String.split("/"): trailing empty segments are removed
+     */
+    static String[] split(String s) {
+        if (s.indexOf(RuleImpl.CHAR_MASK_SEPARATOR) < 0)
+            return new String[] { s };
+
+        ArrayList<String> res = new ArrayList<String>();
+        int start = 0;
+        while (true) {
+            int i = s.indexOf(RuleImpl.CHAR_MASK_SEPARATOR, start);
+            if (i < 0) {
+                res.add(s.substring(start));
+                break;
+            }
+            res.add(s.substring(start, i));
+            start = i + 1;
+        }
+        int size = res.size();
+        while (size > 0 && res.get(size - 1).length() == 0)
+            size--;
+        return res.subList(0, size).toArray(new String[size]);
+    }
+}
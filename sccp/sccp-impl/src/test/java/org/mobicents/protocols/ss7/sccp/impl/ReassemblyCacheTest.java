@@ -0,0 +1,119 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+
+import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.sccp.impl.SccpStackImpl.MessageReassemblyProcess;
+import org.mobicents.protocols.ss7.sccp.impl.message.SccpDataMessageImpl;
+import org.mobicents.protocols.ss7.sccp.impl.message.SccpSegmentableMessageImpl;
+import org.mobicents.protocols.ss7.sccp.impl.parameter.SccpAddressImpl;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.testng.annotations.Test;
+
+public class ReassemblyCacheTest {
+
+    private SccpAddress addr1 = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 1, 8);
+    private SccpAddress addr2 = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 8);
+
+    private SccpSegmentableMessageImpl createMessage() {
+        return new SccpDataMessageImpl(255, 0x11, 1, 2, 0, 0) {
+        };
+    }
+
+    @Test(groups = { "functional" })
+    public void testPutGetRemove() throws Exception {
+        ReassemblyCache cache = new ReassemblyCache(4, 100);
+        SccpSegmentableMessageImpl m1 = createMessage();
+        SccpSegmentableMessageImpl m2 = createMessage();
+        SccpSegmentableMessageImpl m3 = createMessage();
+
+        assertTrue(cache.put(new MessageReassemblyProcess(1, 10, addr1), m1, 10000));
+        assertTrue(cache.put(new MessageReassemblyProcess(2, 10, addr1), m2, 10000));
+        assertTrue(cache.put(new MessageReassemblyProcess(1, 10, addr2), m3, 10000));
+        assertEquals(cache.size(), 3);
+
+        assertSame(cache.get(new MessageReassemblyProcess(1, 10, addr1)), m1);
+        assertSame(cache.get(new MessageReassemblyProcess(2, 10, addr1)), m2);
+        assertSame(cache.get(new MessageReassemblyProcess(1, 10, addr2)), m3);
+        assertNull(cache.get(new MessageReassemblyProcess(1, 11, addr1)));
+
+        assertSame(cache.complete(new MessageReassemblyProcess(1, 10, addr1)), m1);
+        assertNull(cache.complete(new MessageReassemblyProcess(1, 10, addr1)));
+        assertSame(cache.remove(new MessageReassemblyProcess(2, 10, addr1)), m2);
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.getCompletedCount(), 1);
+        assertEquals(cache.getExpiredCount(), 0);
+
+        cache.clear();
+        assertEquals(cache.size(), 0);
+        assertNull(cache.get(new MessageReassemblyProcess(1, 10, addr2)));
+    }
+
+    @Test(groups = { "functional" })
+    public void testCapacity() throws Exception {
+        ReassemblyCache cache = new ReassemblyCache(1, 3);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cache.put(new MessageReassemblyProcess(1, i, addr1), createMessage(), 10000));
+        }
+        assertFalse(cache.put(new MessageReassemblyProcess(1, 3, addr1), createMessage(), 10000));
+        // the same reassembly can be restarted
+        assertTrue(cache.put(new MessageReassemblyProcess(1, 2, addr1), createMessage(), 10000));
+        assertEquals(cache.size(), 3);
+
+        cache.remove(new MessageReassemblyProcess(1, 0, addr1));
+        assertTrue(cache.put(new MessageReassemblyProcess(1, 3, addr1), createMessage(), 10000));
+    }
+
+    @Test(groups = { "functional.timeout" })
+    public void testExpiry() throws Exception {
+        ReassemblyCache cache = new ReassemblyCache(4, 100);
+        SccpSegmentableMessageImpl m1 = createMessage();
+        SccpSegmentableMessageImpl m2 = createMessage();
+        SccpSegmentableMessageImpl m3 = createMessage();
+        cache.put(new MessageReassemblyProcess(1, 1, addr1), m1, 300);
+        cache.put(new MessageReassemblyProcess(1, 2, addr1), m2, 300);
+        cache.put(new MessageReassemblyProcess(1, 3, addr1), m3, 3000);
+        assertSame(cache.complete(new MessageReassemblyProcess(1, 2, addr1)), m2);
+
+        assertEquals(cache.expire().size(), 0);
+        Thread.sleep(600);
+
+        List<SccpSegmentableMessageImpl> expired = cache.expire();
+        assertEquals(expired.size(), 1);
+        assertSame(expired.get(0), m1);
+        assertEquals(m1.getRemainingSegments(), -1);
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.getExpiredCount(), 1);
+        assertEquals(cache.getCompletedCount(), 1);
+        assertNull(cache.get(new MessageReassemblyProcess(1, 1, addr1)));
+        assertSame(cache.get(new MessageReassemblyProcess(1, 3, addr1)), m3);
+    }
+}
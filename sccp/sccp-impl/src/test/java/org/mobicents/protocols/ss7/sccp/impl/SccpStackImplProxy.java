@@ -24,7 +24,6 @@ package org.mobicents.protocols.ss7.sccp.impl;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.concurrent.Executors;
 
 import javolution.util.FastMap;
 
@@ -90,7 +89,7 @@ public class SccpStackImplProxy extends SccpStackImpl {
         this.sccpManagement.start();
         // layer3exec.execute(new MtpStreamHandler());
 
-        this.timerExecutors = Executors.newScheduledThreadPool(1);
+        this.createTimerExecutors();
 
         for (FastMap.Entry<Integer, Mtp3UserPart> e = this.mtp3UserParts.head(), end = this.mtp3UserParts.tail(); (e = e
                 .getNext()) != end;) {
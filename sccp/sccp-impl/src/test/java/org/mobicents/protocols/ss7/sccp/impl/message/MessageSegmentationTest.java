@@ -28,7 +28,10 @@ import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.apache.log4j.Logger;
 import org.mobicents.protocols.ss7.Util;
@@ -49,6 +52,7 @@ import org.mobicents.protocols.ss7.sccp.parameter.Importance;
 import org.mobicents.protocols.ss7.sccp.parameter.ReturnCause;
 import org.mobicents.protocols.ss7.sccp.parameter.ReturnCauseValue;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.sccp.parameter.Segmentation;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
@@ -290,6 +294,151 @@ public class MessageSegmentationTest {
 
     }
 
+    @Test(groups = { "SccpMessage", "functional.encode" })
+    public void testEncodeSegmentsAsBefore() throws Exception {
+        GlobalTitle gt = stack.getSccpProvider().getParameterFactory().createGlobalTitle("1111114444444444", 3,
+                NumberingPlan.ISDN_TELEPHONY, BCDEvenEncodingScheme.INSTANCE, NatureOfAddress.INTERNATIONAL);
+        SccpAddress gtAdr = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt, 0, 8);
+        SccpAddress pcAdr = new SccpAddressImpl(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null, 2, 8);
+        Importance imp = new ImportanceImpl((byte) 3);
+
+        byte[] data = new byte[2000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i * 7);
+        }
+
+        int[] dataLens = new int[] { 250, 600, 1100, 2000 };
+        for (int dataLen : dataLens) {
+            byte[] bf = new byte[dataLen];
+            System.arraycopy(data, 0, bf, 0, dataLen);
+            for (int i1 = 0; i1 < 8; i1++) {
+                boolean withImportance = (i1 & 1) != 0;
+                boolean gtAddresses = (i1 & 2) != 0;
+                boolean notice = (i1 & 4) != 0;
+                SccpAddress cdp = gtAddresses ? gtAdr : pcAdr;
+                SccpAddress cnp = gtAddresses ? gtAdr : pcAdr;
+
+                SccpDataNoticeTemplateMessageImpl msg;
+                if (notice) {
+                    msg = (SccpDataNoticeTemplateMessageImpl) messageFactory.createNoticeMessage(SccpMessage.MESSAGE_TYPE_XUDT,
+                            new ReturnCauseImpl(ReturnCauseValue.SEG_FAILURE), cdp, cnp, bf, null,
+                            withImportance ? imp : null);
+                } else {
+                    msg = (SccpDataNoticeTemplateMessageImpl) messageFactory.createDataMessageClass1(cdp, cnp, bf, 0, 8, true,
+                            null, withImportance ? imp : null);
+                }
+
+                EncodingResultData res = msg.encode(stack, LongMessageRuleType.XUDT_ENABLED, 272, logger, false,
+                        SccpProtocolVersion.ITU);
+                assertEquals(res.getEncodingResult(), EncodingResult.Success);
+                List<byte[]> segments = res.getSegementedData();
+                assertNotNull(segments);
+                assertTrue(segments.size() > 1);
+
+                List<byte[]> expected = encodeSegmentsAsBefore(msg, bf, 272);
+                assertEquals(segments.size(), expected.size());
+                for (int i = 0; i < segments.size(); i++) {
+                    assertTrue(Arrays.equals(segments.get(i), expected.get(i)), "dataLen=" + dataLen + ", case=" + i1
+                            + ", segment=" + i);
+                }
+
+                // decoding back: data slices give the original data, segmentation fields are consistent
+                ByteArrayOutputStream received = new ByteArrayOutputStream();
+                for (int i = 0; i < segments.size(); i++) {
+                    ByteArrayInputStream in = new ByteArrayInputStream(segments.get(i));
+                    int type = in.read();
+                    assertEquals(type, notice ? SccpMessage.MESSAGE_TYPE_XUDTS : SccpMessage.MESSAGE_TYPE_XUDT);
+                    SccpSegmentableMessageImpl segm = (SccpSegmentableMessageImpl) messageFactory.createMessage(type, 1, 2, 0,
+                            in, SccpProtocolVersion.ITU, 0);
+                    Segmentation sg = segm.getSegmentation();
+                    assertEquals(sg.isFirstSegIndication(), i == 0);
+                    assertEquals(sg.getRemainingSegments(), segments.size() - i - 1);
+                    assertEquals(sg.getSegmentationLocalRef(), msg.getSegmentation().getSegmentationLocalRef());
+                    received.write(segm.getData());
+                }
+                assertTrue(Arrays.equals(received.toByteArray(), bf));
+            }
+        }
+    }
+
+    /**
+     * Segmented XUDT / XUDTS encoding as it was done before the common header was encoded once: every segment is written
+     * field by field into its own stream
+     */
+    private List<byte[]> encodeSegmentsAsBefore(SccpDataNoticeTemplateMessageImpl msg, byte[] bf, int maxMtp3UserDataLength)
+            throws Exception {
+        byte[] cdp = ((SccpAddressImpl) msg.getCalledPartyAddress()).encode(false, SccpProtocolVersion.ITU);
+        byte[] cnp = ((SccpAddressImpl) msg.getCallingPartyAddress()).encode(false, SccpProtocolVersion.ITU);
+
+        int fieldsLen2 = MessageUtil.calculateXudtFieldsLengthWithoutData2(cdp.length, cnp.length);
+        int fieldsLenXSegm = MessageUtil.calculateXudtFieldsLengthWithoutData(cdp.length, cnp.length, true,
+                msg.getImportance() != null);
+        int availLenXSegm = maxMtp3UserDataLength - fieldsLenXSegm;
+        if (availLenXSegm > fieldsLen2)
+            availLenXSegm = fieldsLen2;
+        int segmLen;
+        if (bf.length <= stack.getZMarginXudtMessage() * 16)
+            segmLen = stack.getZMarginXudtMessage();
+        else
+            segmLen = availLenXSegm;
+        if (segmLen > availLenXSegm)
+            segmLen = availLenXSegm;
+        int segmCount = (bf.length - 1) / segmLen + 1;
+
+        SegmentationImpl segmentation = new SegmentationImpl(true, msg.getSegmentation().isClass1Selected(), (byte) segmCount,
+                msg.getSegmentation().getSegmentationLocalRef());
+        byte[] importanceBuf = null;
+        if (msg.getImportance() != null)
+            importanceBuf = ((ImportanceImpl) msg.getImportance()).encode(false, SccpProtocolVersion.ITU);
+
+        ArrayList<byte[]> res = new ArrayList<byte[]>();
+        for (int num = 0; num < segmCount; num++) {
+            int fst = num * segmLen;
+            int last = fst + segmLen;
+            if (last > bf.length)
+                last = bf.length;
+            int mLen = last - fst;
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            out.write(msg.getType());
+            out.write(msg.getSecondParamaterData(false, SccpProtocolVersion.ITU));
+            out.write(msg.getHopCounter().getValue());
+
+            int len = 4;
+            out.write(len);
+            len += cdp.length;
+            out.write(len);
+            len += cnp.length;
+            out.write(len);
+            len += mLen;
+            out.write(len);
+
+            out.write((byte) cdp.length);
+            out.write(cdp);
+            out.write((byte) cnp.length);
+            out.write(cnp);
+            out.write((byte) mLen);
+            out.write(bf, fst, mLen);
+
+            out.write(Segmentation.PARAMETER_CODE);
+            segmentation.setRemainingSegments((byte) (segmentation.getRemainingSegments() - 1));
+            byte[] b = segmentation.encode(false, SccpProtocolVersion.ITU);
+            out.write(b.length);
+            out.write(b);
+            segmentation.setFirstSegIndication(false);
+
+            if (importanceBuf != null) {
+                out.write(Importance.PARAMETER_CODE);
+                out.write(importanceBuf.length);
+                out.write(importanceBuf);
+            }
+            out.write(0x00);
+
+            res.add(out.toByteArray());
+        }
+        return res;
+    }
+
     private byte[] getEncodedSegmentation() {
         return new byte[] { -127, -96, -122, 1 };
     }
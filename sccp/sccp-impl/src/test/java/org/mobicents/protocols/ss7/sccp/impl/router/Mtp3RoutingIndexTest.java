@@ -0,0 +1,146 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl.router;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.util.Random;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.sccp.LongMessageRule;
+import org.mobicents.protocols.ss7.sccp.LongMessageRuleType;
+import org.mobicents.protocols.ss7.sccp.Mtp3ServiceAccessPoint;
+import org.testng.annotations.Test;
+
+public class Mtp3RoutingIndexTest {
+
+    @Test(groups = { "router", "functional" })
+    public void testLookups() throws Exception {
+        FastMap<Integer, Mtp3ServiceAccessPoint> saps = new FastMap<Integer, Mtp3ServiceAccessPoint>();
+        Mtp3ServiceAccessPointImpl sap1 = new Mtp3ServiceAccessPointImpl(1, 1, 2, "test", 0);
+        sap1.addMtp3Destination(1, 101, 110, 0, 255, 255);
+        sap1.addMtp3Destination(2, 200, 200, 0, 7, 255);
+        Mtp3ServiceAccessPointImpl sap2 = new Mtp3ServiceAccessPointImpl(1, 2, 2, "test", 1);
+        sap2.addMtp3Destination(1, 100, 300, 0, 255, 255);
+        saps.put(1, sap1);
+        saps.put(2, sap2);
+
+        FastMap<Integer, LongMessageRule> lmrs = new FastMap<Integer, LongMessageRule>();
+        LongMessageRuleImpl lmr1 = new LongMessageRuleImpl(1, 50, LongMessageRuleType.LONG_MESSAGE_FORBBIDEN);
+        LongMessageRuleImpl lmr2 = new LongMessageRuleImpl(20, 100, LongMessageRuleType.XUDT_ENABLED);
+        lmrs.put(1, lmr1);
+        lmrs.put(2, lmr2);
+
+        Mtp3RoutingIndex index = new Mtp3RoutingIndex(saps, lmrs);
+
+        assertSame(index.findMtp3ServiceAccessPoint(105, 3), sap1);
+        assertSame(index.findMtp3ServiceAccessPoint(200, 3), sap1);
+        assertSame(index.findMtp3ServiceAccessPoint(200, 8), sap2);
+        assertSame(index.findMtp3ServiceAccessPoint(111, 0), sap2);
+        assertNull(index.findMtp3ServiceAccessPoint(99, 0));
+        assertNull(index.findMtp3ServiceAccessPoint(301, 0));
+        assertSame(index.findMtp3ServiceAccessPoint(105, 3, 1), sap2);
+        assertNull(index.findMtp3ServiceAccessPoint(111, 3, 0));
+        assertNull(index.findMtp3ServiceAccessPoint(105, 3, 2));
+
+        assertSame(index.findMtp3ServiceAccessPointForIncMes(1, 105), sap1);
+        assertSame(index.findMtp3ServiceAccessPointForIncMes(2, 105), sap2);
+        assertNull(index.findMtp3ServiceAccessPointForIncMes(1, 150));
+
+        assertTrue(index.spcIsLocal(1));
+        assertTrue(index.spcIsLocal(2));
+        assertFalse(index.spcIsLocal(3));
+
+        assertSame(index.findLongMessageRule(30), lmr1);
+        assertSame(index.findLongMessageRule(70), lmr2);
+        assertNull(index.findLongMessageRule(0));
+        assertNull(index.findLongMessageRule(101));
+    }
+
+    @Test(groups = { "router", "functional" })
+    public void testSameAsLinearScan() throws Exception {
+        Random rnd = new Random(3456789);
+        for (int round = 0; round < 20; round++) {
+            FastMap<Integer, Mtp3ServiceAccessPoint> saps = new FastMap<Integer, Mtp3ServiceAccessPoint>();
+            int sapCount = 1 + rnd.nextInt(30);
+            for (int i = 0; i < sapCount; i++) {
+                Mtp3ServiceAccessPointImpl sap = new Mtp3ServiceAccessPointImpl(1, rnd.nextInt(20), 2, "test", rnd.nextInt(3));
+                int destCount = rnd.nextInt(4);
+                for (int j = 0; j < destCount; j++) {
+                    int first = rnd.nextInt(1000);
+                    int firstSls = rnd.nextInt(16);
+                    sap.addMtp3Destination(j, first, first + rnd.nextInt(100) - 5, firstSls, firstSls + rnd.nextInt(16),
+                            rnd.nextBoolean() ? 255 : 7);
+                }
+                saps.put(i, sap);
+            }
+            FastMap<Integer, LongMessageRule> lmrs = new FastMap<Integer, LongMessageRule>();
+            int lmrCount = rnd.nextInt(20);
+            for (int i = 0; i < lmrCount; i++) {
+                int first = rnd.nextInt(1000);
+                lmrs.put(i, new LongMessageRuleImpl(first, first + rnd.nextInt(200), LongMessageRuleType.LUDT_ENABLED));
+            }
+            Mtp3RoutingIndex index = new Mtp3RoutingIndex(saps, lmrs);
+
+            for (int dpc = -1; dpc < 1120; dpc++) {
+                int sls = rnd.nextInt(256);
+                int networkId = rnd.nextInt(3);
+                int opc = rnd.nextInt(20);
+
+                Mtp3ServiceAccessPoint expSap = null;
+                Mtp3ServiceAccessPoint expSapNetworkId = null;
+                Mtp3ServiceAccessPoint expSapIncMes = null;
+                boolean expLocal = false;
+                for (FastMap.Entry<Integer, Mtp3ServiceAccessPoint> e = saps.head(), end = saps.tail(); (e = e.getNext()) != end;) {
+                    Mtp3ServiceAccessPoint sap = e.getValue();
+                    if (expSap == null && sap.matches(dpc, sls))
+                        expSap = sap;
+                    if (expSapNetworkId == null && sap.matches(dpc, sls) && sap.getNetworkId() == networkId)
+                        expSapNetworkId = sap;
+                    if (expSapIncMes == null && sap.getOpc() == opc && sap.matches(dpc))
+                        expSapIncMes = sap;
+                    if (sap.getOpc() == dpc)
+                        expLocal = true;
+                }
+                LongMessageRule expLmr = null;
+                for (FastMap.Entry<Integer, LongMessageRule> e = lmrs.head(), end = lmrs.tail(); (e = e.getNext()) != end;) {
+                    if (e.getValue().matches(dpc)) {
+                        expLmr = e.getValue();
+                        break;
+                    }
+                }
+
+                assertSame(index.findMtp3ServiceAccessPoint(dpc, sls), expSap);
+                assertSame(index.findMtp3ServiceAccessPoint(dpc, sls, networkId), expSapNetworkId);
+                assertSame(index.findMtp3ServiceAccessPointForIncMes(opc, dpc), expSapIncMes);
+                assertEquals(index.spcIsLocal(dpc), expLocal);
+                assertSame(index.findLongMessageRule(dpc), expLmr);
+            }
+        }
+    }
+}
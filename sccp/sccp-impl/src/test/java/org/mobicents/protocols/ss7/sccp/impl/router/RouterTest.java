@@ -569,6 +569,24 @@ public class RouterTest {
             return 0;
         }
 
+        @Override
+        public int getReassemblyInProgressCount() {
+            // TODO Auto-generated method stub
+            return 0;
+        }
+
+        @Override
+        public long getReassemblyCompletedCount() {
+            // TODO Auto-generated method stub
+            return 0;
+        }
+
+        @Override
+        public long getReassemblyExpiredCount() {
+            // TODO Auto-generated method stub
+            return 0;
+        }
+
         @Override
         public Router getRouter() {
             // TODO Auto-generated method stub
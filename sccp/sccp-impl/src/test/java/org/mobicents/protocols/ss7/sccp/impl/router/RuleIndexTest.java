@@ -0,0 +1,173 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl.router;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+
+import java.util.Random;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.indicator.NatureOfAddress;
+import org.mobicents.protocols.ss7.indicator.NumberingPlan;
+import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.sccp.LoadSharingAlgorithm;
+import org.mobicents.protocols.ss7.sccp.OriginationType;
+import org.mobicents.protocols.ss7.sccp.Rule;
+import org.mobicents.protocols.ss7.sccp.RuleType;
+import org.mobicents.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.mobicents.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.testng.annotations.Test;
+
+public class RuleIndexTest {
+
+    private static final NumberingPlan[] NP = new NumberingPlan[] { NumberingPlan.ISDN_TELEPHONY, NumberingPlan.ISDN_MOBILE };
+    private static final NatureOfAddress[] NAI = new NatureOfAddress[] { NatureOfAddress.INTERNATIONAL,
+            NatureOfAddress.NATIONAL };
+    private static final OriginationType[] OT = new OriginationType[] { OriginationType.ALL, OriginationType.LOCAL,
+            OriginationType.REMOTE };
+
+    private ParameterFactory factory = new ParameterFactoryImpl();
+
+    @Test(groups = { "router", "functional" })
+    public void testPriorityOrder() throws Exception {
+        FastMap<Integer, Rule> rules = new FastMap<Integer, Rule>();
+        RuleImpl r1 = this.createRule(this.createGt(3, "1234/*"), OriginationType.ALL, 0, 0);
+        RuleImpl r2 = this.createRule(this.createGt(3, "12?4"), OriginationType.ALL, 0, 0);
+        RuleImpl r3 = this.createRule(this.createGt(3, "*"), OriginationType.ALL, 0, 0);
+        rules.put(1, r1);
+        rules.put(2, r2);
+        rules.put(3, r3);
+        RuleIndex index = new RuleIndex(rules);
+
+        assertEquals(index.getRuleCount(), 3);
+        assertSame(index.findRule(this.createAddress(this.createGt(3, "12345")), false, 0), r1);
+        // "1234/*" matches "1234" digits too
+        assertSame(index.findRule(this.createAddress(this.createGt(3, "1234")), false, 0), r1);
+        assertSame(index.findRule(this.createAddress(this.createGt(3, "1294")), false, 0), r2);
+        assertSame(index.findRule(this.createAddress(this.createGt(3, "555")), false, 0), r3);
+        // other GT type / networkId
+        assertNull(index.findRule(this.createAddress(this.createGt(2, "555")), false, 0));
+        assertNull(index.findRule(this.createAddress(this.createGt(3, "555")), false, 1));
+        // GTT rules are not applied for routing on DPC+SSN
+        assertNull(index.findRule(
+                factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, this.createGt(3, "555"), 1, 8), false, 0));
+    }
+
+    @Test(groups = { "router", "functional" })
+    public void testSameAsLinearScan() throws Exception {
+        Random rnd = new Random(1234567);
+        for (int round = 0; round < 20; round++) {
+            FastMap<Integer, Rule> rules = new FastMap<Integer, Rule>();
+            int ruleCount = 1 + rnd.nextInt(200);
+            for (int i = 0; i < ruleCount; i++) {
+                GlobalTitle gt = this.createGt(rnd.nextInt(4), rnd.nextInt(2), NP[rnd.nextInt(2)], NAI[rnd.nextInt(2)],
+                        this.randomPattern(rnd));
+                rules.put(i, this.createRule(gt, OT[rnd.nextInt(3)], rnd.nextInt(2), rnd.nextBoolean() ? 0 : 8));
+            }
+            RuleIndex index = new RuleIndex(rules);
+
+            for (int i = 0; i < 2000; i++) {
+                GlobalTitle gt = this.createGt(rnd.nextInt(4), rnd.nextInt(2), NP[rnd.nextInt(2)], NAI[rnd.nextInt(2)],
+                        this.randomDigits(rnd));
+                SccpAddress address = factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt, 0,
+                        rnd.nextBoolean() ? 8 : 6);
+                boolean isMtpOriginated = rnd.nextBoolean();
+                int networkId = rnd.nextInt(2);
+
+                Rule expected = null;
+                for (FastMap.Entry<Integer, Rule> e = rules.head(), end = rules.tail(); (e = e.getNext()) != end;) {
+                    if (e.getValue().matches(address, isMtpOriginated, networkId)) {
+                        expected = e.getValue();
+                        break;
+                    }
+                }
+                assertSame(index.findRule(address, isMtpOriginated, networkId), expected, "Address digits="
+                        + gt.getDigits());
+            }
+        }
+    }
+
+    private String randomPattern(Random rnd) {
+        StringBuilder sb = new StringBuilder();
+        int len = 1 + rnd.nextInt(5);
+        for (int i = 0; i < len; i++) {
+            int v = rnd.nextInt(10);
+            if (v < 6)
+                sb.append((char) ('1' + rnd.nextInt(3)));
+            else if (v < 8)
+                sb.append('?');
+            else if (v < 9 && i > 0 && i < len - 1)
+                sb.append('/');
+            else {
+                if (rnd.nextBoolean())
+                    sb.append('/');
+                sb.append('*');
+                break;
+            }
+        }
+        return sb.toString();
+    }
+
+    private String randomDigits(Random rnd) {
+        StringBuilder sb = new StringBuilder();
+        int len = 1 + rnd.nextInt(6);
+        for (int i = 0; i < len; i++) {
+            sb.append((char) ('1' + rnd.nextInt(3)));
+        }
+        return sb.toString();
+    }
+
+    private GlobalTitle createGt(int type, String digits) {
+        return this.createGt(type, 0, NumberingPlan.ISDN_TELEPHONY, NatureOfAddress.INTERNATIONAL, digits);
+    }
+
+    private GlobalTitle createGt(int type, int tt, NumberingPlan np, NatureOfAddress nai, String digits) {
+        switch (type) {
+            case 0:
+                return factory.createGlobalTitle(digits, nai);
+            case 1:
+                return factory.createGlobalTitle(digits, tt);
+            case 2:
+                return factory.createGlobalTitle(digits, tt, np, null);
+            default:
+                return factory.createGlobalTitle(digits, tt, np, null, nai);
+        }
+    }
+
+    private SccpAddress createAddress(GlobalTitle gt) {
+        return factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt, 0, 8);
+    }
+
+    private RuleImpl createRule(GlobalTitle gt, OriginationType originationType, int networkId, int ssn) {
+        SccpAddress pattern = factory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt, 0, ssn);
+        RuleImpl rule = new RuleImpl(RuleType.SOLITARY, LoadSharingAlgorithm.Undefined, originationType, pattern, "K",
+                networkId);
+        rule.setPrimaryAddressId(1);
+        return rule;
+    }
+}
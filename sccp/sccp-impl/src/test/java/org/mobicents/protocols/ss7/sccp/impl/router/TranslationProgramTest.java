@@ -0,0 +1,144 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.sccp.impl.router;
+
+import static org.testng.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class TranslationProgramTest {
+
+    @Test(groups = { "router", "functional.translate" })
+    public void testSplit() throws Exception {
+        String[] samples = new String[] { "", "/", "//", "1", "12/", "12//", "/12", "1//2", "K/R/K", "*", "12/*/" };
+        for (String s : samples) {
+            assertEquals(TranslationProgram.split(s), s.split("/"), "Sample=\"" + s + "\"");
+        }
+    }
+
+    @Test(groups = { "router", "functional.translate" })
+    public void testTranslate() throws Exception {
+        TranslationProgram p = new TranslationProgram("R/K", "9023/*");
+        assertEquals(p.translate("90236295", TranslationProgram.compileReplacement("7902/-")), "79026295");
+
+        p = new TranslationProgram("K/R", "9023/*");
+        assertEquals(p.translate("90236295", TranslationProgram.compileReplacement("7902/-")), "9023");
+
+        p = new TranslationProgram("K/R/K", "*/5555");
+        assertEquals(p.translate("1235555", TranslationProgram.compileReplacement("-/44/-")), "123555544");
+    }
+
+    @Test(groups = { "router", "functional.translate" })
+    public void testSameAsSplitTranslation() throws Exception {
+        Random rnd = new Random(7654321);
+        String[] maskItems = new String[] { "K", "R", "-", "X" };
+        for (int i = 0; i < 20000; i++) {
+            int segCount = 1 + rnd.nextInt(4);
+            StringBuilder pattern = new StringBuilder();
+            StringBuilder mask = new StringBuilder();
+            StringBuilder primary = new StringBuilder();
+            for (int j = 0; j < segCount; j++) {
+                if (j > 0) {
+                    pattern.append('/');
+                    mask.append('/');
+                    primary.append('/');
+                }
+                if (rnd.nextInt(4) == 0)
+                    pattern.append('*');
+                else
+                    pattern.append(this.randomDigits(rnd, 4));
+                if (rnd.nextInt(8) != 0)
+                    mask.append(maskItems[rnd.nextInt(maskItems.length)]);
+                if (rnd.nextInt(3) == 0)
+                    primary.append('-');
+                else
+                    primary.append(this.randomDigits(rnd, 3));
+            }
+            // sometimes the mask or the primary digits have less segments than the pattern
+            String m = mask.toString();
+            if (rnd.nextInt(10) == 0 && m.lastIndexOf('/') >= 0)
+                m = m.substring(0, m.lastIndexOf('/'));
+            String pr = primary.toString();
+            if (rnd.nextInt(10) == 0 && pr.lastIndexOf('/') >= 0)
+                pr = pr.substring(0, pr.lastIndexOf('/'));
+            String digits = this.randomDigits(rnd, 12);
+
+            String expected;
+            try {
+                expected = translateDigits(digits, m.split("/"), pattern.toString().split("/"), pr.split("/"));
+            } catch (IndexOutOfBoundsException e) {
+                expected = e.getClass().getName();
+            }
+            String res;
+            try {
+                res = new TranslationProgram(m, pattern.toString()).translate(digits,
+                        TranslationProgram.compileReplacement(pr));
+            } catch (IndexOutOfBoundsException e) {
+                res = e.getClass().getName();
+            }
+            assertEquals(res, expected, "mask=" + m + ", pattern=" + pattern + ", primary=" + pr + ", digits=" + digits);
+        }
+    }
+
+    private String randomDigits(Random rnd, int maxLen) {
+        char[] res = new char[rnd.nextInt(maxLen + 1)];
+        for (int i = 0; i < res.length; i++) {
+            res[i] = (char) ('0' + rnd.nextInt(10));
+        }
+        return new String(res);
+    }
+
+    /**
+     * The former RuleImpl digits translation that is used as the reference
+     */
+    private static String translateDigits(String digits, String[] masks, String[] patternDigits, String[] addressDigits) {
+        StringBuffer translatedDigits = new StringBuffer();
+        String[] digitComponents = new String[patternDigits.length];
+        int offset = 0;
+        for (int count = 0; count < patternDigits.length; count++) {
+            if (patternDigits[count].equals("*")) {
+                digitComponents[count] = digits.substring(offset, digits.length());
+                break;
+            } else {
+                digitComponents[count] = digits.substring(offset, offset + patternDigits[count].length());
+            }
+            offset += patternDigits[count].length();
+        }
+
+        for (int count = 0; count < patternDigits.length; count++) {
+            if (masks[count].equals("K")) {
+                if (digitComponents[count] != null) {
+                    translatedDigits.append(digitComponents[count]);
+                }
+            } else if (masks[count].equals("R")) {
+                if (!addressDigits[count].contains("-")) {
+                    translatedDigits.append(addressDigits[count]);
+                }
+            }
+        }
+        return translatedDigits.toString();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.statistics.api;
+
+/**
+*
+* Snapshot of a log-linear histogram (HdrHistogram-style bucketing). Values below 2 * SUB_BUCKET_COUNT have an own bucket,
+* every next power of two range is split into SUB_BUCKET_COUNT linear buckets, so a recorded value is reproduced with a
+* relative error not exceeding 1 / SUB_BUCKET_COUNT. Values above MAX_TRACKABLE_VALUE are accounted as MAX_TRACKABLE_VALUE.
+* Snapshots that are collected with the same bucketing can be merged (for example for getting of a total percentile from
+* per-key histograms).
+*/
+public class HistogramValue {
+
+    public static final int SUB_BUCKET_BITS = 5;
+    public static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    public static final int MAX_VALUE_BITS = 40;
+    public static final long MAX_TRACKABLE_VALUE = (1L << MAX_VALUE_BITS) - 1;
+    public static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final long[] counts;
+    private final long totalCount;
+    private final long min;
+    private final long max;
+    private final long sum;
+
+    /**
+     * @param counts bucket counts, an array of BUCKET_COUNT length that is owned by the created object
+     */
+    public HistogramValue(long[] counts, long min, long max, long sum) {
+        if (counts.length != BUCKET_COUNT)
+            throw new IllegalArgumentException("Bucket count must be " + BUCKET_COUNT + ", found " + counts.length);
+
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        this.counts = counts;
+        this.totalCount = total;
+        this.min = total > 0 ? min : 0;
+        this.max = total > 0 ? max : 0;
+        this.sum = sum;
+    }
+
+    public static int getBucketIndex(long value) {
+        if (value < 0)
+            value = 0;
+        else if (value > MAX_TRACKABLE_VALUE)
+            value = MAX_TRACKABLE_VALUE;
+
+        if (value < 2 * SUB_BUCKET_COUNT)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    public static long getBucketLowestValue(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT)
+            return index;
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+
+    public static long getBucketHighestValue(int index) {
+        if (index >= BUCKET_COUNT - 1)
+            return MAX_TRACKABLE_VALUE;
+        return getBucketLowestValue(index + 1) - 1;
+    }
+
+    public long getCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        if (totalCount == 0)
+            return 0;
+        return (double) sum / totalCount;
+    }
+
+    public long getCountAtIndex(int index) {
+        return counts[index];
+    }
+
+    /**
+     * @param percentile a percentile in range 0.0 - 100.0, for example 99.9
+     * @return the highest value of the bucket where the requested percentile falls (but not more than max), 0 for an empty
+     *         histogram
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0)
+            return 0;
+        if (percentile > 100)
+            percentile = 100;
+
+        long target = (long) Math.ceil(percentile / 100 * totalCount);
+        if (target < 1)
+            target = 1;
+        long acc = 0;
+        for (int i = 0; i < counts.length; i++) {
+            acc += counts[i];
+            if (acc >= target)
+                return Math.max(Math.min(getBucketHighestValue(i), max), min);
+        }
+        return max;
+    }
+
+    /**
+     * @return a new snapshot that contains values of both this and the other snapshots
+     */
+    public HistogramValue merge(HistogramValue other) {
+        if (other == null || other.totalCount == 0)
+            return this;
+        if (this.totalCount == 0)
+            return other;
+
+        long[] res = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            res[i] = this.counts[i] + other.counts[i];
+        }
+        return new HistogramValue(res, Math.min(this.min, other.min), Math.max(this.max, other.max), this.sum + other.sum);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("HistogramValue [count=");
+        sb.append(totalCount);
+        sb.append(", min=");
+        sb.append(min);
+        sb.append(", p50=");
+        sb.append(getValueAtPercentile(50));
+        sb.append(", p99=");
+        sb.append(getValueAtPercentile(99));
+        sb.append(", p99.9=");
+        sb.append(getValueAtPercentile(99.9));
+        sb.append(", max=");
+        sb.append(max);
+        sb.append("]");
+        return sb.toString();
+    }
+
+}
@@ -46,4 +46,6 @@ public interface StatDataCollection {
     void updateData(String counterName, long newVal);
 
     void updateData(String counterName, String newVal);
+
+    void updateData(String counterName, String name, long newVal);
 }
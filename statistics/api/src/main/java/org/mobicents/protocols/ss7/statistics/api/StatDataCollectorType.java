@@ -29,6 +29,6 @@ package org.mobicents.protocols.ss7.statistics.api;
 */
 public enum StatDataCollectorType {
 
-    MIN, MAX, StringLongMap;
+    MIN, MAX, StringLongMap, StringHistogramMap;
 
 }
@@ -0,0 +1,90 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.statistics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
+
+/**
+*
+* Concurrent recorder for a log-linear histogram (bucketing is defined by HistogramValue). record() does not allocate and
+* does not lock: it is a bucket increment plus sum / min / max updates.
+*/
+public class HistogramRecorder {
+
+    private final AtomicLongArray counts = new AtomicLongArray(HistogramValue.BUCKET_COUNT);
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicLong sum = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0)
+            value = 0;
+        this.counts.incrementAndGet(HistogramValue.getBucketIndex(value));
+        this.sum.addAndGet(value);
+
+        long cur;
+        while (value < (cur = this.min.get())) {
+            if (this.min.compareAndSet(cur, value))
+                break;
+        }
+        while (value > (cur = this.max.get())) {
+            if (this.max.compareAndSet(cur, value))
+                break;
+        }
+    }
+
+    /**
+     * Returns recorded values and resets the recorder. Every bucket is drained atomically, so each recorded value is accounted
+     * in exactly one snapshot (min / max / sum of a value that is being recorded concurrently may go to the neighbour one).
+     *
+     * @return a snapshot or null if nothing has been recorded since the previous reset
+     */
+    public HistogramValue getSnapshotAndReset() {
+        long[] res = new long[HistogramValue.BUCKET_COUNT];
+        boolean empty = true;
+        for (int i = 0; i < res.length; i++) {
+            if (this.counts.get(i) != 0) {
+                res[i] = this.counts.getAndSet(i, 0);
+                empty = false;
+            }
+        }
+        long mn = this.min.getAndSet(Long.MAX_VALUE);
+        long mx = this.max.getAndSet(Long.MIN_VALUE);
+        long sm = this.sum.getAndSet(0);
+        if (empty)
+            return null;
+        return new HistogramValue(res, mn, mx, sm);
+    }
+
+    public void reset() {
+        for (int i = 0; i < this.counts.length(); i++) {
+            this.counts.set(i, 0);
+        }
+        this.min.set(Long.MAX_VALUE);
+        this.max.set(Long.MIN_VALUE);
+        this.sum.set(0);
+    }
+}
@@ -41,6 +41,8 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
     private String counterName;
     private StatDataCollectorType type;
     private FastMap<String, StatDataCollectorAbstractImpl> coll = new FastMap<String, StatDataCollectorAbstractImpl>();
+    // copy-on-write snapshot of coll values: campaigns are added / removed rarely, so updateData() iterates it without locking
+    private volatile StatDataCollectorAbstractImpl[] collectors = new StatDataCollectorAbstractImpl[0];
 
     public StatCounterCollectionImpl(String counterName, StatDataCollectorType type) {
         this.counterName = counterName;
@@ -65,6 +67,8 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
             for (String s : toDel) {
                 coll.remove(s);
             }
+            if (toDel.size() > 0)
+                this.updateCollectors();
         }
     }
 
@@ -88,32 +92,42 @@ public class StatCounterCollectionImpl implements StatCounterCollection {
                     sdc = new StringLongMap(campaignName);
                     sdc.reset();
                     break;
+                case StringHistogramMap:
+                    sdc = new StringHistogramMap(campaignName);
+                    sdc.reset();
+                    break;
                 }
                 if (sdc != null) {
                     coll.put(campaignName, sdc);
+                    this.updateCollectors();
                 }
                 return null;
             }
         }
     }
 
+    private void updateCollectors() {
+        this.collectors = coll.values().toArray(new StatDataCollectorAbstractImpl[coll.size()]);
+    }
+
     @Override
     public void updateData(long newVal) {
-        synchronized (this) {
-            for (String s : coll.keySet()) {
-                StatDataCollectorAbstractImpl d = coll.get(s);
-                d.updateData(newVal);
-            }
+        for (StatDataCollectorAbstractImpl d : this.collectors) {
+            d.updateData(newVal);
         }
     }
 
     @Override
     public void updateData(String newVal) {
-        synchronized (this) {
-            for (String s : coll.keySet()) {
-                StatDataCollectorAbstractImpl d = coll.get(s);
-                d.updateData(newVal);
-            }
+        for (StatDataCollectorAbstractImpl d : this.collectors) {
+            d.updateData(newVal);
+        }
+    }
+
+    @Override
+    public void updateData(String name, long newVal) {
+        for (StatDataCollectorAbstractImpl d : this.collectors) {
+            d.updateData(name, newVal);
         }
     }
 
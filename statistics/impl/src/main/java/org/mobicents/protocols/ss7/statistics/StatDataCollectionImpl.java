@@ -23,8 +23,7 @@
 package org.mobicents.protocols.ss7.statistics;
 
 import java.util.Date;
-
-import javolution.util.FastMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.mobicents.protocols.ss7.statistics.api.StatCounterCollection;
 import org.mobicents.protocols.ss7.statistics.api.StatDataCollection;
@@ -41,44 +40,30 @@ import org.mobicents.protocols.ss7.statistics.api.StatResult;
 */
 public class StatDataCollectionImpl implements StatDataCollection {
 
-    private FastMap<String, StatCounterCollection> coll = new FastMap<String, StatCounterCollection>();
+    private ConcurrentHashMap<String, StatCounterCollection> coll = new ConcurrentHashMap<String, StatCounterCollection>();
 
     public StatCounterCollection registerStatCounterCollector(String counterName, StatDataCollectorType type) {
-        synchronized (this) {
-            StatCounterCollectionImpl c = new StatCounterCollectionImpl(counterName, type);
-            coll.put(counterName, c);
-            return c;
-        }
+        StatCounterCollectionImpl c = new StatCounterCollectionImpl(counterName, type);
+        coll.put(counterName, c);
+        return c;
     }
 
     public StatCounterCollection unregisterStatCounterCollector(String counterName) {
-        synchronized (this) {
-            StatCounterCollection c = coll.remove(counterName);
-            return c;
-        }
+        return coll.remove(counterName);
     }
 
     public StatCounterCollection getStatCounterCollector(String counterName) {
-        synchronized (this) {
-            StatCounterCollection c = coll.get(counterName);
-            return c;
-        }
+        return coll.get(counterName);
     }
 
     public void clearDeadCampaignes(Date lastTime) {
-        synchronized (this) {
-            for (String s : coll.keySet()) {
-                StatCounterCollection d = coll.get(s);
-                d.clearDeadCampaignes(lastTime);
-            }
+        for (StatCounterCollection d : coll.values()) {
+            d.clearDeadCampaignes(lastTime);
         }
     }
 
     public StatResult restartAndGet(String counterName, String campaignName) {
-        StatCounterCollection scc;
-        synchronized (this) {
-            scc = this.coll.get(counterName);
-        }
+        StatCounterCollection scc = this.coll.get(counterName);
         if (scc != null) {
             return scc.restartAndGet(campaignName);
         } else {
@@ -86,23 +71,28 @@ public class StatDataCollectionImpl implements StatDataCollection {
         }
     }
 
+    /**
+     * Hot path users should keep the StatCounterCollection returned by registerStatCounterCollector() and update it directly,
+     * this skips the counter name lookup
+     */
     public void updateData(String counterName, long newVal) {
-        StatCounterCollection scc;
-        synchronized (this) {
-            scc = this.coll.get(counterName);
-        }
+        StatCounterCollection scc = this.coll.get(counterName);
         if (scc != null) {
             scc.updateData(newVal);
         }
     }
 
     public void updateData(String counterName, String newVal) {
-        StatCounterCollection scc;
-        synchronized (this) {
-            scc = this.coll.get(counterName);
-        }
+        StatCounterCollection scc = this.coll.get(counterName);
         if (scc != null) {
             scc.updateData(newVal);
         }
     }
+
+    public void updateData(String counterName, String name, long newVal) {
+        StatCounterCollection scc = this.coll.get(counterName);
+        if (scc != null) {
+            scc.updateData(name, newVal);
+        }
+    }
 }
@@ -35,7 +35,7 @@ import org.mobicents.protocols.ss7.statistics.api.StatResult;
 public abstract class StatDataCollectorAbstractImpl implements StatDataCollector {
 
     private String campaignName;
-    protected Date sessionStartTime = new Date();
+    protected volatile Date sessionStartTime = new Date();
 
     public StatDataCollectorAbstractImpl(String campaignName) {
         this.campaignName = campaignName;
@@ -57,6 +57,8 @@ public abstract class StatDataCollectorAbstractImpl implements StatDataCollector
 
     public abstract void updateData(String newVal);
 
+    public abstract void updateData(String name, long newVal);
+
     public abstract StatDataCollectorType getStatDataCollectorType();
 
 }
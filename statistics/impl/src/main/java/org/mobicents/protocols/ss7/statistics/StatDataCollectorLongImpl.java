@@ -23,9 +23,11 @@
 package org.mobicents.protocols.ss7.statistics;
 
 import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javolution.util.FastMap;
 
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
 import org.mobicents.protocols.ss7.statistics.api.LongValue;
 import org.mobicents.protocols.ss7.statistics.api.StatResult;
 
@@ -36,16 +38,25 @@ import org.mobicents.protocols.ss7.statistics.api.StatResult;
 */
 public abstract class StatDataCollectorLongImpl extends StatDataCollectorAbstractImpl {
 
-    protected long val;
+    protected final AtomicLong val = new AtomicLong();
 
     public StatDataCollectorLongImpl(String campaignName) {
         super(campaignName);
     }
 
+    /**
+     * @return the value the collector is reset to at the start of every session
+     */
+    protected abstract long getInitialValue();
+
+    protected void reset() {
+        this.val.set(this.getInitialValue());
+    }
+
     public StatResult restartAndGet() {
-        StatResultLong res = new StatResultLong(val);
+        // the value is swapped atomically, so an update is accounted either in this or in the next session
+        StatResultLong res = new StatResultLong(this.val.getAndSet(this.getInitialValue()));
         this.sessionStartTime = new Date();
-        this.reset();
         return res;
     }
 
@@ -67,5 +78,10 @@ public abstract class StatDataCollectorLongImpl extends StatDataCollectorAbstrac
             return null;
         }
 
+        @Override
+        public FastMap<String, HistogramValue> getStringHistogramValue() {
+            return null;
+        }
+
     }
 }
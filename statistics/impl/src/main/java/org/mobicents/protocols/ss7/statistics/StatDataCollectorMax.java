@@ -36,14 +36,20 @@ public class StatDataCollectorMax extends StatDataCollectorLongImpl {
     }
 
     @Override
-    protected void reset() {
-        val = Long.MIN_VALUE;
+    protected long getInitialValue() {
+        return Long.MIN_VALUE;
     }
 
     @Override
     public void updateData(long newVal) {
-        if (val < newVal)
-            val = newVal;
+        // see StatDataCollectorMin.updateData()
+        while (true) {
+            long cur = val.get();
+            if (newVal <= cur)
+                return;
+            if (val.compareAndSet(cur, newVal))
+                return;
+        }
     }
 
     @Override
@@ -55,4 +61,8 @@ public class StatDataCollectorMax extends StatDataCollectorLongImpl {
     public void updateData(String newVal) {
     }
 
+    @Override
+    public void updateData(String name, long newVal) {
+    }
+
 }
@@ -36,14 +36,20 @@ public class StatDataCollectorMin extends StatDataCollectorLongImpl {
     }
 
     @Override
-    protected void reset() {
-        val = Long.MAX_VALUE;
+    protected long getInitialValue() {
+        return Long.MAX_VALUE;
     }
 
     @Override
     public void updateData(long newVal) {
-        if (val > newVal)
-            val = newVal;
+        // lock-free accumulator: most updates do not change the value and are finished after a single volatile read
+        while (true) {
+            long cur = val.get();
+            if (newVal >= cur)
+                return;
+            if (val.compareAndSet(cur, newVal))
+                return;
+        }
     }
 
     @Override
@@ -55,4 +61,8 @@ public class StatDataCollectorMin extends StatDataCollectorLongImpl {
     public void updateData(String newVal) {
     }
 
+    @Override
+    public void updateData(String name, long newVal) {
+    }
+
 }
@@ -0,0 +1,111 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.statistics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
+import org.mobicents.protocols.ss7.statistics.api.LongValue;
+import org.mobicents.protocols.ss7.statistics.api.StatDataCollectorType;
+import org.mobicents.protocols.ss7.statistics.api.StatResult;
+
+/**
+*
+* Latency histograms per a string key (ACN, operation code): updateData(name, value) records a value into the key histogram
+*/
+public class StringHistogramMap extends StatDataCollectorAbstractImpl {
+
+    // keys are never removed, see StringLongMap
+    private final ConcurrentHashMap<String, HistogramRecorder> data = new ConcurrentHashMap<String, HistogramRecorder>();
+
+    public StringHistogramMap(String campaignName) {
+        super(campaignName);
+    }
+
+    public StatResult restartAndGet() {
+        FastMap<String, HistogramValue> resData = new FastMap<String, HistogramValue>();
+        for (Map.Entry<String, HistogramRecorder> e : this.data.entrySet()) {
+            HistogramValue val = e.getValue().getSnapshotAndReset();
+            if (val != null)
+                resData.put(e.getKey(), val);
+        }
+        return new StatResultStringHistogramMap(resData);
+    }
+
+    protected void reset() {
+        this.data.clear();
+    }
+
+    @Override
+    public void updateData(long newVal) {
+    }
+
+    @Override
+    public void updateData(String newVal) {
+    }
+
+    @Override
+    public void updateData(String name, long newVal) {
+        HistogramRecorder val = this.data.get(name);
+        if (val == null) {
+            val = new HistogramRecorder();
+            HistogramRecorder prev = this.data.putIfAbsent(name, val);
+            if (prev != null)
+                val = prev;
+        }
+        val.record(newVal);
+    }
+
+    @Override
+    public StatDataCollectorType getStatDataCollectorType() {
+        return StatDataCollectorType.StringHistogramMap;
+    }
+
+    public class StatResultStringHistogramMap implements StatResult {
+
+        private FastMap<String, HistogramValue> data;
+
+        public StatResultStringHistogramMap(FastMap<String, HistogramValue> data) {
+            this.data = data;
+        }
+
+        @Override
+        public long getLongValue() {
+            return 0;
+        }
+
+        @Override
+        public FastMap<String, LongValue> getStringLongValue() {
+            return null;
+        }
+
+        @Override
+        public FastMap<String, HistogramValue> getStringHistogramValue() {
+            return data;
+        }
+
+    }
+}
@@ -22,8 +22,12 @@
 
 package org.mobicents.protocols.ss7.statistics;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javolution.util.FastMap;
 
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
 import org.mobicents.protocols.ss7.statistics.api.LongValue;
 import org.mobicents.protocols.ss7.statistics.api.StatDataCollectorType;
 import org.mobicents.protocols.ss7.statistics.api.StatResult;
@@ -35,25 +39,29 @@ import org.mobicents.protocols.ss7.statistics.api.StatResult;
 */
 public class StringLongMap extends StatDataCollectorAbstractImpl {
 
-    private FastMap<String, LongValue> data = new FastMap<String, LongValue>();
+    // per-key counters are numerous, so they are striped less than the stand-alone ones
+    private static final int KEY_COUNTER_CELLS = 8;
+
+    // keys are never removed: the key space (ACNs, operation / error codes) is small and removing of a counter could
+    // lose an update that is racing with the removal; keys without updates in a session are not included into the result
+    private final ConcurrentHashMap<String, StripedCounter> data = new ConcurrentHashMap<String, StripedCounter>();
 
     public StringLongMap(String campaignName) {
         super(campaignName);
     }
 
     public StatResult restartAndGet() {
-        synchronized (this) {
-            StatResultStringLongMap res = new StatResultStringLongMap(this.data);
-            this.data = new FastMap<String, LongValue>();
-            this.reset();
-            return res;
+        FastMap<String, LongValue> resData = new FastMap<String, LongValue>();
+        for (Map.Entry<String, StripedCounter> e : this.data.entrySet()) {
+            long val = e.getValue().sumThenReset();
+            if (val != 0)
+                resData.put(e.getKey(), new LongValue(val));
         }
+        return new StatResultStringLongMap(resData);
     }
 
     protected void reset() {
-        synchronized (this) {
-            this.data.clear();
-        }
+        this.data.clear();
     }
 
     @Override
@@ -62,14 +70,18 @@ public class StringLongMap extends StatDataCollectorAbstractImpl {
 
     @Override
     public void updateData(String name) {
-        synchronized (this) {
-            LongValue val = data.get(name);
-            if (val == null) {
-                val = new LongValue();
-                data.put(name, val);
-            }
-            val.updateValue();
+        StripedCounter val = this.data.get(name);
+        if (val == null) {
+            val = new StripedCounter(KEY_COUNTER_CELLS);
+            StripedCounter prev = this.data.putIfAbsent(name, val);
+            if (prev != null)
+                val = prev;
         }
+        val.increment();
+    }
+
+    @Override
+    public void updateData(String name, long newVal) {
     }
 
     @Override
@@ -95,5 +107,10 @@ public class StringLongMap extends StatDataCollectorAbstractImpl {
             return data;
         }
 
+        @Override
+        public FastMap<String, HistogramValue> getStringHistogramValue() {
+            return null;
+        }
+
     }
 }
@@ -0,0 +1,117 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+*
+* LongAdder-style counter: the value is spread over several cells, a thread updates the cell selected by its id, so
+* concurrent updates from different threads almost never hit the same cache line. The sum is only computed when the counter
+* is read, which is rare comparing with updates.
+*/
+public class StripedCounter {
+
+    // 8 longs = 64 bytes, every cell occupies its own cache line
+    private static final int CELL_STRIDE = 8;
+    private static final int MAX_CELLS = 64;
+    private static final int DEFAULT_CELLS;
+
+    static {
+        int n = 1;
+        int target = Runtime.getRuntime().availableProcessors() * 2;
+        while (n < target && n < MAX_CELLS)
+            n <<= 1;
+        DEFAULT_CELLS = n;
+    }
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedCounter() {
+        this(DEFAULT_CELLS);
+    }
+
+    /**
+     * @param cellCount count of cells, rounded up to a power of two
+     */
+    public StripedCounter(int cellCount) {
+        int n = 1;
+        while (n < cellCount)
+            n <<= 1;
+        this.cells = new AtomicLongArray(n * CELL_STRIDE);
+        this.mask = n - 1;
+    }
+
+    private int cellIndex() {
+        long id = Thread.currentThread().getId();
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return ((h ^ (h >>> 16)) & this.mask) * CELL_STRIDE;
+    }
+
+    public void add(long x) {
+        int idx = this.cellIndex();
+        long v = this.cells.get(idx);
+        if (!this.cells.compareAndSet(idx, v, v + x)) {
+            // the cell is shared with another thread, the slower path always succeeds
+            this.cells.addAndGet(idx, x);
+        }
+    }
+
+    public void increment() {
+        this.add(1);
+    }
+
+    /**
+     * @return the current counter value; updates that are in progress may or may not be included
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < this.cells.length(); i += CELL_STRIDE) {
+            sum += this.cells.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the counter value and resets the counter to zero. Every update is counted exactly once: either in the returned
+     * value or in the value after the reset.
+     */
+    public long sumThenReset() {
+        long sum = 0;
+        for (int i = 0; i < this.cells.length(); i += CELL_STRIDE) {
+            sum += this.cells.getAndSet(i, 0);
+        }
+        return sum;
+    }
+
+    public void reset() {
+        for (int i = 0; i < this.cells.length(); i += CELL_STRIDE) {
+            this.cells.set(i, 0);
+        }
+    }
+
+    public String toString() {
+        return Long.toString(this.sum());
+    }
+}
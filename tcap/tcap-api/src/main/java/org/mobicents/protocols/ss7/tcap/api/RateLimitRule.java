@@ -0,0 +1,61 @@
+/*
+ * TeleStax, Open Source Cloud Communications  Copyright 2012.
+ * and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap.api;
+
+/**
+ * Token bucket limit of the rate of new incoming TC-BEGINs from one peer (a calling party GT prefix or an OPC). Up to
+ * burstSize TC-BEGINs are accepted at once, after that the bucket refills with maxRate TC-BEGINs per second. Excess TC-BEGINs
+ * are throttled before any dialog or component decoding.
+ */
+public interface RateLimitRule {
+
+    int getId();
+
+    RateLimitKeyType getKeyType();
+
+    /**
+     * @return the calling party GT digits prefix or the decimal OPC value
+     */
+    String getKey();
+
+    /**
+     * @return the count of TC-BEGINs per second that is accepted in the long term
+     */
+    int getMaxRate();
+
+    /**
+     * @return the count of TC-BEGINs that is accepted at once after an idle period
+     */
+    int getBurstSize();
+
+    /**
+     * @return the count of TC-BEGINs accepted by this rule since the rule creation
+     */
+    long getAcceptedCount();
+
+    /**
+     * @return the count of TC-BEGINs throttled by this rule since the rule creation
+     */
+    long getThrottledCount();
+
+}
@@ -25,6 +25,7 @@ package org.mobicents.protocols.ss7.tcap.api;
 import java.util.Map;
 import java.util.UUID;
 
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
 import org.mobicents.protocols.ss7.statistics.api.LongValue;
 
 /**
@@ -240,5 +241,17 @@ public interface TCAPCounterProvider {
      */
     Map<String,LongValue> getIncomingRejectPerProblem(String compainName);
 
+    /**
+     * return a histogram of released structured Dialogs durations (in milliseconds) per ApplicationContextNames (in string form)
+     * Dialogs without ApplicationContextName will be assigned into empty string group ("")
+     */
+    Map<String,HistogramValue> getDialogsDurationPerApplicatioContextName(String compainName);
+
+    /**
+     * return a histogram of times (in microseconds) between sending of an Invoke and receiving of its ReturnResultLast or
+     * ReturnError per OperationCodes
+     */
+    Map<String,HistogramValue> getInvokeResponseTimePerOperationCode(String compainName);
+
 }
 
@@ -140,6 +140,29 @@ public interface TCAPStack {
      */
     boolean getPreviewMode();
 
+    /**
+     * useTimerWheel == true: dialog idle timers and invoke timers are served by a hashed timing wheel (O(1) schedule and
+     * cancel, expired timers are processed in batches per tick) instead of the ScheduledExecutorService. Recommended when a
+     * node keeps a big count of simultaneous dialogs.
+     *
+     * default state: the ScheduledExecutorService is used. The parameter can be updated only when the stack is not running.
+     */
+    void setUseTimerWheel(boolean val) throws Exception;
+
+    boolean getUseTimerWheel();
+
+    /**
+     * messagePooling == true: TC-BEGIN, TC-CONTINUE and TC-END messages and Invoke, ReturnResult, ReturnResultLast and
+     * ReturnError components are taken from a pool and recycled. Received components are valid only until TCListener
+     * callbacks return and sent ReturnResult, ReturnResultLast and ReturnError components are recycled after sending, so a TCAP
+     * user must not keep references to them. Preview mode does not use pooling.
+     *
+     * default state: no pooling. The parameter can be updated only when the stack is not running.
+     */
+    void setMessagePooling(boolean val) throws Exception;
+
+    boolean getMessagePooling();
+
     void setDoNotSendProtocolVersion(boolean val) throws Exception;
 
     boolean getDoNotSendProtocolVersion();
@@ -158,6 +181,33 @@ public interface TCAPStack {
      */
     boolean getStatisticsEnabled();
 
+    /**
+     * Adds a rule that limits the rate of incoming TC-BEGINs from a calling party GT prefix or an OPC. If the calling party GT
+     * of a TC-BEGIN matches a CallingGtPrefix rule, this rule is applied, else an Opc rule for the incoming OPC is applied
+     * if it exists. TC-BEGINs that match no rule are not limited.
+     *
+     * @param id unique rule id
+     * @param keyType
+     * @param key the calling party GT digits prefix or the decimal OPC value
+     * @param maxRate TC-BEGINs per second
+     * @param burstSize TC-BEGINs accepted at once
+     */
+    void addRateLimitRule(int id, RateLimitKeyType keyType, String key, int maxRate, int burstSize) throws Exception;
+
+    void removeRateLimitRule(int id) throws Exception;
+
+    RateLimitRule getRateLimitRule(int id);
+
+    RateLimitRule[] getRateLimitRules();
+
+    /**
+     * If true (default) a TC-BEGIN throttled by a rate limit rule is answered with the P-Abort "resourceLimitation", if false
+     * it is silently discarded.
+     */
+    void setRateLimitSendAbort(boolean val) throws Exception;
+
+    boolean getRateLimitSendAbort();
+
     /**
      * Returns the Sub System Number (SSN) that this TCAP Stack is registered for
      *
@@ -45,6 +45,7 @@ public class TcapCommandHandler extends CommandHandlerWithHelp {
 //        set.addChild("previewmode");
         set.addChild("donotsendprotocolversion");
         set.addChild("statisticsenabled");
+        set.addChild("ratelimitsendabort");
 
         Node get = parent.addChild("get");
         get.addChild("dialogidletimeout");
@@ -55,8 +56,14 @@ public class TcapCommandHandler extends CommandHandlerWithHelp {
         get.addChild("previewmode");
         get.addChild("donotsendprotocolversion");
         get.addChild("statisticsenabled");
+        get.addChild("ratelimitsendabort");
         get.addChild("ssn");
 
+        Node ratelimit = parent.addChild("ratelimit");
+        ratelimit.addChild("create");
+        ratelimit.addChild("delete");
+        ratelimit.addChild("show");
+
     };
 
     public TcapCommandHandler() {
@@ -0,0 +1,147 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free allocator of local transaction ids inside [rangeStart, rangeEnd].
+ *
+ * Ids are handed out by a rotating cursor, so a released id is not reused until the whole range has been passed (this keeps
+ * late messages of finished transactions away from new dialogs). Busy ids are tracked in a ring bitmap of a power-of-two
+ * slot count indexed by "id & (slots - 1)": a busy slot is skipped, a full 64-slot word is skipped at once, so allocation
+ * stays O(1) even when the range is almost exhausted. The slot count is kept well above the maximum number of simultaneous
+ * dialogs.
+ *
+ * The bitmap is only a hint, the dialog table is the authority: an id suggested by the TCAP user may share its slot with a
+ * busy dialog, and the release of such a dialog clears the bit of the other one. A missing bit only costs the provider a
+ * retry when the id turns out to be stored, a bit must never stay set for an id that is not stored.
+ */
+public class DialogIdAllocator {
+
+    private static final int MIN_SLOTS = 1 << 16;
+    private static final int MAX_SLOTS = 1 << 26;
+
+    private final AtomicLongArray bits;
+    private final long slotMask;
+    private final AtomicLong cursor = new AtomicLong();
+
+    /**
+     * @param maxDialogs maximum number of simultaneously allocated ids, the bitmap is sized with a fourfold reserve
+     */
+    public DialogIdAllocator(int maxDialogs) {
+        long slots = getSlotCount(maxDialogs);
+        this.bits = new AtomicLongArray((int) (slots >>> 6));
+        this.slotMask = slots - 1;
+    }
+
+    /**
+     * @return the bitmap slot count of an allocator for the specified maximum number of dialogs
+     */
+    public static long getSlotCount(int maxDialogs) {
+        long slots = MIN_SLOTS;
+        while (slots < (long) maxDialogs * 4 && slots < MAX_SLOTS)
+            slots <<= 1;
+        return slots;
+    }
+
+    public long getSlotCount() {
+        return this.slotMask + 1;
+    }
+
+    /**
+     * Allocates a free id
+     *
+     * @return allocated id or -1 if no free id has been found in the range
+     */
+    public long allocate(long rangeStart, long rangeEnd) {
+        long rangeSize = rangeEnd - rangeStart + 1;
+        long limit = Math.min(rangeSize, this.slotMask + 1) + 64;
+
+        for (long examined = 0; examined < limit;) {
+            long pos = this.cursor.getAndIncrement();
+            long id = rangeStart + ((pos & Long.MAX_VALUE) % rangeSize);
+            int slot = (int) (id & this.slotMask);
+            int wordIndex = slot >>> 6;
+            long bit = 1L << (slot & 63);
+
+            long word = this.bits.get(wordIndex);
+            if (word == -1L) {
+                // the whole word is busy: jump the cursor to the next word
+                int skip = 63 - (slot & 63);
+                if (skip > 0 && id + skip <= rangeEnd) {
+                    this.cursor.getAndAdd(skip);
+                    examined += skip + 1;
+                } else {
+                    examined++;
+                }
+                continue;
+            }
+            examined++;
+            while ((word & bit) == 0) {
+                if (this.bits.compareAndSet(wordIndex, word, word | bit))
+                    return id;
+                word = this.bits.get(wordIndex);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the slot of the specified id as busy (for ids suggested by the TCAP user)
+     *
+     * @return false if the slot is already busy (by the id itself or by an id sharing its slot)
+     */
+    public boolean allocate(long id) {
+        int slot = (int) (id & this.slotMask);
+        int wordIndex = slot >>> 6;
+        long bit = 1L << (slot & 63);
+        while (true) {
+            long word = this.bits.get(wordIndex);
+            if ((word & bit) != 0)
+                return false;
+            if (this.bits.compareAndSet(wordIndex, word, word | bit))
+                return true;
+        }
+    }
+
+    public void release(long id) {
+        int slot = (int) (id & this.slotMask);
+        int wordIndex = slot >>> 6;
+        long bit = 1L << (slot & 63);
+        while (true) {
+            long word = this.bits.get(wordIndex);
+            if ((word & bit) == 0)
+                return;
+            if (this.bits.compareAndSet(wordIndex, word, word & ~bit))
+                return;
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < this.bits.length(); i++) {
+            this.bits.set(i, 0);
+        }
+    }
+}
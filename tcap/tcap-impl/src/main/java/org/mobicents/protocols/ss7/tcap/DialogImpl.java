@@ -28,7 +28,6 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Level;
@@ -77,6 +76,7 @@ import org.mobicents.protocols.ss7.tcap.asn.TCContinueMessageImpl;
 import org.mobicents.protocols.ss7.tcap.asn.TCEndMessageImpl;
 import org.mobicents.protocols.ss7.tcap.asn.TCUniMessageImpl;
 import org.mobicents.protocols.ss7.tcap.asn.TcapFactory;
+import org.mobicents.protocols.ss7.tcap.asn.TcapMessagePool;
 import org.mobicents.protocols.ss7.tcap.asn.UserInformation;
 import org.mobicents.protocols.ss7.tcap.asn.Utils;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
@@ -283,6 +283,10 @@ public class DialogImpl implements Dialog {
         if (this.isStructured() && this.provider.getStack().getStatisticsEnabled()) {
             long lg = System.currentTimeMillis() - this.startDialogTime;
             this.provider.getStack().getCounterProviderImpl().updateAllDialogsDuration(lg);
+            String acn = "";
+            if (this.lastACN instanceof ApplicationContextNameImpl)
+                acn = ((ApplicationContextNameImpl) this.lastACN).getStringValue();
+            this.provider.getStack().getCounterProviderImpl().updateDialogsDurationPerApplicatioContextName(acn, lg);
         }
 
         this.setState(TRPseudoState.Expunged);
@@ -513,9 +517,10 @@ public class DialogImpl implements Dialog {
         }
         try {
             this.dialogLock.lock();
+            TcapMessagePool pool = this.provider.getMessagePool();
             this.idleTimerActionTaken = true;
             restartIdleTimer();
-            TCBeginMessageImpl tcbm = (TCBeginMessageImpl) TcapFactory.createTCBeginMessage();
+            TCBeginMessageImpl tcbm = pool != null ? pool.createTCBeginMessage() : (TCBeginMessageImpl) TcapFactory.createTCBeginMessage();
 
             // build DP
 
@@ -547,7 +552,7 @@ public class DialogImpl implements Dialog {
             // now comps
             tcbm.setOriginatingTransactionId(Utils.encodeTransactionId(this.localTransactionId));
             if (this.scheduledComponentList.size() > 0) {
-                Component[] componentsToSend = new Component[this.scheduledComponentList.size()];
+                Component[] componentsToSend = this.createComponentArray(pool);
                 this.prepareComponents(componentsToSend);
                 tcbm.setComponent(componentsToSend);
             }
@@ -562,6 +567,8 @@ public class DialogImpl implements Dialog {
                 this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress, this.localAddress,
                         this.seqControl, this.networkId);
                 this.scheduledComponentList.clear();
+                if (pool != null)
+                    pool.releaseSentMessage(tcbm);
             } catch (Throwable e) {
                 // FIXME: remove freshly added invokes to free invoke ID??
                 // TODO: should we release this dialog because TC-BEGIN sending has been failed
@@ -592,10 +599,11 @@ public class DialogImpl implements Dialog {
         }
         try {
             this.dialogLock.lock();
+            TcapMessagePool pool = this.provider.getMessagePool();
             if (this.state == TRPseudoState.InitialReceived) {
                 this.idleTimerActionTaken = true;
                 restartIdleTimer();
-                TCContinueMessageImpl tcbm = (TCContinueMessageImpl) TcapFactory.createTCContinueMessage();
+                TCContinueMessageImpl tcbm = pool != null ? pool.createTCContinueMessage() : (TCContinueMessageImpl) TcapFactory.createTCContinueMessage();
 
                 if (event.getApplicationContextName() != null) {
 
@@ -624,7 +632,7 @@ public class DialogImpl implements Dialog {
                 tcbm.setOriginatingTransactionId(Utils.encodeTransactionId(this.localTransactionId));
                 tcbm.setDestinationTransactionId(this.remoteTransactionId);
                 if (this.scheduledComponentList.size() > 0) {
-                    Component[] componentsToSend = new Component[this.scheduledComponentList.size()];
+                    Component[] componentsToSend = this.createComponentArray(pool);
                     this.prepareComponents(componentsToSend);
                     tcbm.setComponent(componentsToSend);
 
@@ -643,6 +651,8 @@ public class DialogImpl implements Dialog {
                             this.localAddress, this.seqControl, this.networkId);
                     this.setState(TRPseudoState.Active);
                     this.scheduledComponentList.clear();
+                    if (pool != null)
+                        pool.releaseSentMessage(tcbm);
                 } catch (Exception e) {
                     // FIXME: remove freshly added invokes to free invoke ID??
                     if (logger.isEnabledFor(Level.ERROR)) {
@@ -655,12 +665,12 @@ public class DialogImpl implements Dialog {
                 this.idleTimerActionTaken = true;
                 restartIdleTimer();
                 // in this we ignore acn and passed args(except qos)
-                TCContinueMessageImpl tcbm = (TCContinueMessageImpl) TcapFactory.createTCContinueMessage();
+                TCContinueMessageImpl tcbm = pool != null ? pool.createTCContinueMessage() : (TCContinueMessageImpl) TcapFactory.createTCContinueMessage();
 
                 tcbm.setOriginatingTransactionId(Utils.encodeTransactionId(this.localTransactionId));
                 tcbm.setDestinationTransactionId(this.remoteTransactionId);
                 if (this.scheduledComponentList.size() > 0) {
-                    Component[] componentsToSend = new Component[this.scheduledComponentList.size()];
+                    Component[] componentsToSend = this.createComponentArray(pool);
                     this.prepareComponents(componentsToSend);
                     tcbm.setComponent(componentsToSend);
 
@@ -673,6 +683,8 @@ public class DialogImpl implements Dialog {
                     this.provider.send(aos.toByteArray(), event.getReturnMessageOnError(), this.remoteAddress,
                             this.localAddress, this.seqControl, this.networkId);
                     this.scheduledComponentList.clear();
+                    if (pool != null)
+                        pool.releaseSentMessage(tcbm);
                 } catch (Exception e) {
                     // FIXME: remove freshly added invokes to free invoke ID??
                     if (logger.isEnabledFor(Level.ERROR)) {
@@ -706,6 +718,7 @@ public class DialogImpl implements Dialog {
 
         try {
             dialogLock.lock();
+            TcapMessagePool pool = this.provider.getMessagePool();
             TCEndMessageImpl tcbm = null;
 
             if (state == TRPseudoState.InitialReceived) {
@@ -713,12 +726,12 @@ public class DialogImpl implements Dialog {
                 // indication primitive
                 this.idleTimerActionTaken = true;
                 stopIdleTimer();
-                tcbm = (TCEndMessageImpl) TcapFactory.createTCEndMessage();
+                tcbm = pool != null ? pool.createTCEndMessage() : (TCEndMessageImpl) TcapFactory.createTCEndMessage();
                 tcbm.setDestinationTransactionId(this.remoteTransactionId);
 
                 if (event.getTerminationType() == TerminationType.Basic) {
                     if (this.scheduledComponentList.size() > 0) {
-                        Component[] componentsToSend = new Component[this.scheduledComponentList.size()];
+                        Component[] componentsToSend = this.createComponentArray(pool);
                         this.prepareComponents(componentsToSend);
                         tcbm.setComponent(componentsToSend);
 
@@ -761,12 +774,12 @@ public class DialogImpl implements Dialog {
 
             } else if (state == TRPseudoState.Active) {
                 restartIdleTimer();
-                tcbm = (TCEndMessageImpl) TcapFactory.createTCEndMessage();
+                tcbm = pool != null ? pool.createTCEndMessage() : (TCEndMessageImpl) TcapFactory.createTCEndMessage();
 
                 tcbm.setDestinationTransactionId(this.remoteTransactionId);
                 if (event.getTerminationType() == TerminationType.Basic) {
                     if (this.scheduledComponentList.size() > 0) {
-                        Component[] componentsToSend = new Component[this.scheduledComponentList.size()];
+                        Component[] componentsToSend = this.createComponentArray(pool);
                         this.prepareComponents(componentsToSend);
                         tcbm.setComponent(componentsToSend);
 
@@ -801,6 +814,8 @@ public class DialogImpl implements Dialog {
                         this.seqControl, this.networkId);
 
                 this.scheduledComponentList.clear();
+                if (pool != null)
+                    pool.releaseSentMessage(tcbm);
             } catch (Exception e) {
                 // FIXME: remove freshly added invokes to free invoke ID??
                 if (logger.isEnabledFor(Level.ERROR)) {
@@ -1077,15 +1092,25 @@ public class DialogImpl implements Dialog {
         this.removeIncomingInvokeId(invokeId);
     }
 
+    private Component[] createComponentArray(TcapMessagePool pool) {
+        int size = this.scheduledComponentList.size();
+        if (pool != null)
+            return pool.createComponentArray(size);
+        else
+            return new Component[size];
+    }
+
     private void prepareComponents(Component[] res) {
 
         int index = 0;
+        long sentTime = this.provider.getStack().getStatisticsEnabled() ? System.nanoTime() : 0;
         while (this.scheduledComponentList.size() > index) {
             Component cr = this.scheduledComponentList.get(index);
             if (cr.getType() == ComponentType.Invoke) {
                 InvokeImpl in = (InvokeImpl) cr;
                 // FIXME: check not null?
                 this.operationsSent[this.getIndexFromInvokeId(in.getInvokeId())] = in;
+                in.setSentTime(sentTime);
                 in.setState(OperationState.Sent);
             }
 
@@ -1926,6 +1951,7 @@ public class DialogImpl implements Dialog {
                         p.setReturnResultProblemType(ReturnResultProblemType.ReturnResultUnexpected);
                         this.addReject(resultingIndications, ci.getInvokeId(), p);
                     } else {
+                        this.updateInvokeResponseTime(invoke);
                         invoke.onReturnResultLast();
                         if (invoke.isSuccessReported()) {
                             resultingIndications.add(ci);
@@ -1950,6 +1976,7 @@ public class DialogImpl implements Dialog {
                         p.setReturnErrorProblemType(ReturnErrorProblemType.ReturnErrorUnexpected);
                         this.addReject(resultingIndications, ci.getInvokeId(), p);
                     } else {
+                        this.updateInvokeResponseTime(invoke);
                         invoke.onError();
                         if (invoke.isErrorReported()) {
                             resultingIndications.add(ci);
@@ -1992,6 +2019,16 @@ public class DialogImpl implements Dialog {
         return components;
     }
 
+    private void updateInvokeResponseTime(InvokeImpl invoke) {
+        long sentTime = invoke.getSentTime();
+        if (sentTime != 0 && this.provider.getStack().getStatisticsEnabled()) {
+            OperationCodeImpl oc = (OperationCodeImpl) invoke.getOperationCode();
+            String name = oc != null ? oc.getStringValue() : "";
+            this.provider.getStack().getCounterProviderImpl()
+                    .updateInvokeResponseTimePerOperationCode(name, (System.nanoTime() - sentTime) / 1000);
+        }
+    }
+
     private void addReject(List<Component> resultingIndications, Long invokeId, Problem p) {
         try {
             Reject rej = TcapFactory.createComponentReject();
@@ -2040,14 +2077,14 @@ public class DialogImpl implements Dialog {
 
             IdleTimerTask t = new IdleTimerTask();
             t.d = this;
-            this.idleTimerFuture = this.executor.schedule(t, this.idleTaskTimeout, TimeUnit.MILLISECONDS);
+            this.idleTimerFuture = this.provider.scheduleTimer(t, this.idleTaskTimeout);
 
         } finally {
             this.dialogLock.unlock();
         }
     }
 
-    private void stopIdleTimer() {
+    void stopIdleTimer() {
         if (!this.structured)
             return;
 
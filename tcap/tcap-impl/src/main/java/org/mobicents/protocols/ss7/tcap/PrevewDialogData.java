@@ -23,8 +23,6 @@
 package org.mobicents.protocols.ss7.tcap;
 
 import java.util.concurrent.Future;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.log4j.Logger;
@@ -47,22 +45,24 @@ public class PrevewDialogData {
 
     private Object upperDialog;
 
-    private TCAPProviderImpl.PrevewDialogDataKey prevewDialogDataKey1;
-    private TCAPProviderImpl.PrevewDialogDataKey prevewDialogDataKey2;
+    // see PreviewDialogKey, the second key is known after the first TC-CONTINUE
+    private final long prevewDialogDataKey1;
+    private volatile long prevewDialogDataKey2;
+    private volatile boolean prevewDialogDataKey2Set;
 
     private ReentrantLock dialogLock = new ReentrantLock();
     private Future idleTimerFuture;
-    private ScheduledExecutorService executor;
+    private volatile long lastActivityTime;
     private TCAPProviderImpl provider;
     private long idleTaskTimeout;
     private Long dialogId;
 
-    public PrevewDialogData(TCAPProviderImpl provider, Long dialogId) {
+    public PrevewDialogData(TCAPProviderImpl provider, Long dialogId, long prevewDialogDataKey1) {
         this.provider = provider;
         this.dialogId = dialogId;
+        this.prevewDialogDataKey1 = prevewDialogDataKey1;
         TCAPStack stack = provider.getStack();
         this.idleTaskTimeout = stack.getDialogIdleTimeout();
-        this.executor = provider._EXECUTOR;
     }
 
     public ApplicationContextName getLastACN() {
@@ -101,20 +101,34 @@ public class PrevewDialogData {
         upperDialog = val;
     }
 
-    protected TCAPProviderImpl.PrevewDialogDataKey getPrevewDialogDataKey1() {
+    protected long getPrevewDialogDataKey1() {
         return prevewDialogDataKey1;
     }
 
-    protected TCAPProviderImpl.PrevewDialogDataKey getPrevewDialogDataKey2() {
+    protected long getPrevewDialogDataKey2() {
         return prevewDialogDataKey2;
     }
 
-    protected void setPrevewDialogDataKey1(TCAPProviderImpl.PrevewDialogDataKey val) {
-        prevewDialogDataKey1 = val;
+    protected boolean isPrevewDialogDataKey2Set() {
+        return prevewDialogDataKey2Set;
     }
 
-    protected void setPrevewDialogDataKey2(TCAPProviderImpl.PrevewDialogDataKey val) {
-        prevewDialogDataKey2 = val;
+    /**
+     * Sets the second key once
+     *
+     * @return false if the second key has already been set
+     */
+    protected boolean setPrevewDialogDataKey2(long val) {
+        try {
+            this.dialogLock.lock();
+            if (this.prevewDialogDataKey2Set)
+                return false;
+            this.prevewDialogDataKey2 = val;
+            this.prevewDialogDataKey2Set = true;
+            return true;
+        } finally {
+            this.dialogLock.unlock();
+        }
     }
 
     protected void startIdleTimer() {
@@ -125,9 +139,10 @@ public class PrevewDialogData {
                 throw new IllegalStateException();
             }
 
+            this.lastActivityTime = System.currentTimeMillis();
             IdleTimerTask t = new IdleTimerTask();
             t.pdd = this;
-            this.idleTimerFuture = this.executor.schedule(t, this.idleTaskTimeout, TimeUnit.MILLISECONDS);
+            this.idleTimerFuture = this.provider.scheduleTimer(t, this.idleTaskTimeout);
 
         } finally {
             this.dialogLock.unlock();
@@ -147,38 +162,41 @@ public class PrevewDialogData {
         }
     }
 
+    /**
+     * Marks the dialog as active. The idle timer is not rescheduled here: when it expires it checks the last activity time
+     * and is rescheduled for the rest of the idle period, so a message costs one volatile write instead of a timer cancel and
+     * a new timer.
+     */
     protected void restartIdleTimer() {
-        stopIdleTimer();
-        startIdleTimer();
+        this.lastActivityTime = System.currentTimeMillis();
     }
 
     private class IdleTimerTask implements Runnable {
         PrevewDialogData pdd;
 
         public void run() {
+            DialogImpl dlg;
             try {
                 dialogLock.lock();
+                if (idleTimerFuture == null)
+                    // the timer has been stopped
+                    return;
+
+                long idle = System.currentTimeMillis() - lastActivityTime;
+                if (idle < idleTaskTimeout) {
+                    idleTimerFuture = provider.scheduleTimer(this, idleTaskTimeout - idle);
+                    return;
+                }
+                idleTimerFuture = null;
+
+                dlg = (DialogImpl) provider.getPreviewDialog(prevewDialogDataKey1, 0, false, null, null, 0);
+            } finally {
+                dialogLock.unlock();
+            }
 
-//              Dialog d1 = new DialogImpl(localAddress, remoteAddress, seqControl, provider._EXECUTOR, provider, pdd, sideB);
-                DialogImpl dlg = (DialogImpl)provider.getPreviewDialog(prevewDialogDataKey1, null, null, null, 0);
+            if (dlg != null) {
                 provider.timeout(dlg);
                 provider.removePreviewDialog(dlg);
-
-//                provider.removePreviewDialog(pdd);
-//
-//                if (logger.isEnabledFor(Level.ERROR)) {
-//                    StringBuilder sb = new StringBuilder();
-//                    if (this.pdd.prevewDialogDataKey1 != null) {
-//                        sb.append(", trId1=");
-//                        sb.append(this.pdd.prevewDialogDataKey1.origTxId);
-//                    }
-//                    if (this.pdd.prevewDialogDataKey2 != null) {
-//                        sb.append(", trId2=");
-//                        sb.append(this.pdd.prevewDialogDataKey2.origTxId);
-//                    }
-//                }
-            } finally {
-                dialogLock.unlock();
             }
         }
 
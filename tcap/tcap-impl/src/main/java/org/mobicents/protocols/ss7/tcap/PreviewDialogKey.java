@@ -0,0 +1,82 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+
+/**
+ * Compact primitive key of a preview mode dialog side. The high 32 bits are the transaction id (TCAP transaction ids are at
+ * most 4 octets long), the low 32 bits are a hash of the SCCP address of the side: GT digits + SSN if a GlobalTitle is
+ * present, else point code + SSN. Two sides collide only if they use the same transaction id at the same time and their
+ * address hashes are equal, which is negligible for a monitoring tool, and no key objects or digit strings are allocated per
+ * message.
+ */
+public final class PreviewDialogKey {
+
+    private static final int GT_MARKER = 0x5bd1e995;
+
+    private PreviewDialogKey() {
+    }
+
+    /**
+     * @param pc the point code of the side (incoming DPC for the called party, incoming OPC for the calling party)
+     * @param address the SCCP address of the side
+     * @param txId the transaction id of the side
+     */
+    public static long create(int pc, SccpAddress address, long txId) {
+        GlobalTitle gt = address.getGlobalTitle();
+        String digits = gt != null ? gt.getDigits() : null;
+        return create(pc, digits, address.getSubsystemNumber(), txId);
+    }
+
+    public static long create(int pc, String gtDigits, int ssn, long txId) {
+        int h;
+        if (gtDigits != null) {
+            // FNV-1a over the digits
+            h = 0x811c9dc5;
+            for (int i = 0; i < gtDigits.length(); i++) {
+                h ^= gtDigits.charAt(i);
+                h *= 0x01000193;
+            }
+            h ^= GT_MARKER;
+        } else {
+            h = pc;
+        }
+        h = mix(h * 31 + ssn);
+        return (txId << 32) | (h & 0xFFFFFFFFL);
+    }
+
+    public static long getTxId(long key) {
+        return key >>> 32;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javolution.xml.XMLFormat;
+import javolution.xml.XMLSerializable;
+import javolution.xml.stream.XMLStreamException;
+
+import org.mobicents.protocols.ss7.statistics.StripedCounter;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitKeyType;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitRule;
+
+/**
+ * Lock-free token bucket implemented as a generic cell rate algorithm: the only state is the theoretical arrival time of the
+ * next TC-BEGIN, a TC-BEGIN is accepted when this time does not run more than burstSize emission intervals ahead of now.
+ */
+public class RateLimitRuleImpl implements RateLimitRule, XMLSerializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String ID = "id";
+    private static final String KEY_TYPE = "keyType";
+    private static final String KEY = "key";
+    private static final String MAX_RATE = "maxRate";
+    private static final String BURST_SIZE = "burstSize";
+
+    // one TC-BEGIN per nanosecond: a higher rate would give a zero emission interval
+    public static final int MAX_RATE_LIMIT = 1000000000;
+
+    private int id;
+    private RateLimitKeyType keyType;
+    private String key;
+    private int maxRate;
+    private int burstSize;
+
+    private long emissionInterval;
+    private long burstTolerance;
+    private final AtomicLong theoreticalArrivalTime = new AtomicLong(Long.MIN_VALUE);
+
+    private final StripedCounter acceptedCount = new StripedCounter();
+    private final StripedCounter throttledCount = new StripedCounter();
+
+    public RateLimitRuleImpl() {
+    }
+
+    public RateLimitRuleImpl(int id, RateLimitKeyType keyType, String key, int maxRate, int burstSize) {
+        this.id = id;
+        this.keyType = keyType;
+        this.key = key;
+        this.maxRate = maxRate;
+        this.burstSize = burstSize;
+        checkRate(maxRate, burstSize);
+        this.init();
+    }
+
+    /**
+     * @throws IllegalArgumentException if maxRate is not in the range 1..{@link #MAX_RATE_LIMIT} or burstSize is less than 1
+     */
+    protected static void checkRate(int maxRate, int burstSize) {
+        if (maxRate < 1 || maxRate > MAX_RATE_LIMIT)
+            throw new IllegalArgumentException("MaxRate must be in the range 1.." + MAX_RATE_LIMIT + ", found: " + maxRate);
+        if (burstSize < 1)
+            throw new IllegalArgumentException("BurstSize must be greater than zero");
+    }
+
+    private void init() {
+        this.emissionInterval = TimeUnit.SECONDS.toNanos(1) / this.maxRate;
+        this.burstTolerance = this.emissionInterval * this.burstSize;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public RateLimitKeyType getKeyType() {
+        return keyType;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public int getMaxRate() {
+        return maxRate;
+    }
+
+    public int getBurstSize() {
+        return burstSize;
+    }
+
+    public long getAcceptedCount() {
+        return this.acceptedCount.sum();
+    }
+
+    public long getThrottledCount() {
+        return this.throttledCount.sum();
+    }
+
+    /**
+     * Takes a token from the bucket
+     *
+     * @param now current System.nanoTime()
+     * @return false if the bucket is empty and the TC-BEGIN must be throttled
+     */
+    protected boolean tryAcquire(long now) {
+        while (true) {
+            long tat = this.theoreticalArrivalTime.get();
+            long newTat = (tat == Long.MIN_VALUE || tat - now < 0 ? now : tat) + this.emissionInterval;
+            if (newTat - now > this.burstTolerance) {
+                this.throttledCount.increment();
+                return false;
+            }
+            if (this.theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                this.acceptedCount.increment();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("RateLimitRule [id=").append(id).append(", keyType=").append(keyType).append(", key=").append(key)
+                .append(", maxRate=").append(maxRate).append(", burstSize=").append(burstSize).append(", accepted=")
+                .append(this.getAcceptedCount()).append(", throttled=").append(this.getThrottledCount()).append("]");
+        return sb.toString();
+    }
+
+    protected static final XMLFormat<RateLimitRuleImpl> XML = new XMLFormat<RateLimitRuleImpl>(RateLimitRuleImpl.class) {
+
+        public void write(RateLimitRuleImpl rule, OutputElement xml) throws XMLStreamException {
+            xml.setAttribute(ID, rule.id);
+            xml.setAttribute(KEY_TYPE, rule.keyType.toString());
+            xml.setAttribute(KEY, rule.key);
+            xml.setAttribute(MAX_RATE, rule.maxRate);
+            xml.setAttribute(BURST_SIZE, rule.burstSize);
+        }
+
+        public void read(InputElement xml, RateLimitRuleImpl rule) throws XMLStreamException {
+            rule.id = xml.getAttribute(ID).toInt();
+            rule.keyType = RateLimitKeyType.valueOf(xml.getAttribute(KEY_TYPE).toString());
+            rule.key = xml.getAttribute(KEY).toString();
+            rule.maxRate = xml.getAttribute(MAX_RATE).toInt();
+            rule.burstSize = xml.getAttribute(BURST_SIZE).toInt();
+            // an invalid persisted rule is kept uninitialized, TCAPRateLimiter.addRule() rejects it
+            if (rule.maxRate >= 1 && rule.maxRate <= MAX_RATE_LIMIT && rule.burstSize >= 1)
+                rule.init();
+        }
+    };
+}
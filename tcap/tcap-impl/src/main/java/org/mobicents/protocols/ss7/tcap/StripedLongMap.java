@@ -0,0 +1,290 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent map with primitive long keys. The key space is split into a fixed number of stripes, every stripe is an
+ * open-addressing (linear probing) table guarded by its own monitor, so operations for different transaction ids almost never
+ * contend and keys are never boxed. A null value marks an empty slot, so null values are not accepted.
+ */
+public class StripedLongMap<V> {
+
+    private static final int DEFAULT_STRIPES = 64;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final Stripe<V>[] stripes;
+    private final int stripeShift;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public StripedLongMap() {
+        this(DEFAULT_STRIPES, 0);
+    }
+
+    /**
+     * @param stripeCount the number of independently locked stripes, rounded up to a power of two
+     * @param expectedSize expected count of simultaneously stored entries, used for initial sizing
+     */
+    @SuppressWarnings("unchecked")
+    public StripedLongMap(int stripeCount, int expectedSize) {
+        int sc = 1;
+        while (sc < stripeCount)
+            sc <<= 1;
+        this.stripes = (Stripe<V>[]) new Stripe<?>[sc];
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(sc);
+        int perStripe = MIN_STRIPE_CAPACITY;
+        while (perStripe * sc < expectedSize * 2)
+            perStripe <<= 1;
+        for (int i = 0; i < sc; i++) {
+            this.stripes[i] = new Stripe<V>(perStripe);
+        }
+    }
+
+    private static long hash(long key) {
+        return key * HASH_MULTIPLIER;
+    }
+
+    private Stripe<V> stripeFor(long h) {
+        if (this.stripes.length == 1)
+            return this.stripes[0];
+        return this.stripes[(int) (h >>> this.stripeShift)];
+    }
+
+    public V get(long key) {
+        long h = hash(key);
+        return stripeFor(h).get(key, h);
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Stores the value only if no mapping for the key exists.
+     *
+     * @return the already present value or null if the value has been stored
+     */
+    public V putIfAbsent(long key, V value) {
+        if (value == null)
+            throw new NullPointerException("Value must not be null");
+        long h = hash(key);
+        V prev = stripeFor(h).put(key, h, value, true);
+        if (prev == null)
+            this.size.incrementAndGet();
+        return prev;
+    }
+
+    /**
+     * @return the previously stored value or null if there was no mapping for the key
+     */
+    public V put(long key, V value) {
+        if (value == null)
+            throw new NullPointerException("Value must not be null");
+        long h = hash(key);
+        V prev = stripeFor(h).put(key, h, value, false);
+        if (prev == null)
+            this.size.incrementAndGet();
+        return prev;
+    }
+
+    /**
+     * @return the removed value or null if there was no mapping for the key
+     */
+    public V remove(long key) {
+        long h = hash(key);
+        V prev = stripeFor(h).remove(key, h, null);
+        if (prev != null)
+            this.size.decrementAndGet();
+        return prev;
+    }
+
+    /**
+     * Removes the mapping only if the key is currently mapped to the given value (as ConcurrentMap.remove(key, value))
+     *
+     * @return true if the value has been removed
+     */
+    public boolean remove(long key, V value) {
+        if (value == null)
+            return false;
+        long h = hash(key);
+        if (stripeFor(h).remove(key, h, value) == null)
+            return false;
+        this.size.decrementAndGet();
+        return true;
+    }
+
+    public int size() {
+        return this.size.get();
+    }
+
+    /**
+     * @return a snapshot of the keys, a key that is put or removed concurrently may be missing or present
+     */
+    public long[] keys() {
+        long[] res = new long[this.size.get()];
+        int count = 0;
+        for (Stripe<V> s : this.stripes) {
+            count = s.copyKeys(res, count);
+            if (count < 0) {
+                // the map has grown meanwhile, retry with a bigger array
+                return this.keys();
+            }
+        }
+        if (count == res.length)
+            return res;
+        long[] r = new long[count];
+        System.arraycopy(res, 0, r, 0, count);
+        return r;
+    }
+
+    public void clear() {
+        for (Stripe<V> s : this.stripes) {
+            int removed = s.clear();
+            this.size.addAndGet(-removed);
+        }
+    }
+
+    private static final class Stripe<V> {
+        private long[] keys;
+        private Object[] values;
+        private int count;
+
+        Stripe(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+        }
+
+        private static int slot(long h, int mask) {
+            // stripe selection uses the highest bits, slot selection the lowest ones of the mixed hash
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V get(long key, long h) {
+            int mask = this.keys.length - 1;
+            for (int i = slot(h, mask);; i = (i + 1) & mask) {
+                Object v = this.values[i];
+                if (v == null)
+                    return null;
+                if (this.keys[i] == key)
+                    return (V) v;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V put(long key, long h, V value, boolean onlyIfAbsent) {
+            int mask = this.keys.length - 1;
+            int i = slot(h, mask);
+            for (;; i = (i + 1) & mask) {
+                Object v = this.values[i];
+                if (v == null)
+                    break;
+                if (this.keys[i] == key) {
+                    if (!onlyIfAbsent)
+                        this.values[i] = value;
+                    return (V) v;
+                }
+            }
+            this.keys[i] = key;
+            this.values[i] = value;
+            if (++this.count * 4 > this.keys.length * 3)
+                this.resize();
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        synchronized V remove(long key, long h, Object expected) {
+            int mask = this.keys.length - 1;
+            int i = slot(h, mask);
+            for (;; i = (i + 1) & mask) {
+                Object v = this.values[i];
+                if (v == null)
+                    return null;
+                if (this.keys[i] == key) {
+                    if (expected != null && !expected.equals(v))
+                        return null;
+                    break;
+                }
+            }
+            V res = (V) this.values[i];
+
+            // backward shift deletion: no tombstones, so probe chains stay short under steady churn
+            int gap = i;
+            for (int j = (i + 1) & mask;; j = (j + 1) & mask) {
+                if (this.values[j] == null)
+                    break;
+                int home = slot(hash(this.keys[j]), mask);
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    this.keys[gap] = this.keys[j];
+                    this.values[gap] = this.values[j];
+                    gap = j;
+                }
+            }
+            this.values[gap] = null;
+            this.count--;
+            return res;
+        }
+
+        /**
+         * @return the new count of keys in the array or -1 if the keys do not fit into it
+         */
+        synchronized int copyKeys(long[] dst, int pos) {
+            if (pos + this.count > dst.length)
+                return -1;
+            for (int i = 0; i < this.values.length; i++) {
+                if (this.values[i] != null)
+                    dst[pos++] = this.keys[i];
+            }
+            return pos;
+        }
+
+        synchronized int clear() {
+            int removed = this.count;
+            for (int i = 0; i < this.values.length; i++) {
+                this.values[i] = null;
+            }
+            this.count = 0;
+            return removed;
+        }
+
+        private void resize() {
+            long[] oldKeys = this.keys;
+            Object[] oldValues = this.values;
+            int newCapacity = oldKeys.length << 1;
+            int mask = newCapacity - 1;
+            this.keys = new long[newCapacity];
+            this.values = new Object[newCapacity];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int j = slot(hash(oldKeys[i]), mask);
+                    while (this.values[j] != null)
+                        j = (j + 1) & mask;
+                    this.keys[j] = oldKeys[i];
+                    this.values[j] = oldValues[i];
+                }
+            }
+        }
+    }
+}
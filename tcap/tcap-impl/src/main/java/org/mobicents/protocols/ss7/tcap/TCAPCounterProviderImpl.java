@@ -24,10 +24,12 @@ package org.mobicents.protocols.ss7.tcap;
 
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.atomic.AtomicLong;
 
 import org.mobicents.protocols.ss7.statistics.StatDataCollectionImpl;
+import org.mobicents.protocols.ss7.statistics.StripedCounter;
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
 import org.mobicents.protocols.ss7.statistics.api.LongValue;
+import org.mobicents.protocols.ss7.statistics.api.StatCounterCollection;
 import org.mobicents.protocols.ss7.statistics.api.StatDataCollection;
 import org.mobicents.protocols.ss7.statistics.api.StatDataCollectorType;
 import org.mobicents.protocols.ss7.statistics.api.StatResult;
@@ -45,38 +47,38 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     private TCAPProviderImpl provider;
     private StatDataCollection statDataCollection = new StatDataCollectionImpl();
 
-    private AtomicLong tcUniReceivedCount = new AtomicLong();
-    private AtomicLong tcUniSentCount = new AtomicLong();
-    private AtomicLong tcBeginReceivedCount = new AtomicLong();
-    private AtomicLong tcBeginSentCount = new AtomicLong();
-    private AtomicLong tcContinueReceivedCount = new AtomicLong();
-    private AtomicLong tcContinueSentCount = new AtomicLong();
-    private AtomicLong tcEndReceivedCount = new AtomicLong();
-    private AtomicLong tcEndSentCount = new AtomicLong();
-    private AtomicLong tcPAbortReceivedCount = new AtomicLong();
-    private AtomicLong tcPAbortSentCount = new AtomicLong();
-    private AtomicLong tcUserAbortReceivedCount = new AtomicLong();
-    private AtomicLong tcUserAbortSentCount = new AtomicLong();
-
-    private AtomicLong invokeReceivedCount = new AtomicLong();
-    private AtomicLong invokeSentCount = new AtomicLong();
-    private AtomicLong returnResultReceivedCount = new AtomicLong();
-    private AtomicLong returnResultSentCount = new AtomicLong();
-    private AtomicLong returnResultLastReceivedCount = new AtomicLong();
-    private AtomicLong returnResultLastSentCount = new AtomicLong();
-    private AtomicLong returnErrorReceivedCount = new AtomicLong();
-    private AtomicLong returnErrorSentCount = new AtomicLong();
-    private AtomicLong rejectReceivedCount = new AtomicLong();
-    private AtomicLong rejectSentCount = new AtomicLong();
-
-    private AtomicLong dialogTimeoutCount = new AtomicLong();
-    private AtomicLong dialogReleaseCount = new AtomicLong();
-
-    private AtomicLong allEstablishedDialogsCount = new AtomicLong();
-    private AtomicLong allLocalEstablishedDialogsCount = new AtomicLong();
-    private AtomicLong allRemoteEstablishedDialogsCount = new AtomicLong();
-
-    private AtomicLong allDialogsDuration = new AtomicLong();
+    private StripedCounter tcUniReceivedCount = new StripedCounter();
+    private StripedCounter tcUniSentCount = new StripedCounter();
+    private StripedCounter tcBeginReceivedCount = new StripedCounter();
+    private StripedCounter tcBeginSentCount = new StripedCounter();
+    private StripedCounter tcContinueReceivedCount = new StripedCounter();
+    private StripedCounter tcContinueSentCount = new StripedCounter();
+    private StripedCounter tcEndReceivedCount = new StripedCounter();
+    private StripedCounter tcEndSentCount = new StripedCounter();
+    private StripedCounter tcPAbortReceivedCount = new StripedCounter();
+    private StripedCounter tcPAbortSentCount = new StripedCounter();
+    private StripedCounter tcUserAbortReceivedCount = new StripedCounter();
+    private StripedCounter tcUserAbortSentCount = new StripedCounter();
+
+    private StripedCounter invokeReceivedCount = new StripedCounter();
+    private StripedCounter invokeSentCount = new StripedCounter();
+    private StripedCounter returnResultReceivedCount = new StripedCounter();
+    private StripedCounter returnResultSentCount = new StripedCounter();
+    private StripedCounter returnResultLastReceivedCount = new StripedCounter();
+    private StripedCounter returnResultLastSentCount = new StripedCounter();
+    private StripedCounter returnErrorReceivedCount = new StripedCounter();
+    private StripedCounter returnErrorSentCount = new StripedCounter();
+    private StripedCounter rejectReceivedCount = new StripedCounter();
+    private StripedCounter rejectSentCount = new StripedCounter();
+
+    private StripedCounter dialogTimeoutCount = new StripedCounter();
+    private StripedCounter dialogReleaseCount = new StripedCounter();
+
+    private StripedCounter allEstablishedDialogsCount = new StripedCounter();
+    private StripedCounter allLocalEstablishedDialogsCount = new StripedCounter();
+    private StripedCounter allRemoteEstablishedDialogsCount = new StripedCounter();
+
+    private StripedCounter allDialogsDuration = new StripedCounter();
 
     private static String OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME = "outgoingDialogsPerApplicationContextName";
     private static String INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME = "incomingDialogsPerApplicationContextName";
@@ -87,23 +89,43 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     private static String OUTGOING_REJECT_PER_PROBLEM = "outgoingRejectPerProblem";
     private static String INCOMING_REJECT_PER_PROBLEM = "incomingRejectPerProblem";
 
+    private static String DIALOGS_DURATION_PER_APPLICATION_CONTEXT_NAME = "dialogsDurationPerApplicationContextName";
+    private static String INVOKE_RESPONSE_TIME_PER_OPERATION_CODE = "invokeResponseTimePerOperationCode";
+
     private static String MIN_DIALOGS_COUNT = "MinDialogsCount";
     private static String MAX_DIALOGS_COUNT = "MaxDialogsCount";
 
+    // handles of the registered counters: hot path updates skip the counter name lookup
+    private final StatCounterCollection minDialogsCount;
+    private final StatCounterCollection maxDialogsCount;
+    private final StatCounterCollection outgoingDialogsPerApplicationContextName;
+    private final StatCounterCollection incomingDialogsPerApplicationContextName;
+    private final StatCounterCollection outgoingInvokesPerOperationCode;
+    private final StatCounterCollection incomingInvokesPerOperationCode;
+    private final StatCounterCollection outgoingErrorsPerErrorCode;
+    private final StatCounterCollection incomingErrorsPerErrorCode;
+    private final StatCounterCollection outgoingRejectPerProblem;
+    private final StatCounterCollection incomingRejectPerProblem;
+    private final StatCounterCollection dialogsDurationPerApplicationContextName;
+    private final StatCounterCollection invokeResponseTimePerOperationCode;
+
     public TCAPCounterProviderImpl(TCAPProviderImpl provider) {
         this.provider = provider;
 
-        this.statDataCollection.registerStatCounterCollector(MIN_DIALOGS_COUNT, StatDataCollectorType.MIN);
-        this.statDataCollection.registerStatCounterCollector(MAX_DIALOGS_COUNT, StatDataCollectorType.MAX);
+        this.minDialogsCount = this.statDataCollection.registerStatCounterCollector(MIN_DIALOGS_COUNT, StatDataCollectorType.MIN);
+        this.maxDialogsCount = this.statDataCollection.registerStatCounterCollector(MAX_DIALOGS_COUNT, StatDataCollectorType.MAX);
+
+        this.outgoingDialogsPerApplicationContextName = this.statDataCollection.registerStatCounterCollector(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
+        this.incomingDialogsPerApplicationContextName = this.statDataCollection.registerStatCounterCollector(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
+        this.outgoingInvokesPerOperationCode = this.statDataCollection.registerStatCounterCollector(OUTGOING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
+        this.incomingInvokesPerOperationCode = this.statDataCollection.registerStatCounterCollector(INCOMING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
+        this.outgoingErrorsPerErrorCode = this.statDataCollection.registerStatCounterCollector(OUTGOING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
+        this.incomingErrorsPerErrorCode = this.statDataCollection.registerStatCounterCollector(INCOMING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
+        this.outgoingRejectPerProblem = this.statDataCollection.registerStatCounterCollector(OUTGOING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
+        this.incomingRejectPerProblem = this.statDataCollection.registerStatCounterCollector(INCOMING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
 
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_INVOKES_PER_OPERATION_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_ERRORS_PER_ERROR_CODE, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(OUTGOING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
-        this.statDataCollection.registerStatCounterCollector(INCOMING_REJECT_PER_PROBLEM, StatDataCollectorType.StringLongMap);
+        this.dialogsDurationPerApplicationContextName = this.statDataCollection.registerStatCounterCollector(DIALOGS_DURATION_PER_APPLICATION_CONTEXT_NAME, StatDataCollectorType.StringHistogramMap);
+        this.invokeResponseTimePerOperationCode = this.statDataCollection.registerStatCounterCollector(INVOKE_RESPONSE_TIME_PER_OPERATION_CODE, StatDataCollectorType.StringHistogramMap);
     }
 
 
@@ -115,218 +137,218 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
 
     @Override
     public long getTcUniReceivedCount() {
-        return tcUniReceivedCount.get();
+        return tcUniReceivedCount.sum();
     }
 
     public void updateTcUniReceivedCount() {
-        tcUniReceivedCount.addAndGet(1);
+        tcUniReceivedCount.increment();
     }
 
     @Override
     public long getTcUniSentCount() {
-        return tcUniSentCount.get();
+        return tcUniSentCount.sum();
     }
 
     public void updateTcUniSentCount() {
-        tcUniSentCount.addAndGet(1);
+        tcUniSentCount.increment();
     }
 
     @Override
     public long getTcBeginReceivedCount() {
-        return tcBeginReceivedCount.get();
+        return tcBeginReceivedCount.sum();
     }
 
     public void updateTcBeginReceivedCount() {
-        tcBeginReceivedCount.addAndGet(1);
+        tcBeginReceivedCount.increment();
     }
 
     @Override
     public long getTcBeginSentCount() {
-        return tcBeginSentCount.get();
+        return tcBeginSentCount.sum();
     }
 
     public void updateTcBeginSentCount() {
-        tcBeginSentCount.addAndGet(1);
+        tcBeginSentCount.increment();
     }
 
     @Override
     public long getTcContinueReceivedCount() {
-        return tcContinueReceivedCount.get();
+        return tcContinueReceivedCount.sum();
     }
 
     public void updateTcContinueReceivedCount() {
-        tcContinueReceivedCount.addAndGet(1);
+        tcContinueReceivedCount.increment();
     }
 
     @Override
     public long getTcContinueSentCount() {
-        return tcContinueSentCount.get();
+        return tcContinueSentCount.sum();
     }
 
     public void updateTcContinueSentCount() {
-        tcContinueSentCount.addAndGet(1);
+        tcContinueSentCount.increment();
     }
 
     @Override
     public long getTcEndReceivedCount() {
-        return tcEndReceivedCount.get();
+        return tcEndReceivedCount.sum();
     }
 
     public void updateTcEndReceivedCount() {
-        tcEndReceivedCount.addAndGet(1);
+        tcEndReceivedCount.increment();
     }
 
     @Override
     public long getTcEndSentCount() {
-        return tcEndSentCount.get();
+        return tcEndSentCount.sum();
     }
 
     public void updateTcEndSentCount() {
-        tcEndSentCount.addAndGet(1);
+        tcEndSentCount.increment();
     }
 
     @Override
     public long getTcPAbortReceivedCount() {
-        return tcPAbortReceivedCount.get();
+        return tcPAbortReceivedCount.sum();
     }
 
     public void updateTcPAbortReceivedCount() {
-        tcPAbortReceivedCount.addAndGet(1);
+        tcPAbortReceivedCount.increment();
     }
 
     @Override
     public long getTcPAbortSentCount() {
-        return tcPAbortSentCount.get();
+        return tcPAbortSentCount.sum();
     }
 
     public void updateTcPAbortSentCount() {
-        tcPAbortSentCount.addAndGet(1);
+        tcPAbortSentCount.increment();
     }
 
     @Override
     public long getTcUserAbortReceivedCount() {
-        return tcUserAbortReceivedCount.get();
+        return tcUserAbortReceivedCount.sum();
     }
 
     public void updateTcUserAbortReceivedCount() {
-        tcUserAbortReceivedCount.addAndGet(1);
+        tcUserAbortReceivedCount.increment();
     }
 
     @Override
     public long getTcUserAbortSentCount() {
-        return tcUserAbortSentCount.get();
+        return tcUserAbortSentCount.sum();
     }
 
     public void updateTcUserAbortSentCount() {
-        tcUserAbortSentCount.addAndGet(1);
+        tcUserAbortSentCount.increment();
     }
 
     @Override
     public long getInvokeReceivedCount() {
-        return invokeReceivedCount.get();
+        return invokeReceivedCount.sum();
     }
 
     public void updateInvokeReceivedCount() {
-        invokeReceivedCount.addAndGet(1);
+        invokeReceivedCount.increment();
     }
 
     @Override
     public long getInvokeSentCount() {
-        return invokeSentCount.get();
+        return invokeSentCount.sum();
     }
 
     public void updateInvokeSentCount() {
-        invokeSentCount.addAndGet(1);
+        invokeSentCount.increment();
     }
 
     @Override
     public long getReturnResultReceivedCount() {
-        return returnResultReceivedCount.get();
+        return returnResultReceivedCount.sum();
     }
 
     public void updateReturnResultReceivedCount() {
-        returnResultReceivedCount.addAndGet(1);
+        returnResultReceivedCount.increment();
     }
 
     @Override
     public long getReturnResultSentCount() {
-        return returnResultSentCount.get();
+        return returnResultSentCount.sum();
     }
 
     public void updateReturnResultSentCount() {
-        returnResultSentCount.addAndGet(1);
+        returnResultSentCount.increment();
     }
 
     @Override
     public long getReturnResultLastReceivedCount() {
-        return returnResultLastReceivedCount.get();
+        return returnResultLastReceivedCount.sum();
     }
 
     public void updateReturnResultLastReceivedCount() {
-        returnResultLastReceivedCount.addAndGet(1);
+        returnResultLastReceivedCount.increment();
     }
 
     @Override
     public long getReturnResultLastSentCount() {
-        return returnResultLastSentCount.get();
+        return returnResultLastSentCount.sum();
     }
 
     public void updateReturnResultLastSentCount() {
-        returnResultLastSentCount.addAndGet(1);
+        returnResultLastSentCount.increment();
     }
 
     @Override
     public long getReturnErrorReceivedCount() {
-        return returnErrorReceivedCount.get();
+        return returnErrorReceivedCount.sum();
     }
 
     public void updateReturnErrorReceivedCount() {
-        returnErrorReceivedCount.addAndGet(1);
+        returnErrorReceivedCount.increment();
     }
 
     @Override
     public long getReturnErrorSentCount() {
-        return returnErrorSentCount.get();
+        return returnErrorSentCount.sum();
     }
 
     public void updateReturnErrorSentCount() {
-        returnErrorSentCount.addAndGet(1);
+        returnErrorSentCount.increment();
     }
 
     @Override
     public long getRejectReceivedCount() {
-        return rejectReceivedCount.get();
+        return rejectReceivedCount.sum();
     }
 
     public void updateRejectReceivedCount() {
-        rejectReceivedCount.addAndGet(1);
+        rejectReceivedCount.increment();
     }
 
     @Override
     public long getRejectSentCount() {
-        return rejectSentCount.get();
+        return rejectSentCount.sum();
     }
 
     public void updateRejectSentCount() {
-        rejectSentCount.addAndGet(1);
+        rejectSentCount.increment();
     }
 
     @Override
     public long getDialogTimeoutCount() {
-        return dialogTimeoutCount.get();
+        return dialogTimeoutCount.sum();
     }
 
     public void updateDialogTimeoutCount() {
-        dialogTimeoutCount.addAndGet(1);
+        dialogTimeoutCount.increment();
     }
 
     @Override
     public long getDialogReleaseCount() {
-        return dialogReleaseCount.get();
+        return dialogReleaseCount.sum();
     }
 
     public void updateDialogReleaseCount() {
-        dialogReleaseCount.addAndGet(1);
+        dialogReleaseCount.increment();
     }
 
 
@@ -337,35 +359,35 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
 
     @Override
     public long getAllEstablishedDialogsCount() {
-        return allEstablishedDialogsCount.get();
+        return allEstablishedDialogsCount.sum();
     }
 
     public void updateAllEstablishedDialogsCount() {
-        allEstablishedDialogsCount.addAndGet(1);
+        allEstablishedDialogsCount.increment();
     }
 
     @Override
     public long getAllLocalEstablishedDialogsCount() {
-        return allLocalEstablishedDialogsCount.get();
+        return allLocalEstablishedDialogsCount.sum();
     }
 
     public void updateAllLocalEstablishedDialogsCount() {
-        allLocalEstablishedDialogsCount.addAndGet(1);
+        allLocalEstablishedDialogsCount.increment();
     }
 
     @Override
     public long getAllRemoteEstablishedDialogsCount() {
-        return allRemoteEstablishedDialogsCount.get();
+        return allRemoteEstablishedDialogsCount.sum();
     }
 
     public void updateAllRemoteEstablishedDialogsCount() {
-        allRemoteEstablishedDialogsCount.addAndGet(1);
+        allRemoteEstablishedDialogsCount.increment();
     }
 
     @Override
     public Long getMinDialogsCount(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(MIN_DIALOGS_COUNT, compainName);
-        this.statDataCollection.updateData(MIN_DIALOGS_COUNT, provider.getCurrentDialogsCount());
+        this.minDialogsCount.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getLongValue();
         else
@@ -373,13 +395,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateMinDialogsCount(long newVal) {
-        this.statDataCollection.updateData(MIN_DIALOGS_COUNT, newVal);
+        this.minDialogsCount.updateData(newVal);
     }
 
     @Override
     public Long getMaxDialogsCount(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(MAX_DIALOGS_COUNT, compainName);
-        this.statDataCollection.updateData(MAX_DIALOGS_COUNT, provider.getCurrentDialogsCount());
+        this.maxDialogsCount.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getLongValue();
         else
@@ -387,22 +409,22 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateMaxDialogsCount(long newVal) {
-        this.statDataCollection.updateData(MAX_DIALOGS_COUNT, newVal);
+        this.maxDialogsCount.updateData(newVal);
     }
 
     @Override
     public long getAllDialogsDuration() {
-        return allDialogsDuration.get();
+        return allDialogsDuration.sum();
     }
 
     public void updateAllDialogsDuration(long diff) {
-        allDialogsDuration.addAndGet(diff);
+        allDialogsDuration.add(diff);
     }
 
     @Override
     public Map<String, LongValue> getOutgoingDialogsPerApplicatioContextName(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, compainName);
-        this.statDataCollection.updateData(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, provider.getCurrentDialogsCount());
+        this.outgoingDialogsPerApplicationContextName.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -410,13 +432,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingDialogsPerApplicatioContextName(String name) {
-        this.statDataCollection.updateData(OUTGOING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, name);
+        this.outgoingDialogsPerApplicationContextName.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingDialogsPerApplicatioContextName(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, compainName);
-        this.statDataCollection.updateData(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, provider.getCurrentDialogsCount());
+        this.incomingDialogsPerApplicationContextName.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -424,13 +446,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingDialogsPerApplicatioContextName(String name) {
-        this.statDataCollection.updateData(INCOMING_DIALOGS_PER_APPLICATION_CONTEXT_NAME, name);
+        this.incomingDialogsPerApplicationContextName.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getOutgoingInvokesPerOperationCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_INVOKES_PER_OPERATION_CODE, compainName);
-        this.statDataCollection.updateData(OUTGOING_INVOKES_PER_OPERATION_CODE, provider.getCurrentDialogsCount());
+        this.outgoingInvokesPerOperationCode.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -438,13 +460,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingInvokesPerOperationCode(String name) {
-        this.statDataCollection.updateData(OUTGOING_INVOKES_PER_OPERATION_CODE, name);
+        this.outgoingInvokesPerOperationCode.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingInvokesPerOperationCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_INVOKES_PER_OPERATION_CODE, compainName);
-        this.statDataCollection.updateData(INCOMING_INVOKES_PER_OPERATION_CODE, provider.getCurrentDialogsCount());
+        this.incomingInvokesPerOperationCode.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -452,13 +474,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingInvokesPerOperationCode(String name) {
-        this.statDataCollection.updateData(INCOMING_INVOKES_PER_OPERATION_CODE, name);
+        this.incomingInvokesPerOperationCode.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getOutgoingErrorsPerErrorCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_ERRORS_PER_ERROR_CODE, compainName);
-        this.statDataCollection.updateData(OUTGOING_ERRORS_PER_ERROR_CODE, provider.getCurrentDialogsCount());
+        this.outgoingErrorsPerErrorCode.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -466,13 +488,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingErrorsPerErrorCode(String name) {
-        this.statDataCollection.updateData(OUTGOING_ERRORS_PER_ERROR_CODE, name);
+        this.outgoingErrorsPerErrorCode.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingErrorsPerErrorCode(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_ERRORS_PER_ERROR_CODE, compainName);
-        this.statDataCollection.updateData(INCOMING_ERRORS_PER_ERROR_CODE, provider.getCurrentDialogsCount());
+        this.incomingErrorsPerErrorCode.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -480,13 +502,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingErrorsPerErrorCode(String name) {
-        this.statDataCollection.updateData(INCOMING_ERRORS_PER_ERROR_CODE, name);
+        this.incomingErrorsPerErrorCode.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getOutgoingRejectPerProblem(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(OUTGOING_REJECT_PER_PROBLEM, compainName);
-        this.statDataCollection.updateData(OUTGOING_REJECT_PER_PROBLEM, provider.getCurrentDialogsCount());
+        this.outgoingRejectPerProblem.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -494,13 +516,13 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateOutgoingRejectPerProblem(String name) {
-        this.statDataCollection.updateData(OUTGOING_REJECT_PER_PROBLEM, name);
+        this.outgoingRejectPerProblem.updateData(name);
     }
 
     @Override
     public Map<String, LongValue> getIncomingRejectPerProblem(String compainName) {
         StatResult res = this.statDataCollection.restartAndGet(INCOMING_REJECT_PER_PROBLEM, compainName);
-        this.statDataCollection.updateData(INCOMING_REJECT_PER_PROBLEM, provider.getCurrentDialogsCount());
+        this.incomingRejectPerProblem.updateData(provider.getCurrentDialogsCount());
         if (res != null)
             return res.getStringLongValue();
         else
@@ -508,7 +530,33 @@ public class TCAPCounterProviderImpl implements TCAPCounterProvider {
     }
 
     public void updateIncomingRejectPerProblem(String name) {
-        this.statDataCollection.updateData(INCOMING_REJECT_PER_PROBLEM, name);
+        this.incomingRejectPerProblem.updateData(name);
+    }
+
+    @Override
+    public Map<String, HistogramValue> getDialogsDurationPerApplicatioContextName(String compainName) {
+        StatResult res = this.dialogsDurationPerApplicationContextName.restartAndGet(compainName);
+        if (res != null)
+            return res.getStringHistogramValue();
+        else
+            return null;
+    }
+
+    public void updateDialogsDurationPerApplicatioContextName(String name, long duration) {
+        this.dialogsDurationPerApplicationContextName.updateData(name, duration);
+    }
+
+    @Override
+    public Map<String, HistogramValue> getInvokeResponseTimePerOperationCode(String compainName) {
+        StatResult res = this.invokeResponseTimePerOperationCode.restartAndGet(compainName);
+        if (res != null)
+            return res.getStringHistogramValue();
+        else
+            return null;
+    }
+
+    public void updateInvokeResponseTimePerOperationCode(String name, long responseTime) {
+        this.invokeResponseTimePerOperationCode.updateData(name, responseTime);
     }
 
 }
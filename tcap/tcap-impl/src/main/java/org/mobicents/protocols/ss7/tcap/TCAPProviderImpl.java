@@ -30,8 +30,6 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-import javolution.util.FastMap;
-
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 import org.mobicents.protocols.asn.AsnInputStream;
@@ -67,6 +65,7 @@ import org.mobicents.protocols.ss7.tcap.asn.TCAbortMessageImpl;
 import org.mobicents.protocols.ss7.tcap.asn.TCNoticeIndicationImpl;
 import org.mobicents.protocols.ss7.tcap.asn.TCUnidentifiedMessage;
 import org.mobicents.protocols.ss7.tcap.asn.TcapFactory;
+import org.mobicents.protocols.ss7.tcap.asn.TcapMessagePool;
 import org.mobicents.protocols.ss7.tcap.asn.Utils;
 import org.mobicents.protocols.ss7.tcap.asn.comp.PAbortCauseType;
 import org.mobicents.protocols.ss7.tcap.asn.comp.TCAbortMessage;
@@ -82,6 +81,9 @@ import org.mobicents.protocols.ss7.tcap.tc.dialog.events.TCEndIndicationImpl;
 import org.mobicents.protocols.ss7.tcap.tc.dialog.events.TCPAbortIndicationImpl;
 import org.mobicents.protocols.ss7.tcap.tc.dialog.events.TCUniIndicationImpl;
 import org.mobicents.protocols.ss7.tcap.tc.dialog.events.TCUserAbortIndicationImpl;
+import org.mobicents.ss7.congestion.AdmissionController;
+import org.mobicents.ss7.congestion.CapacityCongestionMonitor;
+import org.mobicents.ss7.congestion.CongestionMonitor;
 
 /**
  * @author amit bhayani
@@ -95,6 +97,9 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     private transient List<TCListener> tcListeners = new CopyOnWriteArrayList<TCListener>();
     protected transient ScheduledExecutorService _EXECUTOR;
+    protected transient TimerWheel timerWheel;
+    // not null if the messagePooling stack option is set
+    protected transient TcapMessagePool messagePool;
     // boundry for Uni directional dialogs :), tx id is always encoded
     // on 4 octets, so this is its max value
     // private static final long _4_OCTETS_LONG_FILL = 4294967295l;
@@ -108,12 +113,20 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     private transient TCAPStackImpl stack; // originating TX id ~=Dialog, its direct
     // mapping, but not described
     // explicitly...
-    private transient FastMap<Long, DialogImpl> dialogs = new FastMap<Long, DialogImpl>();
-    protected transient FastMap<PrevewDialogDataKey, PrevewDialogData> dialogPreviewList = new FastMap<PrevewDialogDataKey, PrevewDialogData>();
+    private transient StripedLongMap<DialogImpl> dialogs = new StripedLongMap<DialogImpl>();
+    private transient volatile DialogIdAllocator dialogIdAllocator = new DialogIdAllocator(TCAPStackImpl._MAX_DIALOGS);
+    // preview mode: both sides of a dialog are stored under their PreviewDialogKey
+    protected transient StripedLongMap<PrevewDialogData> dialogPreviewList = new StripedLongMap<PrevewDialogData>();
 
     private int seqControl = 0;
     private int ssn;
-    private long curDialogId = 0;
+
+    // if set, incoming TC-BEGINs are rejected with the P-Abort "resourceLimitation" when it does not admit them
+    private transient volatile AdmissionController admissionController;
+    private transient CapacityCongestionMonitor dialogCountCongestionMonitor;
+    // monitors that are invoked every congestionMonitorInterval milliseconds by _EXECUTOR
+    private transient List<CongestionMonitor> congestionMonitors = new CopyOnWriteArrayList<CongestionMonitor>();
+    private transient Future congestionMonitorTask;
 
     protected TCAPProviderImpl(SccpProvider sccpProvider, TCAPStackImpl stack, int ssn) {
         super();
@@ -125,12 +138,90 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
         this.componentPrimitiveFactory = new ComponentPrimitiveFactoryImpl(this);
         this.dialogPrimitiveFactory = new DialogPrimitiveFactoryImpl(this.componentPrimitiveFactory);
+        this.dialogCountCongestionMonitor = new CapacityCongestionMonitor("TCAP-DIALOGS-" + ssn,
+                new CapacityCongestionMonitor.ResourceUsage() {
+                    public long getUsage() {
+                        return dialogs.size();
+                    }
+
+                    public long getCapacity() {
+                        return TCAPProviderImpl.this.stack.getMaxDialogs();
+                    }
+                });
+        this.congestionMonitors.add(this.dialogCountCongestionMonitor);
     }
 
     public boolean getPreviewMode() {
         return this.stack.getPreviewMode();
     }
 
+    /**
+     * @return the pool of recyclable TC messages and components or null if the messagePooling stack option is not set or
+     *         the stack is in the preview mode
+     */
+    public TcapMessagePool getMessagePool() {
+        return this.messagePool;
+    }
+
+    public AdmissionController getAdmissionController() {
+        return this.admissionController;
+    }
+
+    /**
+     * Sets the controller that decides if an incoming TC-BEGIN may open a new dialog. A rejected TC-BEGIN is answered with
+     * the P-Abort "resourceLimitation" before its dialog and component portions are parsed. Null (default) admits all
+     * TC-BEGINs.
+     */
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
+    }
+
+    /**
+     * @return the monitor of the active dialog count against the maxDialogs stack setting. It is invoked every
+     *         congestionMonitorInterval milliseconds, the user may register an {@link AdmissionController} as its listener
+     */
+    public CapacityCongestionMonitor getDialogCountCongestionMonitor() {
+        return this.dialogCountCongestionMonitor;
+    }
+
+    /**
+     * Adds a monitor whose monitor() is invoked by the stack timer every congestionMonitorInterval milliseconds together with
+     * the dialog count monitor
+     */
+    public void addCongestionMonitor(CongestionMonitor monitor) {
+        if (!this.congestionMonitors.contains(monitor))
+            this.congestionMonitors.add(monitor);
+    }
+
+    public void removeCongestionMonitor(CongestionMonitor monitor) {
+        this.congestionMonitors.remove(monitor);
+    }
+
+    /**
+     * (Re)schedules the invocation of congestion monitors with the congestionMonitorInterval stack setting
+     */
+    protected synchronized void scheduleCongestionMonitors() {
+        if (this.congestionMonitorTask != null) {
+            this.congestionMonitorTask.cancel(false);
+            this.congestionMonitorTask = null;
+        }
+        long interval = this.stack.getCongestionMonitorInterval();
+        if (this._EXECUTOR == null || this._EXECUTOR.isShutdown() || interval <= 0)
+            return;
+
+        this.congestionMonitorTask = this._EXECUTOR.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                for (CongestionMonitor monitor : congestionMonitors) {
+                    try {
+                        monitor.monitor();
+                    } catch (Exception e) {
+                        logger.error("Exception while monitoring congestion of " + monitor.getSource(), e);
+                    }
+                }
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -155,26 +246,40 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     }
 
-    private boolean checkAvailableTxId(Long id) {
-        if (!this.dialogs.containsKey(id))
-            return true;
-        else
-            return false;
+    private boolean checkAvailableTxId(long id) {
+        return !this.dialogs.containsKey(id);
     }
 
     // some help methods... crude but will work for first impl.
-    private Long getAvailableTxId() throws TCAPException {
+    private long getAvailableTxId() throws TCAPException {
         if (this.dialogs.size() >= this.stack.getMaxDialogs())
             throw new TCAPException("Current dialog count exceeds its maximum value");
 
         while (true) {
-            if (this.curDialogId < this.stack.getDialogIdRangeStart())
-                this.curDialogId = this.stack.getDialogIdRangeStart() - 1;
-            if (++this.curDialogId > this.stack.getDialogIdRangeEnd())
-                this.curDialogId = this.stack.getDialogIdRangeStart();
-            Long id = this.curDialogId;
+            long id = this.dialogIdAllocator.allocate(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd());
+            if (id < 0)
+                throw new TCAPException("No free transaction id is available in the dialog id range");
+            // the allocator bitmap may miss a user suggested id, the dialog table is the final authority
             if (checkAvailableTxId(id))
                 return id;
+            // the stored dialog does not own the slot bit, so the bit that has just been set is not kept
+            this.dialogIdAllocator.release(id);
+        }
+    }
+
+    /**
+     * Replaces the transaction id allocator when the new maximum dialog count needs another bitmap size. The new allocator is
+     * published before the ids of the current dialogs are marked in it, so a dialog released meanwhile clears its bit there.
+     */
+    synchronized void resizeDialogIdAllocator(int maxDialogs) {
+        if (DialogIdAllocator.getSlotCount(maxDialogs) == this.dialogIdAllocator.getSlotCount())
+            return;
+
+        DialogIdAllocator allocator = new DialogIdAllocator(maxDialogs);
+        this.dialogIdAllocator = allocator;
+        for (long id : this.dialogs.keys()) {
+            if (allocator.allocate(id) && !checkAvailableTxId(id))
+                allocator.release(id);
         }
     }
 
@@ -263,29 +368,46 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             throw new NullPointerException("LocalAddress must not be null");
         }
 
-        synchronized (this.dialogs) {
+        if (!structured) {
             if (id == null) {
+                // unstructured dialogs are not stored, the id is only taken from the rotating cursor
                 id = this.getAvailableTxId();
-            } else {
-                if (!checkAvailableTxId(id)) {
-                    throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
-                }
+                this.dialogIdAllocator.release(id);
             }
-            if (structured) {
-                DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl, this.stack.getPreviewMode());
-
-                this.dialogs.put(id, di);
-                if (this.stack.getStatisticsEnabled()) {
-                    this.stack.getCounterProviderImpl().updateMinDialogsCount(this.dialogs.size());
-                    this.stack.getCounterProviderImpl().updateMaxDialogsCount(this.dialogs.size());
-                }
+            return new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl, this.stack.getPreviewMode());
+        }
 
-                return di;
-            } else {
-                DialogImpl di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl, this.stack.getPreviewMode());
-                return di;
+        DialogImpl di;
+        if (id == null) {
+            while (true) {
+                long txId = this.getAvailableTxId();
+                di = new DialogImpl(localAddress, remoteAddress, txId, structured, this._EXECUTOR, this, seqControl, this.stack.getPreviewMode());
+                if (this.dialogs.putIfAbsent(txId, di) == null)
+                    break;
+                // the id is taken by a dialog that does not own its slot bit
+                di.stopIdleTimer();
+                this.dialogIdAllocator.release(txId);
+            }
+        } else {
+            if (!checkAvailableTxId(id)) {
+                throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
+            }
+            di = new DialogImpl(localAddress, remoteAddress, id, structured, this._EXECUTOR, this, seqControl, this.stack.getPreviewMode());
+            if (this.dialogs.putIfAbsent(id, di) != null) {
+                di.stopIdleTimer();
+                throw new TCAPException("Suggested local TransactionId is already present in system: " + id);
             }
+            // the slot may be held by a dialog whose id shares it, the dialog table has already accepted this id
+            this.dialogIdAllocator.allocate(id);
+        }
+
+        if (this.stack.getStatisticsEnabled()) {
+            int cnt = this.dialogs.size();
+            this.stack.getCounterProviderImpl().updateMinDialogsCount(cnt);
+            this.stack.getCounterProviderImpl().updateMaxDialogsCount(cnt);
         }
+
+        return di;
     }
 
     protected long getCurrentDialogsCount() {
@@ -322,6 +444,10 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             }
         }
 
+        TcapMessagePool pool = this.messagePool;
+        if (pool != null)
+            pool.releaseReceivedComponents(msg.getComponents());
+
     }
 
     public void deliver(DialogImpl dialogImpl, TCContinueIndicationImpl tcContinueIndication) {
@@ -339,6 +465,10 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             }
         }
 
+        TcapMessagePool pool = this.messagePool;
+        if (pool != null)
+            pool.releaseReceivedComponents(tcContinueIndication.getComponents());
+
     }
 
     public void deliver(DialogImpl dialogImpl, TCEndIndicationImpl tcEndIndication) {
@@ -355,6 +485,10 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 logger.error("Received exception while delivering data to transport layer.", e);
             }
         }
+
+        TcapMessagePool pool = this.messagePool;
+        if (pool != null)
+            pool.releaseReceivedComponents(tcEndIndication.getComponents());
     }
 
     public void deliver(DialogImpl dialogImpl, TCPAbortIndicationImpl tcAbortIndication) {
@@ -423,11 +557,12 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         Long did = d.getLocalDialogId();
 
         if (!d.getPreviewMode()) {
-            synchronized (this.dialogs) {
-                this.dialogs.remove(did);
+            if (did != null && this.dialogs.remove(did) != null) {
+                this.dialogIdAllocator.release(did);
                 if (this.stack.getStatisticsEnabled()) {
-                    this.stack.getCounterProviderImpl().updateMinDialogsCount(this.dialogs.size());
-                    this.stack.getCounterProviderImpl().updateMaxDialogsCount(this.dialogs.size());
+                    int cnt = this.dialogs.size();
+                    this.stack.getCounterProviderImpl().updateMinDialogsCount(cnt);
+                    this.stack.getCounterProviderImpl().updateMaxDialogsCount(cnt);
                 }
             }
 
@@ -479,7 +614,18 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
     // //////////////////////////////////////////
     public Future createOperationTimer(Runnable operationTimerTask, long invokeTimeout) {
 
-        return this._EXECUTOR.schedule(operationTimerTask, invokeTimeout, TimeUnit.MILLISECONDS);
+        return this.scheduleTimer(operationTimerTask, invokeTimeout);
+    }
+
+    /**
+     * Schedules a dialog or invoke timer task either on the timing wheel (if useTimerWheel or previewMode is set) or on the executor
+     */
+    protected Future scheduleTimer(Runnable timerTask, long timeout) {
+        TimerWheel wheel = this.timerWheel;
+        if (wheel != null)
+            return wheel.schedule(timerTask, timeout);
+        else
+            return this._EXECUTOR.schedule(timerTask, timeout, TimeUnit.MILLISECONDS);
     }
 
     public void operationTimedOut(InvokeImpl tcInvokeRequestImpl) {
@@ -498,15 +644,38 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
         logger.info("Starting TCAP Provider");
 
         this._EXECUTOR = Executors.newScheduledThreadPool(4);
+        this.dialogIdAllocator = new DialogIdAllocator(this.stack.getMaxDialogs());
+        // preview mode keeps received Invokes in the preview dialog data, so they can not be recycled
+        if (this.stack.getMessagePooling() && !this.stack.getPreviewMode())
+            this.messagePool = new TcapMessagePool();
+        // preview mode dialogs have no explicit release from both sides, their idle timers are the common case
+        if (this.stack.getUseTimerWheel() || this.stack.getPreviewMode()) {
+            this.timerWheel = new TimerWheel("TCAP-TimerWheel-" + this.stack.getName(), TimerWheel.DEFAULT_TICK_DURATION,
+                    TimerWheel.DEFAULT_WHEEL_SIZE, this._EXECUTOR);
+            this.timerWheel.start();
+        }
+        this.scheduleCongestionMonitors();
         this.sccpProvider.registerSccpListener(ssn, this);
         logger.info("Registered SCCP listener with address " + ssn);
     }
 
     void stop() {
+        if (this.timerWheel != null) {
+            this.timerWheel.stop();
+            this.timerWheel = null;
+        }
+        this.messagePool = null;
+        synchronized (this) {
+            if (this.congestionMonitorTask != null) {
+                this.congestionMonitorTask.cancel(false);
+                this.congestionMonitorTask = null;
+            }
+        }
         this._EXECUTOR.shutdown();
         this.sccpProvider.deregisterSccpListener(ssn);
 
         this.dialogs.clear();
+        this.dialogIdAllocator.clear();
         this.dialogPreviewList.clear();
     }
 
@@ -601,13 +770,14 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 return;
             }
 
+            TcapMessagePool pool = this.messagePool;
             switch (tag) {
             // continue first, usually we will get more of those. small perf
             // boost
             case TCContinueMessage._TAG:
                 TCContinueMessage tcm = null;
                 try {
-                    tcm = TcapFactory.createTCContinueMessage(ais);
+                    tcm = pool != null ? pool.createTCContinueMessage(ais) : TcapFactory.createTCContinueMessage(ais);
                 } catch (ParseException e) {
                     logger.error("ParseException when parsing TCContinueMessage: " + e.toString(), e);
 
@@ -631,14 +801,10 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 long dialogId = Utils.decodeTransactionId(tcm.getDestinationTransactionId());
                 DialogImpl di;
                 if (this.stack.getPreviewMode()) {
-                    PrevewDialogDataKey ky1 = new PrevewDialogDataKey(message.getIncomingDpc(),
-                            (message.getCalledPartyAddress().getGlobalTitle() != null ? message.getCalledPartyAddress().getGlobalTitle().getDigits() : null),
-                            message.getCalledPartyAddress().getSubsystemNumber(), dialogId);
+                    long ky1 = PreviewDialogKey.create(message.getIncomingDpc(), message.getCalledPartyAddress(), dialogId);
                     long dId = Utils.decodeTransactionId(tcm.getOriginatingTransactionId());
-                    PrevewDialogDataKey ky2 = new PrevewDialogDataKey(message.getIncomingOpc(),
-                            (message.getCallingPartyAddress().getGlobalTitle() != null ? message.getCallingPartyAddress().getGlobalTitle().getDigits() : null),
-                            message.getCallingPartyAddress().getSubsystemNumber(), dId);
-                    di = (DialogImpl) this.getPreviewDialog(ky1, ky2, localAddress, remoteAddress, seqControl);
+                    long ky2 = PreviewDialogKey.create(message.getIncomingOpc(), message.getCallingPartyAddress(), dId);
+                    di = (DialogImpl) this.getPreviewDialog(ky1, ky2, true, localAddress, remoteAddress, seqControl);
                 } else {
                     di = this.dialogs.get(dialogId);
                 }
@@ -649,13 +815,47 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 } else {
                     di.processContinue(tcm, localAddress, remoteAddress);
                 }
+                if (pool != null)
+                    pool.releaseReceivedMessage(tcm);
 
                 break;
 
             case TCBeginMessage._TAG:
+                TCAPRateLimiter rateLimiter = this.stack.getRateLimiter();
+                if (rateLimiter.isActive() && !this.stack.getPreviewMode()
+                        && !rateLimiter.tryAcquire(remoteAddress, message.getIncomingOpc())) {
+                    if (this.stack.getRateLimitSendAbort()) {
+                        TCUnidentifiedMessage tcUnidentified = new TCUnidentifiedMessage();
+                        tcUnidentified.decode(ais);
+                        if (tcUnidentified.getOriginatingTransactionId() != null) {
+                            this.sendProviderAbort(PAbortCauseType.ResourceLimitation, tcUnidentified.getOriginatingTransactionId(),
+                                    remoteAddress, localAddress, message.getSls(), message.getNetworkId());
+                        }
+                    }
+                    if (logger.isDebugEnabled())
+                        logger.debug("TC-BEGIN has been throttled by a rate limit rule, OPC=" + message.getIncomingOpc()
+                                + ", callingAddress=" + remoteAddress);
+                    return;
+                }
+
+                AdmissionController admission = this.admissionController;
+                if (admission != null && !this.stack.getPreviewMode() && !admission.admit()) {
+                    // overload: only the originating transaction id is needed for the rejection
+                    TCUnidentifiedMessage tcUnidentified = new TCUnidentifiedMessage();
+                    tcUnidentified.decode(ais);
+                    if (tcUnidentified.getOriginatingTransactionId() != null) {
+                        this.sendProviderAbort(PAbortCauseType.ResourceLimitation, tcUnidentified.getOriginatingTransactionId(),
+                                remoteAddress, localAddress, message.getSls(), message.getNetworkId());
+                    }
+                    if (logger.isDebugEnabled())
+                        logger.debug("TC-BEGIN has been rejected by the admission controller, congestion level="
+                                + admission.getCongestionLevel());
+                    return;
+                }
+
                 TCBeginMessage tcb = null;
                 try {
-                    tcb = TcapFactory.createTCBeginMessage(ais);
+                    tcb = pool != null ? pool.createTCBeginMessage(ais) : TcapFactory.createTCBeginMessage(ais);
                 } catch (ParseException e) {
                     logger.error("ParseException when parsing TCBeginMessage: " + e.toString(), e);
 
@@ -690,9 +890,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 try {
                     if (this.stack.getPreviewMode()) {
                         long dId = Utils.decodeTransactionId(tcb.getOriginatingTransactionId());
-                        PrevewDialogDataKey ky = new PrevewDialogDataKey(message.getIncomingOpc(),
-                                (message.getCallingPartyAddress().getGlobalTitle() != null ? message.getCallingPartyAddress().getGlobalTitle().getDigits()
-                                        : null), message.getCallingPartyAddress().getSubsystemNumber(), dId);
+                        long ky = PreviewDialogKey.create(message.getIncomingOpc(), message.getCallingPartyAddress(), dId);
                         di = (DialogImpl) this.createPreviewDialog(ky, localAddress, remoteAddress, seqControl);
                     } else {
                         di = (DialogImpl) this.getNewDialog(localAddress, remoteAddress, message.getSls(), null);
@@ -711,6 +909,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 }
                 di.setNetworkId(message.getNetworkId());
                 di.processBegin(tcb, localAddress, remoteAddress);
+                if (pool != null)
+                    pool.releaseReceivedMessage(tcb);
 
                 if (this.stack.getPreviewMode()) {
                     di.getPrevewDialogData().setLastACN(di.getApplicationContextName());
@@ -723,7 +923,7 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
             case TCEndMessage._TAG:
                 TCEndMessage teb = null;
                 try {
-                    teb = TcapFactory.createTCEndMessage(ais);
+                    teb = pool != null ? pool.createTCEndMessage(ais) : TcapFactory.createTCEndMessage(ais);
                 } catch (ParseException e) {
                     logger.error("ParseException when parsing TCEndMessage: " + e.toString(), e);
                     return;
@@ -731,10 +931,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
                 dialogId = Utils.decodeTransactionId(teb.getDestinationTransactionId());
                 if (this.stack.getPreviewMode()) {
-                    PrevewDialogDataKey ky = new PrevewDialogDataKey(message.getIncomingDpc(),
-                            (message.getCalledPartyAddress().getGlobalTitle() != null ? message.getCalledPartyAddress().getGlobalTitle().getDigits() : null),
-                            message.getCalledPartyAddress().getSubsystemNumber(), dialogId);
-                    di = (DialogImpl) this.getPreviewDialog(ky, null, localAddress, remoteAddress, seqControl);
+                    long ky = PreviewDialogKey.create(message.getIncomingDpc(), message.getCalledPartyAddress(), dialogId);
+                    di = (DialogImpl) this.getPreviewDialog(ky, 0, false, localAddress, remoteAddress, seqControl);
                 } else {
                     di = this.dialogs.get(dialogId);
                 }
@@ -747,6 +945,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                         this.removePreviewDialog(di);
                     }
                 }
+                if (pool != null)
+                    pool.releaseReceivedMessage(teb);
                 break;
 
             case TCAbortMessage._TAG:
@@ -761,10 +961,8 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
                 dialogId = Utils.decodeTransactionId(tub.getDestinationTransactionId());
                 if (this.stack.getPreviewMode()) {
                     long dId = Utils.decodeTransactionId(tub.getDestinationTransactionId());
-                    PrevewDialogDataKey ky = new PrevewDialogDataKey(message.getIncomingDpc(),
-                            (message.getCalledPartyAddress().getGlobalTitle() != null ? message.getCalledPartyAddress().getGlobalTitle().getDigits() : null),
-                            message.getCalledPartyAddress().getSubsystemNumber(), dId);
-                    di = (DialogImpl) this.getPreviewDialog(ky, null, localAddress, remoteAddress, seqControl);
+                    long ky = PreviewDialogKey.create(message.getIncomingDpc(), message.getCalledPartyAddress(), dId);
+                    di = (DialogImpl) this.getPreviewDialog(ky, 0, false, localAddress, remoteAddress, seqControl);
                 } else {
                     di = this.dialogs.get(dialogId);
                 }
@@ -886,151 +1084,85 @@ public class TCAPProviderImpl implements TCAPProvider, SccpListener {
 
     }
 
-    private Dialog createPreviewDialog(PrevewDialogDataKey ky, SccpAddress localAddress, SccpAddress remoteAddress,
-            int seqControl) throws TCAPException {
-        synchronized (this.dialogPreviewList) {
-            if (this.dialogPreviewList.size() >= this.stack.getMaxDialogs())
-                throw new TCAPException("Current dialog count exceeds its maximum value");
-
-            // checking if a Dialog is current already exists
-            PrevewDialogData pddx = this.dialogPreviewList.get(ky);
-            if (pddx != null) {
-                this.removePreviewDialog(pddx);
-                throw new TCAPException("Dialog with trId=" + ky.origTxId + " is already exists - we ignore it and drops curent dialog");
-            }
-
-            Long dialogId = this.getAvailableTxIdPreview();
-            PrevewDialogData pdd = new PrevewDialogData(this, dialogId);
-            this.dialogPreviewList.put(ky, pdd);
-            DialogImpl di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, false);
-            pdd.setPrevewDialogDataKey1(ky);
+    private Dialog createPreviewDialog(long ky, SccpAddress localAddress, SccpAddress remoteAddress, int seqControl)
+            throws TCAPException {
+        if (this.dialogPreviewList.size() >= this.stack.getMaxDialogs())
+            throw new TCAPException("Current dialog count exceeds its maximum value");
 
-            pdd.startIdleTimer();
+        Long dialogId = this.getAvailableTxIdPreview();
+        PrevewDialogData pdd = new PrevewDialogData(this, dialogId, ky);
 
-            return di;
+        // checking if a Dialog is current already exists
+        PrevewDialogData pddx = this.dialogPreviewList.putIfAbsent(ky, pdd);
+        if (pddx != null) {
+            this.removePreviewDialog(pddx);
+            throw new TCAPException("Dialog with trId=" + PreviewDialogKey.getTxId(ky)
+                    + " is already exists - we ignore it and drops curent dialog");
         }
+
+        DialogImpl di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, false);
+        pdd.startIdleTimer();
+
+        return di;
     }
 
     private Long getAvailableTxIdPreview() throws TCAPException {
-        while (true) {
-            if (this.curDialogId < this.stack.getDialogIdRangeStart())
-                this.curDialogId = this.stack.getDialogIdRangeStart() - 1;
-            if (++this.curDialogId > this.stack.getDialogIdRangeEnd())
-                this.curDialogId = this.stack.getDialogIdRangeStart();
-            Long id = this.curDialogId;
-            return id;
-        }
+        // preview dialogs are not stored in the dialog table, only a rotating id is needed
+        long id = this.dialogIdAllocator.allocate(this.stack.getDialogIdRangeStart(), this.stack.getDialogIdRangeEnd());
+        if (id < 0)
+            throw new TCAPException("No free transaction id is available in the dialog id range");
+        this.dialogIdAllocator.release(id);
+        return id;
     }
 
-    protected Dialog getPreviewDialog(PrevewDialogDataKey ky1, PrevewDialogDataKey ky2, SccpAddress localAddress,
+    /**
+     * Looks up a preview dialog by the key of the side the message is addressed to, then by the key of the sending side (ky2
+     * is known for TC-CONTINUE only). The first TC-CONTINUE also registers the second side of the dialog.
+     */
+    protected Dialog getPreviewDialog(long ky1, long ky2, boolean ky2Present, SccpAddress localAddress,
             SccpAddress remoteAddress, int seqControl) {
-        synchronized (this.dialogPreviewList) {
-            PrevewDialogData pdd = this.dialogPreviewList.get(ky1);
-            DialogImpl di = null;
-            boolean sideB = false;
-            if (pdd != null) {
-                sideB = pdd.getPrevewDialogDataKey1().equals(ky1);
-                di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, sideB);
-            } else {
-                if (ky2 != null)
-                    pdd = this.dialogPreviewList.get(ky2);
-                if (pdd != null) {
-                    sideB = pdd.getPrevewDialogDataKey1().equals(ky1);
-                    di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, sideB);
-                } else {
-                    return null;
-                }
-            }
+        PrevewDialogData pdd = this.dialogPreviewList.get(ky1);
+        if (pdd == null && ky2Present)
+            pdd = this.dialogPreviewList.get(ky2);
+        if (pdd == null)
+            return null;
 
-            pdd.restartIdleTimer();
+        boolean sideB = pdd.getPrevewDialogDataKey1() == ky1;
+        DialogImpl di = new DialogImpl(localAddress, remoteAddress, seqControl, this._EXECUTOR, this, pdd, sideB);
 
-            if (pdd.getPrevewDialogDataKey2() == null && ky2 != null) {
-                if (pdd.getPrevewDialogDataKey1().equals(ky1))
-                    pdd.setPrevewDialogDataKey2(ky2);
-                else
-                    pdd.setPrevewDialogDataKey2(ky1);
-                this.dialogPreviewList.put(pdd.getPrevewDialogDataKey2(), pdd);
-            }
+        pdd.restartIdleTimer();
 
-            return di;
+        if (ky2Present && !pdd.isPrevewDialogDataKey2Set()) {
+            long key2 = sideB ? ky2 : ky1;
+            if (pdd.setPrevewDialogDataKey2(key2))
+                this.dialogPreviewList.put(key2, pdd);
         }
+
+        return di;
     }
 
     protected void removePreviewDialog(DialogImpl di) {
-        synchronized (this.dialogPreviewList) {
-            PrevewDialogData pdd = this.dialogPreviewList.get(di.prevewDialogData.getPrevewDialogDataKey1());
-            if (pdd == null && di.prevewDialogData.getPrevewDialogDataKey2() != null) {
-                pdd = this.dialogPreviewList.get(di.prevewDialogData.getPrevewDialogDataKey2());
-            }
-
-            if (pdd != null)
-                removePreviewDialog(pdd);
-        }
+        PrevewDialogData pdd = di.prevewDialogData;
+        // the dialog may have already been replaced by a newer one with the same key
+        if (this.dialogPreviewList.get(pdd.getPrevewDialogDataKey1()) == pdd
+                || (pdd.isPrevewDialogDataKey2Set() && this.dialogPreviewList.get(pdd.getPrevewDialogDataKey2()) == pdd))
+            removePreviewDialog(pdd);
 
         this.doRelease(di);
     }
 
     protected void removePreviewDialog(PrevewDialogData pdd) {
-        synchronized (this.dialogPreviewList) {
-            this.dialogPreviewList.remove(pdd.getPrevewDialogDataKey1());
-            if (pdd.getPrevewDialogDataKey2() != null) {
-                this.dialogPreviewList.remove(pdd.getPrevewDialogDataKey2());
-            }
-        }
+        this.removePreviewDialogKey(pdd.getPrevewDialogDataKey1(), pdd);
+        if (pdd.isPrevewDialogDataKey2Set())
+            this.removePreviewDialogKey(pdd.getPrevewDialogDataKey2(), pdd);
         pdd.stopIdleTimer();
 
         // TODO ??? : create Dialog and invoke "this.doRelease(di);"
     }
 
-    protected class PrevewDialogDataKey {
-        public int dpc;
-        public String sccpDigits;
-        public int ssn;
-        public long origTxId;
-
-        public PrevewDialogDataKey(int dpc, String sccpDigits, int ssn, long txId) {
-            this.dpc = dpc;
-            this.sccpDigits = sccpDigits;
-            this.ssn = ssn;
-            this.origTxId = txId;
-        }
-
-        @Override
-        public boolean equals(Object obj) {
-            if (obj == null)
-                return false;
-            if (!(obj instanceof PrevewDialogDataKey))
-                return false;
-            PrevewDialogDataKey b = (PrevewDialogDataKey) obj;
-
-            if (this.sccpDigits != null) {
-                // sccpDigits + ssn
-                if (!this.sccpDigits.equals(b.sccpDigits))
-                    return false;
-            } else {
-                // dpc + ssn
-                if (this.dpc != b.dpc)
-                    return false;
-            }
-            if (this.ssn != b.ssn)
-                return false;
-            if (this.origTxId != b.origTxId)
-                return false;
-            return true;
-        }
-
-        @Override
-        public int hashCode() {
-            final int prime = 31;
-            int result = 1;
-            if (this.sccpDigits != null) {
-                result = prime * result + ((sccpDigits == null) ? 0 : sccpDigits.hashCode());
-            } else {
-                result = prime * result + this.dpc;
-            }
-            result = prime * result + this.ssn;
-            result = prime * result + (int) (this.origTxId + (this.origTxId >> 32));
-            return result;
-        }
+    private void removePreviewDialogKey(long ky, PrevewDialogData pdd) {
+        // a newer dialog may have taken the key meanwhile, it is kept
+        this.dialogPreviewList.remove(ky, pdd);
     }
+
 }
@@ -0,0 +1,209 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import java.util.Arrays;
+
+import javolution.util.FastMap;
+
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitKeyType;
+
+/**
+ * Per peer rate limiting of incoming TC-BEGINs.
+ *
+ * Rules are changed rarely (by management), so every change builds a new immutable lookup index that is published via a
+ * volatile field: a calling party GT digits trie for CallingGtPrefix rules and an OPC map for Opc rules. The TC-BEGIN path
+ * is a trie walk or a binary search plus one CAS on the token bucket of the matched rule, it takes no locks and allocates nothing.
+ */
+public class TCAPRateLimiter {
+
+    private final FastMap<Integer, RateLimitRuleImpl> rules = new FastMap<Integer, RateLimitRuleImpl>();
+    private volatile Index index = new Index();
+
+    /**
+     * @return true if at least one rule is configured
+     */
+    public boolean isActive() {
+        return !this.index.empty;
+    }
+
+    /**
+     * Finds the rule for an incoming TC-BEGIN and takes a token from its bucket
+     *
+     * @param callingAddress
+     * @param opc incoming OPC
+     * @return false if the TC-BEGIN must be throttled
+     */
+    public boolean tryAcquire(SccpAddress callingAddress, int opc) {
+        RateLimitRuleImpl rule = this.findRule(callingAddress, opc);
+        if (rule == null)
+            return true;
+        return rule.tryAcquire(System.nanoTime());
+    }
+
+    protected RateLimitRuleImpl findRule(SccpAddress callingAddress, int opc) {
+        Index idx = this.index;
+        if (idx.empty)
+            return null;
+
+        if (callingAddress != null) {
+            GlobalTitle gt = callingAddress.getGlobalTitle();
+            if (gt != null && gt.getDigits() != null) {
+                RateLimitRuleImpl rule = idx.gtRoot.findLongestPrefix(gt.getDigits());
+                if (rule != null)
+                    return rule;
+            }
+        }
+        int i = Arrays.binarySearch(idx.opcs, opc);
+        return i >= 0 ? idx.opcRules[i] : null;
+    }
+
+    public synchronized void addRule(RateLimitRuleImpl rule) {
+        RateLimitRuleImpl.checkRate(rule.getMaxRate(), rule.getBurstSize());
+        if (rule.getKeyType() == null || rule.getKey() == null)
+            throw new IllegalArgumentException("KeyType and Key must not be null");
+        if (this.rules.containsKey(rule.getId()))
+            throw new IllegalArgumentException("RateLimitRule with id=" + rule.getId() + " already exists");
+
+        if (rule.getKeyType() == RateLimitKeyType.Opc) {
+            int opc;
+            try {
+                opc = Integer.parseInt(rule.getKey());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Key of an Opc rule must be a decimal point code, found: " + rule.getKey());
+            }
+            if (opc < 0)
+                throw new IllegalArgumentException("Key of an Opc rule must not be negative, found: " + rule.getKey());
+        } else {
+            if (rule.getKey().length() == 0)
+                throw new IllegalArgumentException("Key of a CallingGtPrefix rule must not be empty");
+            for (int i = 0; i < rule.getKey().length(); i++) {
+                if (Character.digit(rule.getKey().charAt(i), 16) < 0)
+                    throw new IllegalArgumentException("Key of a CallingGtPrefix rule must contain only digits, found: "
+                            + rule.getKey());
+            }
+        }
+        for (RateLimitRuleImpl r : this.rules.values()) {
+            if (r.getKeyType() == rule.getKeyType() && r.getKey().equals(rule.getKey()))
+                throw new IllegalArgumentException("RateLimitRule with keyType=" + rule.getKeyType() + " and key="
+                        + rule.getKey() + " already exists, id=" + r.getId());
+        }
+
+        this.rules.put(rule.getId(), rule);
+        this.rebuildIndex();
+    }
+
+    public synchronized RateLimitRuleImpl removeRule(int id) {
+        RateLimitRuleImpl rule = this.rules.remove(id);
+        if (rule == null)
+            throw new IllegalArgumentException("RateLimitRule with id=" + id + " does not exist");
+        this.rebuildIndex();
+        return rule;
+    }
+
+    public synchronized RateLimitRuleImpl getRule(int id) {
+        return this.rules.get(id);
+    }
+
+    public synchronized RateLimitRuleImpl[] getRules() {
+        return this.rules.values().toArray(new RateLimitRuleImpl[this.rules.size()]);
+    }
+
+    public synchronized void clear() {
+        this.rules.clear();
+        this.rebuildIndex();
+    }
+
+    private void rebuildIndex() {
+        Index idx = new Index();
+        int opcCount = 0;
+        for (RateLimitRuleImpl rule : this.rules.values()) {
+            if (rule.getKeyType() == RateLimitKeyType.Opc)
+                opcCount++;
+            else
+                idx.gtRoot.add(rule.getKey(), rule);
+        }
+
+        // OPC rules are kept in a sorted array for a binary search without boxing
+        idx.opcs = new int[opcCount];
+        idx.opcRules = new RateLimitRuleImpl[opcCount];
+        int cnt = 0;
+        for (RateLimitRuleImpl rule : this.rules.values()) {
+            if (rule.getKeyType() == RateLimitKeyType.Opc) {
+                int opc = Integer.parseInt(rule.getKey());
+                int pos = cnt++;
+                while (pos > 0 && idx.opcs[pos - 1] > opc) {
+                    idx.opcs[pos] = idx.opcs[pos - 1];
+                    idx.opcRules[pos] = idx.opcRules[pos - 1];
+                    pos--;
+                }
+                idx.opcs[pos] = opc;
+                idx.opcRules[pos] = rule;
+            }
+        }
+
+        idx.empty = this.rules.size() == 0;
+        this.index = idx;
+    }
+
+    private static final class Index {
+        private final GtNode gtRoot = new GtNode();
+        private int[] opcs = new int[0];
+        private RateLimitRuleImpl[] opcRules = new RateLimitRuleImpl[0];
+        private boolean empty = true;
+    }
+
+    private static final class GtNode {
+        private final GtNode[] children = new GtNode[16];
+        private RateLimitRuleImpl rule;
+
+        void add(String prefix, RateLimitRuleImpl rule) {
+            GtNode node = this;
+            for (int i = 0; i < prefix.length(); i++) {
+                int d = Character.digit(prefix.charAt(i), 16);
+                if (node.children[d] == null)
+                    node.children[d] = new GtNode();
+                node = node.children[d];
+            }
+            node.rule = rule;
+        }
+
+        RateLimitRuleImpl findLongestPrefix(String digits) {
+            GtNode node = this;
+            RateLimitRuleImpl res = null;
+            for (int i = 0; i < digits.length(); i++) {
+                int d = Character.digit(digits.charAt(i), 16);
+                if (d < 0)
+                    break;
+                node = node.children[d];
+                if (node == null)
+                    break;
+                if (node.rule != null)
+                    res = node.rule;
+            }
+            return res;
+        }
+    }
+}
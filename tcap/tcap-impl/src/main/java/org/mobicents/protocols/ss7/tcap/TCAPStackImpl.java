@@ -36,6 +36,8 @@ import javolution.xml.stream.XMLStreamException;
 import org.apache.log4j.Logger;
 import org.mobicents.protocols.ss7.sccp.SccpProvider;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitKeyType;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitRule;
 import org.mobicents.protocols.ss7.tcap.api.TCAPCounterProvider;
 import org.mobicents.protocols.ss7.tcap.api.TCAPProvider;
 import org.mobicents.protocols.ss7.tcap.api.TCAPStack;
@@ -63,6 +65,9 @@ public class TCAPStackImpl implements TCAPStack {
     private static final String PREVIEW_MODE = "previewmode";
     private static final String DO_NOT_SEND_PROTOCOL_VERSION = "donotsendprotocolversion";
     private static final String STATISTICS_ENABLED = "statisticsenabled";
+    private static final String RATE_LIMIT_SEND_ABORT = "ratelimitsendabort";
+    private static final String RATE_LIMIT_RULE = "ratelimitrule";
+    private static final String CONGESTION_MONITOR_INTERVAL = "congestionmonitorinterval";
 
 
     private static final XMLBinding binding = new XMLBinding();
@@ -72,6 +77,7 @@ public class TCAPStackImpl implements TCAPStack {
     public static final long _INVOKE_TIMEOUT = 30000;
     public static final int _MAX_DIALOGS = 5000;
     public static final long _EMPTY_INVOKE_TIMEOUT = -1;
+    public static final long _CONGESTION_MONITOR_INTERVAL = 100;
     // TCAP state data, it is used ONLY on client side
     protected TCAPProviderImpl tcapProvider;
     protected TCAPCounterProviderImpl tcapCounterProvider;
@@ -95,8 +101,13 @@ public class TCAPStackImpl implements TCAPStack {
     private long dialogIdRangeStart = 1;
     private long dialogIdRangeEnd = Integer.MAX_VALUE;
     private boolean previewMode = false;
+    private boolean useTimerWheel = false;
+    private boolean messagePooling = false;
     private boolean doNotSendProtocolVersion = false;
     private boolean statisticsEnabled = false;
+    private volatile boolean rateLimitSendAbort = true;
+    private final TCAPRateLimiter rateLimiter = new TCAPRateLimiter();
+    private long congestionMonitorInterval = _CONGESTION_MONITOR_INTERVAL;
 
     private int ssn = -1;
 
@@ -299,6 +310,7 @@ public class TCAPStackImpl implements TCAPStack {
             throw new IllegalArgumentException("MaxDialog must be less than DialogIdRange");
 
         maxDialogs = v;
+        this.tcapProvider.resizeDialogIdAllocator(v);
 
         this.store();
     }
@@ -307,6 +319,27 @@ public class TCAPStackImpl implements TCAPStack {
         return maxDialogs;
     }
 
+    /**
+     * Sets the period in milliseconds of congestion monitor invocations (the dialog count monitor and monitors added by
+     * TCAPProviderImpl.addCongestionMonitor()). 0 disables the invocations.
+     */
+    public void setCongestionMonitorInterval(long v) throws Exception {
+        if (!this.started)
+            throw new Exception("CongestionMonitorInterval parameter can be updated only when TCAP stack is running");
+
+        if (v < 0)
+            throw new IllegalArgumentException("CongestionMonitorInterval value must be greater or equal to zero.");
+
+        this.congestionMonitorInterval = v;
+        this.tcapProvider.scheduleCongestionMonitors();
+
+        this.store();
+    }
+
+    public long getCongestionMonitorInterval() {
+        return this.congestionMonitorInterval;
+    }
+
     public void setDialogIdRangeStart(long val) throws Exception {
         if (!this.started)
             throw new Exception("DialogIdRangeStart parameter can be updated only when TCAP stack is running");
@@ -348,6 +381,32 @@ public class TCAPStackImpl implements TCAPStack {
         return previewMode;
     }
 
+    @Override
+    public void setUseTimerWheel(boolean val) throws Exception {
+        if (this.started)
+            throw new Exception("UseTimerWheel parameter can be updated only when TCAP stack is NOT running");
+
+        useTimerWheel = val;
+    }
+
+    @Override
+    public boolean getUseTimerWheel() {
+        return useTimerWheel;
+    }
+
+    @Override
+    public void setMessagePooling(boolean val) throws Exception {
+        if (this.started)
+            throw new Exception("MessagePooling parameter can be updated only when TCAP stack is NOT running");
+
+        messagePooling = val;
+    }
+
+    @Override
+    public boolean getMessagePooling() {
+        return messagePooling;
+    }
+
     @Override
     public void setDoNotSendProtocolVersion(boolean val) throws Exception {
         if (!this.started)
@@ -380,6 +439,55 @@ public class TCAPStackImpl implements TCAPStack {
         return statisticsEnabled;
     }
 
+    public TCAPRateLimiter getRateLimiter() {
+        return this.rateLimiter;
+    }
+
+    @Override
+    public void addRateLimitRule(int id, RateLimitKeyType keyType, String key, int maxRate, int burstSize) throws Exception {
+        if (!this.started)
+            throw new Exception("RateLimitRule can be added only when TCAP stack is running");
+
+        this.rateLimiter.addRule(new RateLimitRuleImpl(id, keyType, key, maxRate, burstSize));
+
+        this.store();
+    }
+
+    @Override
+    public void removeRateLimitRule(int id) throws Exception {
+        if (!this.started)
+            throw new Exception("RateLimitRule can be removed only when TCAP stack is running");
+
+        this.rateLimiter.removeRule(id);
+
+        this.store();
+    }
+
+    @Override
+    public RateLimitRule getRateLimitRule(int id) {
+        return this.rateLimiter.getRule(id);
+    }
+
+    @Override
+    public RateLimitRule[] getRateLimitRules() {
+        return this.rateLimiter.getRules();
+    }
+
+    @Override
+    public void setRateLimitSendAbort(boolean val) throws Exception {
+        if (!this.started)
+            throw new Exception("RateLimitSendAbort parameter can be updated only when TCAP stack is running");
+
+        rateLimitSendAbort = val;
+
+        this.store();
+    }
+
+    @Override
+    public boolean getRateLimitSendAbort() {
+        return rateLimitSendAbort;
+    }
+
     /**
      * Persist
      */
@@ -407,6 +515,13 @@ public class TCAPStackImpl implements TCAPStack {
 
             writer.write(this.statisticsEnabled, STATISTICS_ENABLED, Boolean.class);
 
+            writer.write(this.congestionMonitorInterval, CONGESTION_MONITOR_INTERVAL, Long.class);
+
+            writer.write(this.rateLimitSendAbort, RATE_LIMIT_SEND_ABORT, Boolean.class);
+            for (RateLimitRuleImpl rule : this.rateLimiter.getRules()) {
+                writer.write(rule, RATE_LIMIT_RULE, RateLimitRuleImpl.class);
+            }
+
             writer.close();
         } catch (Exception e) {
             this.logger.error(
@@ -449,6 +564,25 @@ public class TCAPStackImpl implements TCAPStack {
             if (volb != null)
                 this.statisticsEnabled = volb;
 
+            vall = reader.read(CONGESTION_MONITOR_INTERVAL, Long.class);
+            if (vall != null && vall >= 0)
+                this.congestionMonitorInterval = vall;
+
+            volb = reader.read(RATE_LIMIT_SEND_ABORT, Boolean.class);
+            if (volb != null)
+                this.rateLimitSendAbort = volb;
+            this.rateLimiter.clear();
+            while (true) {
+                RateLimitRuleImpl rule = reader.read(RATE_LIMIT_RULE, RateLimitRuleImpl.class);
+                if (rule == null)
+                    break;
+                try {
+                    this.rateLimiter.addRule(rule);
+                } catch (IllegalArgumentException e) {
+                    this.logger.error("Persisted RateLimitRule is ignored: " + rule, e);
+                }
+            }
+
             reader.close();
         } catch (XMLStreamException ex) {
             // this.logger.info(
@@ -0,0 +1,337 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Hashed timing wheel for dialog idle and invoke timers.
+ *
+ * schedule() and cancel() only enqueue the timer / flip its state, both are O(1) and lock-free. A single wheel thread moves
+ * new timers into buckets, unlinks cancelled ones and expires one bucket per tick; expired tasks are handed to the executor.
+ * Timers whose delay exceeds one wheel revolution keep a rounds counter, the default wheel size covers the usual dialog idle
+ * timeout in a single revolution.
+ */
+public class TimerWheel {
+
+    private static final Logger logger = Logger.getLogger(TimerWheel.class);
+
+    public static final long DEFAULT_TICK_DURATION = 10;
+    public static final int DEFAULT_WHEEL_SIZE = 8192;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+
+    private final ConcurrentLinkedQueue<WheelTimeout> newTimeouts = new ConcurrentLinkedQueue<WheelTimeout>();
+    private final ConcurrentLinkedQueue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<WheelTimeout>();
+
+    private volatile boolean started;
+    private Thread workerThread;
+    private long startTime;
+    private long tick;
+
+    /**
+     * @param name name of the wheel thread
+     * @param tickDuration tick duration in milliseconds
+     * @param wheelSize count of buckets, rounded up to a power of two
+     * @param executor executor that runs expired tasks
+     */
+    public TimerWheel(String name, long tickDuration, int wheelSize, Executor executor) {
+        if (tickDuration <= 0)
+            throw new IllegalArgumentException("Tick duration must be greater than zero");
+
+        int size = 1;
+        while (size < wheelSize)
+            size <<= 1;
+
+        this.name = name;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            this.wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+    }
+
+    public void start() {
+        if (this.started)
+            return;
+
+        this.startTime = System.nanoTime();
+        this.tick = 0;
+        this.started = true;
+        this.workerThread = new Thread(new Worker(), this.name);
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    public void stop() {
+        if (!this.started)
+            return;
+
+        this.started = false;
+        this.workerThread.interrupt();
+        try {
+            this.workerThread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.workerThread = null;
+
+        for (Bucket b : this.wheel) {
+            b.clear();
+        }
+        this.newTimeouts.clear();
+        this.cancelledTimeouts.clear();
+    }
+
+    public boolean isStarted() {
+        return this.started;
+    }
+
+    /**
+     * Schedules the task for execution after the delay
+     *
+     * @param task
+     * @param delay delay in milliseconds
+     * @return a handle for timer cancellation
+     */
+    public Future<?> schedule(Runnable task, long delay) {
+        if (!this.started)
+            throw new RejectedExecutionException("TimerWheel " + this.name + " is not started");
+
+        WheelTimeout t = new WheelTimeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay),
+                this.cancelledTimeouts);
+        this.newTimeouts.add(t);
+        return t;
+    }
+
+    private void transferNewTimeouts() {
+        // a bounded batch per tick so a schedule storm can not stall the wheel
+        for (int i = 0; i < 100000; i++) {
+            WheelTimeout t = this.newTimeouts.poll();
+            if (t == null)
+                break;
+            if (t.state != WheelTimeout.ST_INIT)
+                continue;
+
+            long calculated = (t.deadline - this.startTime + this.tickNanos - 1) / this.tickNanos;
+            long ticks = Math.max(calculated, this.tick);
+            t.remainingRounds = (ticks - this.tick) / this.wheel.length;
+            this.wheel[(int) (ticks & this.mask)].add(t);
+        }
+    }
+
+    private void processCancelledTimeouts() {
+        while (true) {
+            WheelTimeout t = this.cancelledTimeouts.poll();
+            if (t == null)
+                break;
+            if (t.bucket != null)
+                t.bucket.remove(t);
+        }
+    }
+
+    private void expireBucket(Bucket bucket) {
+        WheelTimeout t = bucket.head;
+        while (t != null) {
+            WheelTimeout next = t.next;
+            if (t.remainingRounds <= 0) {
+                bucket.remove(t);
+                if (t.expire()) {
+                    try {
+                        this.executor.execute(t);
+                    } catch (RejectedExecutionException e) {
+                        logger.warn("TimerWheel " + this.name + ": expired task has been rejected by the executor", e);
+                    }
+                }
+            } else {
+                t.remainingRounds--;
+            }
+            t = next;
+        }
+    }
+
+    private class Worker implements Runnable {
+        public void run() {
+            while (started) {
+                long deadline = tickNanos * (tick + 1);
+                long sleepNanos = deadline - (System.nanoTime() - startTime);
+                if (sleepNanos > 0) {
+                    try {
+                        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(sleepNanos + 999999));
+                    } catch (InterruptedException e) {
+                        if (!started)
+                            return;
+                    }
+                    continue;
+                }
+
+                try {
+                    processCancelledTimeouts();
+                    transferNewTimeouts();
+                    expireBucket(wheel[(int) (tick & mask)]);
+                } catch (Throwable e) {
+                    logger.error("TimerWheel " + name + ": exception while processing a tick", e);
+                }
+                tick++;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        void add(WheelTimeout t) {
+            t.bucket = this;
+            if (this.head == null) {
+                this.head = this.tail = t;
+            } else {
+                this.tail.next = t;
+                t.prev = this.tail;
+                this.tail = t;
+            }
+        }
+
+        void remove(WheelTimeout t) {
+            if (t.prev != null)
+                t.prev.next = t.next;
+            else
+                this.head = t.next;
+            if (t.next != null)
+                t.next.prev = t.prev;
+            else
+                this.tail = t.prev;
+            t.prev = null;
+            t.next = null;
+            t.bucket = null;
+        }
+
+        void clear() {
+            this.head = null;
+            this.tail = null;
+        }
+    }
+
+    private static final class WheelTimeout implements Future<Object>, Runnable {
+        static final int ST_INIT = 0;
+        static final int ST_CANCELLED = 1;
+        static final int ST_EXPIRED = 2;
+
+        private static final AtomicIntegerFieldUpdater<WheelTimeout> STATE_UPDATER = AtomicIntegerFieldUpdater.newUpdater(
+                WheelTimeout.class, "state");
+
+        private final Runnable task;
+        private final long deadline;
+        private final ConcurrentLinkedQueue<WheelTimeout> cancelledTimeouts;
+        volatile int state = ST_INIT;
+        private volatile boolean completed;
+        private volatile boolean waiting;
+
+        // accessed by the wheel thread only
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTimeout prev;
+        private WheelTimeout next;
+
+        WheelTimeout(Runnable task, long deadline, ConcurrentLinkedQueue<WheelTimeout> cancelledTimeouts) {
+            this.task = task;
+            this.deadline = deadline;
+            this.cancelledTimeouts = cancelledTimeouts;
+        }
+
+        boolean expire() {
+            return STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED);
+        }
+
+        public void run() {
+            try {
+                this.task.run();
+            } finally {
+                this.completed = true;
+                this.wakeUpWaiters();
+            }
+        }
+
+        private void wakeUpWaiters() {
+            // get() is almost never used, so the monitor is taken only when somebody waits
+            if (this.waiting) {
+                synchronized (this) {
+                    this.notifyAll();
+                }
+            }
+        }
+
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED))
+                return false;
+            this.cancelledTimeouts.add(this);
+            this.wakeUpWaiters();
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return this.state == ST_CANCELLED;
+        }
+
+        public boolean isDone() {
+            return this.state == ST_CANCELLED || this.completed;
+        }
+
+        public synchronized Object get() throws InterruptedException, ExecutionException {
+            this.waiting = true;
+            while (!this.isDone()) {
+                this.wait();
+            }
+            return null;
+        }
+
+        public synchronized Object get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+                TimeoutException {
+            this.waiting = true;
+            long end = System.nanoTime() + unit.toNanos(timeout);
+            while (!this.isDone()) {
+                long rest = end - System.nanoTime();
+                if (rest <= 0)
+                    throw new TimeoutException();
+                TimeUnit.NANOSECONDS.timedWait(this, rest);
+            }
+            return null;
+        }
+    }
+
+}
@@ -51,6 +51,8 @@ public class InvokeImpl implements Invoke {
     // local to stack
     private InvokeClass invokeClass = InvokeClass.Class1;
     private long invokeTimeout = TCAPStackImpl._EMPTY_INVOKE_TIMEOUT;
+    // System.nanoTime() when the Invoke has been sent, 0 if not measured (statistics disabled)
+    private long sentTime;
     private OperationState state = OperationState.Idle;
     private Future timerFuture;
     private OperationTimerTask operationTimerTask = new OperationTimerTask(this);
@@ -83,6 +85,10 @@ public class InvokeImpl implements Invoke {
     // optional
     private Parameter parameter;
 
+    // pooling, see TcapMessagePool
+    private boolean recyclable;
+    private boolean released;
+
     /*
      * (non-Javadoc)
      *
@@ -193,6 +199,40 @@ public class InvokeImpl implements Invoke {
                 + parameter + ", invokeClass=" + invokeClass + ", state=" + state + "]";
     }
 
+    protected boolean isRecyclable() {
+        return this.recyclable;
+    }
+
+    protected void setRecyclable(boolean recyclable) {
+        this.recyclable = recyclable;
+        this.released = false;
+    }
+
+    /**
+     * Clears the component before it is returned to the pool. Only received Invokes are pooled, so there is no operation
+     * timer to stop.
+     *
+     * @return false if the component has already been released
+     */
+    protected boolean recycle() {
+        if (this.released)
+            return false;
+        this.released = true;
+        this.invokeClass = InvokeClass.Class1;
+        this.invokeTimeout = TCAPStackImpl._EMPTY_INVOKE_TIMEOUT;
+        this.sentTime = 0;
+        this.state = OperationState.Idle;
+        this.timerFuture = null;
+        this.provider = null;
+        this.dialog = null;
+        this.invokeId = null;
+        this.linkedId = null;
+        this.linkedInvoke = null;
+        this.operationCode = null;
+        this.parameter = null;
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -299,6 +339,14 @@ public class InvokeImpl implements Invoke {
         this.invokeTimeout = invokeTimeout;
     }
 
+    public long getSentTime() {
+        return sentTime;
+    }
+
+    public void setSentTime(long sentTime) {
+        this.sentTime = sentTime;
+    }
+
     // ////////////////////
     // set methods for //
     // relevant data //
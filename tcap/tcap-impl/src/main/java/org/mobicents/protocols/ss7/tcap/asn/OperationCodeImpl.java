@@ -38,6 +38,15 @@ import org.mobicents.protocols.ss7.tcap.asn.comp.OperationCodeType;
  */
 public class OperationCodeImpl implements OperationCode {
 
+    // string values of local codes are used as statistics keys for every component, so they are prebuilt
+    private static final String[] LOCAL_CODE_STRINGS = new String[256];
+
+    static {
+        for (int i = 0; i < LOCAL_CODE_STRINGS.length; i++) {
+            LOCAL_CODE_STRINGS[i] = Integer.toString(i);
+        }
+    }
+
     private Long localOperationCode;
     private long[] globalOperationCode;
     private OperationCodeType type;
@@ -81,9 +90,16 @@ public class OperationCodeImpl implements OperationCode {
         return this.globalOperationCode;
     }
 
+    static String localCodeToString(long code) {
+        if (code >= 0 && code < LOCAL_CODE_STRINGS.length)
+            return LOCAL_CODE_STRINGS[(int) code];
+        else
+            return Long.toString(code);
+    }
+
     public String getStringValue() {
         if (this.localOperationCode != null)
-            return this.localOperationCode.toString();
+            return localCodeToString(this.localOperationCode);
         else if (this.globalOperationCode != null)
             return Arrays.toString(this.globalOperationCode);
         else
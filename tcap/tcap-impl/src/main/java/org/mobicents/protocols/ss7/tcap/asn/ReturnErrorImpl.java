@@ -51,6 +51,10 @@ public class ReturnErrorImpl implements ReturnError {
     // optional
     private Parameter parameter;
 
+    // pooling, see TcapMessagePool
+    private boolean recyclable;
+    private boolean released;
+
     /*
      * (non-Javadoc)
      *
@@ -121,6 +125,30 @@ public class ReturnErrorImpl implements ReturnError {
         return "ReturnError[invokeId=" + invokeId + ", errorCode=" + errorCode + ", parameters=" + parameter + "]";
     }
 
+    protected boolean isRecyclable() {
+        return this.recyclable;
+    }
+
+    protected void setRecyclable(boolean recyclable) {
+        this.recyclable = recyclable;
+        this.released = false;
+    }
+
+    /**
+     * Clears the component before it is returned to the pool
+     *
+     * @return false if the component has already been released
+     */
+    protected boolean recycle() {
+        if (this.released)
+            return false;
+        this.released = true;
+        this.invokeId = null;
+        this.errorCode = null;
+        this.parameter = null;
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
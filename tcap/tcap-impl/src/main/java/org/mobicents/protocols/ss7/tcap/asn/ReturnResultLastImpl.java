@@ -51,6 +51,10 @@ public class ReturnResultLastImpl implements ReturnResultLast {
     // optional
     private Parameter parameter;
 
+    // pooling, see TcapMessagePool
+    private boolean recyclable;
+    private boolean released;
+
     /*
      * (non-Javadoc)
      *
@@ -122,6 +126,30 @@ public class ReturnResultLastImpl implements ReturnResultLast {
         return "ReturnResultLast[invokeId=" + invokeId + ", operationCode=" + operationCode + ", parameter=" + parameter + "]";
     }
 
+    protected boolean isRecyclable() {
+        return this.recyclable;
+    }
+
+    protected void setRecyclable(boolean recyclable) {
+        this.recyclable = recyclable;
+        this.released = false;
+    }
+
+    /**
+     * Clears the component before it is returned to the pool
+     *
+     * @return false if the component has already been released
+     */
+    protected boolean recycle() {
+        if (this.released)
+            return false;
+        this.released = true;
+        this.invokeId = null;
+        this.operationCode = null;
+        this.parameter = null;
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
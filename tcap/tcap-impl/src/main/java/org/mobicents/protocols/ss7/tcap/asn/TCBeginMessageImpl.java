@@ -49,6 +49,10 @@ public class TCBeginMessageImpl implements TCBeginMessage {
     // opt
     private Component[] component;
 
+    // pooling, see TcapMessagePool
+    private TcapMessagePool recyclingPool;
+    private boolean released;
+
     /*
      * (non-Javadoc)
      *
@@ -111,6 +115,30 @@ public class TCBeginMessageImpl implements TCBeginMessage {
 
     }
 
+    protected void setRecyclable(TcapMessagePool pool) {
+        this.recyclingPool = pool;
+        this.released = false;
+    }
+
+    protected TcapMessagePool getRecyclingPool() {
+        return this.recyclingPool;
+    }
+
+    /**
+     * Clears the message before it is returned to the pool
+     *
+     * @return false if the message has already been released
+     */
+    protected boolean recycle() {
+        if (this.released)
+            return false;
+        this.released = true;
+        this.originatingTransactionId = null;
+        this.dp = null;
+        this.component = null;
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -145,7 +173,7 @@ public class TCBeginMessageImpl implements TCBeginMessage {
                         List<Component> cps = new ArrayList<Component>();
                         // its iterator :)
                         while (compAis.available() > 0) {
-                            Component c = TcapFactory.createComponent(compAis);
+                            Component c = TcapFactory.createComponent(compAis, this.recyclingPool);
                             if (c == null) {
                                 break;
                             }
@@ -51,6 +51,10 @@ public class TCContinueMessageImpl implements TCContinueMessage {
     // opt
     private Component[] component;
 
+    // pooling, see TcapMessagePool
+    private TcapMessagePool recyclingPool;
+    private boolean released;
+
     /*
      * (non-Javadoc)
      *
@@ -133,6 +137,31 @@ public class TCContinueMessageImpl implements TCContinueMessage {
         this.originatingTransactionId = t;
     }
 
+    protected void setRecyclable(TcapMessagePool pool) {
+        this.recyclingPool = pool;
+        this.released = false;
+    }
+
+    protected TcapMessagePool getRecyclingPool() {
+        return this.recyclingPool;
+    }
+
+    /**
+     * Clears the message before it is returned to the pool
+     *
+     * @return false if the message has already been released
+     */
+    protected boolean recycle() {
+        if (this.released)
+            return false;
+        this.released = true;
+        this.originatingTransactionId = null;
+        this.destinationTransactionId = null;
+        this.dp = null;
+        this.component = null;
+        return true;
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -176,7 +205,7 @@ public class TCContinueMessageImpl implements TCContinueMessage {
                         List<Component> cps = new ArrayList<Component>();
                         // its iterator :)
                         while (compAis.available() > 0) {
-                            Component c = TcapFactory.createComponent(compAis);
+                            Component c = TcapFactory.createComponent(compAis, this.recyclingPool);
                             if (c == null) {
                                 break;
                             }
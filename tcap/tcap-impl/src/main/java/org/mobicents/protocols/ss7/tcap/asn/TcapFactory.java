@@ -273,6 +273,14 @@ public final class TcapFactory {
     }
 
     public static Component createComponent(AsnInputStream localAis) throws ParseException {
+        return createComponent(localAis, null);
+    }
+
+    /**
+     * Decodes a component, Invoke, ReturnResult, ReturnResultLast and ReturnError components are taken from the pool if it is
+     * not null
+     */
+    public static Component createComponent(AsnInputStream localAis, TcapMessagePool pool) throws ParseException {
 
         try {
             try {
@@ -286,19 +294,19 @@ public final class TcapFactory {
 
                 switch (tag) {
                     case Invoke._TAG:
-                        c = createComponentInvoke();
+                        c = pool != null ? pool.createComponentInvoke() : createComponentInvoke();
                         c.decode(localAis);
                         break;
                     case ReturnResult._TAG:
-                        c = createComponentReturnResult();
+                        c = pool != null ? pool.createComponentReturnResult() : createComponentReturnResult();
                         c.decode(localAis);
                         break;
                     case ReturnResultLast._TAG:
-                        c = createComponentReturnResultLast();
+                        c = pool != null ? pool.createComponentReturnResultLast() : createComponentReturnResultLast();
                         c.decode(localAis);
                         break;
                     case ReturnError._TAG:
-                        c = createComponentReturnError();
+                        c = pool != null ? pool.createComponentReturnError() : createComponentReturnError();
                         c.decode(localAis);
                         break;
                     case Reject._TAG:
@@ -0,0 +1,329 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap.asn;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.ss7.statistics.StripedCounter;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
+import org.mobicents.protocols.ss7.tcap.asn.comp.ComponentType;
+
+/**
+ * Pool of recyclable TC-BEGIN, TC-CONTINUE and TC-END messages and of Invoke, ReturnResult, ReturnResultLast and ReturnError
+ * components.
+ *
+ * Lifecycle of pooled objects:
+ * <ul>
+ * <li>a received message is released when the provider has passed it to the dialog, its components are released when all
+ * TCListener callbacks for the indication have returned;</li>
+ * <li>a sent message is released together with its ReturnResult, ReturnResultLast and ReturnError components after it has
+ * been encoded. Sent Invokes are kept by the dialog until the operation is finished, so they are never pooled.</li>
+ * </ul>
+ * A recycled object only drops its references, objects it referred to (parameters, operation codes, dialog portions,
+ * transaction ids) are never reused, so they stay valid for the TCAP user after the release. Rejects are not pooled: a
+ * locally originated Reject is both delivered to the user and scheduled for sending.
+ */
+public class TcapMessagePool {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // component arrays of sent messages are pooled for this number of components at most
+    private static final int MAX_POOLED_ARRAY_LENGTH = 4;
+
+    private final ObjectStack beginMessages;
+    private final ObjectStack continueMessages;
+    private final ObjectStack endMessages;
+    private final ObjectStack invokes;
+    private final ObjectStack returnResults;
+    private final ObjectStack returnResultLasts;
+    private final ObjectStack returnErrors;
+    private final ObjectStack[] componentArrays = new ObjectStack[MAX_POOLED_ARRAY_LENGTH + 1];
+
+    private final StripedCounter allocatedCount = new StripedCounter();
+    private final StripedCounter reusedCount = new StripedCounter();
+    private final StripedCounter releasedCount = new StripedCounter();
+
+    public TcapMessagePool() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity maximum count of idle objects of every type that are kept in the pool
+     */
+    public TcapMessagePool(int capacity) {
+        this.beginMessages = new ObjectStack(capacity);
+        this.continueMessages = new ObjectStack(capacity);
+        this.endMessages = new ObjectStack(capacity);
+        this.invokes = new ObjectStack(capacity);
+        this.returnResults = new ObjectStack(capacity);
+        this.returnResultLasts = new ObjectStack(capacity);
+        this.returnErrors = new ObjectStack(capacity);
+        for (int i = 1; i <= MAX_POOLED_ARRAY_LENGTH; i++) {
+            this.componentArrays[i] = new ObjectStack(capacity);
+        }
+    }
+
+    /**
+     * @return count of objects that have been created because the pool was empty
+     */
+    public long getAllocatedCount() {
+        return this.allocatedCount.sum();
+    }
+
+    /**
+     * @return count of objects that have been taken from the pool instead of being created
+     */
+    public long getReusedCount() {
+        return this.reusedCount.sum();
+    }
+
+    /**
+     * @return count of objects that have been returned to the pool
+     */
+    public long getReleasedCount() {
+        return this.releasedCount.sum();
+    }
+
+    public void resetCounters() {
+        this.allocatedCount.reset();
+        this.reusedCount.reset();
+        this.releasedCount.reset();
+    }
+
+    // messages
+
+    public TCBeginMessageImpl createTCBeginMessage() {
+        TCBeginMessageImpl res = (TCBeginMessageImpl) this.acquire(this.beginMessages);
+        if (res == null)
+            res = new TCBeginMessageImpl();
+        res.setRecyclable(this);
+        return res;
+    }
+
+    public TCBeginMessageImpl createTCBeginMessage(AsnInputStream ais) throws ParseException {
+        TCBeginMessageImpl res = this.createTCBeginMessage();
+        res.decode(ais);
+        return res;
+    }
+
+    public TCContinueMessageImpl createTCContinueMessage() {
+        TCContinueMessageImpl res = (TCContinueMessageImpl) this.acquire(this.continueMessages);
+        if (res == null)
+            res = new TCContinueMessageImpl();
+        res.setRecyclable(this);
+        return res;
+    }
+
+    public TCContinueMessageImpl createTCContinueMessage(AsnInputStream ais) throws ParseException {
+        TCContinueMessageImpl res = this.createTCContinueMessage();
+        res.decode(ais);
+        return res;
+    }
+
+    public TCEndMessageImpl createTCEndMessage() {
+        TCEndMessageImpl res = (TCEndMessageImpl) this.acquire(this.endMessages);
+        if (res == null)
+            res = new TCEndMessageImpl();
+        res.setRecyclable(this);
+        return res;
+    }
+
+    public TCEndMessageImpl createTCEndMessage(AsnInputStream ais) throws ParseException {
+        TCEndMessageImpl res = this.createTCEndMessage();
+        res.decode(ais);
+        return res;
+    }
+
+    // components
+
+    public InvokeImpl createComponentInvoke() {
+        InvokeImpl res = (InvokeImpl) this.acquire(this.invokes);
+        if (res == null)
+            res = new InvokeImpl();
+        res.setRecyclable(true);
+        return res;
+    }
+
+    public ReturnResultImpl createComponentReturnResult() {
+        ReturnResultImpl res = (ReturnResultImpl) this.acquire(this.returnResults);
+        if (res == null)
+            res = new ReturnResultImpl();
+        res.setRecyclable(true);
+        return res;
+    }
+
+    public ReturnResultLastImpl createComponentReturnResultLast() {
+        ReturnResultLastImpl res = (ReturnResultLastImpl) this.acquire(this.returnResultLasts);
+        if (res == null)
+            res = new ReturnResultLastImpl();
+        res.setRecyclable(true);
+        return res;
+    }
+
+    public ReturnErrorImpl createComponentReturnError() {
+        ReturnErrorImpl res = (ReturnErrorImpl) this.acquire(this.returnErrors);
+        if (res == null)
+            res = new ReturnErrorImpl();
+        res.setRecyclable(true);
+        return res;
+    }
+
+    /**
+     * @return an array for components of a sent message, it is returned to the pool by releaseSentMessage()
+     */
+    public Component[] createComponentArray(int length) {
+        if (length > MAX_POOLED_ARRAY_LENGTH)
+            return new Component[length];
+        Component[] res = (Component[]) this.acquire(this.componentArrays[length]);
+        if (res == null)
+            res = new Component[length];
+        return res;
+    }
+
+    // release
+
+    /**
+     * Releases a received message. Its components are not released, they are delivered to the TCAP user and released by
+     * releaseReceivedComponents().
+     */
+    public void releaseReceivedMessage(Object msg) {
+        this.releaseMessage(msg, false);
+    }
+
+    /**
+     * Releases a sent message after encoding together with its pooled components and component array
+     */
+    public void releaseSentMessage(Object msg) {
+        this.releaseMessage(msg, true);
+    }
+
+    private void releaseMessage(Object msg, boolean sent) {
+        Component[] comps;
+        if (msg instanceof TCContinueMessageImpl) {
+            TCContinueMessageImpl m = (TCContinueMessageImpl) msg;
+            comps = m.getComponent();
+            if (m.getRecyclingPool() != this || !m.recycle())
+                return;
+            this.release(this.continueMessages, m);
+        } else if (msg instanceof TCBeginMessageImpl) {
+            TCBeginMessageImpl m = (TCBeginMessageImpl) msg;
+            comps = m.getComponent();
+            if (m.getRecyclingPool() != this || !m.recycle())
+                return;
+            this.release(this.beginMessages, m);
+        } else if (msg instanceof TCEndMessageImpl) {
+            TCEndMessageImpl m = (TCEndMessageImpl) msg;
+            comps = m.getComponent();
+            if (m.getRecyclingPool() != this || !m.recycle())
+                return;
+            this.release(this.endMessages, m);
+        } else {
+            return;
+        }
+
+        if (sent && comps != null) {
+            for (int i = 0; i < comps.length; i++) {
+                Component c = comps[i];
+                if (c != null && c.getType() != ComponentType.Invoke)
+                    this.releaseComponent(c);
+                comps[i] = null;
+            }
+            if (comps.length > 0 && comps.length <= MAX_POOLED_ARRAY_LENGTH)
+                this.release(this.componentArrays[comps.length], comps);
+        }
+    }
+
+    /**
+     * Releases pooled components of an indication after TCListener callbacks have returned
+     */
+    public void releaseReceivedComponents(Component[] comps) {
+        if (comps == null)
+            return;
+        for (Component c : comps) {
+            if (c != null)
+                this.releaseComponent(c);
+        }
+    }
+
+    private void releaseComponent(Component c) {
+        switch (c.getType()) {
+            case Invoke:
+                InvokeImpl inv = (InvokeImpl) c;
+                if (inv.isRecyclable() && inv.recycle())
+                    this.release(this.invokes, inv);
+                break;
+            case ReturnResult:
+                ReturnResultImpl rr = (ReturnResultImpl) c;
+                if (rr.isRecyclable() && rr.recycle())
+                    this.release(this.returnResults, rr);
+                break;
+            case ReturnResultLast:
+                ReturnResultLastImpl rrl = (ReturnResultLastImpl) c;
+                if (rrl.isRecyclable() && rrl.recycle())
+                    this.release(this.returnResultLasts, rrl);
+                break;
+            case ReturnError:
+                ReturnErrorImpl re = (ReturnErrorImpl) c;
+                if (re.isRecyclable() && re.recycle())
+                    this.release(this.returnErrors, re);
+                break;
+        }
+    }
+
+    private Object acquire(ObjectStack stack) {
+        Object res = stack.pop();
+        if (res != null)
+            this.reusedCount.increment();
+        else
+            this.allocatedCount.increment();
+        return res;
+    }
+
+    private void release(ObjectStack stack, Object obj) {
+        if (stack.push(obj))
+            this.releasedCount.increment();
+    }
+
+    private static final class ObjectStack {
+        private final Object[] items;
+        private int size;
+
+        ObjectStack(int capacity) {
+            this.items = new Object[capacity];
+        }
+
+        synchronized Object pop() {
+            if (this.size == 0)
+                return null;
+            Object res = this.items[--this.size];
+            this.items[this.size] = null;
+            return res;
+        }
+
+        synchronized boolean push(Object obj) {
+            if (this.size == this.items.length)
+                return false;
+            this.items[this.size++] = obj;
+            return true;
+        }
+    }
+}
@@ -26,6 +26,8 @@ import javolution.util.FastMap;
 
 import org.apache.log4j.Logger;
 import org.mobicents.protocols.ss7.tcap.TCAPStackImpl;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitKeyType;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitRule;
 import org.mobicents.ss7.management.console.ShellExecutor;
 
 /**
@@ -97,6 +99,8 @@ public class TCAPExecutor implements ShellExecutor {
                 return this.manageSet(options);
             } else if (firstOption.equals("get")) {
                 return this.manageGet(options);
+            } else if (firstOption.equals("ratelimit")) {
+                return this.manageRateLimit(options);
             }
             // } catch (Exception e) {
             // logger.error(String.format("Error while executing comand %s", Arrays.toString(options)), e);
@@ -184,6 +188,9 @@ public class TCAPExecutor implements ShellExecutor {
         } else if (parName.equals("statisticsenabled")) {
             boolean val = Boolean.parseBoolean(options[3]);
             this.tcapStack.setStatisticsEnabled(val);
+        } else if (parName.equals("ratelimitsendabort")) {
+            boolean val = Boolean.parseBoolean(options[3]);
+            this.tcapStack.setRateLimitSendAbort(val);
         } else {
             return TCAPOAMMessage.INVALID_COMMAND;
         }
@@ -191,6 +198,78 @@ public class TCAPExecutor implements ShellExecutor {
         return String.format(TCAPOAMMessage.PARAMETER_SUCCESSFULLY_SET, this.tcapStack.getName());
     }
 
+    /**
+     * Commands are:
+     * tcap ratelimit create <id> <keytype> <key> <maxrate> <burstsize> stackname <stack-name>
+     * tcap ratelimit delete <id> stackname <stack-name>
+     * tcap ratelimit show stackname <stack-name>
+     *
+     * @param options
+     * @return
+     * @throws Exception
+     */
+    private String manageRateLimit(String[] options) throws Exception {
+        if (options.length < 3) {
+            return TCAPOAMMessage.INVALID_COMMAND;
+        }
+
+        String command = options[2];
+        int argCount;
+        if (command.equals("create")) {
+            argCount = 5;
+        } else if (command.equals("delete")) {
+            argCount = 1;
+        } else if (command.equals("show")) {
+            argCount = 0;
+        } else {
+            return TCAPOAMMessage.INVALID_COMMAND;
+        }
+
+        int count = 3 + argCount;
+        if (options.length < count) {
+            return TCAPOAMMessage.INVALID_COMMAND;
+        }
+        while (count < options.length) {
+            String key = options[count++];
+            if (key != null && key.equals("stackname") && count < options.length) {
+                String stackName = options[count++];
+                TCAPStackImpl stackImpl = this.tcapStacks.get(stackName);
+                if (stackImpl == null) {
+                    return String.format(TCAPOAMMessage.NO_TCAP_STCAK_CONFIGURE, stackName);
+                }
+                this.tcapStack = stackImpl;
+            } else {
+                return TCAPOAMMessage.INVALID_COMMAND;
+            }
+        }
+
+        this.setDefaultValue();
+
+        if (command.equals("create")) {
+            int id = Integer.parseInt(options[3]);
+            RateLimitKeyType keyType = RateLimitKeyType.valueOf(options[4]);
+            int maxRate = Integer.parseInt(options[6]);
+            int burstSize = Integer.parseInt(options[7]);
+            this.tcapStack.addRateLimitRule(id, keyType, options[5], maxRate, burstSize);
+            return String.format(TCAPOAMMessage.RATE_LIMIT_RULE_SUCCESSFULLY_ADDED, id, this.tcapStack.getName());
+        } else if (command.equals("delete")) {
+            int id = Integer.parseInt(options[3]);
+            this.tcapStack.removeRateLimitRule(id);
+            return String.format(TCAPOAMMessage.RATE_LIMIT_RULE_SUCCESSFULLY_REMOVED, id, this.tcapStack.getName());
+        } else {
+            RateLimitRule[] rules = this.tcapStack.getRateLimitRules();
+            if (rules.length == 0) {
+                return String.format(TCAPOAMMessage.NO_RATE_LIMIT_RULES, this.tcapStack.getName());
+            }
+            StringBuilder sb = new StringBuilder();
+            for (RateLimitRule rule : rules) {
+                sb.append(rule.toString());
+                sb.append("\n");
+            }
+            return sb.toString();
+        }
+    }
+
     /**
      * Command is tcap get <param-name> <name of stack>
      *
@@ -228,6 +307,8 @@ public class TCAPExecutor implements ShellExecutor {
                 sb.append(this.tcapStack.getDoNotSendProtocolVersion());
             } else if (parName.equals("statisticsenabled")) {
                 sb.append(this.tcapStack.getStatisticsEnabled());
+            } else if (parName.equals("ratelimitsendabort")) {
+                sb.append(this.tcapStack.getRateLimitSendAbort());
             } else if (parName.equals("ssn")) {
                 sb.append(this.tcapStack.getSubSystemNumber());
             } else {
@@ -281,6 +362,10 @@ public class TCAPExecutor implements ShellExecutor {
                 sb.append(tcapStackImpl.getStatisticsEnabled());
                 sb.append("\n");
 
+                sb.append("ratelimitsendabort = ");
+                sb.append(tcapStackImpl.getRateLimitSendAbort());
+                sb.append("\n");
+
                 sb.append("subsystemnumber = ");
                 sb.append(tcapStackImpl.getSubSystemNumber());
                 sb.append("\n");
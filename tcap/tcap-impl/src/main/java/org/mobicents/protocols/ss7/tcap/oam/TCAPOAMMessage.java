@@ -32,4 +32,10 @@ public interface TCAPOAMMessage {
     String PARAMETER_SUCCESSFULLY_SET = "Parameter has been successfully set for stack=%s";
 
     String NO_TCAP_STCAK_CONFIGURE = "No TCAP stack configured for name %s";
+
+    String RATE_LIMIT_RULE_SUCCESSFULLY_ADDED = "RateLimitRule id=%d has been successfully added for stack=%s";
+
+    String RATE_LIMIT_RULE_SUCCESSFULLY_REMOVED = "RateLimitRule id=%d has been successfully removed for stack=%s";
+
+    String NO_RATE_LIMIT_RULES = "No RateLimitRule configured for stack=%s";
 }
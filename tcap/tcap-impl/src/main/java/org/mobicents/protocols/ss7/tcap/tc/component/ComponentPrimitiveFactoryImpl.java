@@ -30,6 +30,7 @@ import org.mobicents.protocols.ss7.tcap.api.ComponentPrimitiveFactory;
 import org.mobicents.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.mobicents.protocols.ss7.tcap.asn.InvokeImpl;
 import org.mobicents.protocols.ss7.tcap.asn.TcapFactory;
+import org.mobicents.protocols.ss7.tcap.asn.TcapMessagePool;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ErrorCode;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Invoke;
 import org.mobicents.protocols.ss7.tcap.asn.comp.OperationCode;
@@ -89,6 +90,9 @@ public class ComponentPrimitiveFactoryImpl implements ComponentPrimitiveFactory
 
     public ReturnError createTCReturnErrorRequest() {
 
+        TcapMessagePool pool = this.provider.getMessagePool();
+        if (pool != null)
+            return pool.createComponentReturnError();
         return TcapFactory.createComponentReturnError();
     }
 
@@ -99,12 +103,18 @@ public class ComponentPrimitiveFactoryImpl implements ComponentPrimitiveFactory
      */
     public ReturnResultLast createTCResultLastRequest() {
 
+        TcapMessagePool pool = this.provider.getMessagePool();
+        if (pool != null)
+            return pool.createComponentReturnResultLast();
         return TcapFactory.createComponentReturnResultLast();
 
     }
 
     public ReturnResult createTCResultRequest() {
 
+        TcapMessagePool pool = this.provider.getMessagePool();
+        if (pool != null)
+            return pool.createComponentReturnResult();
         return TcapFactory.createComponentReturnResult();
     }
 
@@ -25,6 +25,8 @@ package org.mobicents.protocols.ss7.tcap;
 import static org.testng.Assert.*;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.mobicents.protocols.ss7.sccp.SccpListener;
 import org.mobicents.protocols.ss7.sccp.SccpManagementEventListener;
@@ -34,6 +36,7 @@ import org.mobicents.protocols.ss7.sccp.message.MessageFactory;
 import org.mobicents.protocols.ss7.sccp.message.SccpDataMessage;
 import org.mobicents.protocols.ss7.sccp.parameter.ParameterFactory;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.api.TCAPException;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.Dialog;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -105,6 +108,48 @@ public class CreateDialogTest {
 
         Dialog dlg4 = this.tcapStack1.getProvider().getNewDialog(localAddress, remoteAddress);
         assertEquals((long) dlg4.getLocalDialogId(), 3L);
+
+        // a free suggested id is accepted even if its allocator slot is held by a busy dialog
+        long slotCount = DialogIdAllocator.getSlotCount(this.tcapStack1.getMaxDialogs());
+        Dialog dlg5 = this.tcapStack1.getProvider().getNewDialog(localAddress, remoteAddress, 1L + slotCount);
+        assertEquals((long) dlg5.getLocalDialogId(), 1L + slotCount);
+        dlg5.release();
+
+        Dialog dlg6 = this.tcapStack1.getProvider().getNewDialog(localAddress, remoteAddress);
+        assertEquals((long) dlg6.getLocalDialogId(), 4L);
+    }
+
+    @Test(groups = { "functional.flow" })
+    public void maxDialogsResizeTest() throws Exception {
+
+        SccpAddress localAddress = new SccpAddressImpl();
+        SccpAddress remoteAddress = new SccpAddressImpl();
+        TCAPProviderImpl provider = (TCAPProviderImpl) this.tcapStack1.getProvider();
+
+        Dialog dlg1 = provider.getNewDialog(localAddress, remoteAddress);
+        Dialog dlg2 = provider.getNewDialog(localAddress, remoteAddress);
+
+        // more dialogs than the current allocator bitmap has slots
+        int maxDialogs = (int) DialogIdAllocator.getSlotCount(this.tcapStack1.getMaxDialogs()) + 1000;
+        this.tcapStack1.setMaxDialogs(maxDialogs);
+        assertEquals(this.tcapStack1.getMaxDialogs(), maxDialogs);
+
+        Set<Long> ids = new HashSet<Long>();
+        ids.add(dlg1.getLocalDialogId());
+        ids.add(dlg2.getLocalDialogId());
+        for (int i = 2; i < maxDialogs; i++) {
+            Dialog dlg = provider.getNewDialog(localAddress, remoteAddress);
+            assertTrue(ids.add(dlg.getLocalDialogId()));
+        }
+        assertEquals(provider.getCurrentDialogsCount(), maxDialogs);
+
+        try {
+            provider.getNewDialog(localAddress, remoteAddress);
+            fail("Must be failure because the maximum dialog count is reached");
+        } catch (TCAPException e) {
+        }
+        dlg2.release();
+        provider.getNewDialog(localAddress, remoteAddress);
     }
 
     private class SccpHarnessPreview implements SccpProvider {
@@ -0,0 +1,100 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import static org.testng.Assert.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.testng.annotations.Test;
+
+public class DialogIdAllocatorTest {
+
+    @Test(groups = { "functional.unit" })
+    public void testRotation() {
+        DialogIdAllocator alloc = new DialogIdAllocator(100);
+
+        long id1 = alloc.allocate(10, 20000);
+        long id2 = alloc.allocate(10, 20000);
+        assertEquals(id1, 10);
+        assertEquals(id2, 11);
+
+        // a released id is not reused before the cursor passes the range
+        alloc.release(id1);
+        assertEquals(alloc.allocate(10, 20000), 12);
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testExhaustedRange() {
+        DialogIdAllocator alloc = new DialogIdAllocator(100);
+        Set<Long> ids = new HashSet<Long>();
+
+        for (int i = 0; i < 1000; i++) {
+            long id = alloc.allocate(1, 1000);
+            assertTrue(id >= 1 && id <= 1000);
+            assertTrue(ids.add(id));
+        }
+        assertEquals(alloc.allocate(1, 1000), -1);
+
+        alloc.release(500);
+        assertEquals(alloc.allocate(1, 1000), 500);
+        assertEquals(alloc.allocate(1, 1000), -1);
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testBusyWordAtRangeEnd() {
+        DialogIdAllocator alloc = new DialogIdAllocator(100);
+
+        for (int i = 1; i < 960; i++) {
+            assertEquals(alloc.allocate(1, 1000), i);
+        }
+        // the last word (960..1023) is fully busy, the cursor can not jump over it inside the range
+        for (int i = 960; i < 1024; i++) {
+            assertTrue(alloc.allocate(i));
+        }
+        alloc.release(5);
+
+        assertEquals(alloc.allocate(1, 1000), 5);
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testSuggestedId() {
+        DialogIdAllocator alloc = new DialogIdAllocator(100);
+
+        assertTrue(alloc.allocate(3));
+        assertFalse(alloc.allocate(3));
+        assertEquals(alloc.allocate(1, 100000), 1);
+        assertEquals(alloc.allocate(1, 100000), 2);
+        assertEquals(alloc.allocate(1, 100000), 4);
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testSlotCount() {
+        assertEquals(DialogIdAllocator.getSlotCount(100), 1 << 16);
+        assertEquals(DialogIdAllocator.getSlotCount(20000), 1 << 17);
+        assertEquals(new DialogIdAllocator(20000).getSlotCount(), 1 << 17);
+        assertEquals(DialogIdAllocator.getSlotCount(Integer.MAX_VALUE), 1 << 26);
+    }
+
+}
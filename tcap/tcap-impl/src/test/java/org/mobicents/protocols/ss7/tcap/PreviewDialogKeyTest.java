@@ -0,0 +1,53 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+public class PreviewDialogKeyTest {
+
+    @Test(groups = { "functional.unit" })
+    public void testKey() {
+        long k1 = PreviewDialogKey.create(100, "1111112", 8, 0xFFFFFFFFL);
+        assertEquals(PreviewDialogKey.getTxId(k1), 0xFFFFFFFFL);
+        assertEquals(PreviewDialogKey.create(100, "1111112", 8, 0xFFFFFFFFL), k1);
+
+        // with a GT present the point code is ignored
+        assertEquals(PreviewDialogKey.create(200, "1111112", 8, 0xFFFFFFFFL), k1);
+
+        assertTrue(PreviewDialogKey.create(100, "1111113", 8, 0xFFFFFFFFL) != k1);
+        assertTrue(PreviewDialogKey.create(100, "1111112", 6, 0xFFFFFFFFL) != k1);
+        assertTrue(PreviewDialogKey.create(100, "1111112", 8, 1) != k1);
+        assertEquals(PreviewDialogKey.getTxId(PreviewDialogKey.create(100, "1111112", 8, 1)), 1);
+
+        // no GT: point code + ssn
+        long k2 = PreviewDialogKey.create(100, null, 8, 10);
+        assertEquals(PreviewDialogKey.create(100, null, 8, 10), k2);
+        assertTrue(PreviewDialogKey.create(101, null, 8, 10) != k2);
+        assertTrue(PreviewDialogKey.create(100, null, 6, 10) != k2);
+        assertEquals(PreviewDialogKey.getTxId(k2), 10);
+    }
+
+}
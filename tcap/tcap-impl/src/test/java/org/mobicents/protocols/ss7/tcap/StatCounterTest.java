@@ -29,6 +29,7 @@ import java.util.Date;
 import javolution.util.FastMap;
 
 import org.mobicents.protocols.ss7.statistics.StatDataCollectionImpl;
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
 import org.mobicents.protocols.ss7.statistics.api.LongValue;
 import org.mobicents.protocols.ss7.statistics.api.StatCounterCollection;
 import org.mobicents.protocols.ss7.statistics.api.StatDataCollection;
@@ -230,5 +231,107 @@ public class StatCounterTest {
 
     }
 
-}
+    @Test(groups = { "statistic" })
+    public void countersConcurrentTest() throws Exception {
+
+        final StatDataCollection sdc = new StatDataCollectionImpl();
+        final StatCounterCollection sccMap = sdc.registerStatCounterCollector("counter1", StatDataCollectorType.StringLongMap);
+        final StatCounterCollection sccMax = sdc.registerStatCounterCollector("counter2", StatDataCollectorType.MAX);
+        assertNull(sccMap.restartAndGet("a1"));
+        assertNull(sccMax.restartAndGet("a1"));
+
+        final int threadCount = 4;
+        final int updateCount = 100000;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            final int threadNum = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    for (int j = 0; j < updateCount; j++) {
+                        sccMap.updateData((j & 1) == 0 ? "x1" : "x2");
+                        sccMax.updateData(threadNum * updateCount + j);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+
+        // restarting of the campaign while updates are running must not loose or double count updates
+        long x1 = 0;
+        long x2 = 0;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 10; i++) {
+            max = Math.max(max, sccMax.restartAndGet("a1").getLongValue());
+            FastMap<String, LongValue> res = sccMap.restartAndGet("a1").getStringLongValue();
+            if (res.get("x1") != null)
+                x1 += res.get("x1").getValue();
+            if (res.get("x2") != null)
+                x2 += res.get("x2").getValue();
+            Thread.sleep(1);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        FastMap<String, LongValue> res = sccMap.restartAndGet("a1").getStringLongValue();
+        if (res.get("x1") != null)
+            x1 += res.get("x1").getValue();
+        if (res.get("x2") != null)
+            x2 += res.get("x2").getValue();
+
+        assertEquals(x1, threadCount * updateCount / 2);
+        assertEquals(x2, threadCount * updateCount / 2);
+        max = Math.max(max, sccMax.restartAndGet("a1").getLongValue());
+        assertEquals(max, threadCount * updateCount - 1);
+    }
+
+    @Test(groups = { "statistic" })
+    public void countersHistogramTest() throws Exception {
 
+        StatDataCollection sdc = new StatDataCollectionImpl();
+        sdc.registerStatCounterCollector("counter1", StatDataCollectorType.StringHistogramMap);
+
+        assertNull(sdc.restartAndGet("counter1", "a1"));
+        assertEquals(sdc.restartAndGet("counter1", "a1").getStringHistogramValue().size(), 0);
+
+        for (int i = 1; i <= 1000; i++) {
+            sdc.updateData("counter1", "x1", i);
+        }
+        sdc.updateData("counter1", "x2", 5000000);
+        sdc.updateData("counter1", "x2", 7);
+
+        FastMap<String, HistogramValue> res = sdc.restartAndGet("counter1", "a1").getStringHistogramValue();
+        assertEquals(res.size(), 2);
+        HistogramValue x1 = res.get("x1");
+        assertEquals(x1.getCount(), 1000);
+        assertEquals(x1.getMin(), 1);
+        assertEquals(x1.getMax(), 1000);
+        assertEquals(x1.getMean(), 500.5);
+        // log-linear buckets: the relative error is within 1 / SUB_BUCKET_COUNT
+        assertTrue(Math.abs(x1.getValueAtPercentile(50) - 500) <= 500 / HistogramValue.SUB_BUCKET_COUNT);
+        assertTrue(Math.abs(x1.getValueAtPercentile(99) - 990) <= 990 / HistogramValue.SUB_BUCKET_COUNT);
+        assertEquals(x1.getValueAtPercentile(100), 1000);
+
+        HistogramValue x2 = res.get("x2");
+        assertEquals(x2.getCount(), 2);
+        assertEquals(x2.getValueAtPercentile(50), 7);
+        assertEquals(x2.getValueAtPercentile(99.9), 5000000);
+
+        HistogramValue all = x1.merge(x2);
+        assertEquals(all.getCount(), 1002);
+        assertEquals(all.getMin(), 1);
+        assertEquals(all.getMax(), 5000000);
+        assertEquals(all.getSum(), 500500 + 5000007);
+
+        // the campaign has been restarted
+        res = sdc.restartAndGet("counter1", "a1").getStringHistogramValue();
+        assertEquals(res.size(), 0);
+
+        for (long v = 0; v < (1L << 40); v = v * 3 + 1) {
+            int index = HistogramValue.getBucketIndex(v);
+            assertTrue(HistogramValue.getBucketLowestValue(index) <= v);
+            assertTrue(HistogramValue.getBucketHighestValue(index) >= v);
+        }
+        assertEquals(HistogramValue.getBucketIndex(Long.MAX_VALUE), HistogramValue.BUCKET_COUNT - 1);
+    }
+
+}
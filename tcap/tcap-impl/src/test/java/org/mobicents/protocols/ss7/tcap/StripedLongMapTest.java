@@ -0,0 +1,92 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import static org.testng.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.testng.annotations.Test;
+
+public class StripedLongMapTest {
+
+    @Test(groups = { "functional.unit" })
+    public void testPutGetRemove() {
+        StripedLongMap<String> map = new StripedLongMap<String>(4, 0);
+
+        assertNull(map.get(1));
+        assertNull(map.putIfAbsent(1, "a"));
+        assertEquals(map.putIfAbsent(1, "b"), "a");
+        assertEquals(map.get(1), "a");
+        assertEquals(map.put(1, "c"), "a");
+        assertEquals(map.get(1), "c");
+        assertEquals(map.size(), 1);
+
+        assertFalse(map.remove(1, "a"));
+        assertEquals(map.get(1), "c");
+        assertEquals(map.size(), 1);
+        assertTrue(map.remove(1, "c"));
+        assertFalse(map.remove(1, "c"));
+        assertEquals(map.size(), 0);
+
+        map.put(1, "c");
+        assertEquals(map.remove(1), "c");
+        assertNull(map.remove(1));
+        assertNull(map.get(1));
+        assertEquals(map.size(), 0);
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testRandomChurn() {
+        StripedLongMap<Long> map = new StripedLongMap<Long>(8, 0);
+        Map<Long, Long> ref = new HashMap<Long, Long>();
+        Random rnd = new Random(1);
+
+        for (int i = 0; i < 200000; i++) {
+            long key = rnd.nextInt(5000);
+            if (rnd.nextBoolean()) {
+                Long v = Long.valueOf(i);
+                assertEquals(map.put(key, v), ref.put(key, v));
+            } else {
+                assertEquals(map.remove(key), ref.remove(key));
+            }
+        }
+
+        assertEquals(map.size(), ref.size());
+        for (long key = 0; key < 5000; key++) {
+            assertEquals(map.get(key), ref.get(key));
+        }
+        long[] keys = map.keys();
+        assertEquals(keys.length, ref.size());
+        for (long key : keys) {
+            assertTrue(ref.containsKey(key));
+        }
+
+        map.clear();
+        assertEquals(map.size(), 0);
+        assertNull(map.get(ref.keySet().iterator().next()));
+    }
+
+}
@@ -31,11 +31,14 @@ import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
 import org.mobicents.protocols.ss7.sccp.impl.SccpHarness;
 import org.mobicents.protocols.ss7.sccp.message.SccpDataMessage;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitKeyType;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.TRPseudoState;
 import org.mobicents.protocols.ss7.tcap.asn.TcapFactory;
 import org.mobicents.protocols.ss7.tcap.asn.UserInformation;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Invoke;
 import org.mobicents.protocols.ss7.tcap.asn.comp.PAbortCauseType;
+import org.mobicents.ss7.congestion.AdmissionController;
+import org.mobicents.ss7.congestion.CapacityCongestionMonitor;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeClass;
@@ -191,6 +194,120 @@ public class TCAPAbnormalTest extends SccpHarness {
         assertEquals(client.pAbortCauseType, PAbortCauseType.ResourceLimitation);
     }
 
+    /**
+     * Case when a rate limit rule for the client OPC throttles the second dialog: TC-BEGIN TC-BEGIN TC-ABORT +
+     * PAbortCauseType.ResourceLimitation
+     */
+    @Test(groups = { "functional.flow" })
+    public void rateLimitTest() throws Exception {
+
+        long stamp = System.currentTimeMillis();
+        List<TestEvent> clientExpectedEvents = new ArrayList<TestEvent>();
+        TestEvent te = TestEvent.createSentEvent(EventType.Begin, null, 0, stamp);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 1, stamp);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createSentEvent(EventType.Begin, null, 2, stamp + WAIT_TIME);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.PAbort, null, 3, stamp + WAIT_TIME);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 4, stamp + WAIT_TIME);
+        clientExpectedEvents.add(te);
+
+        List<TestEvent> serverExpectedEvents = new ArrayList<TestEvent>();
+        te = TestEvent.createReceivedEvent(EventType.Begin, null, 0, stamp);
+        serverExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogTimeout, null, 1, stamp + _DIALOG_TIMEOUT);
+        serverExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 2, stamp + _DIALOG_TIMEOUT);
+        serverExpectedEvents.add(te);
+
+        // one TC-BEGIN per second, the second TC-BEGIN comes in WAIT_TIME
+        this.tcapStack2.addRateLimitRule(1, RateLimitKeyType.Opc, "1", 1, 1);
+
+        client.startClientDialog();
+        client.sendBegin();
+        client.releaseDialog();
+        Thread.sleep(WAIT_TIME);
+        client.startClientDialog();
+        client.sendBegin();
+        Thread.sleep(WAIT_TIME);
+        Thread.sleep(_DIALOG_TIMEOUT);
+
+        client.compareEvents(clientExpectedEvents);
+        server.compareEvents(serverExpectedEvents);
+
+        assertEquals(client.pAbortCauseType, PAbortCauseType.ResourceLimitation);
+        assertEquals(this.tcapStack2.getRateLimitRule(1).getAcceptedCount(), 1);
+        assertEquals(this.tcapStack2.getRateLimitRule(1).getThrottledCount(), 1);
+
+        this.tcapStack2.removeRateLimitRule(1);
+    }
+
+    /**
+     * Case when the admission controller rejects a new dialog because of the dialog count congestion: TC-BEGIN TC-BEGIN
+     * TC-ABORT + PAbortCauseType.ResourceLimitation
+     */
+    @Test(groups = { "functional.flow" })
+    public void admissionControlTest() throws Exception {
+
+        long stamp = System.currentTimeMillis();
+        List<TestEvent> clientExpectedEvents = new ArrayList<TestEvent>();
+        TestEvent te = TestEvent.createSentEvent(EventType.Begin, null, 0, stamp);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 1, stamp);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createSentEvent(EventType.Begin, null, 2, stamp + WAIT_TIME);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.PAbort, null, 3, stamp + WAIT_TIME);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 4, stamp + WAIT_TIME);
+        clientExpectedEvents.add(te);
+
+        List<TestEvent> serverExpectedEvents = new ArrayList<TestEvent>();
+        te = TestEvent.createReceivedEvent(EventType.Begin, null, 0, stamp);
+        serverExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogTimeout, null, 1, stamp + _DIALOG_TIMEOUT);
+        serverExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 2, stamp + _DIALOG_TIMEOUT);
+        serverExpectedEvents.add(te);
+
+        TCAPProviderImpl provider = (TCAPProviderImpl) this.tcapStack2.getProvider();
+        AdmissionController admissionController = new AdmissionController();
+        admissionController.setRejectProbabilities(new double[] { 0, 0, 0, 1 });
+        provider.setAdmissionController(admissionController);
+        CapacityCongestionMonitor monitor = provider.getDialogCountCongestionMonitor();
+        monitor.setThresholds(new long[] { 10, 20, 40 }, new long[] { 5, 15, 30 });
+        monitor.addCongestionListener(admissionController);
+        this.tcapStack2.setMaxDialogs(2);
+        // the monitor is invoked by the stack timer
+        this.tcapStack2.setCongestionMonitorInterval(20);
+
+        client.startClientDialog();
+        client.sendBegin();
+        client.releaseDialog();
+        Thread.sleep(WAIT_TIME);
+
+        // one of two dialogs is busy - 50%
+        assertEquals(monitor.getCongestionLevel(), 3);
+        assertEquals(admissionController.getCongestionLevel(), 3);
+
+        client.startClientDialog();
+        client.sendBegin();
+        Thread.sleep(WAIT_TIME);
+        Thread.sleep(_DIALOG_TIMEOUT);
+
+        client.compareEvents(clientExpectedEvents);
+        server.compareEvents(serverExpectedEvents);
+
+        assertEquals(client.pAbortCauseType, PAbortCauseType.ResourceLimitation);
+        assertEquals(admissionController.getRejectedCount(), 1);
+
+        Thread.sleep(WAIT_TIME);
+        assertEquals(monitor.getCongestionLevel(), 0);
+        assertEquals(admissionController.getCongestionLevel(), 0);
+    }
+
     /**
      * Case of receiving TC-Begin that has a bad structure TC-BEGIN (bad formatted) TC-ABORT +
      * PAbortCauseType.IncorrectTxPortion
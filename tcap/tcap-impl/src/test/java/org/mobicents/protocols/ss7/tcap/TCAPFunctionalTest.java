@@ -25,6 +25,7 @@ package org.mobicents.protocols.ss7.tcap;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 import java.util.ArrayList;
@@ -33,7 +34,9 @@ import java.util.List;
 import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
 import org.mobicents.protocols.ss7.sccp.impl.SccpHarness;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.api.ComponentPrimitiveFactory;
 import org.mobicents.protocols.ss7.tcap.api.TCListener;
+import org.mobicents.protocols.ss7.tcap.api.tc.component.InvokeClass;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.Dialog;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCBeginIndication;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCContinueIndication;
@@ -43,7 +46,9 @@ import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCPAbortIndication;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCUniIndication;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TCUserAbortIndication;
 import org.mobicents.protocols.ss7.tcap.api.tc.dialog.events.TerminationType;
+import org.mobicents.protocols.ss7.tcap.asn.TcapMessagePool;
 import org.mobicents.protocols.ss7.tcap.asn.comp.Invoke;
+import org.mobicents.protocols.ss7.tcap.asn.comp.OperationCode;
 import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResultLast;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.AfterMethod;
@@ -183,6 +188,73 @@ public class TCAPFunctionalTest extends SccpHarness {
 
     }
 
+    @Test(groups = { "functional.flow" })
+    public void messagePoolingTest() throws Exception {
+
+        this.tcapStack1.stop();
+        this.tcapStack2.stop();
+        this.tcapStack1.setMessagePooling(true);
+        this.tcapStack2.setMessagePooling(true);
+        this.tcapStack1.start();
+        this.tcapStack2.start();
+
+        long stamp = System.currentTimeMillis();
+        List<TestEvent> clientExpectedEvents = new ArrayList<TestEvent>();
+        TestEvent te = TestEvent.createSentEvent(EventType.Begin, null, 0, stamp);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.Continue, null, 1, stamp + WAIT_TIME);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createSentEvent(EventType.End, null, 2, stamp + WAIT_TIME * 2);
+        clientExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 3, stamp + WAIT_TIME * 2);
+        clientExpectedEvents.add(te);
+
+        List<TestEvent> serverExpectedEvents = new ArrayList<TestEvent>();
+        te = TestEvent.createReceivedEvent(EventType.Begin, null, 0, stamp);
+        serverExpectedEvents.add(te);
+        te = TestEvent.createSentEvent(EventType.Continue, null, 1, stamp + WAIT_TIME);
+        serverExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.End, null, 2, stamp + WAIT_TIME * 2);
+        serverExpectedEvents.add(te);
+        te = TestEvent.createReceivedEvent(EventType.DialogRelease, null, 3, stamp + WAIT_TIME * 2);
+        serverExpectedEvents.add(te);
+
+        client.startClientDialog();
+        client.sendBegin();
+        client.waitFor(WAIT_TIME);
+
+        // received components are recycled after the TCListener callback, so the server answer is built from the known
+        // invokeIds (0 and 1) of the client Invokes instead of from the stored components as Server.sendContinue() does
+        ComponentPrimitiveFactory cpFactory = this.tcapStack2.getProvider().getComponentPrimitiveFactory();
+        ReturnResultLast rrlast = cpFactory.createTCResultLastRequest();
+        rrlast.setInvokeId(0L);
+        server.dialog.sendComponent(rrlast);
+        Invoke invoke = cpFactory.createTCInvokeRequest(InvokeClass.Class1);
+        invoke.setInvokeId(server.dialog.getNewInvokeId());
+        invoke.setLinkedId(1L);
+        OperationCode oc = cpFactory.createOperationCode();
+        oc.setLocalOperationCode(14L);
+        invoke.setOperationCode(oc);
+        server.dialog.sendComponent(invoke);
+        server.sendContinue2();
+
+        client.waitFor(WAIT_TIME);
+        client.sendEnd(TerminationType.Basic);
+        client.waitFor(WAIT_TIME);
+
+        client.compareEvents(clientExpectedEvents);
+        server.compareEvents(serverExpectedEvents);
+
+        // client: TC-BEGIN with 2 Invokes and TC-END are sent (sent Invokes are not pooled), TC-CONTINUE with ReturnResultLast
+        // and Invoke is received: all pooled objects must be returned
+        TcapMessagePool pool1 = ((TCAPProviderImpl) this.tcapStack1.getProvider()).getMessagePool();
+        assertTrue(pool1.getAllocatedCount() > 0);
+        assertEquals(pool1.getReleasedCount(), pool1.getAllocatedCount() + pool1.getReusedCount());
+        TcapMessagePool pool2 = ((TCAPProviderImpl) this.tcapStack2.getProvider()).getMessagePool();
+        assertTrue(pool2.getAllocatedCount() > 0);
+        assertEquals(pool2.getReleasedCount(), pool2.getAllocatedCount() + pool2.getReusedCount());
+    }
+
     @Test(groups = { "functional.flow" })
     public void uniMsgTest() throws Exception {
 
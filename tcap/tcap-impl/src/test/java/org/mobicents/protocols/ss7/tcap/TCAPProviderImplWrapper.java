@@ -22,8 +22,6 @@
 
 package org.mobicents.protocols.ss7.tcap;
 
-import java.util.Map;
-
 import org.mobicents.protocols.ss7.sccp.SccpProvider;
 
 /**
@@ -37,7 +35,7 @@ public class TCAPProviderImplWrapper extends TCAPProviderImpl {
         super(sccpProvider, stack, ssn);
     }
 
-    public Map<PrevewDialogDataKey, PrevewDialogData> getDialogPreviewList() {
+    public StripedLongMap<PrevewDialogData> getDialogPreviewList() {
         return dialogPreviewList;
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import static org.testng.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+
+import org.mobicents.protocols.ss7.indicator.NatureOfAddress;
+import org.mobicents.protocols.ss7.indicator.NumberingPlan;
+import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
+import org.mobicents.protocols.ss7.sccp.impl.parameter.ParameterFactoryImpl;
+import org.mobicents.protocols.ss7.sccp.parameter.GlobalTitle;
+import org.mobicents.protocols.ss7.sccp.parameter.ParameterFactory;
+import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitKeyType;
+import org.mobicents.protocols.ss7.tcap.api.RateLimitRule;
+import org.testng.annotations.Test;
+
+public class TCAPRateLimiterTest {
+
+    private ParameterFactory parameterFactory = new ParameterFactoryImpl();
+
+    private SccpAddress createAddress(String digits) {
+        GlobalTitle gt = this.parameterFactory.createGlobalTitle(digits, 0, NumberingPlan.ISDN_TELEPHONY, null,
+                NatureOfAddress.INTERNATIONAL);
+        return this.parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_GLOBAL_TITLE, gt, 0, 8);
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testTokenBucket() {
+        RateLimitRuleImpl rule = new RateLimitRuleImpl(1, RateLimitKeyType.Opc, "1", 10, 3);
+        long now = 1000000000L;
+
+        // the burst is accepted at once
+        assertTrue(rule.tryAcquire(now));
+        assertTrue(rule.tryAcquire(now));
+        assertTrue(rule.tryAcquire(now));
+        assertFalse(rule.tryAcquire(now));
+
+        // one token per 100 ms
+        assertFalse(rule.tryAcquire(now + 50000000L));
+        assertTrue(rule.tryAcquire(now + 100000000L));
+        assertFalse(rule.tryAcquire(now + 100000000L));
+
+        // after a long idle period only the burst is available
+        now += 10000000000L;
+        for (int i = 0; i < 3; i++) {
+            assertTrue(rule.tryAcquire(now));
+        }
+        assertFalse(rule.tryAcquire(now));
+
+        assertEquals(rule.getAcceptedCount(), 7);
+        assertEquals(rule.getThrottledCount(), 4);
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testRuleLookup() {
+        TCAPRateLimiter limiter = new TCAPRateLimiter();
+        assertFalse(limiter.isActive());
+        assertNull(limiter.findRule(createAddress("4479001"), 100));
+
+        limiter.addRule(new RateLimitRuleImpl(1, RateLimitKeyType.CallingGtPrefix, "44", 100, 100));
+        limiter.addRule(new RateLimitRuleImpl(2, RateLimitKeyType.CallingGtPrefix, "4479", 100, 100));
+        limiter.addRule(new RateLimitRuleImpl(3, RateLimitKeyType.Opc, "200", 100, 100));
+        limiter.addRule(new RateLimitRuleImpl(4, RateLimitKeyType.Opc, "100", 100, 100));
+        assertTrue(limiter.isActive());
+
+        assertEquals(limiter.findRule(createAddress("4479001"), 100).getId(), 2);
+        assertEquals(limiter.findRule(createAddress("4478001"), 100).getId(), 1);
+        // no GT prefix matches - OPC rule is used
+        assertEquals(limiter.findRule(createAddress("3379001"), 100).getId(), 4);
+        assertEquals(limiter.findRule(createAddress("3379001"), 200).getId(), 3);
+        assertNull(limiter.findRule(createAddress("3379001"), 300));
+        SccpAddress pcAddress = this.parameterFactory.createSccpAddress(RoutingIndicator.ROUTING_BASED_ON_DPC_AND_SSN, null,
+                200, 8);
+        assertEquals(limiter.findRule(pcAddress, 200).getId(), 3);
+
+        try {
+            limiter.addRule(new RateLimitRuleImpl(5, RateLimitKeyType.CallingGtPrefix, "4479", 100, 100));
+            fail("Duplicate key must be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            limiter.addRule(new RateLimitRuleImpl(5, RateLimitKeyType.Opc, "x1", 100, 100));
+            fail("Bad OPC must be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            limiter.addRule(new RateLimitRuleImpl(5, RateLimitKeyType.Opc, "-1", 100, 100));
+            fail("Negative OPC must be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            limiter.addRule(new RateLimitRuleImpl(5, RateLimitKeyType.Opc, "5", 0, 100));
+            fail("Zero MaxRate must be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+        try {
+            limiter.addRule(new RateLimitRuleImpl(5, RateLimitKeyType.Opc, "5", RateLimitRuleImpl.MAX_RATE_LIMIT + 1, 100));
+            fail("MaxRate above one per nanosecond must be rejected");
+        } catch (IllegalArgumentException e) {
+        }
+
+        limiter.removeRule(2);
+        assertEquals(limiter.findRule(createAddress("4479001"), 100).getId(), 1);
+        limiter.removeRule(1);
+        limiter.removeRule(3);
+        limiter.removeRule(4);
+        assertFalse(limiter.isActive());
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testPersistence() throws Exception {
+        TCAPStackImpl stack = new TCAPStackImpl("TCAPRateLimiterTest");
+        stack.getRateLimiter().addRule(new RateLimitRuleImpl(1, RateLimitKeyType.CallingGtPrefix, "4479", 200, 400));
+        stack.getRateLimiter().addRule(new RateLimitRuleImpl(2, RateLimitKeyType.Opc, "1234", 50, 10));
+        stack.store();
+
+        TCAPStackImpl stack2 = new TCAPStackImpl("TCAPRateLimiterTest");
+        stack2.load();
+        RateLimitRule[] rules = stack2.getRateLimitRules();
+        assertEquals(rules.length, 2);
+        RateLimitRule rule = stack2.getRateLimitRule(1);
+        assertEquals(rule.getKeyType(), RateLimitKeyType.CallingGtPrefix);
+        assertEquals(rule.getKey(), "4479");
+        assertEquals(rule.getMaxRate(), 200);
+        assertEquals(rule.getBurstSize(), 400);
+        rule = stack2.getRateLimitRule(2);
+        assertEquals(rule.getKeyType(), RateLimitKeyType.Opc);
+        assertEquals(rule.getKey(), "1234");
+        assertTrue(stack2.getRateLimitSendAbort());
+
+        new File(stack.persistFile.toString()).delete();
+    }
+
+    @Test(groups = { "functional.unit" })
+    public void testPersistedInvalidRule() throws Exception {
+        TCAPStackImpl stack = new TCAPStackImpl("TCAPRateLimiterTest");
+        stack.getRateLimiter().addRule(new RateLimitRuleImpl(1, RateLimitKeyType.CallingGtPrefix, "4479", 200, 400));
+        stack.getRateLimiter().addRule(new RateLimitRuleImpl(2, RateLimitKeyType.Opc, "1234", 50, 10));
+        stack.store();
+
+        // a hand edited file with a zero rate
+        File file = new File(stack.persistFile.toString());
+        byte[] buf = new byte[(int) file.length()];
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            int n = 0;
+            while (n < buf.length)
+                n += fis.read(buf, n, buf.length - n);
+        } finally {
+            fis.close();
+        }
+        String content = new String(buf, "UTF-8");
+        assertTrue(content.contains("maxRate=\"50\""));
+        FileOutputStream fos = new FileOutputStream(file);
+        try {
+            fos.write(content.replace("maxRate=\"50\"", "maxRate=\"0\"").getBytes("UTF-8"));
+        } finally {
+            fos.close();
+        }
+
+        // the invalid rule is ignored, the rest of the configuration is loaded
+        TCAPStackImpl stack2 = new TCAPStackImpl("TCAPRateLimiterTest");
+        stack2.load();
+        RateLimitRule[] rules = stack2.getRateLimitRules();
+        assertEquals(rules.length, 1);
+        assertEquals(rules[0].getId(), 1);
+
+        file.delete();
+    }
+}
@@ -22,10 +22,7 @@
 
 package org.mobicents.protocols.ss7.tcap;
 
-import java.util.Map;
-
 import org.mobicents.protocols.ss7.sccp.SccpProvider;
-import org.mobicents.protocols.ss7.tcap.TCAPProviderImpl.PrevewDialogDataKey;
 
 /**
  *
@@ -40,7 +37,7 @@ public class TCAPStackImplWrapper extends TCAPStackImpl {
         this.tcapProvider = new TCAPProviderImplWrapper(sccpProvider, this, ssn);
     }
 
-    public Map<PrevewDialogDataKey, PrevewDialogData> getDialogPreviewList() {
+    public StripedLongMap<PrevewDialogData> getDialogPreviewList() {
         TCAPProviderImplWrapper prov = (TCAPProviderImplWrapper) this.getProvider();
         return prov.getDialogPreviewList();
     }
@@ -31,6 +31,7 @@ import javolution.util.FastMap;
 import org.mobicents.protocols.ss7.indicator.RoutingIndicator;
 import org.mobicents.protocols.ss7.sccp.impl.SccpHarness;
 import org.mobicents.protocols.ss7.sccp.parameter.SccpAddress;
+import org.mobicents.protocols.ss7.statistics.api.HistogramValue;
 import org.mobicents.protocols.ss7.statistics.api.LongValue;
 import org.mobicents.protocols.ss7.tcap.api.ComponentPrimitiveFactory;
 import org.mobicents.protocols.ss7.tcap.api.TCAPCounterProvider;
@@ -152,6 +153,8 @@ public class TCAPStatTest extends SccpHarness {
 
         check1.check(this.tcapStack1.getCounterProvider());
         check2.check(this.tcapStack2.getCounterProvider());
+        assertNull(this.tcapStack1.getCounterProvider().getInvokeResponseTimePerOperationCode("hist"));
+        assertNull(this.tcapStack1.getCounterProvider().getDialogsDurationPerApplicatioContextName("hist"));
 
         client.startClientDialog();
 
@@ -209,6 +212,13 @@ public class TCAPStatTest extends SccpHarness {
         check1.check(this.tcapStack1.getCounterProvider());
         check2.check(this.tcapStack2.getCounterProvider());
 
+        Map<String, HistogramValue> responseTime = this.tcapStack1.getCounterProvider().getInvokeResponseTimePerOperationCode("hist");
+        assertEquals(responseTime.size(), 1);
+        assertEquals(responseTime.values().iterator().next().getCount(), 1);
+        Map<String, HistogramValue> duration = this.tcapStack1.getCounterProvider().getDialogsDurationPerApplicatioContextName("hist");
+        assertEquals(duration.size(), 1);
+        assertEquals(duration.values().iterator().next().getCount(), 1);
+        assertTrue(duration.values().iterator().next().getMax() >= WAIT_TIME * 3);
     }
 
     @Test(groups = { "functional.flow" })
@@ -0,0 +1,105 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap;
+
+import static org.testng.Assert.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class TimerWheelTest {
+
+    private ExecutorService executor;
+    private TimerWheel wheel;
+
+    @BeforeMethod
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(2);
+        // a small wheel so that timers wrap around it several times
+        this.wheel = new TimerWheel("TimerWheelTest", 5, 16, this.executor);
+        this.wheel.start();
+    }
+
+    @AfterMethod
+    public void tearDown() {
+        this.wheel.stop();
+        this.executor.shutdown();
+    }
+
+    @Test(groups = { "functional.timeout" })
+    public void testExpiry() throws Exception {
+        final AtomicInteger fired = new AtomicInteger();
+        Runnable task = new Runnable() {
+            public void run() {
+                fired.incrementAndGet();
+            }
+        };
+
+        long start = System.currentTimeMillis();
+        Future<?> f1 = this.wheel.schedule(task, 50);
+        Future<?> f2 = this.wheel.schedule(task, 300);
+
+        f1.get(1, TimeUnit.SECONDS);
+        assertTrue(System.currentTimeMillis() - start >= 50);
+        assertEquals(fired.get(), 1);
+        assertFalse(f2.isDone());
+
+        f2.get(1, TimeUnit.SECONDS);
+        assertTrue(System.currentTimeMillis() - start >= 300);
+        assertEquals(fired.get(), 2);
+        assertTrue(f2.isDone());
+        assertFalse(f2.isCancelled());
+        assertFalse(f2.cancel(false));
+    }
+
+    @Test(groups = { "functional.timeout" })
+    public void testCancel() throws Exception {
+        final AtomicInteger fired = new AtomicInteger();
+        Runnable task = new Runnable() {
+            public void run() {
+                fired.incrementAndGet();
+            }
+        };
+
+        Future<?>[] ff = new Future<?>[1000];
+        for (int i = 0; i < ff.length; i++) {
+            ff[i] = this.wheel.schedule(task, 20 + i % 100);
+        }
+        for (int i = 0; i < ff.length; i += 2) {
+            assertTrue(ff[i].cancel(false));
+            assertTrue(ff[i].isCancelled());
+            assertTrue(ff[i].isDone());
+        }
+
+        Thread.sleep(500);
+        assertEquals(fired.get(), ff.length / 2);
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * TeleStax, Open Source Cloud Communications
+ * Copyright 2012, Telestax Inc and individual contributors
+ * by the @authors tag. See the copyright.txt in the distribution for a
+ * full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+
+package org.mobicents.protocols.ss7.tcap.asn;
+
+import static org.testng.Assert.*;
+
+import java.util.Arrays;
+
+import org.mobicents.protocols.asn.AsnInputStream;
+import org.mobicents.protocols.asn.AsnOutputStream;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Component;
+import org.mobicents.protocols.ss7.tcap.asn.comp.Invoke;
+import org.mobicents.protocols.ss7.tcap.asn.comp.OperationCode;
+import org.mobicents.protocols.ss7.tcap.asn.comp.ReturnResultLast;
+import org.testng.annotations.Test;
+
+@Test(groups = { "asn" })
+public class TcapMessagePoolTest {
+
+    private byte[] getContinueData() {
+        return new byte[] {
+                // TCContinue
+                0x65, 27,
+                // otid
+                0x48, 0x04, 0x08, (byte) 0xA5, 0, 0x01,
+                // dtid
+                0x49, 4, 8, (byte) 0xA4, 0, 1,
+                // comp portion
+                0x6C, 13,
+                // invoke: invokeId=1, opCode=55
+                (byte) 0xA1, 6, 0x02, 0x01, 0x01, 0x02, 0x01, 0x37,
+                // return result last: invokeId=2
+                (byte) 0xA2, 3, 0x02, 0x01, 0x02 };
+    }
+
+    private TCContinueMessageImpl decode(TcapMessagePool pool) throws Exception {
+        AsnInputStream ais = new AsnInputStream(this.getContinueData());
+        ais.readTag();
+        return pool.createTCContinueMessage(ais);
+    }
+
+    @Test(groups = { "functional.decode" })
+    public void testReceivedMessage() throws Exception {
+        TcapMessagePool pool = new TcapMessagePool();
+
+        TCContinueMessageImpl tcm = this.decode(pool);
+        assertTrue(Arrays.equals(tcm.getOriginatingTransactionId(), new byte[] { 0x08, (byte) 0xA5, 0, 0x01 }));
+        Component[] comps = tcm.getComponent();
+        assertEquals(comps.length, 2);
+        Invoke inv = (Invoke) comps[0];
+        assertEquals((long) inv.getInvokeId(), 1);
+        OperationCode oc = inv.getOperationCode();
+        assertEquals((long) oc.getLocalOperationCode(), 0x37);
+        ReturnResultLast rrl = (ReturnResultLast) comps[1];
+        assertEquals((long) rrl.getInvokeId(), 2);
+        assertEquals(pool.getAllocatedCount(), 3);
+        assertEquals(pool.getReusedCount(), 0);
+
+        // the message is released after it has been passed to a dialog, components after listener callbacks
+        pool.releaseReceivedMessage(tcm);
+        assertNull(tcm.getComponent());
+        assertEquals(pool.getReleasedCount(), 1);
+        assertEquals((long) inv.getInvokeId(), 1);
+
+        pool.releaseReceivedComponents(comps);
+        assertNull(inv.getInvokeId());
+        assertNull(inv.getOperationCode());
+        assertNull(rrl.getInvokeId());
+        assertEquals(pool.getReleasedCount(), 3);
+        // released objects do not modify objects they referred to
+        assertEquals((long) oc.getLocalOperationCode(), 0x37);
+
+        // a second release is ignored
+        pool.releaseReceivedMessage(tcm);
+        pool.releaseReceivedComponents(comps);
+        assertEquals(pool.getReleasedCount(), 3);
+
+        // all objects are reused
+        TCContinueMessageImpl tcm2 = this.decode(pool);
+        assertSame(tcm2, tcm);
+        assertSame(tcm2.getComponent()[0], inv);
+        assertSame(tcm2.getComponent()[1], rrl);
+        assertEquals((long) inv.getInvokeId(), 1);
+        assertEquals((long) rrl.getInvokeId(), 2);
+        assertEquals(pool.getAllocatedCount(), 3);
+        assertEquals(pool.getReusedCount(), 3);
+    }
+
+    @Test(groups = { "functional.encode" })
+    public void testSentMessage() throws Exception {
+        TcapMessagePool pool = new TcapMessagePool();
+
+        TCEndMessageImpl tcm = pool.createTCEndMessage();
+        tcm.setDestinationTransactionId(new byte[] { 8, (byte) 0xA4, 0, 1 });
+        Component[] comps = pool.createComponentArray(2);
+        ReturnResultLastImpl rrl = pool.createComponentReturnResultLast();
+        rrl.setInvokeId(2L);
+        Invoke inv = TcapFactory.createComponentInvoke();
+        inv.setInvokeId(1L);
+        OperationCode oc = TcapFactory.createOperationCode();
+        oc.setLocalOperationCode(0x37L);
+        inv.setOperationCode(oc);
+        comps[0] = inv;
+        comps[1] = rrl;
+        tcm.setComponent(comps);
+
+        AsnOutputStream aos = new AsnOutputStream();
+        tcm.encode(aos);
+        assertEquals(aos.toByteArray().length, 23);
+
+        pool.releaseSentMessage(tcm);
+        assertNull(tcm.getDestinationTransactionId());
+        assertNull(comps[0]);
+        assertNull(comps[1]);
+        assertNull(rrl.getInvokeId());
+        // sent Invokes are kept by the dialog
+        assertEquals((long) inv.getInvokeId(), 1);
+        assertEquals(pool.getReleasedCount(), 3);
+
+        assertSame(pool.createComponentArray(2), comps);
+        assertSame(pool.createComponentReturnResultLast(), rrl);
+        assertSame(pool.createTCEndMessage(), tcm);
+
+        // objects that do not come from the pool are ignored
+        TCEndMessageImpl tcm2 = (TCEndMessageImpl) TcapFactory.createTCEndMessage();
+        ReturnResultLast rrl2 = TcapFactory.createComponentReturnResultLast();
+        rrl2.setInvokeId(3L);
+        tcm2.setComponent(new Component[] { rrl2 });
+        pool.releaseSentMessage(tcm2);
+        pool.releaseReceivedComponents(new Component[] { rrl2 });
+        assertEquals((long) rrl2.getInvokeId(), 3);
+        assertEquals(pool.getReleasedCount(), 3);
+    }
+
+}